@@ -37,7 +37,14 @@ type LoadCommand struct {
     partialListing bool
     metadataOnly   bool
     skipIfExists   bool
+    incremental    bool
+    byteRanges     string
+    footer         bool
+    columns        string
     fileFilterRegx string
+    priority       string
+    weight         string
+    requestRate    string
 }
 
 func (c *LoadCommand) Base() *env.BaseJavaCommand {
@@ -78,12 +85,19 @@ $ ./bin/alluxio job load --path /path --stop`,
     cmd.MarkFlagRequired(path)
     c.AttachOperationFlags(cmd)
 
-    cmd.Flags().StringVar(&c.bandwidth, "bandwidth", "", "[submit] Single worker read bandwidth limit")
-    cmd.Flags().BoolVar(&c.verify, "verify", false, "[submit] Run verification when load finishes and load new files if any")
+    cmd.Flags().StringVar(&c.bandwidth, "bandwidth", "", "[submit] Read bandwidth limit of the job across all the workers")
+    cmd.Flags().BoolVar(&c.verify, "verify", false, "[submit] Load again the pages not proven cached once loaded")
     cmd.Flags().BoolVar(&c.partialListing, "partial-listing", false, "[submit] Use partial directory listing, initializing load before reading the entire directory but cannot report on certain progress details")
     cmd.Flags().BoolVar(&c.metadataOnly, "metadata-only", false, "[submit] Only load file metadata")
     cmd.Flags().BoolVar(&c.skipIfExists, "skip-if-exists", false, "[submit] Skip existing fullly cached files")
+    cmd.Flags().BoolVar(&c.incremental, "incremental", false, "[submit] Only load files new or changed since the last incremental load of the path")
+    cmd.Flags().StringVar(&c.byteRanges, "byte-ranges", "", "[submit] Only load these comma separated OFFSET:LENGTH byte ranges of every file, a negative offset counts from the end of the file")
+    cmd.Flags().BoolVar(&c.footer, "footer", false, "[submit] Only load the footer of Parquet and ORC files, along with the other parts selected")
+    cmd.Flags().StringVar(&c.columns, "columns", "", "[submit] Only load the chunks of these comma separated columns of Parquet files, along with the other parts selected")
     cmd.Flags().StringVar(&c.fileFilterRegx, "file-filter-regx", "", "[submit] Skip files that match the regx pattern")
+    cmd.Flags().StringVar(&c.priority, "priority", "", "[submit] Priority class of the job, one of HIGH, NORMAL and LOW")
+    cmd.Flags().StringVar(&c.weight, "weight", "", "[submit] Share of the workers relative to the other jobs of the same priority class")
+    cmd.Flags().StringVar(&c.requestRate, "request-rate", "", "[submit] Limit on the UFS read requests per second of the job across all the workers")
     return cmd
 }
 
@@ -106,8 +120,29 @@ func (c *LoadCommand) Run(_ []string) error {
     if c.skipIfExists {
         javaArgs = append(javaArgs, "--skip-if-exists")
     }
+    if c.incremental {
+        javaArgs = append(javaArgs, "--incremental")
+    }
+    if c.byteRanges != "" {
+        javaArgs = append(javaArgs, "--byte-ranges", c.byteRanges)
+    }
+    if c.footer {
+        javaArgs = append(javaArgs, "--footer")
+    }
+    if c.columns != "" {
+        javaArgs = append(javaArgs, "--columns", c.columns)
+    }
     if c.fileFilterRegx != "" {
         javaArgs = append(javaArgs, "--file-filter-regx", c.fileFilterRegx)
     }
+    if c.priority != "" {
+        javaArgs = append(javaArgs, "--priority", c.priority)
+    }
+    if c.weight != "" {
+        javaArgs = append(javaArgs, "--weight", c.weight)
+    }
+    if c.requestRate != "" {
+        javaArgs = append(javaArgs, "--request-rate", c.requestRate)
+    }
     return c.Base().Run(javaArgs)
 }
@@ -385,6 +385,11 @@ public class ManagedBlockingUfsForwarder implements UnderFileSystem {
     return mUfs.isSeekable();
   }
 
+  @Override
+  public boolean isThrottled(Throwable t) {
+    return mUfs.isThrottled(t);
+  }
+
   @Override
   public UfsStatus[] listStatus(String path) throws IOException {
     return new ManagedBlockingUfsMethod<UfsStatus[]>() {
@@ -509,6 +514,16 @@ public class ManagedBlockingUfsForwarder implements UnderFileSystem {
     }.get();
   }
 
+  @Override
+  public boolean copyFile(String src, String dst) throws IOException {
+    return new ManagedBlockingUfsMethod<Boolean>() {
+      @Override
+      public Boolean execute() throws IOException {
+        return mUfs.copyFile(src, dst);
+      }
+    }.get();
+  }
+
   @Override
   public boolean renameRenamableFile(String src, String dst) throws IOException {
     return new ManagedBlockingUfsMethod<Boolean>() {
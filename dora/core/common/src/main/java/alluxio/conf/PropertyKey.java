@@ -1102,6 +1102,57 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.ENFORCE)
           .setScope(Scope.MASTER)
           .build();
+  public static final PropertyKey UNDERFS_CONCURRENCY_LIMITER_ENABLED =
+      booleanBuilder(Name.UNDERFS_CONCURRENCY_LIMITER_ENABLED)
+          .setDefaultValue(false)
+          .setDescription("Whether to adaptively limit the number of concurrent calls to each "
+              + "UFS. When enabled, the limit of each UFS backs off when the UFS throttles "
+              + "requests (e.g. S3 503 SlowDown) and grows again while calls succeed. Metadata "
+              + "and data operations are limited separately, and background operations such as "
+              + "load jobs yield to client requests.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.SERVER)
+          .build();
+  public static final PropertyKey UNDERFS_CONCURRENCY_LIMITER_BACKGROUND_RATIO =
+      doubleBuilder(Name.UNDERFS_CONCURRENCY_LIMITER_BACKGROUND_RATIO)
+          .setDefaultValue(0.75)
+          .setDescription("The fraction of the current concurrency limit of a UFS that "
+              + "background operations such as load jobs may use. The rest is reserved for "
+              + "client requests.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.SERVER)
+          .build();
+  public static final PropertyKey UNDERFS_CONCURRENCY_LIMITER_BACKOFF_RATIO =
+      doubleBuilder(Name.UNDERFS_CONCURRENCY_LIMITER_BACKOFF_RATIO)
+          .setDefaultValue(0.7)
+          .setDescription("The ratio the concurrency limit of a UFS is multiplied with "
+              + "when the UFS throttles a request. Must be in (0, 1).")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.SERVER)
+          .build();
+  public static final PropertyKey UNDERFS_CONCURRENCY_LIMITER_DATA_MAX =
+      intBuilder(Name.UNDERFS_CONCURRENCY_LIMITER_DATA_MAX)
+          .setDefaultValue(128)
+          .setDescription("The maximum number of streams open for reading or writing, and "
+              + "of positioned reads in flight, on a single UFS.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.SERVER)
+          .build();
+  public static final PropertyKey UNDERFS_CONCURRENCY_LIMITER_METADATA_MAX =
+      intBuilder(Name.UNDERFS_CONCURRENCY_LIMITER_METADATA_MAX)
+          .setDefaultValue(256)
+          .setDescription("The maximum number of concurrent metadata operations (status, "
+              + "listing, delete, rename, etc.) issued to a single UFS.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.SERVER)
+          .build();
+  public static final PropertyKey UNDERFS_CONCURRENCY_LIMITER_MIN =
+      intBuilder(Name.UNDERFS_CONCURRENCY_LIMITER_MIN)
+          .setDefaultValue(4)
+          .setDescription("The concurrency limit of a UFS never backs off below this value.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.SERVER)
+          .build();
   public static final PropertyKey UNDERFS_LISTING_LENGTH =
       intBuilder(Name.UNDERFS_LISTING_LENGTH)
           .setDefaultValue(1000)
@@ -2316,6 +2367,17 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.ENFORCE)
           .setScope(Scope.MASTER)
           .build();
+  public static final PropertyKey MASTER_SCHEDULER_WORKER_TASK_WINDOW_MAX =
+      intBuilder(Name.MASTER_SCHEDULER_WORKER_TASK_WINDOW_MAX)
+          .setDefaultValue(8)
+          .setDescription("The maximum number of tasks the scheduler runs concurrently on a "
+              + "worker. The scheduler sizes the window of each worker between 1 and this value "
+              + "from the latency and failures of the tasks it runs, so fast workers get more "
+              + "tasks in flight than slow ones. Set it to 1 to run one task at a time on every "
+              + "worker.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.MASTER)
+          .build();
   public static final PropertyKey MASTER_SCHEDULER_INITIAL_DELAY =
       durationBuilder(Name.MASTER_SCHEDULER_INITIAL_WAIT_TIME)
           .setDefaultValue("10min")
@@ -2324,6 +2386,16 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.MASTER)
           .build();
+  public static final PropertyKey MASTER_SCHEDULER_JOB_CHECKPOINT_INTERVAL =
+      durationBuilder(Name.MASTER_SCHEDULER_JOB_CHECKPOINT_INTERVAL)
+          .setDefaultValue("1min")
+          .setDescription("The interval at which the progress of running jobs is journaled. "
+              + "A job restored from the journal after a master restart or failover resumes "
+              + "listing its source from the last journaled progress instead of starting over. "
+              + "Only jobs listing an object store record their listing progress.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.MASTER)
+          .build();
   public static final PropertyKey MASTER_SCHEDULER_RESTORE_JOB_FROM_JOURNAL =
       booleanBuilder(Name.MASTER_SCHEDULER_RESTORE_JOB_FROM_JOURNAL)
           .setDefaultValue(true)
@@ -2358,6 +2430,17 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.SERVER)
           .build();
+  public static final PropertyKey MASTER_DORA_LOAD_JOB_LISTING_PARALLELISM =
+      intBuilder(Name.MASTER_DORA_LOAD_JOB_LISTING_PARALLELISM)
+          .setDefaultValue(1)
+          .setDescription("The number of threads a load job uses to list the under storage. "
+              + "When greater than 1, the top levels of the load path are listed one level at "
+              + "a time and every directory below them is listed recursively as a separate "
+              + "shard, with up to this many shards listed concurrently. Files are then loaded "
+              + "in no particular order.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.MASTER)
+          .build();
   public static final PropertyKey MASTER_DORA_LOAD_JOB_FAILED_FILE_LIST_DIR =
       stringBuilder(Name.MASTER_DORA_LOAD_JOB_FAILED_FILE_LIST_DIR)
           .setDefaultValue(format("${%s}/job_results/load", Name.WORK_DIR))
@@ -2365,6 +2448,16 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
           .setScope(Scope.SERVER)
           .build();
+  public static final PropertyKey MASTER_DORA_LOAD_JOB_MANIFEST_DIR =
+      stringBuilder(Name.MASTER_DORA_LOAD_JOB_MANIFEST_DIR)
+          .setDefaultValue(format("${%s}/job_manifests/load", Name.WORK_DIR))
+          .setDescription("The directory to store the manifests of incremental distributed "
+              + "load jobs. The manifest of a path records the files loaded by the last "
+              + "successful incremental load of the path, so the next one only loads the "
+              + "files which are new or changed since.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.MASTER)
+          .build();
   public static final PropertyKey MASTER_SHELL_BACKUP_STATE_LOCK_GRACE_MODE =
       enumBuilder(Name.MASTER_SHELL_BACKUP_STATE_LOCK_GRACE_MODE, GraceMode.class)
           .setDefaultValue(GraceMode.FORCED)
@@ -4042,6 +4135,17 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.WORKER)
           .build();
+  public static final PropertyKey WORKER_SERVER_SIDE_COPY_ENABLED =
+      booleanBuilder(Name.WORKER_SERVER_SIDE_COPY_ENABLED)
+          .setDescription("If enabled, copy and move jobs between object stores of the same "
+              + "kind have the object store copy the files itself, instead of reading them "
+              + "through the worker and writing them back. Falls back to reading through the "
+              + "worker if the object store fails to copy a file, e.g. for lack of permission "
+              + "on the destination bucket.")
+          .setDefaultValue(true)
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
   public static final PropertyKey WORKER_DATA_SERVER_DOMAIN_SOCKET_AS_UUID =
       booleanBuilder(Name.WORKER_DATA_SERVER_DOMAIN_SOCKET_AS_UUID)
           .setDefaultValue(false)
@@ -4565,6 +4669,57 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.WORKER)
           .build();
+  public static final PropertyKey WORKER_PREFETCH_BUDGET =
+      dataSizeBuilder(Name.WORKER_PREFETCH_BUDGET)
+          .setDefaultValue("2GB")
+          .setDescription("The total size of the prefetched data not read yet. No more files "
+              + "are prefetched while the files prefetched before and not read add up to this.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_PREFETCH_DEPTH =
+      intBuilder(Name.WORKER_PREFETCH_DEPTH)
+          .setDefaultValue(2)
+          .setDescription("The number of files predicted to be read next to prefetch, every "
+              + "time a client starts reading another file of a directory.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_PREFETCH_ENABLED =
+      booleanBuilder(Name.WORKER_PREFETCH_ENABLED)
+          .setDefaultValue(false)
+          .setDescription("If enabled, the worker prefetches into its cache the files it "
+              + "predicts to be read next from the order the files of each directory were "
+              + "read in, e.g. the shards of a training data set read epoch after epoch.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_PREFETCH_EXPIRATION =
+      durationBuilder(Name.WORKER_PREFETCH_EXPIRATION)
+          .setDefaultValue("10min")
+          .setDescription("A prefetched file not read within this time counts as wasted, "
+              + "and no longer counts against " + Name.WORKER_PREFETCH_BUDGET + ".")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_PREFETCH_FILE_MAX_BYTES =
+      dataSizeBuilder(Name.WORKER_PREFETCH_FILE_MAX_BYTES)
+          .setDefaultValue("64MB")
+          .setDescription("The number of bytes prefetched from the beginning of each file "
+              + "predicted to be read next. The client preloads the rest of the file as it "
+              + "reads through it.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_PREFETCH_THREADS =
+      intBuilder(Name.WORKER_PREFETCH_THREADS)
+          .setDefaultValue(4)
+          .setDescription("The number of threads loading the pages of the files prefetched. "
+              + "Prefetches beyond what the threads can load are skipped rather than queued "
+              + "up, so they never hold back the preloads of clients.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.WORKER)
+          .build();
   public static final PropertyKey WORKER_PRELOAD_DATA_THREAD_POOL_SIZE =
       intBuilder(Name.WORKER_PRELOAD_DATA_THREAD_POOL_SIZE)
           .setScope(Scope.WORKER)
@@ -4704,6 +4859,16 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.ENFORCE)
           .setScope(Scope.SERVER)
           .build();
+  public static final PropertyKey WORKER_S3_HANDLER_THREADS =
+      intBuilder(Name.WORKER_S3_HANDLER_THREADS)
+          .setDefaultSupplier(() -> Math.max(8, 4 * Runtime.getRuntime().availableProcessors()),
+              "4 * {CPU core count}")
+          .setDescription("Number of threads the netty based s3 uses to serve requests when "
+              + "the async mode is disabled. Serving a request may block on reading pages from "
+              + "the UFS, so requests are not served on the network threads. The requests of "
+              + "one connection are served in order by the same thread.")
+          .setScope(Scope.WORKER)
+          .build();
   public static final PropertyKey WORKER_UFS_BLOCK_OPEN_TIMEOUT_MS =
       durationBuilder(Name.WORKER_UFS_BLOCK_OPEN_TIMEOUT_MS)
           .setAlias("alluxio.worker.ufs.block.open.timeout.ms")
@@ -5115,6 +5280,14 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setDefaultValue(0)
           .setScope(Scope.SERVER)
           .build();
+  public static final PropertyKey PROXY_S3_SINGLE_CONNECTION_WRITE_RATE_LIMIT_MB =
+      intBuilder(Name.PROXY_S3_SINGLE_CONNECTION_WRITE_RATE_LIMIT_MB)
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.ENFORCE)
+          .setDescription("Limit the maximum speed at which each connection uploads object "
+              + "data. Set value less than or equal to 0 to disable rate limits.")
+          .setDefaultValue(0)
+          .setScope(Scope.SERVER)
+          .build();
   public static final PropertyKey PROXY_S3_TRANSFER_BUFFER_SIZE =
       dataSizeBuilder(Name.PROXY_S3_TRANSFER_BUFFER_SIZE)
           .setConsistencyCheckLevel(ConsistencyCheckLevel.ENFORCE)
@@ -6428,6 +6601,26 @@ public final class PropertyKey implements Comparable<PropertyKey> {
               + "Libfuse2 (value=\"2\") and Libfuse3 (value=\"3\", default value) are supported.")
           .setScope(Scope.ALL)
           .build();
+  public static final PropertyKey FUSE_KERNEL_CACHE_ENABLED =
+      booleanBuilder(Name.FUSE_KERNEL_CACHE_ENABLED)
+          .setDefaultValue(false)
+          .setDescription("Whether to let the kernel keep the page cache of files and the "
+              + "entries of directories across opens, as long as their fingerprint (the UFS "
+              + "fingerprint, or the length and modification time) does not change. When a "
+              + "change is observed, the kernel caches of the path are invalidated. "
+              + "Invalidation requires libfuse3.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.CLIENT)
+          .build();
+  public static final PropertyKey FUSE_KERNEL_CACHE_MAX_PATHS =
+      intBuilder(Name.FUSE_KERNEL_CACHE_MAX_PATHS)
+          .setDefaultValue(100_000)
+          .setDescription("The maximum number of paths whose fingerprint is recorded when "
+              + Name.FUSE_KERNEL_CACHE_ENABLED + " is on. A path whose fingerprint is evicted "
+              + "is opened without keeping the kernel caches until its status is seen again.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.CLIENT)
+          .build();
   public static final PropertyKey FUSE_LOGGING_THRESHOLD =
       durationBuilder(Name.FUSE_LOGGING_THRESHOLD)
           .setDefaultValue("10s")
@@ -6480,6 +6673,34 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.ALL)
           .build();
+  public static final PropertyKey FUSE_SMALL_FILE_THRESHOLD =
+      dataSizeBuilder(Name.FUSE_SMALL_FILE_THRESHOLD)
+          .setDefaultValue("0B")
+          .setDescription("When position read is enabled, files no larger than this size are "
+              + "fetched as a whole on open and read from a pooled memory buffer, instead of "
+              + "reading them in many small FUSE reads. Suited for datasets of many small "
+              + "files such as images. A value of 0 disables the small file mode.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.CLIENT)
+          .build();
+  public static final PropertyKey FUSE_SMALL_FILE_PREFETCH_COUNT =
+      intBuilder(Name.FUSE_SMALL_FILE_PREFETCH_COUNT)
+          .setDefaultValue(16)
+          .setDescription("In the small file mode, the number of files following an opened "
+              + "file in the order of the last readdir of its directory to fetch in the "
+              + "background. A value of 0 disables the prefetch.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.CLIENT)
+          .build();
+  public static final PropertyKey FUSE_SMALL_FILE_PREFETCH_CACHE_SIZE =
+      dataSizeBuilder(Name.FUSE_SMALL_FILE_PREFETCH_CACHE_SIZE)
+          .setDefaultValue("64MB")
+          .setDescription("In the small file mode, the maximum direct memory held by the "
+              + "prefetched files which are not opened yet. Each prefetched file takes a "
+              + "buffer of the size of " + Name.FUSE_SMALL_FILE_THRESHOLD + ".")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.CLIENT)
+          .build();
   public static final PropertyKey FUSE_STAT_CACHE_REFRESH_INTERVAL =
       durationBuilder(Name.FUSE_STAT_CACHE_REFRESH_INTERVAL)
           .setDefaultValue("5min")
@@ -7084,6 +7305,23 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setDescription("The port Alluxio's worker's HTTP server runs on.")
           .setScope(Scope.WORKER)
           .build();
+  public static final PropertyKey WORKER_HTTP_SERVER_HTTP2_MAX_CONCURRENT_STREAMS =
+      intBuilder(Name.WORKER_HTTP_SERVER_HTTP2_MAX_CONCURRENT_STREAMS)
+          .setDefaultValue(256)
+          .setDescription("The maximum number of concurrent streams of an HTTP/2 connection "
+              + "to the worker HTTP server.")
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_HTTP_SERVER_HANDLER_THREADS =
+      intBuilder(Name.WORKER_HTTP_SERVER_HANDLER_THREADS)
+          .setDefaultSupplier(() -> Math.max(8, 4 * Runtime.getRuntime().availableProcessors()),
+              "4 * {CPU core count}")
+          .setDescription("Number of threads the worker HTTP server uses to serve requests. "
+              + "Serving a request may block on reading pages from the UFS, so requests are "
+              + "not served on the network threads. The requests of one connection are "
+              + "served in order by the same thread.")
+          .setScope(Scope.WORKER)
+          .build();
 
   public static final PropertyKey USER_NETWORK_NETTY_CHANNEL_POOL_SIZE_MAX =
       intBuilder(Name.USER_NETWORK_NETTY_CHANNEL_POOL_SIZE_MAX)
@@ -7233,6 +7471,17 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.ENFORCE)
           .setScope(Scope.WORKER)
           .build();
+  public static final PropertyKey DORA_WORKER_METASTORE_CACHE_SIZE =
+      intBuilder(Name.DORA_WORKER_METASTORE_CACHE_SIZE)
+          .setDefaultValue(10000)
+          .setDescription("The maximum number of file metadata entries kept deserialized "
+              + "on heap in front of the RocksDB metastore. Hits skip the RocksDB read and the "
+              + "protobuf parsing, at the cost of the heap taken by the entries, typically "
+              + "under 1KB each. The cache is kept consistent by dropping an entry on every "
+              + "write of its path. 0 disables the cache.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
 
   public static final PropertyKey DORA_UFS_LIST_STATUS_CACHE_TTL =
       durationBuilder(Name.DORA_UFS_LIST_STATUS_CACHE_TTL)
@@ -7395,6 +7644,18 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.underfs.eventual.consistency.retry.max.num";
     public static final String UNDERFS_EVENTUAL_CONSISTENCY_RETRY_MAX_SLEEP_MS =
         "alluxio.underfs.eventual.consistency.retry.max.sleep";
+    public static final String UNDERFS_CONCURRENCY_LIMITER_ENABLED =
+        "alluxio.underfs.concurrency.limiter.enabled";
+    public static final String UNDERFS_CONCURRENCY_LIMITER_BACKGROUND_RATIO =
+        "alluxio.underfs.concurrency.limiter.background.ratio";
+    public static final String UNDERFS_CONCURRENCY_LIMITER_BACKOFF_RATIO =
+        "alluxio.underfs.concurrency.limiter.backoff.ratio";
+    public static final String UNDERFS_CONCURRENCY_LIMITER_DATA_MAX =
+        "alluxio.underfs.concurrency.limiter.data.max";
+    public static final String UNDERFS_CONCURRENCY_LIMITER_METADATA_MAX =
+        "alluxio.underfs.concurrency.limiter.metadata.max";
+    public static final String UNDERFS_CONCURRENCY_LIMITER_MIN =
+        "alluxio.underfs.concurrency.limiter.min";
     public static final String UNDERFS_LISTING_LENGTH = "alluxio.underfs.listing.length";
     public static final String UNDERFS_LOGGING_THRESHOLD = "alluxio.underfs.logging.threshold";
     public static final String UNDERFS_GCS_DEFAULT_MODE = "alluxio.underfs.gcs.default.mode";
@@ -7638,8 +7899,12 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.master.backup.suspend.timeout";
     public static final String MASTER_BLOCK_SCAN_INVALID_BATCH_MAX_SIZE =
         "alluxio.master.block.scan.invalid.batch.max.size";
+    public static final String MASTER_SCHEDULER_WORKER_TASK_WINDOW_MAX =
+        "alluxio.master.scheduler.worker.task.window.max";
     public static final String MASTER_SCHEDULER_INITIAL_WAIT_TIME =
         "alluxio.master.scheduler.initial.wait.time";
+    public static final String MASTER_SCHEDULER_JOB_CHECKPOINT_INTERVAL =
+        "alluxio.master.scheduler.job.checkpoint.interval";
     public static final String MASTER_SCHEDULER_RESTORE_JOB_FROM_JOURNAL =
         "alluxio.master.scheduler.restore.job.from.journal";
     public static final String MASTER_SHELL_BACKUP_STATE_LOCK_GRACE_MODE =
@@ -7656,8 +7921,12 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.master.dora.load.job.total.failure.ratio.threshold";
     public static final String MASTER_DORA_LOAD_JOB_RETRY_DLQ_CAPACITY =
         "alluxio.master.dora.load.job.retry.dlq.capacity";
+    public static final String MASTER_DORA_LOAD_JOB_LISTING_PARALLELISM =
+        "alluxio.master.dora.load.job.listing.parallelism";
     public static final String MASTER_DORA_LOAD_JOB_FAILED_FILE_LIST_DIR =
         "alluxio.master.dora.load.job.failed.file.list.dir";
+    public static final String MASTER_DORA_LOAD_JOB_MANIFEST_DIR =
+        "alluxio.master.dora.load.job.manifest.dir";
     public static final String MASTER_DAILY_BACKUP_ENABLED =
         "alluxio.master.daily.backup.enabled";
     public static final String MASTER_DAILY_BACKUP_FILES_RETAINED =
@@ -8029,6 +8298,8 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.worker.data.server.domain.socket.as.uuid";
     public static final String WORKER_FAST_DATA_LOAD_ENABLED =
         "alluxio.worker.fast.data.load.enabled";
+    public static final String WORKER_SERVER_SIDE_COPY_ENABLED =
+        "alluxio.worker.server.side.copy.enabled";
     public static final String WORKER_FUSE_MOUNT_ALLUXIO_PATH =
         "alluxio.worker.fuse.mount.alluxio.path";
     public static final String WORKER_FUSE_MOUNT_OPTIONS =
@@ -8160,6 +8431,14 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.worker.page.store.timeout.threads";
     public static final String WORKER_PAGE_STORE_TYPE =
         "alluxio.worker.page.store.type";
+    public static final String WORKER_PREFETCH_BUDGET = "alluxio.worker.prefetch.budget";
+    public static final String WORKER_PREFETCH_DEPTH = "alluxio.worker.prefetch.depth";
+    public static final String WORKER_PREFETCH_ENABLED = "alluxio.worker.prefetch.enabled";
+    public static final String WORKER_PREFETCH_EXPIRATION =
+        "alluxio.worker.prefetch.expiration";
+    public static final String WORKER_PREFETCH_FILE_MAX_BYTES =
+        "alluxio.worker.prefetch.file.max.bytes";
+    public static final String WORKER_PREFETCH_THREADS = "alluxio.worker.prefetch.threads";
     public static final String WORKER_PRELOAD_DATA_THREAD_POOL_SIZE =
         "alluxio.worker.preload.data.thread.pool.size";
     public static final String WORKER_RAMDISK_SIZE = "alluxio.worker.ramdisk.size";
@@ -8209,6 +8488,8 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.worker.s3.async.heavy.pool.maximum.thread.number";
     public static final String WORKER_S3_ASYNC_HEAVY_POOL_QUEUE_SIZE =
         "alluxio.worker.s3.async.heavy.pool.queue.size";
+    public static final String WORKER_S3_HANDLER_THREADS =
+        "alluxio.worker.s3.handler.threads";
     public static final String WORKER_UFS_BLOCK_OPEN_TIMEOUT_MS =
         "alluxio.worker.ufs.block.open.timeout";
     public static final String WORKER_UFS_INSTREAM_CACHE_EXPIRATION_TIME =
@@ -8285,6 +8566,8 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.proxy.s3.global.read.rate.limit.mb";
     public static final String PROXY_S3_SINGLE_CONNECTION_READ_RATE_LIMIT_MB =
         "alluxio.proxy.s3.single.connection.read.rate.limit.mb";
+    public static final String PROXY_S3_SINGLE_CONNECTION_WRITE_RATE_LIMIT_MB =
+        "alluxio.proxy.s3.single.connection.write.rate.limit.mb";
     public static final String PROXY_S3_TRANSFER_BUFFER_SIZE =
         "alluxio.proxy.transfer.buffer.size";
 
@@ -8591,6 +8874,12 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.fuse.mount.point";
     public static final String FUSE_POSITION_READ_ENABLED =
         "alluxio.fuse.position.read.enabled";
+    public static final String FUSE_SMALL_FILE_THRESHOLD =
+        "alluxio.fuse.small.file.threshold";
+    public static final String FUSE_SMALL_FILE_PREFETCH_COUNT =
+        "alluxio.fuse.small.file.prefetch.count";
+    public static final String FUSE_SMALL_FILE_PREFETCH_CACHE_SIZE =
+        "alluxio.fuse.small.file.prefetch.cache.size";
     public static final String FUSE_STAT_CACHE_REFRESH_INTERVAL =
         "alluxio.fuse.stat.cache.refresh.interval";
     public static final String FUSE_UMOUNT_TIMEOUT =
@@ -8610,6 +8899,10 @@ public final class PropertyKey implements Comparable<PropertyKey> {
     public static final String FUSE_WEB_PORT = "alluxio.fuse.web.port";
     public static final String FUSE_JNIFUSE_LIBFUSE_VERSION =
         "alluxio.fuse.jnifuse.libfuse.version";
+    public static final String FUSE_KERNEL_CACHE_ENABLED =
+        "alluxio.fuse.kernel.cache.enabled";
+    public static final String FUSE_KERNEL_CACHE_MAX_PATHS =
+        "alluxio.fuse.kernel.cache.max.paths";
 
     //
     // Security related properties
@@ -8747,6 +9040,12 @@ public final class PropertyKey implements Comparable<PropertyKey> {
     public static final String WORKER_HTTP_SERVER_PORT =
         "alluxio.worker.http.server.port";
 
+    public static final String WORKER_HTTP_SERVER_HTTP2_MAX_CONCURRENT_STREAMS =
+        "alluxio.worker.http.server.http2.max.concurrent.streams";
+
+    public static final String WORKER_HTTP_SERVER_HANDLER_THREADS =
+        "alluxio.worker.http.server.handler.threads";
+
     public static final String USER_NETWORK_NETTY_CHANNEL_POOL_DISABLED =
         "alluxio.user.network.netty.channel.pool.disabled";
 
@@ -8779,6 +9078,8 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.dora.worker.metastore.rocksdb.block.index";
     public static final String DORA_WORKER_METASTORE_ROCKSDB_INDEX =
         "alluxio.dora.worker.metastore.rocksdb.index";
+    public static final String DORA_WORKER_METASTORE_CACHE_SIZE =
+        "alluxio.dora.worker.metastore.cache.size";
 
     public static final String DORA_UFS_LIST_STATUS_CACHE_TTL =
         "alluxio.dora.ufs.list.status.cache.ttl";
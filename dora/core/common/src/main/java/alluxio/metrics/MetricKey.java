@@ -1139,6 +1139,24 @@ public final class MetricKey implements Comparable<MetricKey> {
           .setDescription("The number of running scheduler job commands")
           .setMetricType(MetricType.GAUGE)
           .build();
+  public static final MetricKey MASTER_JOB_SCHEDULER_WORKER_TASK_WINDOW =
+      new Builder("Master.JobSchedulerWorkerTaskWindow")
+          .setDescription("The number of scheduler tasks allowed to run concurrently on a "
+              + "worker, tagged by the worker host")
+          .setMetricType(MetricType.GAUGE)
+          .build();
+  public static final MetricKey MASTER_JOB_SCHEDULER_WORKER_TASK_QUEUEING_DELAY =
+      new Builder("Master.JobSchedulerWorkerTaskQueueingDelay")
+          .setDescription("The time scheduler tasks wait in the queue of a worker before they "
+              + "run, tagged by the worker host")
+          .setMetricType(MetricType.TIMER)
+          .build();
+  public static final MetricKey MASTER_JOB_SCHEDULER_WORKER_TASK_LATENCY =
+      new Builder("Master.JobSchedulerWorkerTaskLatency")
+          .setDescription("The time scheduler tasks take to run on a worker, tagged by the "
+              + "worker host")
+          .setMetricType(MetricType.TIMER)
+          .build();
   public static final MetricKey MASTER_JOB_LOAD_BLOCK_COUNT =
       new Builder("Master.JobLoadBlockCount")
           .setDescription("The number of blocks loaded by load commands")
@@ -2168,6 +2186,87 @@ public final class MetricKey implements Comparable<MetricKey> {
           .setDescription("Total number of ListStatus read from external storage.")
           .setMetricType(MetricType.COUNTER)
           .build();
+  public static final MetricKey WORKER_METASTORE_CACHE_HITS =
+      new Builder("Worker.MetaStoreCacheHits")
+          .setDescription("Total number of metastore reads served by the in-memory cache "
+              + "in front of the RocksDB metastore.")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey WORKER_METASTORE_CACHE_MISSES =
+      new Builder("Worker.MetaStoreCacheMisses")
+          .setDescription("Total number of metastore reads that missed the in-memory cache "
+              + "and were read from RocksDB.")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey WORKER_METASTORE_CACHE_HIT_RATIO =
+      new Builder("Worker.MetaStoreCacheHitRatio")
+          .setDescription("The ratio of metastore reads served by the in-memory cache.")
+          .setMetricType(MetricType.GAUGE)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey WORKER_PREFETCH_FILES =
+      new Builder("Worker.PrefetchFiles")
+          .setDescription("Total number of files the worker prefetched, predicting they are "
+              + "read next.")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey WORKER_PREFETCH_BYTES =
+      new Builder("Worker.PrefetchBytes")
+          .setDescription("Total number of bytes the worker prefetched, predicting they are "
+              + "read next.")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey WORKER_PREFETCH_USED_FILES =
+      new Builder("Worker.PrefetchUsedFiles")
+          .setDescription("Total number of prefetched files read before they expired.")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey WORKER_PREFETCH_WASTED_FILES =
+      new Builder("Worker.PrefetchWastedFiles")
+          .setDescription("Total number of prefetched files not read before they expired.")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey WORKER_PREFETCH_WASTED_BYTES =
+      new Builder("Worker.PrefetchWastedBytes")
+          .setDescription("Total number of prefetched bytes of files not read before they "
+              + "expired.")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey WORKER_PREFETCH_SKIPPED_FILES =
+      new Builder("Worker.PrefetchSkippedFiles")
+          .setDescription("Total number of files predicted to be read next but not prefetched, "
+              + "for the prefetch budget was used up or the preload executor was busy.")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey WORKER_PREFETCH_ACCURACY =
+      new Builder("Worker.PrefetchAccuracy")
+          .setDescription("The ratio of prefetched files read before they expired, among the "
+              + "prefetched files either read or expired.")
+          .setMetricType(MetricType.GAUGE)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey WORKER_PREFETCH_OUTSTANDING_BYTES =
+      new Builder("Worker.PrefetchOutstandingBytes")
+          .setDescription("The number of prefetched bytes of files neither read nor expired "
+              + "yet, counting against the prefetch budget.")
+          .setMetricType(MetricType.GAUGE)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey WORKER_METADATA_BATCH_PUT_FILES =
+      new Builder("Worker.MetadataBatchPutFiles")
+          .setDescription("Total number of file metadata written into the worker metastore "
+              + "in batches. The rate is the metadata ingestion throughput in files per second.")
+          .setMetricType(MetricType.METER)
+          .setIsClusterAggregated(false)
+          .build();
   public static final MetricKey WORKER_GET_FILE_INFO_HIT_REQUESTS =
       new Builder("Worker.GetFileInfoHitRequests")
           .setDescription("Total number of GetFileInfo requests read from worker.")
@@ -836,6 +836,16 @@ public abstract class ObjectUnderFileSystem extends BaseUnderFileSystem {
         && deleteObject(stripPrefixIfPresent(src));
   }
 
+  @Override
+  public boolean copyFile(String src, String dst) throws IOException {
+    String root = PathUtils.normalizePath(mRootKeySupplier.get(), PATH_SEPARATOR);
+    if (!src.startsWith(root) || !dst.startsWith(root)) {
+      // the object store may not copy across buckets
+      return false;
+    }
+    return copyObject(stripPrefixIfPresent(src), stripPrefixIfPresent(dst));
+  }
+
   @Override
   public boolean renameRenamableFile(String src, String dst) throws IOException {
     return retryOnFalse(() -> renameFile(src, dst),
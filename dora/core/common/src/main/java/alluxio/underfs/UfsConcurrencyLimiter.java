@@ -0,0 +1,360 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.underfs;
+
+import alluxio.conf.AlluxioConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.exception.runtime.AlluxioRuntimeException;
+import alluxio.exception.status.ResourceExhaustedException;
+import alluxio.metrics.Metric;
+import alluxio.metrics.MetricInfo;
+import alluxio.metrics.MetricsSystem;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import io.grpc.Status;
+
+import java.io.Closeable;
+import java.io.InterruptedIOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * An adaptive concurrency limiter for the calls issued to a single UFS.
+ *
+ * Each UFS gets a separate budget for metadata and data operations. Each budget follows an AIMD
+ * (additive increase, multiplicative decrease) policy: every successful call grows the limit by
+ * {@code 1 / limit}, i.e. roughly one slot per round trip, while a call rejected by the UFS due
+ * to throttling (e.g. S3 503 SlowDown) shrinks the limit by a configurable ratio. At most one
+ * decrease is applied per window of calls, so a burst of throttled responses to calls issued
+ * under the same limit does not collapse the limit to its minimum.
+ *
+ * A data permit is held until the stream the call opened is closed, or only for a single
+ * read of a position reader, so the reads and writes loading the UFS are bounded too.
+ *
+ * Calls are classified as {@link Priority#INTERACTIVE} or {@link Priority#BACKGROUND} based on
+ * the priority of the calling thread (see {@link #withPriority}). Background calls may only use
+ * a fraction of the current limit and always yield to waiting interactive calls.
+ */
+@ThreadSafe
+public final class UfsConcurrencyLimiter {
+  private static final ThreadLocal<Priority> PRIORITY =
+      ThreadLocal.withInitial(() -> Priority.INTERACTIVE);
+
+  private final Map<Budget, AimdLimit> mLimits = new EnumMap<>(Budget.class);
+
+  /**
+   * The budget a UFS operation is accounted against.
+   */
+  public enum Budget {
+    METADATA,
+    DATA,
+  }
+
+  /**
+   * The priority class of a UFS operation.
+   */
+  public enum Priority {
+    /** Operations issued on behalf of a client request. */
+    INTERACTIVE,
+    /** Operations issued by background activities such as load jobs and preloading. */
+    BACKGROUND,
+  }
+
+  /**
+   * Creates a limiter from the configuration.
+   *
+   * @param conf the UFS configuration
+   * @param escapedPath the escaped UFS path used to tag metrics
+   * @return the limiter, or null if concurrency limiting is disabled
+   */
+  @Nullable
+  public static UfsConcurrencyLimiter create(AlluxioConfiguration conf, String escapedPath) {
+    if (!conf.getBoolean(PropertyKey.UNDERFS_CONCURRENCY_LIMITER_ENABLED)) {
+      return null;
+    }
+    return new UfsConcurrencyLimiter(
+        conf.getInt(PropertyKey.UNDERFS_CONCURRENCY_LIMITER_MIN),
+        conf.getInt(PropertyKey.UNDERFS_CONCURRENCY_LIMITER_METADATA_MAX),
+        conf.getInt(PropertyKey.UNDERFS_CONCURRENCY_LIMITER_DATA_MAX),
+        conf.getDouble(PropertyKey.UNDERFS_CONCURRENCY_LIMITER_BACKOFF_RATIO),
+        conf.getDouble(PropertyKey.UNDERFS_CONCURRENCY_LIMITER_BACKGROUND_RATIO),
+        escapedPath);
+  }
+
+  /**
+   * Creates a limiter.
+   *
+   * @param minLimit the minimum concurrency of each budget
+   * @param metadataMaxLimit the maximum concurrency of metadata operations
+   * @param dataMaxLimit the maximum concurrency of data operations
+   * @param backoffRatio the ratio the limit is multiplied with on throttling
+   * @param backgroundRatio the fraction of the limit background operations may use
+   * @param escapedPath the escaped UFS path used to tag metrics
+   */
+  @VisibleForTesting
+  UfsConcurrencyLimiter(int minLimit, int metadataMaxLimit, int dataMaxLimit,
+      double backoffRatio, double backgroundRatio, String escapedPath) {
+    Preconditions.checkArgument(minLimit > 0, "min limit must be positive");
+    Preconditions.checkArgument(backoffRatio > 0 && backoffRatio < 1,
+        "backoff ratio must be in (0, 1)");
+    Preconditions.checkArgument(backgroundRatio > 0 && backgroundRatio <= 1,
+        "background ratio must be in (0, 1]");
+    mLimits.put(Budget.METADATA, new AimdLimit(Budget.METADATA, minLimit,
+        Math.max(minLimit, metadataMaxLimit), backoffRatio, backgroundRatio, escapedPath));
+    mLimits.put(Budget.DATA, new AimdLimit(Budget.DATA, minLimit,
+        Math.max(minLimit, dataMaxLimit), backoffRatio, backgroundRatio, escapedPath));
+  }
+
+  /**
+   * Sets the priority of UFS operations issued by the current thread until the returned scope
+   * is closed.
+   *
+   * @param priority the priority
+   * @return a scope restoring the previous priority on close
+   */
+  public static PriorityScope withPriority(Priority priority) {
+    Priority previous = PRIORITY.get();
+    PRIORITY.set(priority);
+    return new PriorityScope(previous);
+  }
+
+  /**
+   * @return the priority of UFS operations issued by the current thread
+   */
+  public static Priority currentPriority() {
+    return PRIORITY.get();
+  }
+
+  /**
+   * Blocks until the given budget admits another operation of the current thread's priority.
+   *
+   * @param budget the budget to acquire from
+   * @return a permit which must be released exactly once
+   */
+  public Permit acquire(Budget budget) throws InterruptedIOException {
+    return mLimits.get(budget).acquire(PRIORITY.get());
+  }
+
+  /**
+   * @param budget the budget
+   * @return the current concurrency limit of the budget
+   */
+  public int getLimit(Budget budget) {
+    return mLimits.get(budget).getLimit();
+  }
+
+  /**
+   * @param budget the budget
+   * @return the number of operations currently in flight for the budget
+   */
+  public int getInFlight(Budget budget) {
+    return mLimits.get(budget).getInFlight();
+  }
+
+  /**
+   * Checks whether a failure carries a resource exhausted status, which under storages
+   * report throttling with independently of their own error types. The throttling responses
+   * specific to an under storage are recognized by {@link UnderFileSystem#isThrottled}.
+   *
+   * @param t the failure
+   * @return true if the failure, or any of its causes, has a resource exhausted status
+   */
+  public static boolean isResourceExhausted(Throwable t) {
+    for (int depth = 0; t != null && depth < 8; t = t.getCause(), depth++) {
+      if (t instanceof AlluxioRuntimeException
+          && ((AlluxioRuntimeException) t).getStatus().getCode() == Status.Code.RESOURCE_EXHAUSTED
+          || t instanceof ResourceExhaustedException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Restores the previous priority of the current thread on close.
+   */
+  public static final class PriorityScope implements Closeable {
+    private final Priority mPrevious;
+
+    private PriorityScope(Priority previous) {
+      mPrevious = previous;
+    }
+
+    @Override
+    public void close() {
+      PRIORITY.set(mPrevious);
+    }
+  }
+
+  /**
+   * A slot acquired from a budget.
+   */
+  public static final class Permit {
+    private final AimdLimit mLimit;
+    private final long mWindow;
+    private boolean mReleased = false;
+
+    private Permit(AimdLimit limit, long window) {
+      mLimit = limit;
+      mWindow = window;
+    }
+
+    /**
+     * Returns the slot to its budget and adjusts the limit according to the outcome.
+     *
+     * @param throttled whether the UFS rejected the operation due to throttling
+     */
+    public void release(boolean throttled) {
+      synchronized (this) {
+        if (mReleased) {
+          return;
+        }
+        mReleased = true;
+      }
+      mLimit.release(mWindow, throttled);
+    }
+  }
+
+  private static final class AimdLimit {
+    private final ReentrantLock mLock = new ReentrantLock();
+    private final Condition mInteractiveAvailable = mLock.newCondition();
+    private final Condition mBackgroundAvailable = mLock.newCondition();
+    private final int mMinLimit;
+    private final int mMaxLimit;
+    private final double mBackoffRatio;
+    private final double mBackgroundRatio;
+    private final Counter mThrottleCounter;
+    private final Timer mInteractiveQueueTimer;
+    private final Timer mBackgroundQueueTimer;
+
+    private double mLimit;
+    private int mInFlight = 0;
+    private int mInteractiveWaiters = 0;
+    /** Incremented on every decrease, so a window of calls only backs off once. */
+    private long mWindow = 0;
+
+    AimdLimit(Budget budget, int minLimit, int maxLimit, double backoffRatio,
+        double backgroundRatio, String escapedPath) {
+      mMinLimit = minLimit;
+      mMaxLimit = maxLimit;
+      mBackoffRatio = backoffRatio;
+      mBackgroundRatio = backgroundRatio;
+      mLimit = maxLimit;
+      String budgetName = budget.name().toLowerCase(Locale.ROOT);
+      mThrottleCounter = MetricsSystem.counter(metricName("UfsThrottleEvents",
+          escapedPath, budgetName));
+      mInteractiveQueueTimer = MetricsSystem.timer(metricName("UfsQueueingDelay",
+          escapedPath, budgetName, Priority.INTERACTIVE));
+      mBackgroundQueueTimer = MetricsSystem.timer(metricName("UfsQueueingDelay",
+          escapedPath, budgetName, Priority.BACKGROUND));
+      MetricsSystem.registerGaugeIfAbsent(MetricsSystem.getMetricName(
+          metricName("UfsConcurrencyLimit", escapedPath, budgetName)), this::getLimit);
+      MetricsSystem.registerGaugeIfAbsent(MetricsSystem.getMetricName(
+          metricName("UfsConcurrencyInFlight", escapedPath, budgetName)), this::getInFlight);
+    }
+
+    private static String metricName(String name, String escapedPath, String budget) {
+      return Metric.getMetricNameWithTags(name, MetricInfo.TAG_UFS, escapedPath,
+          "Budget", budget);
+    }
+
+    private static String metricName(String name, String escapedPath, String budget,
+        Priority priority) {
+      return Metric.getMetricNameWithTags(name, MetricInfo.TAG_UFS, escapedPath,
+          "Budget", budget, "Priority", priority.name().toLowerCase(Locale.ROOT));
+    }
+
+    Permit acquire(Priority priority) throws InterruptedIOException {
+      long startNs = System.nanoTime();
+      mLock.lock();
+      try {
+        if (priority == Priority.INTERACTIVE) {
+          mInteractiveWaiters++;
+          try {
+            while (mInFlight >= (int) mLimit) {
+              mInteractiveAvailable.await();
+            }
+          } finally {
+            mInteractiveWaiters--;
+          }
+        } else {
+          while (mInteractiveWaiters > 0 || mInFlight >= backgroundLimit()) {
+            mBackgroundAvailable.await();
+          }
+        }
+        mInFlight++;
+        return new Permit(this, mWindow);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted waiting for UFS concurrency permit");
+      } finally {
+        mLock.unlock();
+        (priority == Priority.INTERACTIVE ? mInteractiveQueueTimer : mBackgroundQueueTimer)
+            .update(System.nanoTime() - startNs, TimeUnit.NANOSECONDS);
+      }
+    }
+
+    void release(long window, boolean throttled) {
+      mLock.lock();
+      try {
+        mInFlight--;
+        if (throttled) {
+          mThrottleCounter.inc();
+          if (window == mWindow) {
+            mLimit = Math.max(mMinLimit, mLimit * mBackoffRatio);
+            mWindow++;
+          }
+        } else {
+          mLimit = Math.min(mMaxLimit, mLimit + 1.0 / mLimit);
+        }
+        if (mInteractiveWaiters > 0) {
+          mInteractiveAvailable.signalAll();
+        } else {
+          mBackgroundAvailable.signalAll();
+        }
+      } finally {
+        mLock.unlock();
+      }
+    }
+
+    private int backgroundLimit() {
+      return Math.max(1, (int) (mLimit * mBackgroundRatio));
+    }
+
+    int getLimit() {
+      mLock.lock();
+      try {
+        return (int) mLimit;
+      } finally {
+        mLock.unlock();
+      }
+    }
+
+    int getInFlight() {
+      mLock.lock();
+      try {
+        return mInFlight;
+      } finally {
+        mLock.unlock();
+      }
+    }
+  }
+}
@@ -608,6 +608,17 @@ public interface UnderFileSystem extends Closeable, AsyncUfsClient {
    */
   boolean isSeekable();
 
+  /**
+   * Checks whether a failure of a call to the under storage is the under storage throttling
+   * requests, from the error types and status codes of the under storage client.
+   *
+   * @param t the failure
+   * @return true if the under storage rejected the call due to throttling
+   */
+  default boolean isThrottled(Throwable t) {
+    return false;
+  }
+
   /**
    * Returns an array of statuses of the files and directories in the directory denoted by this
    * abstract pathname.
@@ -821,6 +832,20 @@ public interface UnderFileSystem extends Closeable, AsyncUfsClient {
    */
   boolean renameRenamableFile(String src, String dst) throws IOException;
 
+  /**
+   * Copies a file from {@code src} to {@code dst} within the under storage, without the data
+   * going through the client, e.g. with the server side copy of an object store. The destination
+   * is overwritten if it exists.
+   *
+   * @param src the source file path
+   * @param dst the destination file path, possibly in another bucket of the same object store
+   * @return true if the file has been copied, false if the under storage cannot copy it itself
+   *         and the data has to be streamed instead
+   */
+  default boolean copyFile(String src, String dst) throws IOException {
+    return false;
+  }
+
   /**
    * Returns an {@link AlluxioURI} representation for the {@link UnderFileSystem} given a base
    * UFS URI, and the Alluxio path from the base.
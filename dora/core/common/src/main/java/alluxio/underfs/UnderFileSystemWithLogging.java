@@ -14,12 +14,14 @@ package alluxio.underfs;
 import alluxio.AlluxioURI;
 import alluxio.Constants;
 import alluxio.PositionReader;
+import alluxio.Seekable;
 import alluxio.collections.Pair;
 import alluxio.conf.AlluxioConfiguration;
 import alluxio.conf.PropertyKey;
 import alluxio.exception.runtime.AlluxioRuntimeException;
 import alluxio.exception.runtime.InternalRuntimeException;
 import alluxio.exception.status.UnimplementedException;
+import alluxio.file.ReadTargetBuffer;
 import alluxio.file.options.DescendantType;
 import alluxio.metrics.Metric;
 import alluxio.metrics.MetricInfo;
@@ -38,11 +40,14 @@ import alluxio.underfs.options.OpenOptions;
 import alluxio.util.SecurityUtils;
 
 import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterators;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -50,6 +55,7 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Consumer;
 import javax.annotation.Nullable;
 
@@ -57,7 +63,8 @@ import javax.annotation.Nullable;
  * This class forwards all calls to the {@link UnderFileSystem} interface to an internal
  * implementation. For methods which throw an {@link IOException}, it is implied that an
  * interaction with the underlying storage is possible. This class logs the enter/exit of all
- * such methods. Methods which do not throw exceptions will not be logged.
+ * such methods. Methods which do not throw exceptions will not be logged. If enabled, calls to
+ * the under storage are also admitted through a {@link UfsConcurrencyLimiter}.
  */
 public class UnderFileSystemWithLogging implements UnderFileSystem {
   private static final Logger LOG = LoggerFactory.getLogger(UnderFileSystemWithLogging.class);
@@ -68,6 +75,8 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
   private final String mPath;
   private final String mEscapedPath;
   private final long mLoggingThreshold;
+  @Nullable
+  private final UfsConcurrencyLimiter mLimiter;
 
   /**
    * Creates a new {@link UnderFileSystemWithLogging} which forwards all calls to the provided
@@ -86,6 +95,7 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
     mConf = conf;
     mEscapedPath = MetricsSystem.escape(new AlluxioURI(path));
     mLoggingThreshold = mConf.getMs(PropertyKey.UNDERFS_LOGGING_THRESHOLD);
+    mLimiter = UfsConcurrencyLimiter.create(mConf, mEscapedPath);
   }
 
   @Override
@@ -101,6 +111,11 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
       public String methodName() {
         return "cleanup";
       }
+
+      @Override
+      public UfsConcurrencyLimiter.Budget budget() {
+        return null;
+      }
     });
   }
 
@@ -117,6 +132,11 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
       public String methodName() {
         return "close";
       }
+
+      @Override
+      public UfsConcurrencyLimiter.Budget budget() {
+        return null;
+      }
     });
   }
 
@@ -134,6 +154,11 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
         return "ConnectFromMaster";
       }
 
+      @Override
+      public UfsConcurrencyLimiter.Budget budget() {
+        return null;
+      }
+
       @Override
       public String toString() {
         return String.format("hostname=%s", hostname);
@@ -155,6 +180,11 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
         return "ConnectFromWorker";
       }
 
+      @Override
+      public UfsConcurrencyLimiter.Budget budget() {
+        return null;
+      }
+
       @Override
       public String toString() {
         return String.format("hostname=%s", hostname);
@@ -175,6 +205,16 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
         return "Create";
       }
 
+      @Override
+      public UfsConcurrencyLimiter.Budget budget() {
+        return UfsConcurrencyLimiter.Budget.DATA;
+      }
+
+      @Override
+      public OutputStream holdPermit(OutputStream result, UfsConcurrencyLimiter.Permit permit) {
+        return new LimitedOutputStream(result, permit);
+      }
+
       @Override
       public String toString() {
         return String.format("path=%s", path);
@@ -195,6 +235,16 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
         return "Create";
       }
 
+      @Override
+      public UfsConcurrencyLimiter.Budget budget() {
+        return UfsConcurrencyLimiter.Budget.DATA;
+      }
+
+      @Override
+      public OutputStream holdPermit(OutputStream result, UfsConcurrencyLimiter.Permit permit) {
+        return new LimitedOutputStream(result, permit);
+      }
+
       @Override
       public String toString() {
         return String.format("path=%s, options=%s", path, options);
@@ -215,6 +265,16 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
         return "CreateNonexistingFile";
       }
 
+      @Override
+      public UfsConcurrencyLimiter.Budget budget() {
+        return UfsConcurrencyLimiter.Budget.DATA;
+      }
+
+      @Override
+      public OutputStream holdPermit(OutputStream result, UfsConcurrencyLimiter.Permit permit) {
+        return new LimitedOutputStream(result, permit);
+      }
+
       @Override
       public String toString() {
         return String.format("path=%s", path);
@@ -236,6 +296,16 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
         return "CreateNonexistingFile";
       }
 
+      @Override
+      public UfsConcurrencyLimiter.Budget budget() {
+        return UfsConcurrencyLimiter.Budget.DATA;
+      }
+
+      @Override
+      public OutputStream holdPermit(OutputStream result, UfsConcurrencyLimiter.Permit permit) {
+        return new LimitedOutputStream(result, permit);
+      }
+
       @Override
       public String toString() {
         return String.format("path=%s, options=%s", path, options);
@@ -439,6 +509,11 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
         return "GetConfiguration";
       }
 
+      @Override
+      public UfsConcurrencyLimiter.Budget budget() {
+        return null;
+      }
+
       @Override
       public String toString() {
         return "";
@@ -937,6 +1012,16 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
         return "Open";
       }
 
+      @Override
+      public UfsConcurrencyLimiter.Budget budget() {
+        return UfsConcurrencyLimiter.Budget.DATA;
+      }
+
+      @Override
+      public InputStream holdPermit(InputStream result, UfsConcurrencyLimiter.Permit permit) {
+        return limit(result, permit);
+      }
+
       @Override
       public String toString() {
         return String.format("path=%s", path);
@@ -957,6 +1042,16 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
         return "Open";
       }
 
+      @Override
+      public UfsConcurrencyLimiter.Budget budget() {
+        return UfsConcurrencyLimiter.Budget.DATA;
+      }
+
+      @Override
+      public InputStream holdPermit(InputStream result, UfsConcurrencyLimiter.Permit permit) {
+        return limit(result, permit);
+      }
+
       @Override
       public String toString() {
         return String.format("path=%s, options=%s", path, options);
@@ -977,6 +1072,16 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
         return "OpenExistingFile";
       }
 
+      @Override
+      public UfsConcurrencyLimiter.Budget budget() {
+        return UfsConcurrencyLimiter.Budget.DATA;
+      }
+
+      @Override
+      public InputStream holdPermit(InputStream result, UfsConcurrencyLimiter.Permit permit) {
+        return limit(result, permit);
+      }
+
       @Override
       public String toString() {
         return String.format("path=%s", path);
@@ -998,6 +1103,16 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
         return "OpenExistingFile";
       }
 
+      @Override
+      public UfsConcurrencyLimiter.Budget budget() {
+        return UfsConcurrencyLimiter.Budget.DATA;
+      }
+
+      @Override
+      public InputStream holdPermit(InputStream result, UfsConcurrencyLimiter.Permit permit) {
+        return limit(result, permit);
+      }
+
       @Override
       public String toString() {
         return String.format("path=%s, options=%s", path, options);
@@ -1011,7 +1126,8 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
       return call(new UfsCallable<PositionReader>() {
         @Override
         public PositionReader call() {
-          return mUnderFileSystem.openPositionRead(path, fileLength);
+          PositionReader reader = mUnderFileSystem.openPositionRead(path, fileLength);
+          return mLimiter == null ? reader : new LimitedPositionReader(reader);
         }
 
         @Override
@@ -1019,6 +1135,12 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
           return "OpenPositionRead";
         }
 
+        @Override
+        public UfsConcurrencyLimiter.Budget budget() {
+          // each read of the reader is admitted on its own
+          return null;
+        }
+
         @Override
         public String toString() {
           return String.format("path=%s, fileLength=%s", path, fileLength);
@@ -1089,6 +1211,26 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
     });
   }
 
+  @Override
+  public boolean copyFile(final String src, final String dst) throws IOException {
+    return call(new UfsCallable<Boolean>() {
+      @Override
+      public Boolean call() throws IOException {
+        return mUnderFileSystem.copyFile(src, dst);
+      }
+
+      @Override
+      public String methodName() {
+        return "CopyFile";
+      }
+
+      @Override
+      public String toString() {
+        return String.format("src=%s, dst=%s", src, dst);
+      }
+    });
+  }
+
   @Override
   public boolean renameRenamableFile(final String src, final String dst) throws IOException {
     return call(new UfsCallable<Boolean>() {
@@ -1238,12 +1380,34 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
       String path, @Nullable String continuationToken, @Nullable String startAfter,
       DescendantType descendantType, boolean checkStatus, Consumer<UfsLoadResult> onComplete,
       Consumer<Throwable> onError) {
+    // the listing completes asynchronously, so the permit is held until a callback fires
+    UfsConcurrencyLimiter.Permit permit;
+    try {
+      permit = mLimiter == null ? null : mLimiter.acquire(UfsConcurrencyLimiter.Budget.METADATA);
+    } catch (IOException e) {
+      onError.accept(e);
+      return;
+    }
+    Consumer<UfsLoadResult> completeAndRelease = onComplete;
+    Consumer<Throwable> errorAndRelease = onError;
+    if (permit != null) {
+      completeAndRelease = result -> {
+        permit.release(false);
+        onComplete.accept(result);
+      };
+      errorAndRelease = t -> {
+        permit.release(isThrottled(t));
+        onError.accept(t);
+      };
+    }
+    Consumer<UfsLoadResult> finalOnComplete = completeAndRelease;
+    Consumer<Throwable> finalOnError = errorAndRelease;
     try {
       call(new UfsCallable<Void>() {
         @Override
         public Void call() {
           mUnderFileSystem.performListingAsync(path, continuationToken, startAfter,
-              descendantType, checkStatus, onComplete, onError);
+              descendantType, checkStatus, finalOnComplete, finalOnError);
           return null;
         }
 
@@ -1252,6 +1416,11 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
           return "PerformListingAsync";
         }
 
+        @Override
+        public UfsConcurrencyLimiter.Budget budget() {
+          return null;
+        }
+
         @Override
         public String toString() {
           return String.format("path=%s, continuationToken=%s, startAfter=%s, descendantType=%s,"
@@ -1261,6 +1430,11 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
       });
     } catch (IOException e) {
       throw new InternalRuntimeException("should not reach");
+    } catch (RuntimeException e) {
+      if (permit != null) {
+        permit.release(isThrottled(e));
+      }
+      throw e;
     }
   }
 
@@ -1280,6 +1454,28 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
 
     abstract String methodName();
 
+    /**
+     * @return the concurrency budget this call is accounted against, or null if the call does
+     *         not interact with the under storage
+     */
+    @Nullable
+    UfsConcurrencyLimiter.Budget budget() {
+      return UfsConcurrencyLimiter.Budget.METADATA;
+    }
+
+    /**
+     * Ties the permit of the call to its result, such as a stream loading the under storage
+     * until it is closed.
+     *
+     * @param result the result of the call
+     * @param permit the permit of the call
+     * @return the result releasing the permit once done, or null to release it on return
+     */
+    @Nullable
+    T holdPermit(T result, UfsConcurrencyLimiter.Permit permit) {
+      return null;
+    }
+
     @Override
     public String toString() {
       return "";
@@ -1295,6 +1491,10 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
    */
   private <T> T call(UfsCallable<T> callable) throws IOException {
     String methodName = callable.methodName();
+    UfsConcurrencyLimiter.Budget budget = callable.budget();
+    UfsConcurrencyLimiter.Permit permit = mLimiter == null || budget == null
+        ? null : mLimiter.acquire(budget);
+    boolean throttled = false;
     long startMs = System.currentTimeMillis();
     long durationMs;
     LOG.debug("Enter: {}({})", methodName, callable);
@@ -1306,6 +1506,14 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
         LOG.warn("{}({}) returned OK in {} ms (>={} ms)", methodName,
             callable, durationMs, mLoggingThreshold);
       }
+      if (permit != null && ret != null) {
+        T held = callable.holdPermit(ret, permit);
+        if (held != null) {
+          // released by the result
+          permit = null;
+          return held;
+        }
+      }
       return ret;
     } catch (IOException e) {
       durationMs = System.currentTimeMillis() - startMs;
@@ -1316,7 +1524,15 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
         LOG.warn("{}({}) returned \"{}\" in {} ms (>={} ms)", methodName,
             callable, e, durationMs, mLoggingThreshold);
       }
+      throttled = isThrottled(e);
       throw e;
+    } catch (RuntimeException e) {
+      throttled = isThrottled(e);
+      throw e;
+    } finally {
+      if (permit != null) {
+        permit.release(throttled);
+      }
     }
   }
 
@@ -1325,6 +1541,20 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
     return mUnderFileSystem.isSeekable();
   }
 
+  /**
+   * @return the concurrency limiter of the under storage, or null if disabled
+   */
+  @VisibleForTesting
+  @Nullable
+  UfsConcurrencyLimiter getLimiter() {
+    return mLimiter;
+  }
+
+  @Override
+  public boolean isThrottled(Throwable t) {
+    return mUnderFileSystem.isThrottled(t) || UfsConcurrencyLimiter.isResourceExhausted(t);
+  }
+
   // TODO(calvin): General tag logic should be in getMetricName
   private String getQualifiedMetricName(String metricName) {
     try {
@@ -1347,4 +1577,152 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
   private String getQualifiedFailureMetricName(String metricName) {
     return getQualifiedMetricName(metricName + "Failures");
   }
+
+  private InputStream limit(InputStream in, UfsConcurrencyLimiter.Permit permit) {
+    return in instanceof Seekable
+        ? new LimitedSeekableInputStream(in, permit) : new LimitedInputStream(in, permit);
+  }
+
+  /**
+   * An input stream holding a data permit until it is closed.
+   */
+  private class LimitedInputStream extends FilterInputStream {
+    private final UfsConcurrencyLimiter.Permit mPermit;
+    private boolean mThrottled;
+
+    LimitedInputStream(InputStream in, UfsConcurrencyLimiter.Permit permit) {
+      super(in);
+      mPermit = permit;
+    }
+
+    @Override
+    public int read() throws IOException {
+      try {
+        return super.read();
+      } catch (IOException | RuntimeException e) {
+        mThrottled |= isThrottled(e);
+        throw e;
+      }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      try {
+        return super.read(b, off, len);
+      } catch (IOException | RuntimeException e) {
+        mThrottled |= isThrottled(e);
+        throw e;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        mPermit.release(mThrottled);
+      }
+    }
+  }
+
+  /**
+   * A seekable input stream holding a data permit until it is closed.
+   */
+  private class LimitedSeekableInputStream extends LimitedInputStream implements Seekable {
+    LimitedSeekableInputStream(InputStream in, UfsConcurrencyLimiter.Permit permit) {
+      super(in, permit);
+    }
+
+    @Override
+    public void seek(long pos) throws IOException {
+      ((Seekable) in).seek(pos);
+    }
+
+    @Override
+    public long getPos() throws IOException {
+      return ((Seekable) in).getPos();
+    }
+  }
+
+  /**
+   * An output stream holding a data permit until it is closed.
+   */
+  private class LimitedOutputStream extends FilterOutputStream implements ContentHashable {
+    private final UfsConcurrencyLimiter.Permit mPermit;
+    private boolean mThrottled;
+
+    LimitedOutputStream(OutputStream out, UfsConcurrencyLimiter.Permit permit) {
+      super(out);
+      mPermit = permit;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      try {
+        out.write(b);
+      } catch (IOException | RuntimeException e) {
+        mThrottled |= isThrottled(e);
+        throw e;
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      try {
+        out.write(b, off, len);
+      } catch (IOException | RuntimeException e) {
+        mThrottled |= isThrottled(e);
+        throw e;
+      }
+    }
+
+    @Override
+    public Optional<String> getContentHash() throws IOException {
+      return out instanceof ContentHashable
+          ? ((ContentHashable) out).getContentHash() : Optional.empty();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        out.close();
+      } catch (IOException | RuntimeException e) {
+        mThrottled |= isThrottled(e);
+        throw e;
+      } finally {
+        mPermit.release(mThrottled);
+      }
+    }
+  }
+
+  /**
+   * A position reader admitting each of its reads through the data budget.
+   */
+  private class LimitedPositionReader implements PositionReader {
+    private final PositionReader mReader;
+
+    LimitedPositionReader(PositionReader reader) {
+      mReader = reader;
+    }
+
+    @Override
+    public int readInternal(long position, ReadTargetBuffer buffer, int length)
+        throws IOException {
+      UfsConcurrencyLimiter.Permit permit = mLimiter.acquire(UfsConcurrencyLimiter.Budget.DATA);
+      boolean throttled = false;
+      try {
+        return mReader.read(position, buffer, length);
+      } catch (IOException | RuntimeException e) {
+        throttled = isThrottled(e);
+        throw e;
+      } finally {
+        permit.release(throttled);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      mReader.close();
+    }
+  }
 }
@@ -20,6 +20,7 @@ import alluxio.grpc.ExistsPOptions;
 import alluxio.grpc.GetStatusPOptions;
 import alluxio.grpc.ListStatusPOptions;
 import alluxio.grpc.LoadFileResponse;
+import alluxio.grpc.LoadRangePOptions;
 import alluxio.grpc.LoadSubTask;
 import alluxio.grpc.RenamePOptions;
 import alluxio.grpc.Route;
@@ -40,6 +41,8 @@ import com.google.common.util.concurrent.ListenableFuture;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import javax.annotation.Nullable;
 
 /**
@@ -72,6 +75,41 @@ public interface DoraWorker extends DataWorker, SessionCleanable {
   UfsStatus[] listStatus(String path, ListStatusPOptions options)
       throws IOException, AccessControlException;
 
+  /**
+   * List status from Under File System, page by page.
+   *
+   * Unlike {@link #listStatus(String, ListStatusPOptions)}, the listing is not materialized in
+   * memory: each page is handed to the consumer as soon as the UFS returns it.
+   *
+   * @param path the path of a dir or file
+   * @param options the option for listStatus()
+   * @param pageConsumer the consumer of the listing pages. If the path denotes a file, it
+   *        receives a single page containing the status of the file itself
+   * @return false if the path does not exist, true otherwise
+   * @throws IOException
+   */
+  boolean listStatus(String path, ListStatusPOptions options, Consumer<UfsStatus[]> pageConsumer)
+      throws IOException, AccessControlException;
+
+  /**
+   * List status in the order of the keys, starting after a given key. The key of a directory
+   * is its name followed by a separator, as in an object store.
+   *
+   * A complete cached listing of the path is served from the cache. Otherwise the UFS is
+   * listed chunk by chunk and the listing stops as soon as the consumer returns false, so
+   * listing a page from the middle of a large directory only fetches that page.
+   *
+   * @param path the path of a dir
+   * @param isRecursive whether to list all the descendants or the children only
+   * @param startAfter the key relative to the path to start the listing after, or null to
+   *        list from the beginning
+   * @param consumer the consumer of the statuses, named relative to the path, which returns
+   *        false to stop the listing
+   * @throws IOException
+   */
+  void listStatusFrom(String path, boolean isRecursive, @Nullable String startAfter,
+      Predicate<UfsStatus> consumer) throws IOException, AccessControlException;
+
   /**
    * Creates the file reader to read from Alluxio dora.
    * Owner of this block reader must close it or lock will leak.
@@ -106,8 +144,26 @@ public interface DoraWorker extends DataWorker, SessionCleanable {
    * @param options the options for reading
    * @return a list of failed files
    */
-  ListenableFuture<LoadFileResponse> load(
+  default ListenableFuture<LoadFileResponse> load(
       List<LoadSubTask> subTasks, boolean skipIfExists, UfsReadOptions options)
+      throws AccessControlException, IOException {
+    return load(subTasks, skipIfExists, options, null, false);
+  }
+
+  /**
+   * Loads the metadata and parts of the data of files from UFS to Alluxio.
+   *
+   * @param skipIfExists true if data loading should be skipped if it's already loaded
+   * @param subTasks the subtasks to load
+   * @param options the options for reading
+   * @param ranges the parts of the files to load, or null to load the whole files
+   * @param reportCachedBlocks whether to report the pages of each load data subtask found
+   *                           cached, for the job to be verified
+   * @return a list of failed files
+   */
+  ListenableFuture<LoadFileResponse> load(
+      List<LoadSubTask> subTasks, boolean skipIfExists, UfsReadOptions options,
+      @Nullable LoadRangePOptions ranges, boolean reportCachedBlocks)
       throws AccessControlException, IOException;
 
   /**
@@ -0,0 +1,201 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.underfs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import alluxio.conf.Configuration;
+import alluxio.conf.InstancedConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.exception.runtime.ResourceExhaustedRuntimeException;
+import alluxio.exception.runtime.UnavailableRuntimeException;
+import alluxio.exception.status.ResourceExhaustedException;
+import alluxio.underfs.UfsConcurrencyLimiter.Budget;
+import alluxio.underfs.UfsConcurrencyLimiter.Permit;
+import alluxio.underfs.UfsConcurrencyLimiter.Priority;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests for the {@link UfsConcurrencyLimiter} class.
+ */
+public final class UfsConcurrencyLimiterTest {
+  private static final String UFS = "test_ufs";
+
+  @Test
+  public void backOffOncePerWindow() throws Exception {
+    UfsConcurrencyLimiter limiter = new UfsConcurrencyLimiter(1, 10, 10, 0.5, 1.0, UFS);
+    List<Permit> permits = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      permits.add(limiter.acquire(Budget.METADATA));
+    }
+    for (Permit permit : permits) {
+      permit.release(true);
+    }
+    // all permits were acquired in the same window, so only one decrease applies
+    assertEquals(5, limiter.getLimit(Budget.METADATA));
+    assertEquals(0, limiter.getInFlight(Budget.METADATA));
+    // the data budget is independent
+    assertEquals(10, limiter.getLimit(Budget.DATA));
+
+    limiter.acquire(Budget.METADATA).release(true);
+    assertEquals(2, limiter.getLimit(Budget.METADATA));
+    limiter.acquire(Budget.METADATA).release(true);
+    limiter.acquire(Budget.METADATA).release(true);
+    assertEquals(1, limiter.getLimit(Budget.METADATA));
+  }
+
+  @Test
+  public void additiveIncrease() throws Exception {
+    UfsConcurrencyLimiter limiter = new UfsConcurrencyLimiter(2, 4, 4, 0.5, 1.0, UFS);
+    limiter.acquire(Budget.DATA).release(true);
+    assertEquals(2, limiter.getLimit(Budget.DATA));
+    // each successful call grows the limit by 1 / limit
+    limiter.acquire(Budget.DATA).release(false);
+    limiter.acquire(Budget.DATA).release(false);
+    assertEquals(2, limiter.getLimit(Budget.DATA));
+    limiter.acquire(Budget.DATA).release(false);
+    assertEquals(3, limiter.getLimit(Budget.DATA));
+    for (int i = 0; i < 100; i++) {
+      limiter.acquire(Budget.DATA).release(false);
+    }
+    assertEquals(4, limiter.getLimit(Budget.DATA));
+  }
+
+  @Test
+  public void blocksAtLimit() throws Exception {
+    UfsConcurrencyLimiter limiter = new UfsConcurrencyLimiter(1, 1, 1, 0.5, 1.0, UFS);
+    Permit held = limiter.acquire(Budget.METADATA);
+    CompletableFuture<Permit> waiting = CompletableFuture.supplyAsync(() -> acquire(limiter));
+    assertBlocked(waiting);
+    held.release(false);
+    waiting.get(10, TimeUnit.SECONDS).release(false);
+    assertEquals(0, limiter.getInFlight(Budget.METADATA));
+  }
+
+  @Test
+  public void backgroundYieldsToInteractive() throws Exception {
+    UfsConcurrencyLimiter limiter = new UfsConcurrencyLimiter(1, 2, 2, 0.5, 0.5, UFS);
+    // background calls may only use half of the limit
+    Permit background = acquire(limiter, Priority.BACKGROUND);
+    CompletableFuture<Permit> secondBackground =
+        CompletableFuture.supplyAsync(() -> acquire(limiter, Priority.BACKGROUND));
+    assertBlocked(secondBackground);
+    Permit interactive = limiter.acquire(Budget.METADATA);
+    assertEquals(2, limiter.getInFlight(Budget.METADATA));
+
+    CompletableFuture<Permit> waitingInteractive =
+        CompletableFuture.supplyAsync(() -> acquire(limiter, Priority.INTERACTIVE));
+    assertBlocked(waitingInteractive);
+    background.release(false);
+    // the interactive call is admitted first
+    waitingInteractive.get(10, TimeUnit.SECONDS).release(false);
+    interactive.release(false);
+    secondBackground.get(10, TimeUnit.SECONDS).release(false);
+    assertEquals(0, limiter.getInFlight(Budget.METADATA));
+  }
+
+  @Test
+  public void releaseIsIdempotent() throws Exception {
+    UfsConcurrencyLimiter limiter = new UfsConcurrencyLimiter(1, 2, 2, 0.5, 1.0, UFS);
+    Permit permit = limiter.acquire(Budget.METADATA);
+    permit.release(false);
+    permit.release(false);
+    assertEquals(0, limiter.getInFlight(Budget.METADATA));
+  }
+
+  @Test
+  public void priorityScope() {
+    assertEquals(Priority.INTERACTIVE, UfsConcurrencyLimiter.currentPriority());
+    try (UfsConcurrencyLimiter.PriorityScope ignored =
+             UfsConcurrencyLimiter.withPriority(Priority.BACKGROUND)) {
+      assertEquals(Priority.BACKGROUND, UfsConcurrencyLimiter.currentPriority());
+    }
+    assertEquals(Priority.INTERACTIVE, UfsConcurrencyLimiter.currentPriority());
+  }
+
+  @Test
+  public void isResourceExhausted() {
+    assertTrue(UfsConcurrencyLimiter.isResourceExhausted(
+        new ResourceExhaustedRuntimeException("slow down", true)));
+    assertTrue(UfsConcurrencyLimiter.isResourceExhausted(new IOException("wrapped",
+        new ResourceExhaustedException("qps limit exceeded"))));
+    // only the status counts, not the message
+    assertFalse(UfsConcurrencyLimiter.isResourceExhausted(
+        new IOException("Please reduce your request rate. Error Code: SlowDown")));
+    assertFalse(UfsConcurrencyLimiter.isResourceExhausted(
+        new UnavailableRuntimeException("unavailable")));
+    assertFalse(UfsConcurrencyLimiter.isResourceExhausted(new IOException()));
+  }
+
+  @Test
+  public void streamHoldsPermitUntilClosed() throws Exception {
+    InstancedConfiguration conf = Configuration.copyGlobal();
+    conf.set(PropertyKey.UNDERFS_CONCURRENCY_LIMITER_ENABLED, true);
+    UnderFileSystem ufs = mock(UnderFileSystem.class);
+    when(ufs.open(anyString())).thenReturn(new ByteArrayInputStream(new byte[10]));
+    when(ufs.create(anyString())).thenReturn(new ByteArrayOutputStream());
+    UnderFileSystemWithLogging limited = new UnderFileSystemWithLogging("/" + UFS, ufs,
+        UnderFileSystemConfiguration.defaults(conf));
+    UfsConcurrencyLimiter limiter = limited.getLimiter();
+    InputStream in = limited.open("/file");
+    OutputStream out = limited.create("/file");
+    assertEquals(2, limiter.getInFlight(Budget.DATA));
+    in.read(new byte[10]);
+    out.write(new byte[10]);
+    assertEquals(2, limiter.getInFlight(Budget.DATA));
+    in.close();
+    out.close();
+    assertEquals(0, limiter.getInFlight(Budget.DATA));
+    // the permit is not taken again when closed twice
+    in.close();
+    assertEquals(0, limiter.getInFlight(Budget.DATA));
+  }
+
+  private static Permit acquire(UfsConcurrencyLimiter limiter) {
+    return acquire(limiter, Priority.INTERACTIVE);
+  }
+
+  private static Permit acquire(UfsConcurrencyLimiter limiter, Priority priority) {
+    try (UfsConcurrencyLimiter.PriorityScope ignored =
+             UfsConcurrencyLimiter.withPriority(priority)) {
+      return limiter.acquire(Budget.METADATA);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void assertBlocked(CompletableFuture<?> future) throws Exception {
+    try {
+      future.get(200, TimeUnit.MILLISECONDS);
+      throw new AssertionError("expected the call to block");
+    } catch (TimeoutException e) {
+      // expected
+    }
+  }
+}
@@ -45,6 +45,10 @@ public class ChunkedEncodingInputStream extends FilterInputStream {
   @Override
   public int read() throws IOException {
     decodeChunkHeader();
+    if (mCurrentChunkIdx >= mCurrentChunkLength) {
+      // the final zero length chunk or the end of the stream
+      return -1;
+    }
     int ret = super.read();
     if (ret != -1) {
       mCurrentChunkIdx += 1;
@@ -105,38 +109,44 @@ public class ChunkedEncodingInputStream extends FilterInputStream {
       return;
     }
     // The chunk header format
-    // hexLen + ";chunk-signature".length() + signature.length + "\r\n".length();
+    // hexLen + ";chunk-signature=" + signature + "\r\n"
     // see https://docs.aws.amazon.com/AmazonS3/latest/API/sigv4-streaming.html for
-    // further information. Everything after the "hexLen" is unchanging
-    // read bytes from input stream until hitting a semicolon
-    StringBuilder hexLen = new StringBuilder();
-    int semi = ';';
+    // further information. The header is decoded as it streams by rather than skipping a fixed
+    // number of bytes, so a short or truncated header can't stall the read on a skip() that
+    // makes no progress. The "\r\n" ending the previous chunk's data is consumed here as well.
+    int hexLen = 0;
+    int digits = 0;
     int read;
-    // slow, but is there a better way without reading over the chunk header and having to rewind
-    // on the stream? The length is generally only a few characters, so the performance impact
-    // should be minimal using read(). I've opted for code readability over performance in this
-    // particular case
-    while ((read = in.read()) != semi) {
+    while ((read = in.read()) != ';') {
       switch (read) {
         case -1:
           return;
         case (int) '\r':
         case (int) '\n':
-          continue;
+          if (digits == 0) {
+            continue;
+          }
+          throw new IOException("Missing chunk signature in aws-chunked encoded stream");
         default:
-          hexLen.append((char) read);
+          int digit = Character.digit(read, 16);
+          if (digit < 0 || digits == 8) {
+            throw new IOException(String.format(
+                "Invalid chunk length in aws-chunked encoded stream at character '%c'", read));
+          }
+          hexLen = (hexLen << 4) | digit;
+          digits++;
       }
     }
-    mCurrentChunkLength = Integer.parseInt(hexLen.toString(), 16);
-    mCurrentChunkIdx = 0;
-
-    // This is the constant size of the chunk header *after* hexLen described in the comments
-    // above.
-    int chunkHeaderLen = 82;
+    if (digits == 0 || hexLen < 0) {
+      throw new IOException("Invalid chunk length in aws-chunked encoded stream");
+    }
     // TODO(zac): verify the chunk header
-    long totalSkipped = 0;
-    do {
-      totalSkipped += in.skip(chunkHeaderLen - totalSkipped);
-    } while (totalSkipped < chunkHeaderLen);
+    while ((read = in.read()) != '\n') {
+      if (read == -1) {
+        throw new IOException("Unexpected end of aws-chunked encoded stream in chunk header");
+      }
+    }
+    mCurrentChunkLength = hexLen;
+    mCurrentChunkIdx = 0;
   }
 }
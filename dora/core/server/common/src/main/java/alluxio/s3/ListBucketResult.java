@@ -199,17 +199,18 @@ public class ListBucketResult {
     // used when handling truncating
     int[] keyCount = {0}; // must use an array to have a mutable variable during sequential stream
 
-    //sort use uri path
-    children.sort(Comparator.comparing(URIStatus::getPath));
+    //sort use the keys, the key of a folder ending with the separator as in an object store,
+    //so that a page ends where the next one starts from the marker
+    children.sort(Comparator.comparing(ListBucketResult::getKeyPath));
     mContents = children.stream()
         //marker filter
         .filter(status -> {
-          String path = status.getPath().substring(bucketPrefix.length());
-          return (path.startsWith(mPrefix) //prefix filter
-              && path.compareTo(marker) > 0 //marker filter
+          String key = getKeyPath(status).substring(bucketPrefix.length());
+          return (key.startsWith(mPrefix) //prefix filter
+              && key.compareTo(marker) > 0 //marker filter
               //startAfter filter for listObjectV2
               && (!isVersion2() || mStartAfter == null
-                || path.compareTo(mStartAfter) > 0));
+                || key.compareTo(mStartAfter) > 0));
         })
         .map(status -> {
           String path = status.getPath().substring(bucketPrefix.length());
@@ -341,6 +342,10 @@ public class ListBucketResult {
     }
   }
 
+  private static String getKeyPath(URIStatus status) {
+    return status.isFolder() ? status.getPath() + AlluxioURI.SEPARATOR : status.getPath();
+  }
+
   /**
    * @return if listObjectV2 version
    */
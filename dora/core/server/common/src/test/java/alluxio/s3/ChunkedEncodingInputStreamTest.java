@@ -0,0 +1,92 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.s3;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import alluxio.util.io.BufferUtils;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class ChunkedEncodingInputStreamTest {
+  private static final String SIGNATURE = Strings.repeat("0a", 32);
+
+  @Test
+  public void decode() throws IOException {
+    byte[] data = BufferUtils.getIncreasingByteArray(3000);
+    byte[] encoded = encode(data, 1024);
+    try (InputStream in = new ChunkedEncodingInputStream(new ByteArrayInputStream(encoded))) {
+      assertArrayEquals(data, ByteStreams.toByteArray(in));
+    }
+    // small reads that don't line up with chunk boundaries
+    try (InputStream in = new ChunkedEncodingInputStream(new ByteArrayInputStream(encoded))) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[100];
+      int read;
+      while ((read = in.read(buffer, 0, buffer.length)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      assertArrayEquals(data, out.toByteArray());
+    }
+    // single byte reads
+    try (InputStream in = new ChunkedEncodingInputStream(new ByteArrayInputStream(encoded))) {
+      for (byte b : data) {
+        assertEquals(b & 0xff, in.read());
+      }
+      assertEquals(-1, in.read());
+    }
+  }
+
+  @Test
+  public void truncatedHeader() throws IOException {
+    byte[] encoded = "400;chunk-signature=0a0a".getBytes(StandardCharsets.US_ASCII);
+    try (InputStream in = new ChunkedEncodingInputStream(new ByteArrayInputStream(encoded))) {
+      assertThrows(IOException.class, () -> in.read(new byte[10], 0, 10));
+    }
+  }
+
+  @Test
+  public void invalidLength() throws IOException {
+    byte[] encoded = ("4x0;chunk-signature=" + SIGNATURE + "\r\n")
+        .getBytes(StandardCharsets.US_ASCII);
+    try (InputStream in = new ChunkedEncodingInputStream(new ByteArrayInputStream(encoded))) {
+      assertThrows(IOException.class, () -> in.read(new byte[10], 0, 10));
+    }
+  }
+
+  private static byte[] encode(byte[] data, int chunkSize) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int pos = 0;
+    while (true) {
+      int length = Math.min(chunkSize, data.length - pos);
+      out.write(String.format("%x;chunk-signature=%s\r\n", length, SIGNATURE)
+          .getBytes(StandardCharsets.US_ASCII));
+      out.write(data, pos, length);
+      out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+      pos += length;
+      if (length == 0) {
+        break;
+      }
+    }
+    return out.toByteArray();
+  }
+}
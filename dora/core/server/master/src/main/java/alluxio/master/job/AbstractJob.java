@@ -13,12 +13,15 @@ package alluxio.master.job;
 
 import static java.util.Objects.requireNonNull;
 
+import alluxio.grpc.JobPriority;
 import alluxio.master.scheduler.Scheduler;
 import alluxio.scheduler.job.Job;
 import alluxio.scheduler.job.JobState;
+import alluxio.scheduler.job.RateLease;
 import alluxio.scheduler.job.Task;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +46,9 @@ public abstract class AbstractJob<T extends Task<?>> implements Job<T> {
   // not making it thread safe as currently scheduler has been single-threaded
   protected final LinkedHashSet<T> mRetryTaskList = new LinkedHashSet<>();
   protected WorkerAssignPolicy mWorkerAssignPolicy;
+  protected JobPriority mPriority = JobPriority.NORMAL;
+  protected int mWeight = 1;
+  protected OptionalLong mRequestRate = OptionalLong.empty();
 
   /**
    * Creates a new instance of {@link AbstractJob}.
@@ -84,6 +90,63 @@ public abstract class AbstractJob<T extends Task<?>> implements Job<T> {
     return mWorkerAssignPolicy;
   }
 
+  @Override
+  public Optional<String> getUser() {
+    return mUser;
+  }
+
+  @Override
+  public JobPriority getPriority() {
+    return mPriority;
+  }
+
+  /**
+   * Sets the priority class of the job.
+   * @param priority the priority class
+   */
+  public void setPriority(JobPriority priority) {
+    mPriority = requireNonNull(priority, "priority is null");
+  }
+
+  @Override
+  public int getWeight() {
+    return mWeight;
+  }
+
+  /**
+   * Sets the weight of the job among the jobs of the same priority class.
+   * @param weight the weight, must be positive
+   */
+  public void setWeight(int weight) {
+    Preconditions.checkArgument(weight > 0, "weight must be positive");
+    mWeight = weight;
+  }
+
+  @Override
+  public OptionalLong getRequestRate() {
+    return mRequestRate;
+  }
+
+  /**
+   * Sets the limit on the rate of UFS read requests of the job across all the workers.
+   * @param requestRate the read requests per second, empty if unlimited
+   */
+  public void setRequestRate(OptionalLong requestRate) {
+    requestRate.ifPresent(rate -> Preconditions.checkArgument(rate > 0,
+        "request rate must be positive"));
+    mRequestRate = requestRate;
+  }
+
+  /**
+   * @param task a task of the job
+   * @return the share of the limits of the job the worker running the task has been leased, or
+   *         the whole limits if the task was not started by the scheduler
+   */
+  protected RateLease getRateLeaseOf(T task) {
+    RateLease lease = task.getRateLease();
+    return lease != null ? lease : new RateLease(getBandwidth(), mRequestRate);
+  }
+
   @Override
   public String getJobId() {
     return mJobId;
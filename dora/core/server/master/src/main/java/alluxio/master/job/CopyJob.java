@@ -24,6 +24,7 @@ import alluxio.exception.runtime.InternalRuntimeException;
 import alluxio.exception.runtime.InvalidArgumentRuntimeException;
 import alluxio.grpc.CopyRequest;
 import alluxio.grpc.CopyResponse;
+import alluxio.grpc.JobPriority;
 import alluxio.grpc.JobProgressReportFormat;
 import alluxio.grpc.Route;
 import alluxio.grpc.RouteFailure;
@@ -36,6 +37,7 @@ import alluxio.metrics.MetricsSystem;
 import alluxio.proto.journal.Job.FileFilter;
 import alluxio.proto.journal.Journal;
 import alluxio.scheduler.job.JobState;
+import alluxio.scheduler.job.RateLease;
 import alluxio.scheduler.job.Task;
 import alluxio.util.FormatUtils;
 import alluxio.util.io.PathUtils;
@@ -74,6 +76,7 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
@@ -115,6 +118,8 @@ public class CopyJob extends AbstractJob<CopyJob.CopyTask> {
   private final Iterable<FileInfo> mFileIterable;
   private Optional<Iterator<FileInfo>> mFileIterator = Optional.empty();
   private Optional<FileFilter> mFilter;
+  @Nullable
+  private final ListingCheckpoint mCheckpoint;
 
   /**
    * Constructor.
@@ -134,6 +139,31 @@ public class CopyJob extends AbstractJob<CopyJob.CopyTask> {
   public CopyJob(String src, String dst, boolean overwrite, Optional<String> user, String jobId,
       OptionalLong bandwidth, boolean usePartialListing, boolean verificationEnabled,
       boolean checkContent, Iterable<FileInfo> fileIterable, Optional<FileFilter> filter) {
+    this(src, dst, overwrite, user, jobId, bandwidth, usePartialListing, verificationEnabled,
+        checkContent, fileIterable, filter, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param src                 file source
+   * @param dst                 file destination
+   * @param overwrite           whether to overwrite the file
+   * @param user                user for authentication
+   * @param jobId               job identifier
+   * @param bandwidth           bandwidth
+   * @param usePartialListing   whether to use partial listing
+   * @param verificationEnabled whether to verify the job after loaded
+   * @param checkContent        whether to check content
+   * @param fileIterable        file iterable
+   * @param filter              file filter
+   * @param checkpoint          the checkpoint the file iterable resumes from, or null if
+   *                            the listing progress is not journaled
+   */
+  public CopyJob(String src, String dst, boolean overwrite, Optional<String> user, String jobId,
+      OptionalLong bandwidth, boolean usePartialListing, boolean verificationEnabled,
+      boolean checkContent, Iterable<FileInfo> fileIterable, Optional<FileFilter> filter,
+      @Nullable ListingCheckpoint checkpoint) {
     super(user, jobId, new RoundRobinWorkerAssignPolicy());
     mSrc = requireNonNull(src, "src is null");
     mDst = requireNonNull(dst, "dst is null");
@@ -148,6 +178,7 @@ public class CopyJob extends AbstractJob<CopyJob.CopyTask> {
     mOverwrite = overwrite;
     mCheckContent = checkContent;
     mFilter = filter;
+    mCheckpoint = checkpoint;
   }
 
   /**
@@ -278,6 +309,9 @@ public class CopyJob extends AbstractJob<CopyJob.CopyTask> {
     mTotalFailureCount.addAndGet(mCurrentFailureCount.get());
     mProcessedFileCount.set(0);
     mCurrentFailureCount.set(0);
+    if (mCheckpoint != null) {
+      mCheckpoint.clear();
+    }
     mState = JobState.VERIFYING;
   }
 
@@ -343,8 +377,12 @@ public class CopyJob extends AbstractJob<CopyJob.CopyTask> {
       if (!mFailedFiles.containsKey(currentFile.getPath())) {
         mProcessedFileCount.incrementAndGet();
       }
-      Route route = buildRoute(currentFile);
+      String relativePath = getRelativePath(currentFile);
+      Route route = buildRoute(currentFile, relativePath);
       batchBuilder.add(route);
+      if (mCheckpoint != null) {
+        mCheckpoint.onListed(route.getSrc(), relativePath, 1);
+      }
       // would be inaccurate when we initial verification, and we retry un-retryable blocks
       mTotalByteCount.addAndGet(currentFile.getLength());
     }
@@ -363,6 +401,9 @@ public class CopyJob extends AbstractJob<CopyJob.CopyTask> {
     }
     LOG.debug("Retry route {}", route);
     mRetryRoutes.add(route);
+    if (mCheckpoint != null) {
+      mCheckpoint.onRetry(route.getSrc());
+    }
     mCurrentFailureCount.incrementAndGet();
     COPY_FAIL_FILE_COUNT.inc();
     return true;
@@ -393,13 +434,15 @@ public class CopyJob extends AbstractJob<CopyJob.CopyTask> {
     COPY_SKIP_FILE_COUNT.inc();
   }
 
-  private Route buildRoute(FileInfo sourceFile) {
-    String relativePath;
+  private String getRelativePath(FileInfo sourceFile) {
     try {
-      relativePath = PathUtils.subtractPaths(sourceFile.getPath(), new AlluxioURI(mSrc).getPath());
+      return PathUtils.subtractPaths(sourceFile.getPath(), new AlluxioURI(mSrc).getPath());
     } catch (InvalidPathException e) {
       throw new InvalidArgumentRuntimeException("fail to parse source file path", e);
     }
+  }
+
+  private Route buildRoute(FileInfo sourceFile, String relativePath) {
     String dst = PathUtils.concatPath(mDst, relativePath);
     return Route.newBuilder().setSrc(sourceFile.getUfsPath())
                 .setDst(dst).setLength(sourceFile.getLength()).build();
@@ -441,9 +484,12 @@ public class CopyJob extends AbstractJob<CopyJob.CopyTask> {
         .setVerify(mVerificationEnabled)
         .setOverwrite(mOverwrite)
         .setCheckContent(mCheckContent)
+        .setPriority(mPriority)
+        .setWeight(mWeight)
         .setJobId(mJobId);
     mUser.ifPresent(jobEntry::setUser);
     mBandwidth.ifPresent(jobEntry::setBandwidth);
+    mRequestRate.ifPresent(jobEntry::setRequestRate);
     mEndTime.ifPresent(jobEntry::setEndTime);
     if (mFilter.isPresent()) {
       FileFilter.Builder builder = FileFilter.newBuilder().setValue(mFilter.get().getValue())
@@ -453,6 +499,9 @@ public class CopyJob extends AbstractJob<CopyJob.CopyTask> {
       }
       jobEntry.setFilter(builder.build());
     }
+    if (mCheckpoint != null) {
+      jobEntry.setCheckpoint(mCheckpoint.toProto());
+    }
     return Journal.JournalEntry
         .newBuilder()
         .setCopyJob(jobEntry.build())
@@ -523,6 +572,11 @@ public class CopyJob extends AbstractJob<CopyJob.CopyTask> {
       // We don't count InterruptedException as task failure
       return true;
     }
+    finally {
+      if (mCheckpoint != null) {
+        task.getRoutes().forEach(route -> mCheckpoint.onProcessed(route.getSrc()));
+      }
+    }
   }
 
   @Override
@@ -555,6 +609,11 @@ public class CopyJob extends AbstractJob<CopyJob.CopyTask> {
       mRoutes = routes;
     }
 
+    @Override
+    public long getSize() {
+      return mRoutes.stream().mapToLong(Route::getLength).sum();
+    }
+
     @Override
     public ListenableFuture<CopyResponse> run(BlockWorkerClient workerClient) {
       CopyRequest.Builder request = CopyRequest
@@ -565,9 +624,9 @@ public class CopyJob extends AbstractJob<CopyJob.CopyTask> {
           .setTag(mJobId)
           .setPositionShort(false);
 
-      if (mBandwidth.isPresent()) {
-        ufsReadOptions.setBandwidth(mBandwidth.getAsLong());
-      }
+      RateLease lease = getRateLeaseOf(this);
+      lease.getBandwidth().ifPresent(ufsReadOptions::setBandwidth);
+      lease.getRequestRate().ifPresent(ufsReadOptions::setRequestRate);
       mUser.ifPresent(ufsReadOptions::setUser);
       WriteOptions writeOptions = WriteOptions
           .newBuilder()
@@ -590,6 +649,8 @@ public class CopyJob extends AbstractJob<CopyJob.CopyTask> {
     private final boolean mVerbose;
     private final JobState mJobState;
     private final boolean mCheckContent;
+    private final JobPriority mPriority;
+    private final int mWeight;
     private final long mProcessedFileCount;
     private final long mByteCount;
     private final Long mTotalByteCount;
@@ -610,6 +671,8 @@ public class CopyJob extends AbstractJob<CopyJob.CopyTask> {
       mJobId = job.mJobId;
       mJobState = job.mState;
       mCheckContent = job.mCheckContent;
+      mPriority = job.mPriority;
+      mWeight = job.mWeight;
       mProcessedFileCount = job.mProcessedFileCount.get();
       mByteCount = job.mCopiedByteCount.get();
       if (!job.mUsePartialListing && job.mFileIterator.isPresent()) {
@@ -672,7 +735,8 @@ public class CopyJob extends AbstractJob<CopyJob.CopyTask> {
     private String getTextReport() {
       StringBuilder progress = new StringBuilder();
       progress.append(
-          format("\tSettings: \"check-content: %s\"%n", mCheckContent));
+          format("\tSettings: \"check-content: %s\" \"priority: %s\" \"weight: %d\"%n",
+              mCheckContent, mPriority, mWeight));
       progress.append(format("\tJob Submitted: %s%n", new Date(mStartTime)));
       progress.append(format("\tJob Id: %s%n", mJobId));
       if (mJobState == JobState.SUCCEEDED || mJobState == JobState.FAILED) {
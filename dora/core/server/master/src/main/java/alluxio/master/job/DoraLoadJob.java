@@ -22,10 +22,12 @@ import alluxio.conf.PropertyKey;
 import alluxio.exception.runtime.AlluxioRuntimeException;
 import alluxio.exception.runtime.InternalRuntimeException;
 import alluxio.exception.runtime.InvalidArgumentRuntimeException;
+import alluxio.grpc.JobPriority;
 import alluxio.grpc.JobProgressReportFormat;
 import alluxio.grpc.LoadFailure;
 import alluxio.grpc.LoadFileRequest;
 import alluxio.grpc.LoadFileResponse;
+import alluxio.grpc.LoadRangePOptions;
 import alluxio.grpc.TaskStatus;
 import alluxio.grpc.UfsReadOptions;
 import alluxio.job.JobDescription;
@@ -34,6 +36,7 @@ import alluxio.metrics.MetricsSystem;
 import alluxio.metrics.MultiDimensionalMetricsSystem;
 import alluxio.proto.journal.Journal;
 import alluxio.scheduler.job.JobState;
+import alluxio.scheduler.job.RateLease;
 import alluxio.scheduler.job.Task;
 import alluxio.underfs.UfsStatus;
 import alluxio.underfs.UnderFileSystem;
@@ -54,6 +57,7 @@ import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.EvictingQueue;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Queues;
 import com.google.common.util.concurrent.ListenableFuture;
 import org.apache.commons.lang3.time.DurationFormatUtils;
@@ -79,9 +83,11 @@ import java.util.OptionalLong;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -140,6 +146,23 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
   private final long mJobStartTimestamp;
   private volatile OptionalLong mJobFinishTimestamp = OptionalLong.empty();
   private volatile Optional<String> mFailedFileSavedPath = Optional.empty();
+  @Nullable
+  private final ListingCheckpoint mCheckpoint;
+  @Nullable
+  private LoadManifest mManifest;
+  private final AtomicLong mUnchangedFilesCount = new AtomicLong();
+  @Nullable
+  private LoadRangePOptions mRanges;
+  private final AtomicLong mNotSelectedByteCount = new AtomicLong();
+  private final LoadCompletionIndex mCompletionIndex = new LoadCompletionIndex();
+  private volatile boolean mVerified;
+  /** The last file listed before the job was restored from the journal, if restored. */
+  private final Optional<String> mRestoredWatermark;
+  /** Lists the files to load from the start, to verify the files listed before restored. */
+  @Nullable
+  private Supplier<Iterator<UfsStatus>> mRestoredListing;
+  /** The tasks handed out and not processed yet. */
+  private final Set<DoraLoadTask> mRunningTasks = ConcurrentHashMap.newKeySet();
 
   class LoadSubTaskIterator implements Iterator<LoadSubTask> {
     private LoadSubTaskIterator(Iterator<UfsStatus> ufsStatusIterator) {
@@ -149,13 +172,16 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
     volatile Set<WorkerInfo> mWorkers = Collections.emptySet();
     Iterator<LoadSubTask> mCurrentUfsStatusSubTaskIterator = Collections.emptyIterator();
     Iterator<UfsStatus> mUfsStatusIterator;
+    /** Whether listing again the files listed before the job was restored, to verify them. */
+    boolean mListingRestored;
 
     private List<LoadSubTask> generateSubTasksForFile(
-        UfsStatus ufsStatus, Set<WorkerInfo> workers) {
+        UfsStatus ufsStatus, Set<WorkerInfo> workers, boolean changed) {
       List<LoadSubTask> subTasks = new ArrayList<>();
-      // add load metadata task
-      LoadMetadataSubTask subTask = new LoadMetadataSubTask(ufsStatus, mVirtualBlockSize);
-      subTasks.add(subTask);
+      // add load metadata task, unless the metadata was loaded before the job was restored
+      if (!mListingRestored) {
+        subTasks.add(new LoadMetadataSubTask(ufsStatus, mVirtualBlockSize));
+      }
       if (!mLoadMetadataOnly && ufsStatus.isFile()
           && ufsStatus.asUfsFileStatus().getContentLength() != 0) {
         long contentLength = ufsStatus.asUfsFileStatus().getContentLength();
@@ -165,17 +191,24 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
             long offset = mVirtualBlockSize * i;
             long leftover = contentLength - offset;
             subTasks.add(new LoadDataSubTask(ufsStatus, mVirtualBlockSize, offset,
-                Math.min(leftover, mVirtualBlockSize)));
+                Math.min(leftover, mVirtualBlockSize)).setInvalidateCache(changed));
           }
         }
         else {
-          subTasks.add(new LoadDataSubTask(ufsStatus, mVirtualBlockSize, 0, contentLength));
+          subTasks.add(new LoadDataSubTask(ufsStatus, mVirtualBlockSize, 0, contentLength)
+              .setInvalidateCache(changed));
         }
       }
       List<LoadSubTask> subTasksWithWorker =
           assignSubtasksToWorkers(subTasks, workers, mNumReplica);
-      mTotalByteCount.addAndGet(
-          subTasksWithWorker.stream().mapToLong(LoadSubTask::getLength).sum());
+      if (mVerificationEnabled) {
+        subTasksWithWorker.stream().filter(it -> !it.isLoadMetadata())
+            .forEach(it -> mCompletionIndex.expect((LoadDataSubTask) it));
+      }
+      if (!mListingRestored) {
+        mTotalByteCount.addAndGet(
+            subTasksWithWorker.stream().mapToLong(LoadSubTask::getLength).sum());
+      }
       mProcessingSubTasksCount.addAndGet(subTasksWithWorker.size());
       return subTasksWithWorker;
     }
@@ -197,25 +230,72 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
       mWorkers = workers;
     }
 
-    @Override
-    public boolean hasNext() {
-      return mCurrentUfsStatusSubTaskIterator.hasNext()
-          || mUfsStatusIterator.hasNext();
+    /**
+     * Lists again the files listed before the job was restored, for their blocks to be proven
+     * cached.
+     *
+     * @param statuses the files listed before the job was restored
+     */
+    synchronized void listRestored(Iterator<UfsStatus> statuses) {
+      mUfsStatusIterator = statuses;
+      mListingRestored = true;
+    }
+
+    /**
+     * @return the iterator listing the ufs in shards, or null if the ufs is not listed in shards
+     */
+    @Nullable
+    ShardedUfsStatusIterable.ShardedUfsStatusIterator getShardedIterator() {
+      if (mUfsStatusIterator instanceof ShardedUfsStatusIterable.ShardedUfsStatusIterator) {
+        return (ShardedUfsStatusIterable.ShardedUfsStatusIterator) mUfsStatusIterator;
+      }
+      return null;
+    }
+
+    /**
+     * Stops listing the ufs if it is listed in the background.
+     */
+    public void close() {
+      ShardedUfsStatusIterable.ShardedUfsStatusIterator iterator = getShardedIterator();
+      if (iterator != null) {
+        iterator.close();
+      }
     }
 
     @Override
-    public LoadSubTask next() {
-      if (mCurrentUfsStatusSubTaskIterator.hasNext()) {
-        return mCurrentUfsStatusSubTaskIterator.next();
+    public synchronized boolean hasNext() {
+      // Files unchanged since the last incremental load generate no subtask, so skip to
+      // the next file which does.
+      while (!mCurrentUfsStatusSubTaskIterator.hasNext() && mUfsStatusIterator.hasNext()) {
+        UfsStatus ufsStatus = mUfsStatusIterator.next();
+        if (mListingRestored) {
+          mCurrentUfsStatusSubTaskIterator =
+              generateSubTasksForFile(ufsStatus, mWorkers, false).listIterator();
+          continue;
+        }
+        mScannedInodesCount.incrementAndGet();
+        LoadManifest.Change change =
+            mManifest == null ? LoadManifest.Change.NEW : mManifest.diff(ufsStatus);
+        if (change == LoadManifest.Change.UNCHANGED) {
+          mUnchangedFilesCount.incrementAndGet();
+          continue;
+        }
+        List<LoadSubTask> subTasks = generateSubTasksForFile(ufsStatus, mWorkers,
+            change == LoadManifest.Change.CHANGED);
+        if (mCheckpoint != null) {
+          mCheckpoint.onListed(ufsStatus.getUfsFullPath().toString(), ufsStatus.getName(),
+              subTasks.size());
+        }
+        mCurrentUfsStatusSubTaskIterator = subTasks.listIterator();
       }
-      if (!mUfsStatusIterator.hasNext()) {
+      return mCurrentUfsStatusSubTaskIterator.hasNext();
+    }
+
+    @Override
+    public synchronized LoadSubTask next() {
+      if (!hasNext()) {
         throw new NoSuchElementException("No more load subtask");
       }
-      UfsStatus ufsStatus = mUfsStatusIterator.next();
-      mScannedInodesCount.incrementAndGet();
-      List<LoadSubTask> subTasks = generateSubTasksForFile(ufsStatus, mWorkers);
-      mCurrentUfsStatusSubTaskIterator = subTasks.listIterator();
-      // A ufs status generates at least one subtask.
       return mCurrentUfsStatusSubTaskIterator.next();
     }
   }
@@ -240,6 +320,32 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
       boolean usePartialListing, boolean verificationEnabled, boolean loadMetadataOnly,
       boolean skipIfExists, Optional<String> fileFilterRegx, Iterator<UfsStatus> ufsStatusIterator,
                      UnderFileSystem ufs, int replica) {
+    this(path, user, jobId, bandwidth, usePartialListing, verificationEnabled, loadMetadataOnly,
+        skipIfExists, fileFilterRegx, ufsStatusIterator, ufs, replica, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param path                file path
+   * @param user                user for authentication
+   * @param jobId               job identifier
+   * @param bandwidth           bandwidth
+   * @param usePartialListing   whether to use partial listing
+   * @param verificationEnabled whether to verify the job after loaded
+   * @param loadMetadataOnly    if set to true, only metadata will be loaded without loading
+   * @param skipIfExists        skip if exists
+   * @param fileFilterRegx      the regx pattern string for file filter
+   * @param ufsStatusIterator   ufsStatus iterable
+   * @param ufs                 under file system
+   * @param replica             replica
+   * @param checkpoint          the checkpoint the ufsStatus iterable resumes from, or null if
+   *                            the listing progress is not journaled
+   */
+  public DoraLoadJob(String path, Optional<String> user, String jobId, OptionalLong bandwidth,
+      boolean usePartialListing, boolean verificationEnabled, boolean loadMetadataOnly,
+      boolean skipIfExists, Optional<String> fileFilterRegx, Iterator<UfsStatus> ufsStatusIterator,
+      UnderFileSystem ufs, int replica, @Nullable ListingCheckpoint checkpoint) {
     super(user, jobId, new HashBasedWorkerAssignPolicy());
     mLoadPath = requireNonNull(path, "path is null");
     Preconditions.checkArgument(
@@ -255,6 +361,8 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
     mFileFilterRegx = fileFilterRegx;
     mLoadSubTaskIterator = new LoadSubTaskIterator(ufsStatusIterator);
     mNumReplica = replica;
+    mCheckpoint = checkpoint;
+    mRestoredWatermark = checkpoint == null ? Optional.empty() : checkpoint.getStartAfter();
     mJobStartTimestamp = CommonUtils.getCurrentMs();
     LOG.info("DoraLoadJob for {} created.", path);
   }
@@ -348,6 +456,10 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
           FailureReason.CANCELLED,
           "Retry cancelled due to job failure");
     }
+    // The files with blocks not proven cached once verified failed to load
+    if (mVerified) {
+      mFailedFiles.addAll(mCompletionIndex.getUnprovenFiles());
+    }
     JOB_LOAD_FAIL.inc();
     LOG.info("Load Job {} fails with status: {}", mJobId, this);
     persistFailedFilesList();
@@ -379,6 +491,60 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
     }
   }
 
+  @Override
+  public void setJobState(JobState state, boolean journalUpdate) {
+    super.setJobState(state, journalUpdate);
+    if (isDone()) {
+      mLoadSubTaskIterator.close();
+      if (mManifest != null) {
+        if (state == JobState.SUCCEEDED) {
+          mManifest.commit(mFailedFiles);
+        } else {
+          mManifest.discard();
+        }
+      }
+    }
+  }
+
+  /**
+   * Makes the job load incrementally, only loading the files which are new or changed since
+   * the last successful incremental load of the path, and dropping the pages cached for the
+   * changed ones.
+   *
+   * @param manifest the manifest of the path, or null to load all files
+   */
+  public void setManifest(@Nullable LoadManifest manifest) {
+    mManifest = manifest;
+  }
+
+  /**
+   * @return whether the job only loads the files new or changed since the last load
+   */
+  public boolean isIncremental() {
+    return mManifest != null;
+  }
+
+  /**
+   * Makes the job only load parts of the files, the byte ranges, the footers or the column
+   * chunks selected. The workers plan the parts of every virtual block to load.
+   *
+   * @param ranges the parts of the files to load, or null to load the whole files
+   */
+  public void setRanges(@Nullable LoadRangePOptions ranges) {
+    mRanges = ranges;
+  }
+
+  /**
+   * Sets how to list the files to load again from the start. A job restored from the journal
+   * part way through its listing does not track the blocks of the files listed before, so
+   * verifying it lists them again up to where the listing resumed.
+   *
+   * @param listing lists the files to load from the start
+   */
+  public void setRestoredListing(Supplier<Iterator<UfsStatus>> listing) {
+    mRestoredListing = listing;
+  }
+
   @Override
   public void setJobSuccess() {
     mJobFinishTimestamp = OptionalLong.of(CommonUtils.getCurrentMs());
@@ -412,6 +578,9 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
     }
     subTask.setRetry(true);
     mRetrySubTasksDLQ.offer(subTask);
+    if (mCheckpoint != null) {
+      mCheckpoint.onRetry(subTask.getUfsPath());
+    }
     mRetrySubTasksCount.incrementAndGet();
     mRecentRetries.add(new Pair<>(
         subTask, format("Reason: %s, message: %s", reason.name(), message)));
@@ -431,6 +600,7 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
     // it's not hugely important what are the reasons for each specific failure,
     // if they are different, so we will just keep the first one.
     mFailedFiles.add(subTask.getUfsPath());
+    mCompletionIndex.discard(subTask.getUfsPath());
     mRecentFailures.add(new Pair<>(
         subTask, format("Reason: %s, message: %s", reason.name(), message)));
     mTotalFinalFailureCount.incrementAndGet();
@@ -477,9 +647,34 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
         && mRetryTaskList.isEmpty();
   }
 
+  /**
+   * Verifies the job by loading again the pages missing from the blocks the workers did not
+   * prove cached once done with them. The ufs is neither listed nor read to check the files
+   * loaded, and the blocks still not proven cached after this pass fail the job. The files
+   * listed before the job was restored from the journal are listed again, and their blocks
+   * cached are proven without loading them again.
+   */
   @Override
   public void initiateVerification() {
-    // No op for now
+    Preconditions.checkState(isCurrentPassDone(), "Previous pass is not finished");
+    mVerified = true;
+    if (mRestoredWatermark.isPresent()) {
+      String watermark = mRestoredWatermark.get();
+      if (mRestoredListing != null) {
+        LOG.info("Verifying load job {}, listing again the files up to {}", mJobId, watermark);
+        mLoadSubTaskIterator.listRestored(Iterators.filter(mRestoredListing.get(),
+            status -> status.getName().compareTo(watermark) <= 0));
+      } else {
+        LOG.warn("Load job {} cannot verify the files up to {} listed before it was restored",
+            mJobId, watermark);
+      }
+    }
+    List<LoadDataSubTask> missing = mCompletionIndex.getMissing();
+    LOG.info("Verifying load job {}, loading again {} blocks not proven cached",
+        mJobId, missing.size());
+    missing.forEach(mRetrySubTasksDLQ::offer);
+    mProcessingSubTasksCount.addAndGet(missing.size());
+    mState = JobState.VERIFYING;
   }
 
   @Override
@@ -501,6 +696,7 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
           return Collections.unmodifiableList(list);
         }
         list = prepareNextTasks(workers);
+        mRunningTasks.addAll(list);
         return Collections.unmodifiableList(list);
       } finally {
         mPreparingTasks.compareAndSet(true, false);
@@ -544,11 +740,23 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
         .setVerify(mVerificationEnabled)
         .setSkipIfExists(mSkipIfExists)
         .setReplicas(mNumReplica)
+        .setPriority(mPriority)
+        .setWeight(mWeight)
         .setJobId(mJobId);
     mFileFilterRegx.ifPresent(jobEntry::setFileFilterRegx);
     mUser.ifPresent(jobEntry::setUser);
     mBandwidth.ifPresent(jobEntry::setBandwidth);
+    mRequestRate.ifPresent(jobEntry::setRequestRate);
     mEndTime.ifPresent(jobEntry::setEndTime);
+    if (mManifest != null) {
+      jobEntry.setIncremental(true);
+    }
+    if (mRanges != null) {
+      jobEntry.setRanges(mRanges);
+    }
+    if (mCheckpoint != null) {
+      jobEntry.setCheckpoint(mCheckpoint.toProto());
+    }
     return Journal.JournalEntry
         .newBuilder()
         .setLoadJob(jobEntry.build())
@@ -593,7 +801,9 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
           - (int) response.getFailuresList().stream()
           .filter(i -> i.getSubtask().hasLoadMetadataSubtask()).count();
       if (!mLoadMetadataOnly) {
-        addLoadedBytes(totalLoadedBytes - response.getBytesSkipped());
+        addLoadedBytes(
+            totalLoadedBytes - response.getBytesSkipped() - response.getBytesNotSelected());
+        mNotSelectedByteCount.addAndGet(response.getBytesNotSelected());
         LOAD_FILE_SIZE.inc(totalLoadedBytes);
         LOAD_RATE.mark(totalLoadedBytes);
         LOAD_RATE.mark(totalLoadedBytes);
@@ -602,6 +812,10 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
       LOAD_FILE_COUNT.inc(totalLoadedInodes);
       mSkippedBlocksCount.addAndGet(response.getNumSkipped());
       mSkippedByteCount.addAndGet(response.getBytesSkipped());
+      if (mVerificationEnabled) {
+        response.getCachedBlocksList().forEach(
+            block -> mCompletionIndex.prove(doraLoadTask.getMyRunningWorker(), block));
+      }
       return response.getStatus() != TaskStatus.FAILURE;
     }
     catch (ExecutionException e) {
@@ -627,6 +841,9 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
       // We don't count InterruptedException as task failure
       return true;
     }
+    finally {
+      onSubTasksProcessed(doraLoadTask);
+    }
   }
 
   @Override
@@ -636,11 +853,26 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
       addSubTaskToRetryOrFail(
           subTask, FailureReason.MEMBERSHIP_CHANGED, "Worker became unavailable");
     }
+    onSubTasksProcessed(task);
+  }
+
+  private void onSubTasksProcessed(DoraLoadTask task) {
+    mRunningTasks.remove(task);
+    if (mCheckpoint != null) {
+      task.getSubTasks().forEach(subTask -> mCheckpoint.onProcessed(subTask.getUfsPath()));
+    }
   }
 
   @Override
   public boolean hasFailure() {
-    return !mFailedFiles.isEmpty();
+    return !mFailedFiles.isEmpty() || (isVerificationDone() && mCompletionIndex.hasUnproven());
+  }
+
+  /**
+   * @return whether the blocks loaded again to verify the job are all processed
+   */
+  private boolean isVerificationDone() {
+    return mVerified && isCurrentPassDone() && mRunningTasks.isEmpty();
   }
 
   /**
@@ -650,7 +882,8 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
    */
   @Override
   public boolean needVerification() {
-    return false;
+    return mVerificationEnabled && !mVerified && !mLoadMetadataOnly
+        && (mCompletionIndex.hasUnproven() || mRestoredWatermark.isPresent());
   }
 
   /**
@@ -680,6 +913,11 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
       mSubTasks.add(subTask);
     }
 
+    @Override
+    public long getSize() {
+      return mSubTasks.stream().mapToLong(LoadSubTask::getLength).sum();
+    }
+
     @Override
     protected ListenableFuture<LoadFileResponse> run(BlockWorkerClient workerClient) {
       LOG.debug("Start running task:{} on worker:{}", this, getMyRunningWorker());
@@ -694,9 +932,18 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
           .newBuilder()
           .setTag(mJobId)
           .setPositionShort(false);
+      RateLease lease = getRateLeaseOf(this);
+      lease.getBandwidth().ifPresent(ufsReadOptions::setBandwidth);
+      lease.getRequestRate().ifPresent(ufsReadOptions::setRequestRate);
       mUser.ifPresent(ufsReadOptions::setUser);
       loadFileReqBuilder.setOptions(ufsReadOptions);
-      loadFileReqBuilder.setSkipIfExists(mSkipIfExists);
+      // verifying proves the blocks cached rather than loading them again
+      loadFileReqBuilder.setSkipIfExists(mSkipIfExists || mVerified);
+      // the pages found cached only serve to verify the job
+      loadFileReqBuilder.setReportCachedBlocks(mVerificationEnabled);
+      if (mRanges != null) {
+        loadFileReqBuilder.setRanges(mRanges);
+      }
       return loadFileReqBuilder.build();
     }
 
@@ -720,6 +967,8 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
     private final JobState mJobState;
     private final Long mBandwidth;
     private final boolean mVerificationEnabled;
+    private final JobPriority mPriority;
+    private final int mWeight;
     private final long mSkippedByteCount;
     private final long mLoadedByteCount;
     private final long mScannedInodesCount;
@@ -736,10 +985,19 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
     private final List<Pair<LoadSubTask, String>> mRecentRetryingSubtasksWithReasons;
     private final boolean mSkipIfExists;
     private final boolean mMetadataOnly;
+    private final boolean mIncremental;
+    private final long mUnchangedFilesCount;
+    @Nullable private final Long mNotSelectedByteCount;
+    @Nullable private final Long mProvenFilesCount;
+    @Nullable private final Long mProvenByteCount;
+    @Nullable private final Long mUnprovenBlocksCount;
     private String mRunningStage;
     private final int mRetryDeadLetterQueueSize;
     private final long mTimeElapsed;
     @Nullable private final String mFailedFileSavedPath;
+    @Nullable private final Integer mListingShards;
+    @Nullable private final Integer mListedShards;
+    @Nullable private final Map<String, Long> mListingShardProgress;
 
     /**
      * Constructor.
@@ -751,6 +1009,8 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
       mJobState = job.mState;
       mBandwidth = job.mBandwidth.isPresent() ? job.mBandwidth.getAsLong() : null;
       mVerificationEnabled = job.mVerificationEnabled;
+      mPriority = job.mPriority;
+      mWeight = job.mWeight;
       mProcessedInodesCount = job.mProcessedInodesCount.get();
       mLoadedByteCount = job.mLoadedByteCount.get();
       if (!job.mUsePartialListing) {
@@ -794,6 +1054,18 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
       mSkippedByteCount = job.mSkippedByteCount.get();
       mSkipIfExists = job.mSkipIfExists;
       mMetadataOnly = job.mLoadMetadataOnly;
+      mIncremental = job.isIncremental();
+      mUnchangedFilesCount = job.mUnchangedFilesCount.get();
+      mNotSelectedByteCount = job.mRanges == null ? null : job.mNotSelectedByteCount.get();
+      if (job.mVerificationEnabled && !job.mLoadMetadataOnly) {
+        mProvenFilesCount = job.mCompletionIndex.getProvenFiles();
+        mProvenByteCount = job.mCompletionIndex.getProvenBytes();
+        mUnprovenBlocksCount = job.mCompletionIndex.getUnprovenBlocks();
+      } else {
+        mProvenFilesCount = null;
+        mProvenByteCount = null;
+        mUnprovenBlocksCount = null;
+      }
       mRunningStage = "";
       if (mJobState == JobState.RUNNING && verbose) {
         mRunningStage = job.mLoadSubTaskIterator.hasNext() ? "LOADING" : "RETRYING";
@@ -802,6 +1074,17 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
       mTimeElapsed =
           job.mJobFinishTimestamp.orElse(CommonUtils.getCurrentMs()) - job.mJobStartTimestamp;
       mFailedFileSavedPath = job.mFailedFileSavedPath.orElse(null);
+      ShardedUfsStatusIterable.ShardedUfsStatusIterator shardedIterator =
+          job.mLoadSubTaskIterator.getShardedIterator();
+      if (shardedIterator != null) {
+        mListingShards = shardedIterator.getTotalShards();
+        mListedShards = shardedIterator.getListedShards();
+        mListingShardProgress = verbose ? shardedIterator.getListingShardProgress() : null;
+      } else {
+        mListingShards = null;
+        mListedShards = null;
+        mListingShardProgress = null;
+      }
     }
 
     public String getReport(JobProgressReportFormat format)
@@ -820,9 +1103,10 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
     private String getTextReport() {
       StringBuilder progress = new StringBuilder();
       progress.append(
-          format("\tSettings:\tbandwidth: %s\tverify: %s\tmetadata-only: %s%n",
+          format("\tSettings:\tbandwidth: %s\tverify: %s\tmetadata-only: %s\tpriority: %s"
+                  + "\tweight: %d%n",
               mBandwidth == null ? "unlimited" : mBandwidth,
-              mVerificationEnabled, mMetadataOnly));
+              mVerificationEnabled, mMetadataOnly, mPriority, mWeight));
       progress.append(format("\tTime Elapsed: %s%n",
           DurationFormatUtils.formatDuration(mTimeElapsed, "HH:mm:ss")));
       progress.append(format("\tJob State: %s%s%n", mJobState,
@@ -840,7 +1124,17 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
         }
       }
       progress.append(format("\tInodes Scanned: %d%n", mScannedInodesCount));
+      if (mListingShards != null) {
+        progress.append(format("\tListing Shards: %d/%d listed%n", mListedShards, mListingShards));
+        if (mListingShardProgress != null) {
+          mListingShardProgress.forEach((shard, listed) ->
+              progress.append(format("\t\t%s: %d listed%n", shard, listed)));
+        }
+      }
       progress.append(format("\tInodes Processed: %d%n", mProcessedInodesCount));
+      if (mIncremental) {
+        progress.append(format("\tInodes Unchanged: %d%n", mUnchangedFilesCount));
+      }
       if (mSkipIfExists) {
         progress.append(format("\tBytes Skipped: %s%s%n",
             FormatUtils.getSizeFromBytes(mSkippedByteCount),
@@ -848,6 +1142,11 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
                 ? "" : format(" out of %s", FormatUtils.getSizeFromBytes(mTotalByteCount))));
       }
 
+      if (mNotSelectedByteCount != null) {
+        progress.append(format("\tBytes Not Selected: %s%n",
+            FormatUtils.getSizeFromBytes(mNotSelectedByteCount)));
+      }
+
       if (!mMetadataOnly) {
         progress.append(format("\tBytes Loaded: %s%s%n",
             FormatUtils.getSizeFromBytes(mLoadedByteCount),
@@ -858,6 +1157,12 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
               FormatUtils.getSizeFromBytes(mThroughput)));
         }
       }
+      if (mProvenFilesCount != null) {
+        progress.append(format("\tFiles Proven Cached: %d%n", mProvenFilesCount));
+        progress.append(format("\tBytes Proven Cached: %s%n",
+            FormatUtils.getSizeFromBytes(mProvenByteCount)));
+        progress.append(format("\tBlocks Not Proven Cached: %d%n", mUnprovenBlocksCount));
+      }
       progress.append(format("\tFile Failure rate: %.2f%%%n", mFailureFilesPercentage));
       progress.append(format("\tSubtask Failure rate: %.2f%%%n", mFailureSubTasksPercentage));
       progress.append(format("\tFiles Failed: %s%n", mFailedFileCount));
@@ -29,6 +29,7 @@ import alluxio.wire.FileInfo;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.function.Predicate;
+import javax.annotation.Nullable;
 
 /**
  * Factory for creating {@link LoadJob}s from journal entries.
@@ -72,17 +73,29 @@ public class JournalCopyJobFactory implements JobFactory {
     }
     Predicate<FileInfo> predicate = mJobEntry.hasFilter() ? FilePredicate
         .create(mJobEntry.getFilter()).get() : FileInfo::isCompleted;
+    ListingCheckpoint checkpoint = ListingCheckpoint.create(ufs,
+        mJobEntry.hasCheckpoint() ? mJobEntry.getCheckpoint() : null);
     Iterable<FileInfo> fileIterator =
-        new UfsFileIterable(ufs, mJobEntry.getSrc(), user, predicate);
-    AbstractJob<?> job = getCopyJob(user, fileIterator);
+        new UfsFileIterable(ufs, mJobEntry.getSrc(), user, predicate, checkpoint);
+    AbstractJob<?> job = getCopyJob(user, fileIterator, checkpoint);
     job.setJobState(JobState.fromProto(mJobEntry.getState()), false);
     if (mJobEntry.hasEndTime()) {
       job.setEndTime(mJobEntry.getEndTime());
     }
+    if (mJobEntry.hasPriority()) {
+      job.setPriority(mJobEntry.getPriority());
+    }
+    if (mJobEntry.hasWeight()) {
+      job.setWeight(mJobEntry.getWeight());
+    }
+    if (mJobEntry.hasRequestRate()) {
+      job.setRequestRate(OptionalLong.of(mJobEntry.getRequestRate()));
+    }
     return job;
   }
 
-  private CopyJob getCopyJob(Optional<String> user, Iterable<FileInfo> fileIterator) {
+  private CopyJob getCopyJob(Optional<String> user, Iterable<FileInfo> fileIterator,
+      @Nullable ListingCheckpoint checkpoint) {
     Optional<FileFilter> fileFilter = mJobEntry.hasFilter() ? Optional.of(mJobEntry.getFilter()) :
         Optional.empty();
     CopyJob job =
@@ -90,7 +103,7 @@ public class JournalCopyJobFactory implements JobFactory {
             mJobEntry.getJobId(),
             mJobEntry.hasBandwidth() ? OptionalLong.of(mJobEntry.getBandwidth()) :
                 OptionalLong.empty(), mJobEntry.getPartialListing(), mJobEntry.getVerify(),
-            mJobEntry.getCheckContent(), fileIterator, fileFilter);
+            mJobEntry.getCheckContent(), fileIterator, fileFilter, checkpoint);
     return job;
   }
 }
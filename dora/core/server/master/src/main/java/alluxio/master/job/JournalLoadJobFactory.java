@@ -14,6 +14,7 @@ package alluxio.master.job;
 import alluxio.AlluxioURI;
 import alluxio.annotation.SuppressFBWarnings;
 import alluxio.conf.Configuration;
+import alluxio.conf.PropertyKey;
 import alluxio.master.file.DefaultFileSystemMaster;
 import alluxio.master.predicate.FilePredicate;
 import alluxio.scheduler.job.Job;
@@ -69,19 +70,48 @@ public class JournalLoadJobFactory implements JobFactory {
         fileFilterRegx = Optional.of(regxPatternStr);
       }
     }
-    Iterable<UfsStatus> iterable = new UfsStatusIterable(ufs, path,
-        Optional.ofNullable(AuthenticatedClientUser.getOrNull()).map(User::getName),
-        predicate);
+    Optional<String> listingUser =
+        Optional.ofNullable(AuthenticatedClientUser.getOrNull()).map(User::getName);
+    int listingParallelism =
+        Configuration.getInt(PropertyKey.MASTER_DORA_LOAD_JOB_LISTING_PARALLELISM);
+    ListingCheckpoint checkpoint = listingParallelism > 1 ? null : ListingCheckpoint.create(ufs,
+        mJobEntry.hasCheckpoint() ? mJobEntry.getCheckpoint() : null);
+    Iterable<UfsStatus> iterable = listingParallelism > 1
+        ? new ShardedUfsStatusIterable(ufs, path, listingUser, predicate, listingParallelism)
+        : new UfsStatusIterable(ufs, path, listingUser, predicate, checkpoint);
     Optional<String> user =
         mJobEntry.hasUser() ? Optional.of(mJobEntry.getUser()) : Optional.empty();
     DoraLoadJob job = new DoraLoadJob(path, user, mJobEntry.getJobId(),
         mJobEntry.hasBandwidth() ? OptionalLong.of(mJobEntry.getBandwidth()) : OptionalLong.empty(),
         mJobEntry.getPartialListing(), mJobEntry.getVerify(), mJobEntry.getLoadMetadataOnly(),
-        mJobEntry.getSkipIfExists(), fileFilterRegx, iterable.iterator(), ufs, 1);
+        mJobEntry.getSkipIfExists(), fileFilterRegx, iterable.iterator(), ufs, 1,
+        checkpoint);
+    if (checkpoint != null && checkpoint.getStartAfter().isPresent()) {
+      // the files listed before the job was restored are listed again to be verified
+      Predicate<UfsStatus> filter = predicate;
+      job.setRestoredListing(
+          () -> new UfsStatusIterable(ufs, path, listingUser, filter).iterator());
+    }
     job.setJobState(JobState.fromProto(mJobEntry.getState()), false);
     if (mJobEntry.hasEndTime()) {
       job.setEndTime(mJobEntry.getEndTime());
     }
+    if (mJobEntry.hasPriority()) {
+      job.setPriority(mJobEntry.getPriority());
+    }
+    if (mJobEntry.hasWeight()) {
+      job.setWeight(mJobEntry.getWeight());
+    }
+    if (mJobEntry.hasRequestRate()) {
+      job.setRequestRate(OptionalLong.of(mJobEntry.getRequestRate()));
+    }
+    if (mJobEntry.hasRanges()) {
+      job.setRanges(mJobEntry.getRanges());
+    }
+    if (mJobEntry.getIncremental()) {
+      // the files recorded before the job was restored are lost, keep the previous manifest
+      job.setManifest(new LoadManifest(path, false));
+    }
     return job;
   }
 }
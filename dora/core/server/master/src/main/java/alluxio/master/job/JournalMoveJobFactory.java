@@ -29,6 +29,7 @@ import alluxio.wire.FileInfo;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.function.Predicate;
+import javax.annotation.Nullable;
 
 /**
  * Factory for creating {@link MoveJob}s from journal entries.
@@ -73,17 +74,29 @@ public class JournalMoveJobFactory implements JobFactory {
     Predicate<FileInfo> predicate =
         mJobEntry.hasFilter() ? FilePredicate.create(mJobEntry.getFilter()).get() :
             FileInfo::isCompleted;
+    ListingCheckpoint checkpoint = ListingCheckpoint.create(ufs,
+        mJobEntry.hasCheckpoint() ? mJobEntry.getCheckpoint() : null);
     Iterable<FileInfo> fileIterator =
-        new UfsFileIterable(ufs, src, user, predicate);
-    AbstractJob<?> job = getMoveJob(user, fileIterator);
+        new UfsFileIterable(ufs, src, user, predicate, checkpoint);
+    AbstractJob<?> job = getMoveJob(user, fileIterator, checkpoint);
     job.setJobState(JobState.fromProto(mJobEntry.getState()), false);
     if (mJobEntry.hasEndTime()) {
       job.setEndTime(mJobEntry.getEndTime());
     }
+    if (mJobEntry.hasPriority()) {
+      job.setPriority(mJobEntry.getPriority());
+    }
+    if (mJobEntry.hasWeight()) {
+      job.setWeight(mJobEntry.getWeight());
+    }
+    if (mJobEntry.hasRequestRate()) {
+      job.setRequestRate(OptionalLong.of(mJobEntry.getRequestRate()));
+    }
     return job;
   }
 
-  private MoveJob getMoveJob(Optional<String> user, Iterable<FileInfo> fileIterator) {
+  private MoveJob getMoveJob(Optional<String> user, Iterable<FileInfo> fileIterator,
+      @Nullable ListingCheckpoint checkpoint) {
     Optional<FileFilter> fileFilter = mJobEntry.hasFilter() ? Optional.of(mJobEntry.getFilter()) :
         Optional.empty();
     MoveJob job =
@@ -91,7 +104,7 @@ public class JournalMoveJobFactory implements JobFactory {
             mJobEntry.getJobId(),
             mJobEntry.hasBandwidth() ? OptionalLong.of(mJobEntry.getBandwidth()) :
                 OptionalLong.empty(), mJobEntry.getPartialListing(), mJobEntry.getVerify(),
-            mJobEntry.getCheckContent(), fileIterator, fileFilter);
+            mJobEntry.getCheckContent(), fileIterator, fileFilter, checkpoint);
     return job;
   }
 }
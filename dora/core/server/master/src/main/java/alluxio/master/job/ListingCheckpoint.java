@@ -0,0 +1,228 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.master.job;
+
+import alluxio.proto.journal.Job.JobListingCheckpoint;
+import alluxio.underfs.UnderFileSystem;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Tracks how far a job has got through the listing of its source, so that a job restored from
+ * the journal resumes the listing instead of starting over.
+ *
+ * The job registers every file in listing order together with the number of pieces of work
+ * generated for it, and reports each piece back once it is processed. Every piece put aside
+ * for a retry counts as one more piece of work. The checkpoint keeps a watermark such that every
+ * file listed up to and including it is either fully processed, or still waiting for a retry
+ * and remembered by name. Files are identified by their ufs path and named relative to the
+ * listed path, and object stores list names in lexicographic order, so a restored listing only
+ * has to go through the retrying files and the files after the watermark.
+ */
+@ThreadSafe
+public final class ListingCheckpoint {
+  /** The maximum number of retrying files remembered behind the watermark. */
+  private static final int MAX_RETRYING_FILES = 10_000;
+
+  /** Files listed but not passed by the watermark yet, in listing order. */
+  private final LinkedHashMap<String, FileProgress> mListed = new LinkedHashMap<>();
+  /** Files passed by the watermark which are still waiting for a retry. */
+  private final Map<String, FileProgress> mRetrying = new HashMap<>();
+  /** Names of retrying files restored from the journal and not listed again yet. */
+  private final Set<String> mRestoredRetrying = new TreeSet<>();
+  @Nullable
+  private String mStartAfter;
+
+  /**
+   * Creates a checkpoint for a job which has not listed anything yet.
+   */
+  public ListingCheckpoint() {}
+
+  /**
+   * Creates the checkpoint of a job listing a ufs recursively in a single pass.
+   *
+   * @param ufs the ufs listed by the job
+   * @param journaled the checkpoint journaled for the job, or null for a new job
+   * @return the checkpoint, or null if the ufs does not list in lexicographic order
+   */
+  @Nullable
+  public static ListingCheckpoint create(UnderFileSystem ufs,
+      @Nullable JobListingCheckpoint journaled) {
+    if (!ufs.isObjectStorage()) {
+      return null;
+    }
+    return journaled == null ? new ListingCheckpoint() : fromProto(journaled);
+  }
+
+  /**
+   * Restores a checkpoint from the journal.
+   *
+   * @param proto the journaled checkpoint
+   * @return the checkpoint
+   */
+  public static ListingCheckpoint fromProto(JobListingCheckpoint proto) {
+    ListingCheckpoint checkpoint = new ListingCheckpoint();
+    if (proto.hasStartAfter()) {
+      checkpoint.mStartAfter = proto.getStartAfter();
+    }
+    checkpoint.mRestoredRetrying.addAll(proto.getRetryingList());
+    return checkpoint;
+  }
+
+  /**
+   * Registers a listed file.
+   *
+   * @param path the ufs path of the file
+   * @param name the name of the file relative to the listed path
+   * @param units the number of pieces of work generated for the file
+   */
+  public synchronized void onListed(String path, String name, int units) {
+    mRestoredRetrying.remove(name);
+    mListed.put(path, new FileProgress(path, name, units));
+    advance();
+  }
+
+  /**
+   * Records that a piece of work of a file is put aside to be retried.
+   *
+   * @param path the ufs path of the file
+   */
+  public synchronized void onRetry(String path) {
+    FileProgress progress = getProgress(path);
+    if (progress != null) {
+      progress.mOutstanding++;
+      progress.mRetrying = true;
+    }
+  }
+
+  /**
+   * Records that a piece of work of a file has been processed, successfully or not.
+   *
+   * @param path the ufs path of the file
+   */
+  public synchronized void onProcessed(String path) {
+    FileProgress progress = getProgress(path);
+    if (progress == null) {
+      return;
+    }
+    progress.mOutstanding--;
+    if (progress.mOutstanding <= 0) {
+      mRetrying.remove(path);
+    }
+    advance();
+  }
+
+  /**
+   * @return the name of the last file passed by the watermark, if any
+   */
+  public synchronized Optional<String> getStartAfter() {
+    return Optional.ofNullable(mStartAfter);
+  }
+
+  /**
+   * @return the names of the files up to the watermark which are still waiting for a retry
+   */
+  public synchronized Set<String> getRetrying() {
+    Set<String> retrying = new TreeSet<>(mRestoredRetrying);
+    mRetrying.values().forEach(progress -> retrying.add(progress.mName));
+    if (mStartAfter != null) {
+      // restored retrying files listed again come before the watermark
+      for (FileProgress progress : mListed.values()) {
+        if (progress.mName.compareTo(mStartAfter) <= 0) {
+          retrying.add(progress.mName);
+        }
+      }
+    }
+    return retrying;
+  }
+
+  /**
+   * Forgets all progress, for a job starting a new pass over its source.
+   */
+  public synchronized void clear() {
+    mListed.clear();
+    mRetrying.clear();
+    mRestoredRetrying.clear();
+    mStartAfter = null;
+  }
+
+  /**
+   * @return the checkpoint to journal
+   */
+  public synchronized JobListingCheckpoint toProto() {
+    JobListingCheckpoint.Builder builder = JobListingCheckpoint.newBuilder()
+        .addAllRetrying(getRetrying());
+    if (mStartAfter != null) {
+      builder.setStartAfter(mStartAfter);
+    }
+    return builder.build();
+  }
+
+  @Nullable
+  private FileProgress getProgress(String path) {
+    FileProgress progress = mListed.get(path);
+    return progress != null ? progress : mRetrying.get(path);
+  }
+
+  /**
+   * Moves the watermark past the longest run of files at the head of the listing which are
+   * either fully processed or waiting for a retry.
+   */
+  private void advance() {
+    Iterator<FileProgress> iterator = mListed.values().iterator();
+    while (iterator.hasNext()) {
+      FileProgress progress = iterator.next();
+      if (progress.mOutstanding > 0) {
+        if (!progress.mRetrying || mRetrying.size() >= MAX_RETRYING_FILES) {
+          return;
+        }
+        mRetrying.put(progress.mPath, progress);
+      }
+      if (mStartAfter == null || progress.mName.compareTo(mStartAfter) > 0) {
+        mStartAfter = progress.mName;
+      }
+      iterator.remove();
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("StartAfter", mStartAfter)
+        .add("ListedFiles", mListed.size())
+        .add("RetryingFiles", mRetrying.size() + mRestoredRetrying.size())
+        .toString();
+  }
+
+  private static final class FileProgress {
+    private final String mPath;
+    private final String mName;
+    private int mOutstanding;
+    private boolean mRetrying = false;
+
+    private FileProgress(String path, String name, int outstanding) {
+      mPath = path;
+      mName = name;
+      mOutstanding = outstanding;
+    }
+  }
+}
@@ -0,0 +1,262 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.master.job;
+
+import alluxio.grpc.CachedBlock;
+import alluxio.wire.WorkerInfo;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Tracks which virtual blocks of a load job the workers proved cached, from the pages they
+ * found cached once done with each load data subtask.
+ *
+ * Only the blocks not proven cached yet are kept, together with the subtask loading them and
+ * the span of the pages found missing, so the index stays small however many files the job
+ * loads. Verifying the job then amounts to loading again the pages missing from the blocks
+ * left in the index, without listing or reading the ufs to check the files loaded.
+ *
+ * The index is not journaled. A job resuming its listing after a failover of the master
+ * expects the blocks of the files listed before again once verified.
+ */
+@ThreadSafe
+public final class LoadCompletionIndex {
+  /** The blocks not proven cached yet, by path and offset. */
+  private final Map<String, Map<Long, Block>> mUnproven = new LinkedHashMap<>();
+  /** The same blocks by path and offset of the pages found missing from them. */
+  private final Map<String, Map<Long, Block>> mMissing = new HashMap<>();
+  private long mUnprovenBlocks;
+  private long mProvenBlocks;
+  private long mProvenFiles;
+  private long mProvenBytes;
+
+  /**
+   * A block not proven cached yet, with the workers of its replicas and the workers which
+   * proved theirs.
+   */
+  private static final class Block {
+    private final LoadDataSubTask mSubTask;
+    /** The workers the replicas of the block were assigned to, by identity. */
+    private final Map<Object, WorkerInfo> mWorkers = new LinkedHashMap<>();
+    /** The workers which proved a replica of the block cached, by identity. */
+    private final Set<Object> mProvenBy = new HashSet<>();
+    private long mMissingOffset;
+    private long mMissingLength;
+    private boolean mNarrowed;
+
+    private Block(LoadDataSubTask subTask) {
+      mSubTask = subTask;
+      mMissingOffset = subTask.getOffset();
+      mMissingLength = subTask.getLength();
+    }
+  }
+
+  /**
+   * Registers a load data subtask to be proven cached.
+   *
+   * @param subTask the subtask, assigned to a worker
+   */
+  public synchronized void expect(LoadDataSubTask subTask) {
+    String path = subTask.getUfsPath();
+    Map<Long, Block> blocks = mUnproven.computeIfAbsent(path, k -> new LinkedHashMap<>());
+    Block block = blocks.get(subTask.getOffset());
+    if (block == null) {
+      block = new Block(subTask);
+      blocks.put(subTask.getOffset(), block);
+      mMissing.computeIfAbsent(path, k -> new HashMap<>()).put(block.mMissingOffset, block);
+      mUnprovenBlocks++;
+    }
+    // more than one worker for the replicas of the block
+    block.mWorkers.put(workerKey(subTask.getWorkerInfo()), subTask.getWorkerInfo());
+  }
+
+  /**
+   * Records the pages a worker found cached once done with a subtask.
+   *
+   * @param worker the worker
+   * @param cached the pages of the block of the subtask cached
+   * @return the path of the file if all its blocks are now proven cached, null otherwise
+   */
+  @Nullable
+  public synchronized String prove(WorkerInfo worker, CachedBlock cached) {
+    String path = cached.getUfsPath();
+    Map<Long, Block> blocks = mUnproven.get(path);
+    if (blocks == null) {
+      return null;
+    }
+    Block block = blocks.get(cached.getOffsetInFile());
+    if (block == null) {
+      // loading again the pages found missing from the block
+      block = mMissing.get(path).get(cached.getOffsetInFile());
+      if (block == null) {
+        return null;
+      }
+    }
+    if (!cached.getComplete()) {
+      setMissing(block, cached);
+      return null;
+    }
+    // the subtask of a replica may have been moved to another worker on retry, so any worker
+    // counts, though only once
+    block.mProvenBy.add(workerKey(worker));
+    if (block.mProvenBy.size() < block.mWorkers.size()) {
+      return null;
+    }
+    mProvenBytes += block.mSubTask.getLength();
+    blocks.remove(block.mSubTask.getOffset());
+    mMissing.get(path).remove(block.mMissingOffset);
+    mUnprovenBlocks--;
+    mProvenBlocks++;
+    if (!blocks.isEmpty()) {
+      return null;
+    }
+    mUnproven.remove(path);
+    mMissing.remove(path);
+    mProvenFiles++;
+    return path;
+  }
+
+  /**
+   * Stops tracking the blocks of a file, for instance when the file failed to load.
+   *
+   * @param path the path of the file
+   */
+  public synchronized void discard(String path) {
+    Map<Long, Block> blocks = mUnproven.remove(path);
+    if (blocks != null) {
+      mMissing.remove(path);
+      mUnprovenBlocks -= blocks.size();
+    }
+  }
+
+  /**
+   * @return the subtasks loading the pages missing from the blocks not proven cached, one for
+   *         each replica of a block not proven, assigned to a worker not having proven one
+   */
+  public synchronized List<LoadDataSubTask> getMissing() {
+    List<LoadDataSubTask> missing = new ArrayList<>();
+    for (Map<Long, Block> blocks : mUnproven.values()) {
+      for (Block block : blocks.values()) {
+        int unproven = block.mWorkers.size() - block.mProvenBy.size();
+        for (Map.Entry<Object, WorkerInfo> worker : block.mWorkers.entrySet()) {
+          if (unproven == 0) {
+            break;
+          }
+          if (block.mProvenBy.contains(worker.getKey())) {
+            continue;
+          }
+          missing.add((LoadDataSubTask) block.mSubTask
+              .copyRange(block.mMissingOffset, block.mMissingLength)
+              .setWorkerInfo(worker.getValue()));
+          unproven--;
+        }
+      }
+    }
+    return missing;
+  }
+
+  /**
+   * @return the paths of the files with blocks not proven cached
+   */
+  public synchronized Set<String> getUnprovenFiles() {
+    return new TreeSet<>(mUnproven.keySet());
+  }
+
+  /**
+   * @return whether any block is not proven cached
+   */
+  public synchronized boolean hasUnproven() {
+    return !mUnproven.isEmpty();
+  }
+
+  /**
+   * @return the number of blocks not proven cached
+   */
+  public synchronized long getUnprovenBlocks() {
+    return mUnprovenBlocks;
+  }
+
+  /**
+   * @return the number of blocks proven cached
+   */
+  public synchronized long getProvenBlocks() {
+    return mProvenBlocks;
+  }
+
+  /**
+   * @return the number of files all the blocks of which are proven cached
+   */
+  public synchronized long getProvenFiles() {
+    return mProvenFiles;
+  }
+
+  /**
+   * @return the number of bytes of the blocks proven cached, each block counting once however
+   *         many replicas it has
+   */
+  public synchronized long getProvenBytes() {
+    return mProvenBytes;
+  }
+
+  /**
+   * @return the key telling workers apart, the worker info changing as the worker reports
+   */
+  private static Object workerKey(WorkerInfo worker) {
+    return worker.getIdentity() != null ? worker.getIdentity() : worker.getAddress();
+  }
+
+  /**
+   * Narrows the pages to load again for a block down to the span of the pages found missing,
+   * widened to cover the pages found missing by the workers of the other replicas.
+   */
+  private void setMissing(Block block, CachedBlock cached) {
+    long pageSize = cached.getPageSize();
+    long start = cached.getOffsetInFile();
+    long end = start + cached.getLength();
+    if (pageSize <= 0) {
+      return;
+    }
+    BitSet pages = BitSet.valueOf(cached.getPageBitmap().asReadOnlyByteBuffer());
+    long firstPage = start / pageSize;
+    int pageCount = (int) ((end - 1) / pageSize - firstPage + 1);
+    int firstMissing = pages.nextClearBit(0);
+    if (firstMissing >= pageCount) {
+      return;
+    }
+    int lastMissing = pageCount - 1;
+    while (lastMissing > firstMissing && pages.get(lastMissing)) {
+      lastMissing--;
+    }
+    long missingStart = Math.max(start, (firstPage + firstMissing) * pageSize);
+    long missingEnd = Math.min(end, (firstPage + lastMissing + 1) * pageSize);
+    if (block.mNarrowed) {
+      missingStart = Math.min(missingStart, block.mMissingOffset);
+      missingEnd = Math.max(missingEnd, block.mMissingOffset + block.mMissingLength);
+    }
+    Map<Long, Block> missing = mMissing.get(block.mSubTask.getUfsPath());
+    missing.remove(block.mMissingOffset);
+    block.mMissingOffset = missingStart;
+    block.mMissingLength = missingEnd - missingStart;
+    block.mNarrowed = true;
+    missing.put(missingStart, block);
+  }
+}
@@ -22,6 +22,7 @@ public class LoadDataSubTask extends LoadSubTask {
   private final long mVirtualBlockSize;
   private final long mOffset;
   private final long mLength;
+  private boolean mInvalidateCache;
 
   LoadDataSubTask(UfsStatus ufsStatus, long virtualBlockSize, long offset, long length) {
     super(ufsStatus);
@@ -42,6 +43,22 @@ public class LoadDataSubTask extends LoadSubTask {
     return mLength;
   }
 
+  /**
+   * @param invalidateCache whether the pages cached for the range are stale and to be dropped
+   * @return the subtask
+   */
+  public LoadDataSubTask setInvalidateCache(boolean invalidateCache) {
+    mInvalidateCache = invalidateCache;
+    return this;
+  }
+
+  /**
+   * @return whether the pages cached for the range are stale and to be dropped
+   */
+  public boolean isInvalidateCache() {
+    return mInvalidateCache;
+  }
+
   @Override
   boolean isLoadMetadata() {
     return false;
@@ -52,6 +69,7 @@ public class LoadDataSubTask extends LoadSubTask {
     alluxio.grpc.LoadDataSubTask subtask =
         alluxio.grpc.LoadDataSubTask.newBuilder().setOffsetInFile(mOffset).setUfsPath(getUfsPath())
                                     .setLength(getLength()).setUfsStatus(mUfsStatus.toProto())
+                                    .setInvalidateCache(mInvalidateCache)
                                     .build();
     return alluxio.grpc.LoadSubTask.newBuilder().setLoadDataSubtask(subtask).build();
   }
@@ -71,6 +89,16 @@ public class LoadDataSubTask extends LoadSubTask {
 
   @Override
   public LoadSubTask copy() {
-    return new LoadDataSubTask(mUfsStatus, mVirtualBlockSize, mOffset, mLength);
+    return new LoadDataSubTask(mUfsStatus, mVirtualBlockSize, mOffset, mLength)
+        .setInvalidateCache(mInvalidateCache);
+  }
+
+  /**
+   * @param offset the offset of the range in the file, within the block of the subtask
+   * @param length the length of the range
+   * @return a subtask loading the range of the block, keeping the pages cached for it
+   */
+  LoadDataSubTask copyRange(long offset, long length) {
+    return new LoadDataSubTask(mUfsStatus, mVirtualBlockSize, offset, length);
   }
 }
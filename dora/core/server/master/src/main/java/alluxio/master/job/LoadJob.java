@@ -546,6 +546,11 @@ public class LoadJob extends AbstractJob<LoadJob.LoadTask> {
       mBlocks = blocks;
     }
 
+    @Override
+    public long getSize() {
+      return mBlocks.stream().mapToLong(Block::getLength).sum();
+    }
+
     @Override
     public ListenableFuture<LoadResponse> run(BlockWorkerClient workerClient) {
       LoadRequest.Builder request1 = LoadRequest
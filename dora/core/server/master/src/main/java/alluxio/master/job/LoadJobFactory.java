@@ -13,6 +13,8 @@ package alluxio.master.job;
 
 import alluxio.AlluxioURI;
 import alluxio.conf.Configuration;
+import alluxio.conf.PropertyKey;
+import alluxio.exception.runtime.InvalidArgumentRuntimeException;
 import alluxio.grpc.LoadJobPOptions;
 import alluxio.job.LoadJobRequest;
 import alluxio.master.file.DefaultFileSystemMaster;
@@ -54,6 +56,11 @@ public class LoadJobFactory implements JobFactory {
   public Job<?> create() {
     LoadJobPOptions options = mRequest.getOptions();
     String path = mRequest.getPath();
+    if (options.hasRanges() && options.getIncremental()) {
+      // the manifest would take files only partly loaded as loaded
+      throw new InvalidArgumentRuntimeException(
+          "An incremental load can not load only parts of the files");
+    }
     OptionalLong bandwidth =
         options.hasBandwidth() ? OptionalLong.of(options.getBandwidth()) : OptionalLong.empty();
     boolean partialListing = options.hasPartialListing() && options.getPartialListing();
@@ -79,12 +86,33 @@ public class LoadJobFactory implements JobFactory {
 
     UnderFileSystem ufs = mFs.getUfsManager().getOrAdd(new AlluxioURI(path),
         () -> UnderFileSystemConfiguration.defaults(Configuration.global()));
-    Iterable<UfsStatus> iterable = new UfsStatusIterable(ufs, path,
-        Optional.ofNullable(AuthenticatedClientUser.getOrNull()).map(User::getName),
-        predicate);
-    return new DoraLoadJob(path, user, UUID.randomUUID().toString(), bandwidth, partialListing,
-        verificationEnabled, options.getLoadMetadataOnly(), options.getSkipIfExists(),
-        fileFilterRegx, iterable.iterator(), ufs, 1);
+    Optional<String> listingUser =
+        Optional.ofNullable(AuthenticatedClientUser.getOrNull()).map(User::getName);
+    int listingParallelism =
+        Configuration.getInt(PropertyKey.MASTER_DORA_LOAD_JOB_LISTING_PARALLELISM);
+    // listing in shards does not follow the lexicographic order
+    ListingCheckpoint checkpoint =
+        listingParallelism > 1 ? null : ListingCheckpoint.create(ufs, null);
+    Iterable<UfsStatus> iterable = listingParallelism > 1
+        ? new ShardedUfsStatusIterable(ufs, path, listingUser, predicate, listingParallelism)
+        : new UfsStatusIterable(ufs, path, listingUser, predicate, checkpoint);
+    DoraLoadJob job = new DoraLoadJob(path, user, UUID.randomUUID().toString(), bandwidth,
+        partialListing, verificationEnabled, options.getLoadMetadataOnly(),
+        options.getSkipIfExists(), fileFilterRegx, iterable.iterator(), ufs, 1, checkpoint);
+    job.setPriority(options.getPriority());
+    if (options.hasWeight()) {
+      job.setWeight(options.getWeight());
+    }
+    if (options.hasRequestRate()) {
+      job.setRequestRate(OptionalLong.of(options.getRequestRate()));
+    }
+    if (options.hasRanges()) {
+      job.setRanges(options.getRanges());
+    }
+    if (options.getIncremental()) {
+      job.setManifest(new LoadManifest(path, true));
+    }
+    return job;
   }
 }
 
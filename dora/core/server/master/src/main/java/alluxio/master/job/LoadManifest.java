@@ -0,0 +1,256 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.master.job;
+
+import alluxio.conf.Configuration;
+import alluxio.conf.PropertyKey;
+import alluxio.underfs.UfsFileStatus;
+import alluxio.underfs.UfsStatus;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * The manifest of the files loaded from a path by an incremental load job, kept on the local
+ * disk of the master.
+ *
+ * The manifest maps the ufs path of every file to a fingerprint of its content: its length
+ * together with its content hash, which is the etag on object stores, or its last modification
+ * time if the ufs does not provide one. A job tells every listed file apart as new, changed or
+ * unchanged against the manifest left by the last successful load of the path, and records the
+ * fingerprints it lists into a new manifest, which replaces the old one once the job succeeds.
+ * Files the job failed to load are recorded with an unknown fingerprint, so that the next job
+ * loads them again and drops whatever it cached of them.
+ */
+@NotThreadSafe
+public final class LoadManifest {
+  private static final Logger LOG = LoggerFactory.getLogger(LoadManifest.class);
+  /** The fingerprint of a file whose cached content is not known to be up to date. */
+  private static final long UNKNOWN = 0L;
+  private static final String DELIMITER = "\t";
+
+  /**
+   * How a listed file compares to the last successful load.
+   */
+  public enum Change {
+    /** The file was not loaded before. */
+    NEW,
+    /** The file was loaded before and changed since. */
+    CHANGED,
+    /** The file was loaded before and did not change since. */
+    UNCHANGED,
+  }
+
+  private final Path mManifestFile;
+  private final boolean mRecord;
+  @Nullable
+  private Map<String, Long> mPrevious;
+  @Nullable
+  private Path mRecordingFile;
+  @Nullable
+  private BufferedWriter mWriter;
+  private boolean mClosed;
+
+  /**
+   * Creates the manifest of a path in the directory configured for manifests.
+   *
+   * @param loadPath the path loaded by the job
+   * @param record whether to record a new manifest, a job restored from the journal lost what
+   *               it recorded before and keeps the previous manifest instead
+   */
+  public LoadManifest(String loadPath, boolean record) {
+    this(Configuration.getString(PropertyKey.MASTER_DORA_LOAD_JOB_MANIFEST_DIR), loadPath,
+        record);
+  }
+
+  /**
+   * Creates the manifest of a path.
+   *
+   * @param manifestDir the directory the manifests are kept in
+   * @param loadPath the path loaded by the job
+   * @param record whether to record a new manifest
+   */
+  @VisibleForTesting
+  public LoadManifest(String manifestDir, String loadPath, boolean record) {
+    // the hash tells apart paths which only differ in the characters replaced
+    String fileName = loadPath.replaceAll("[^a-zA-Z0-9-_\\.]", "_") + "_"
+        + Hashing.murmur3_32().hashString(loadPath, StandardCharsets.UTF_8);
+    mManifestFile = Paths.get(manifestDir, fileName);
+    mRecord = record;
+  }
+
+  /**
+   * Compares a listed file to the last successful load and records it.
+   *
+   * @param status the status of the file
+   * @return how the file compares to the last successful load
+   */
+  public Change diff(UfsStatus status) {
+    String path = status.getUfsFullPath().toString();
+    long fingerprint = fingerprint(status);
+    record(path, fingerprint);
+    Long previous = getPrevious().get(path);
+    if (previous == null) {
+      return Change.NEW;
+    }
+    return previous == fingerprint && previous != UNKNOWN ? Change.UNCHANGED : Change.CHANGED;
+  }
+
+  /**
+   * Replaces the manifest of the last successful load with the one recorded by this job.
+   *
+   * @param failedFiles the files the job failed to load
+   */
+  public void commit(Set<String> failedFiles) {
+    if (mClosed || mWriter == null) {
+      mClosed = true;
+      return;
+    }
+    mClosed = true;
+    try {
+      // the fingerprints recorded later win over the ones recorded before
+      for (String path : failedFiles) {
+        write(path, UNKNOWN);
+      }
+      mWriter.close();
+      Files.move(mRecordingFile, mManifestFile, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      LOG.info("Committed the load manifest {}", mManifestFile);
+    } catch (IOException e) {
+      LOG.warn("Failed to commit the load manifest {}, keeping the previous one",
+          mManifestFile, e);
+      deleteRecording();
+    }
+  }
+
+  /**
+   * Drops the manifest recorded by this job, keeping the one of the last successful load.
+   */
+  public void discard() {
+    if (mClosed) {
+      return;
+    }
+    mClosed = true;
+    if (mWriter != null) {
+      try {
+        mWriter.close();
+      } catch (IOException e) {
+        LOG.debug("Failed to close the load manifest being recorded {}", mRecordingFile, e);
+      }
+      deleteRecording();
+    }
+  }
+
+  /**
+   * @return the file the manifest is kept in
+   */
+  public Path getManifestFile() {
+    return mManifestFile;
+  }
+
+  private static long fingerprint(UfsStatus status) {
+    String content;
+    if (status.isFile()) {
+      UfsFileStatus file = status.asUfsFileStatus();
+      String hash = file.getContentHash();
+      content = "F" + DELIMITER + file.getContentLength() + DELIMITER
+          + (hash == null || hash.isEmpty() ? String.valueOf(file.getLastModifiedTime()) : hash);
+    } else {
+      content = "D";
+    }
+    long fingerprint = Hashing.murmur3_128().hashString(content, StandardCharsets.UTF_8).asLong();
+    return fingerprint == UNKNOWN ? 1L : fingerprint;
+  }
+
+  private Map<String, Long> getPrevious() {
+    if (mPrevious != null) {
+      return mPrevious;
+    }
+    mPrevious = new HashMap<>();
+    try (BufferedReader reader =
+             Files.newBufferedReader(mManifestFile, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        int split = line.indexOf(DELIMITER);
+        if (split <= 0) {
+          continue;
+        }
+        try {
+          mPrevious.put(line.substring(split + 1),
+              Long.parseUnsignedLong(line.substring(0, split), 16));
+        } catch (NumberFormatException e) {
+          LOG.debug("Skipped malformed line of load manifest {}: {}", mManifestFile, line);
+        }
+      }
+      LOG.info("Read {} files from the load manifest {}", mPrevious.size(), mManifestFile);
+    } catch (NoSuchFileException e) {
+      LOG.info("No load manifest {} yet, all files are new", mManifestFile);
+    } catch (IOException e) {
+      LOG.warn("Failed to read the load manifest {}, all files are taken as new",
+          mManifestFile, e);
+      mPrevious.clear();
+    }
+    return mPrevious;
+  }
+
+  private void record(String path, long fingerprint) {
+    if (!mRecord || mClosed) {
+      return;
+    }
+    try {
+      if (mWriter == null) {
+        Files.createDirectories(mManifestFile.getParent());
+        mRecordingFile = mManifestFile.resolveSibling(
+            mManifestFile.getFileName() + ".recording");
+        mWriter = Files.newBufferedWriter(mRecordingFile, StandardCharsets.UTF_8);
+      }
+      write(path, fingerprint);
+    } catch (IOException e) {
+      // the next load diffs against the previous manifest again, which only loads more
+      LOG.warn("Failed to record the load manifest {}, keeping the previous one",
+          mManifestFile, e);
+      discard();
+    }
+  }
+
+  private void write(String path, long fingerprint) throws IOException {
+    mWriter.write(Long.toHexString(fingerprint));
+    mWriter.write(DELIMITER);
+    mWriter.write(path);
+    mWriter.newLine();
+  }
+
+  private void deleteRecording() {
+    try {
+      Files.deleteIfExists(mRecordingFile);
+    } catch (IOException e) {
+      LOG.debug("Failed to delete the load manifest being recorded {}", mRecordingFile, e);
+    }
+  }
+}
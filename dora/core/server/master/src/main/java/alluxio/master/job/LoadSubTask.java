@@ -100,7 +100,8 @@ public abstract class LoadSubTask implements ShardKey {
     else {
       UfsStatus status = UfsStatus.fromProto(failure.getLoadDataSubtask().getUfsStatus());
       return new LoadDataSubTask(status, virtualBlockSize,
-          failure.getLoadDataSubtask().getOffsetInFile(), failure.getLoadDataSubtask().getLength());
+          failure.getLoadDataSubtask().getOffsetInFile(), failure.getLoadDataSubtask().getLength())
+          .setInvalidateCache(failure.getLoadDataSubtask().getInvalidateCache());
     }
   }
 
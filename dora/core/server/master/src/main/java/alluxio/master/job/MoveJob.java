@@ -22,6 +22,7 @@ import alluxio.exception.InvalidPathException;
 import alluxio.exception.runtime.AlluxioRuntimeException;
 import alluxio.exception.runtime.InternalRuntimeException;
 import alluxio.exception.runtime.InvalidArgumentRuntimeException;
+import alluxio.grpc.JobPriority;
 import alluxio.grpc.JobProgressReportFormat;
 import alluxio.grpc.MoveRequest;
 import alluxio.grpc.MoveResponse;
@@ -36,6 +37,7 @@ import alluxio.metrics.MetricsSystem;
 import alluxio.proto.journal.Job.FileFilter;
 import alluxio.proto.journal.Journal;
 import alluxio.scheduler.job.JobState;
+import alluxio.scheduler.job.RateLease;
 import alluxio.scheduler.job.Task;
 import alluxio.util.FormatUtils;
 import alluxio.util.io.PathUtils;
@@ -74,6 +76,7 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
@@ -114,6 +117,8 @@ public class MoveJob extends AbstractJob<MoveJob.MoveTask> {
   private final Iterable<FileInfo> mFileIterable;
   private Optional<Iterator<FileInfo>> mFileIterator = Optional.empty();
   private Optional<FileFilter> mFilter;
+  @Nullable
+  private final ListingCheckpoint mCheckpoint;
 
   /**
    * Constructor.
@@ -134,6 +139,31 @@ public class MoveJob extends AbstractJob<MoveJob.MoveTask> {
                  OptionalLong bandwidth, boolean usePartialListing, boolean verificationEnabled,
                  boolean checkContent, Iterable<FileInfo> fileIterable,
                  Optional<FileFilter> filter) {
+    this(src, dst, overwrite, user, jobId, bandwidth, usePartialListing, verificationEnabled,
+        checkContent, fileIterable, filter, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param src                 file source
+   * @param dst                 file destination
+   * @param overwrite           whether to overwrite the file
+   * @param user                user for authentication
+   * @param jobId               job identifier
+   * @param bandwidth           bandwidth
+   * @param usePartialListing   whether to use partial listing
+   * @param verificationEnabled whether to verify the job after moved
+   * @param checkContent        whether to check content
+   * @param fileIterable        file iterable
+   * @param filter              file filter
+   * @param checkpoint          the checkpoint the file iterable resumes from, or null if
+   *                            the listing progress is not journaled
+   */
+  public MoveJob(String src, String dst, boolean overwrite, Optional<String> user, String jobId,
+      OptionalLong bandwidth, boolean usePartialListing, boolean verificationEnabled,
+      boolean checkContent, Iterable<FileInfo> fileIterable, Optional<FileFilter> filter,
+      @Nullable ListingCheckpoint checkpoint) {
     super(user, jobId, new RoundRobinWorkerAssignPolicy());
     mSrc = requireNonNull(src, "src is null");
     mDst = requireNonNull(dst, "dst is null");
@@ -148,6 +178,7 @@ public class MoveJob extends AbstractJob<MoveJob.MoveTask> {
     mOverwrite = overwrite;
     mCheckContent = checkContent;
     mFilter = filter;
+    mCheckpoint = checkpoint;
   }
 
   /**
@@ -278,6 +309,9 @@ public class MoveJob extends AbstractJob<MoveJob.MoveTask> {
     mTotalFailureCount.addAndGet(mCurrentFailureCount.get());
     mProcessedFileCount.set(0);
     mCurrentFailureCount.set(0);
+    if (mCheckpoint != null) {
+      mCheckpoint.clear();
+    }
     mState = JobState.VERIFYING;
   }
 
@@ -343,8 +377,12 @@ public class MoveJob extends AbstractJob<MoveJob.MoveTask> {
       if (!mFailedFiles.containsKey(currentFile.getPath())) {
         mProcessedFileCount.incrementAndGet();
       }
-      Route route = buildRoute(currentFile);
+      String relativePath = getRelativePath(currentFile);
+      Route route = buildRoute(currentFile, relativePath);
       batchBuilder.add(route);
+      if (mCheckpoint != null) {
+        mCheckpoint.onListed(route.getSrc(), relativePath, 1);
+      }
       // would be inaccurate when we initial verification, and we retry un-retryable blocks
       mTotalByteCount.addAndGet(currentFile.getLength());
     }
@@ -363,6 +401,9 @@ public class MoveJob extends AbstractJob<MoveJob.MoveTask> {
     }
     LOG.debug("Retry route {}", route);
     mRetryRoutes.add(route);
+    if (mCheckpoint != null) {
+      mCheckpoint.onRetry(route.getSrc());
+    }
     mCurrentFailureCount.incrementAndGet();
     MOVE_FAIL_FILE_COUNT.inc();
     return true;
@@ -383,13 +424,15 @@ public class MoveJob extends AbstractJob<MoveJob.MoveTask> {
     MOVE_FAIL_FILE_COUNT.inc();
   }
 
-  private Route buildRoute(FileInfo sourceFile) {
-    String relativePath;
+  private String getRelativePath(FileInfo sourceFile) {
     try {
-      relativePath = PathUtils.subtractPaths(sourceFile.getPath(), new AlluxioURI(mSrc).getPath());
+      return PathUtils.subtractPaths(sourceFile.getPath(), new AlluxioURI(mSrc).getPath());
     } catch (InvalidPathException e) {
       throw new InvalidArgumentRuntimeException("fail to parse source file path", e);
     }
+  }
+
+  private Route buildRoute(FileInfo sourceFile, String relativePath) {
     String dst = PathUtils.concatPath(mDst, relativePath);
     return Route.newBuilder().setSrc(sourceFile.getUfsPath())
         .setDst(dst).setLength(sourceFile.getLength()).build();
@@ -432,9 +475,12 @@ public class MoveJob extends AbstractJob<MoveJob.MoveTask> {
         .setOverwrite(mOverwrite)
         .setCheckContent(mCheckContent)
         .setVerify(mVerificationEnabled)
+        .setPriority(mPriority)
+        .setWeight(mWeight)
         .setJobId(mJobId);
     mUser.ifPresent(jobEntry::setUser);
     mBandwidth.ifPresent(jobEntry::setBandwidth);
+    mRequestRate.ifPresent(jobEntry::setRequestRate);
     mEndTime.ifPresent(jobEntry::setEndTime);
     if (mFilter.isPresent()) {
       FileFilter.Builder builder = FileFilter.newBuilder().setValue(mFilter.get().getValue())
@@ -444,6 +490,9 @@ public class MoveJob extends AbstractJob<MoveJob.MoveTask> {
       }
       jobEntry.setFilter(builder.build());
     }
+    if (mCheckpoint != null) {
+      jobEntry.setCheckpoint(mCheckpoint.toProto());
+    }
     return Journal.JournalEntry
         .newBuilder()
         .setMoveJob(jobEntry.build())
@@ -513,6 +562,11 @@ public class MoveJob extends AbstractJob<MoveJob.MoveTask> {
       // We don't count InterruptedException as task failure
       return true;
     }
+    finally {
+      if (mCheckpoint != null) {
+        task.getRoutes().forEach(route -> mCheckpoint.onProcessed(route.getSrc()));
+      }
+    }
   }
 
   @Override
@@ -545,6 +599,11 @@ public class MoveJob extends AbstractJob<MoveJob.MoveTask> {
       mRoutes = routes;
     }
 
+    @Override
+    public long getSize() {
+      return mRoutes.stream().mapToLong(Route::getLength).sum();
+    }
+
     @Override
     public ListenableFuture<MoveResponse> run(BlockWorkerClient workerClient) {
       MoveRequest.Builder request = MoveRequest
@@ -555,9 +614,9 @@ public class MoveJob extends AbstractJob<MoveJob.MoveTask> {
           .setTag(mJobId)
           .setPositionShort(false);
 
-      if (mBandwidth.isPresent()) {
-        ufsReadOptions.setBandwidth(mBandwidth.getAsLong());
-      }
+      RateLease lease = getRateLeaseOf(this);
+      lease.getBandwidth().ifPresent(ufsReadOptions::setBandwidth);
+      lease.getRequestRate().ifPresent(ufsReadOptions::setRequestRate);
       mUser.ifPresent(ufsReadOptions::setUser);
       WriteOptions writeOptions = WriteOptions
           .newBuilder()
@@ -575,6 +634,8 @@ public class MoveJob extends AbstractJob<MoveJob.MoveTask> {
     private final boolean mVerbose;
     private final JobState mJobState;
     private final boolean mCheckContent;
+    private final JobPriority mPriority;
+    private final int mWeight;
     private final long mProcessedFileCount;
     private final long mByteCount;
     private final Long mTotalByteCount;
@@ -594,6 +655,8 @@ public class MoveJob extends AbstractJob<MoveJob.MoveTask> {
       mJobState = job.mState;
       mJobId = job.mJobId;
       mCheckContent = job.mCheckContent;
+      mPriority = job.mPriority;
+      mWeight = job.mWeight;
       mProcessedFileCount = job.mProcessedFileCount.get();
       mByteCount = job.mMovedByteCount.get();
       if (!job.mUsePartialListing && job.mFileIterator.isPresent()) {
@@ -655,7 +718,8 @@ public class MoveJob extends AbstractJob<MoveJob.MoveTask> {
     private String getTextReport() {
       StringBuilder progress = new StringBuilder();
       progress.append(
-          format("\tSettings: \"check-content: %s\"%n", mCheckContent));
+          format("\tSettings: \"check-content: %s\" \"priority: %s\" \"weight: %d\"%n",
+              mCheckContent, mPriority, mWeight));
       progress.append(format("\tJob Submitted: %s%n", new Date(mStartTime)));
       progress.append(format("\tJob Id: %s%n", mJobId));
       if (mJobState == JobState.SUCCEEDED || mJobState == JobState.FAILED) {
@@ -74,14 +74,23 @@ public class MoveJobFactory implements JobFactory {
       // concurrent mount table change would cause this exception
       throw new FailedPreconditionRuntimeException(e);
     }
+    ListingCheckpoint checkpoint = ListingCheckpoint.create(ufs, null);
     Iterable<FileInfo> fileIterator = new UfsFileIterable(ufs, src, Optional
         .ofNullable(AuthenticatedClientUser.getOrNull())
-        .map(User::getName), FileInfo::isCompleted);
+        .map(User::getName), FileInfo::isCompleted, checkpoint);
     Optional<String> user = Optional
         .ofNullable(AuthenticatedClientUser.getOrNull())
         .map(User::getName);
-    return new MoveJob(src, mRequest.getDst(), overwrite, user, UUID.randomUUID().toString(),
-        bandwidth, partialListing, verificationEnabled, checkContent, fileIterator,
-        Optional.empty());
+    MoveJob job = new MoveJob(src, mRequest.getDst(), overwrite, user,
+        UUID.randomUUID().toString(), bandwidth, partialListing, verificationEnabled,
+        checkContent, fileIterator, Optional.empty(), checkpoint);
+    job.setPriority(options.getPriority());
+    if (options.hasWeight()) {
+      job.setWeight(options.getWeight());
+    }
+    if (options.hasRequestRate()) {
+      job.setRequestRate(OptionalLong.of(options.getRequestRate()));
+    }
+    return job;
   }
 }
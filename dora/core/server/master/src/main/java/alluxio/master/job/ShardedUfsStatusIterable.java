@@ -0,0 +1,285 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.master.job;
+
+import static java.util.Objects.requireNonNull;
+
+import alluxio.AlluxioURI;
+import alluxio.exception.runtime.AlluxioRuntimeException;
+import alluxio.exception.runtime.InternalRuntimeException;
+import alluxio.security.authentication.AuthenticatedClientUser;
+import alluxio.underfs.UfsStatus;
+import alluxio.underfs.UnderFileSystem;
+import alluxio.underfs.options.ListOptions;
+import alluxio.util.ThreadFactoryUtils;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Iterable for listing {@link UfsStatus} from {@link UnderFileSystem} with several threads.
+ *
+ * The namespace under the path is split into shards by directory. The first
+ * {@link #FAN_OUT_DEPTH} levels are listed one directory at a time, and every directory below
+ * them is listed recursively as a shard of its own. Shards are listed concurrently and their
+ * statuses are merged into a single iterator, so statuses come out in no particular order.
+ * Like {@link UfsStatusIterable}, the names of the statuses are relative to the path.
+ */
+public class ShardedUfsStatusIterable implements Iterable<UfsStatus> {
+  private static final Logger LOG = LoggerFactory.getLogger(ShardedUfsStatusIterable.class);
+  /** Directories this many levels below the path are listed recursively as a shard. */
+  private static final int FAN_OUT_DEPTH = 2;
+  /** The maximum number of listed statuses buffered ahead of the consumer. */
+  private static final int BUFFER_SIZE = 10_000;
+  private static final long POLL_INTERVAL_MS = 100;
+
+  private final UnderFileSystem mUfs;
+  private final String mPath;
+  private final Optional<String> mUser;
+  private final Predicate<UfsStatus> mFilter;
+  private final int mParallelism;
+  private final AlluxioURI mRootUri;
+
+  /**
+   * Creates a new instance of {@link ShardedUfsStatusIterable}.
+   *
+   * @param fs   under file system
+   * @param path path to list
+   * @param user user to list as
+   * @param filter filter to apply to the listing
+   * @param parallelism the number of shards listed concurrently
+   */
+  public ShardedUfsStatusIterable(UnderFileSystem fs, String path, Optional<String> user,
+      Predicate<UfsStatus> filter, int parallelism) {
+    Preconditions.checkArgument(parallelism > 0, "parallelism should be positive");
+    mUfs = requireNonNull(fs, "fileSystem is null");
+    mPath = requireNonNull(path, "path is null");
+    mUser = requireNonNull(user, "user is null");
+    mFilter = filter;
+    mParallelism = parallelism;
+    mRootUri = new AlluxioURI(mPath);
+  }
+
+  @Override
+  public Iterator<UfsStatus> iterator() {
+    try {
+      AuthenticatedClientUser.set(mUser.orElse(null));
+      UfsStatus rootUfsStatus = mUfs.getStatus(mPath);
+      if (rootUfsStatus != null && rootUfsStatus.isFile()) {
+        if (rootUfsStatus.getUfsFullPath() == null) {
+          rootUfsStatus.setUfsFullPath(mRootUri);
+        }
+        return Iterators.filter(Iterators.singletonIterator(rootUfsStatus), mFilter::test);
+      }
+    } catch (IOException e) {
+      throw AlluxioRuntimeException.from(e);
+    }
+    return new ShardedUfsStatusIterator();
+  }
+
+  /**
+   * A directory listed by one listing thread.
+   */
+  private static final class Shard {
+    /** Path relative to the listed path, empty for the listed path itself. */
+    private final String mName;
+    private final int mDepth;
+    private final AtomicLong mListedCount = new AtomicLong();
+
+    private Shard(String name, int depth) {
+      mName = name;
+      mDepth = depth;
+    }
+  }
+
+  /**
+   * Iterator merging the statuses listed by all the shards. Listing starts on the first call to
+   * {@link #hasNext()} and stops when the iterator is exhausted or closed.
+   */
+  public final class ShardedUfsStatusIterator implements Iterator<UfsStatus>, Closeable {
+    private final BlockingQueue<UfsStatus> mBuffer = new LinkedBlockingQueue<>(BUFFER_SIZE);
+    private final Set<Shard> mListingShards = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger mPendingShards = new AtomicInteger();
+    private final AtomicInteger mTotalShards = new AtomicInteger();
+    private final AtomicReference<Throwable> mFailure = new AtomicReference<>();
+    private volatile ExecutorService mListingExecutor;
+    private volatile boolean mClosed = false;
+    private UfsStatus mNext;
+
+    private ShardedUfsStatusIterator() {}
+
+    @Override
+    public boolean hasNext() {
+      if (mListingExecutor == null && !mClosed) {
+        mListingExecutor = Executors.newFixedThreadPool(mParallelism,
+            ThreadFactoryUtils.build("load-job-listing-%d", true));
+        submit(new Shard("", 0));
+      }
+      try {
+        while (mNext == null) {
+          checkFailure();
+          if (mClosed) {
+            return false;
+          }
+          // A shard puts everything it lists before it stops counting as pending
+          boolean listingDone = mPendingShards.get() == 0;
+          mNext = listingDone ? mBuffer.poll()
+              : mBuffer.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+          if (mNext == null && listingDone) {
+            checkFailure();
+            return false;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw AlluxioRuntimeException.from(e);
+      }
+      return true;
+    }
+
+    @Override
+    public UfsStatus next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException("No more ufs status");
+      }
+      UfsStatus next = mNext;
+      mNext = null;
+      return next;
+    }
+
+    /**
+     * @return the number of shards found so far
+     */
+    public int getTotalShards() {
+      return mTotalShards.get();
+    }
+
+    /**
+     * @return the number of shards that have been listed completely
+     */
+    public int getListedShards() {
+      return mTotalShards.get() - mPendingShards.get();
+    }
+
+    /**
+     * @return the number of statuses listed so far by each shard being listed, keyed by the
+     *         shard path relative to the listed path
+     */
+    public Map<String, Long> getListingShardProgress() {
+      Map<String, Long> progress = new TreeMap<>();
+      for (Shard shard : mListingShards) {
+        progress.put(shard.mName.isEmpty() ? AlluxioURI.SEPARATOR : shard.mName,
+            shard.mListedCount.get());
+      }
+      return progress;
+    }
+
+    @Override
+    public void close() {
+      mClosed = true;
+      if (mListingExecutor != null) {
+        mListingExecutor.shutdownNow();
+      }
+      mBuffer.clear();
+    }
+
+    private void submit(Shard shard) {
+      mTotalShards.incrementAndGet();
+      mPendingShards.incrementAndGet();
+      try {
+        mListingExecutor.submit(() -> list(shard));
+      } catch (RejectedExecutionException e) {
+        // the iterator has been closed
+        mPendingShards.decrementAndGet();
+      }
+    }
+
+    private void list(Shard shard) {
+      mListingShards.add(shard);
+      String path = shard.mName.isEmpty() ? mPath : mRootUri.join(shard.mName).toString();
+      try {
+        if (mClosed || mFailure.get() != null) {
+          return;
+        }
+        AuthenticatedClientUser.set(mUser.orElse(null));
+        boolean fanOut = shard.mDepth < FAN_OUT_DEPTH;
+        Iterator<UfsStatus> statuses =
+            mUfs.listStatusIterable(path, ListOptions.defaults().setRecursive(!fanOut), null, 0);
+        if (statuses == null) {
+          throw new InternalRuntimeException("Get null when listing directory: " + path);
+        }
+        while (statuses.hasNext()) {
+          UfsStatus status = statuses.next();
+          String name = shard.mName.isEmpty() ? status.getName()
+              : shard.mName + AlluxioURI.SEPARATOR + status.getName();
+          status.setName(name);
+          if (status.getUfsFullPath() == null) {
+            status.setUfsFullPath(mRootUri.join(name));
+          }
+          if (fanOut && status.isDirectory()) {
+            submit(new Shard(name, shard.mDepth + 1));
+          }
+          if (!mFilter.test(status)) {
+            continue;
+          }
+          while (!mBuffer.offer(status, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+            if (mClosed) {
+              return;
+            }
+          }
+          shard.mListedCount.incrementAndGet();
+        }
+        LOG.debug("Listed {} statuses under {}", shard.mListedCount.get(), path);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (Throwable t) {
+        LOG.warn("Failed to list {}", path, t);
+        mFailure.compareAndSet(null, t);
+      } finally {
+        mListingShards.remove(shard);
+        if (mPendingShards.decrementAndGet() == 0) {
+          mListingExecutor.shutdown();
+        }
+      }
+    }
+
+    private void checkFailure() {
+      Throwable failure = mFailure.get();
+      if (failure != null) {
+        close();
+        throw AlluxioRuntimeException.from(failure);
+      }
+    }
+  }
+}
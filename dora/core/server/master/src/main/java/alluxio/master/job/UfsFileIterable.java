@@ -20,7 +20,6 @@ import alluxio.security.authentication.AuthenticatedClientUser;
 import alluxio.underfs.UfsFileStatus;
 import alluxio.underfs.UfsStatus;
 import alluxio.underfs.UnderFileSystem;
-import alluxio.underfs.options.ListOptions;
 import alluxio.util.CommonUtils;
 import alluxio.util.io.PathUtils;
 import alluxio.wire.FileInfo;
@@ -31,6 +30,7 @@ import java.io.IOException;
 import java.util.Iterator;
 import java.util.Optional;
 import java.util.function.Predicate;
+import javax.annotation.Nullable;
 
 /**
  * Iterable for {@link FileInfo} objects. Generates the list of files from under file system.
@@ -40,6 +40,8 @@ public class UfsFileIterable implements Iterable<FileInfo> {
   private final Optional<String> mUser;
   private final Predicate<FileInfo> mFilter;
   private final UnderFileSystem mUfs;
+  @Nullable
+  private final ListingCheckpoint mCheckpoint;
 
   /**
    * Creates a new instance of {@link FileIterable}.
@@ -51,10 +53,25 @@ public class UfsFileIterable implements Iterable<FileInfo> {
    */
   public UfsFileIterable(UnderFileSystem fs, String path, Optional<String> user,
       Predicate<FileInfo> filter) {
+    this(fs, path, user, filter, null);
+  }
+
+  /**
+   * Creates a new instance of {@link FileIterable} resuming from a checkpoint.
+   *
+   * @param fs     under file system
+   * @param path   path to list
+   * @param user   user to list as
+   * @param filter filter to apply to the file infos
+   * @param checkpoint the listing checkpoint of the job, or null to always list everything
+   */
+  public UfsFileIterable(UnderFileSystem fs, String path, Optional<String> user,
+      Predicate<FileInfo> filter, @Nullable ListingCheckpoint checkpoint) {
     mUfs = requireNonNull(fs, "fileSystem is null");
     mPath = requireNonNull(path, "path is null");
     mUser = requireNonNull(user, "user is null");
     mFilter = filter;
+    mCheckpoint = checkpoint;
   }
 
   /**
@@ -70,8 +87,7 @@ public class UfsFileIterable implements Iterable<FileInfo> {
         return Iterators.filter(Iterators.singletonIterator(transformUfsStatus(rootUfsStatus)),
             mFilter::test);
       }
-      Iterator<UfsStatus> statuses =
-          mUfs.listStatusIterable(mPath, ListOptions.defaults().setRecursive(true), null, 0);
+      Iterator<UfsStatus> statuses = UfsStatusIterable.listStatus(mUfs, mPath, mCheckpoint);
       if (statuses == null) {
         throw new FailedPreconditionRuntimeException("Get null when listing directory: " + mPath);
       }
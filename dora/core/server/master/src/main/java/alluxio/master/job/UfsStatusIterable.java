@@ -20,23 +20,33 @@ import alluxio.security.authentication.AuthenticatedClientUser;
 import alluxio.underfs.UfsStatus;
 import alluxio.underfs.UnderFileSystem;
 import alluxio.underfs.options.ListOptions;
+import alluxio.util.CommonUtils;
 
 import com.google.common.collect.Iterators;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Predicate;
+import javax.annotation.Nullable;
 
 /**
  * Iterable for listing {@link UfsStatus} from {@link UnderFileSystem}.
  */
 public class UfsStatusIterable implements Iterable<UfsStatus> {
+  private static final Logger LOG = LoggerFactory.getLogger(UfsStatusIterable.class);
 
   private final UnderFileSystem mUfs;
   private final String mPath;
   private final Optional<String> mUser;
   private final Predicate<UfsStatus> mFilter;
+  @Nullable
+  private final ListingCheckpoint mCheckpoint;
   private AlluxioURI mRootUri;
 
   /**
@@ -49,10 +59,25 @@ public class UfsStatusIterable implements Iterable<UfsStatus> {
    */
   public UfsStatusIterable(UnderFileSystem fs, String path, Optional<String> user,
       Predicate<UfsStatus> filter) {
+    this(fs, path, user, filter, null);
+  }
+
+  /**
+   * Creates a new instance of {@link UfsStatusIterable} resuming from a checkpoint.
+   *
+   * @param fs   under file system
+   * @param path path to list
+   * @param user user to list as
+   * @param filter filter to apply to the listing
+   * @param checkpoint the listing checkpoint of the job, or null to always list everything
+   */
+  public UfsStatusIterable(UnderFileSystem fs, String path, Optional<String> user,
+      Predicate<UfsStatus> filter, @Nullable ListingCheckpoint checkpoint) {
     mUfs = requireNonNull(fs, "fileSystem is null");
     mPath = requireNonNull(path, "path is null");
     mUser = requireNonNull(user, "user is null");
     mFilter = filter;
+    mCheckpoint = checkpoint;
     mRootUri = new AlluxioURI(mPath);
   }
 
@@ -67,8 +92,7 @@ public class UfsStatusIterable implements Iterable<UfsStatus> {
         }
         return Iterators.filter(Iterators.singletonIterator(rootUfsStatus), mFilter::test);
       }
-      Iterator<UfsStatus> statuses =
-          mUfs.listStatusIterable(mPath, ListOptions.defaults().setRecursive(true), null, 0);
+      Iterator<UfsStatus> statuses = listStatus(mUfs, mPath, mCheckpoint);
       if (statuses == null) {
         throw new InternalRuntimeException("Get null when listing directory: " + mPath);
       }
@@ -84,4 +108,54 @@ public class UfsStatusIterable implements Iterable<UfsStatus> {
       throw AlluxioRuntimeException.from(e);
     }
   }
+
+  /**
+   * Lists a directory recursively. With a checkpoint, the files passed by its watermark are
+   * skipped, and the files it remembers as retrying are listed first.
+   *
+   * @param ufs under file system
+   * @param path path of the directory
+   * @param checkpoint the listing checkpoint of the job, or null to list everything
+   * @return the statuses named relative to the path, or null if the path cannot be listed
+   */
+  @Nullable
+  static Iterator<UfsStatus> listStatus(UnderFileSystem ufs, String path,
+      @Nullable ListingCheckpoint checkpoint) throws IOException {
+    ListOptions options = ListOptions.defaults().setRecursive(true);
+    Optional<String> startAfter =
+        checkpoint == null ? Optional.empty() : checkpoint.getStartAfter();
+    if (!startAfter.isPresent()) {
+      return ufs.listStatusIterable(path, options, null, 0);
+    }
+    AlluxioURI rootUri = new AlluxioURI(path);
+    // object stores take the key to start after, the names are relative to the listed key
+    String keyPrefix = CommonUtils.stripPrefixIfPresent(rootUri.getPath(), AlluxioURI.SEPARATOR);
+    if (!keyPrefix.isEmpty() && !keyPrefix.endsWith(AlluxioURI.SEPARATOR)) {
+      keyPrefix += AlluxioURI.SEPARATOR;
+    }
+    Iterator<UfsStatus> statuses =
+        ufs.listStatusIterable(path, options, keyPrefix + startAfter.get(), 0);
+    if (statuses == null) {
+      return null;
+    }
+    Set<String> retrying = checkpoint.getRetrying();
+    LOG.debug("Resuming listing {} after {} with {} retrying files", path, startAfter.get(),
+        retrying.size());
+    Iterator<UfsStatus> retryingStatuses = Iterators.filter(
+        Iterators.transform(retrying.iterator(), name -> {
+          try {
+            UfsStatus status = ufs.getStatus(rootUri.join(name).toString());
+            status.setName(name);
+            return status;
+          } catch (FileNotFoundException e) {
+            LOG.debug("Retrying file {} no longer exists under {}", name, path);
+            return null;
+          } catch (IOException e) {
+            throw AlluxioRuntimeException.from(e);
+          }
+        }), Objects::nonNull);
+    // ufs ignoring the key to start after list everything
+    return Iterators.concat(retryingStatuses, Iterators.filter(statuses,
+        status -> status.getName().compareTo(startAfter.get()) > 0));
+  }
 }
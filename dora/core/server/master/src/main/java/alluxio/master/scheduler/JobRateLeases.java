@@ -0,0 +1,90 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.master.scheduler;
+
+import alluxio.master.scheduler.Scheduler.WorkerInfoIdentity;
+import alluxio.scheduler.job.Job;
+import alluxio.scheduler.job.RateLease;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Leases the bandwidth and request rate limits of the jobs to the workers running their tasks.
+ *
+ * The limits of a job apply to the whole cluster. Every time a task starts, the worker running it
+ * is leased a share of the limits in proportion to the tasks of the job it is running, and the
+ * lease travels to the worker with the task. Once a worker has no task of the job left, its share
+ * goes back to the job, and the workers still running tasks get it with their next task. A worker
+ * throttles all the tasks of a job against the latest lease it received, so the leases of the
+ * workers add up to the limits of the job, give or take the tasks started before the latest
+ * change in the number of tasks running.
+ */
+@ThreadSafe
+public final class JobRateLeases {
+  private final Map<Job<?>, Map<WorkerInfoIdentity, Integer>> mRunningTasks = new HashMap<>();
+
+  /**
+   * Leases a share of the limits of the job to a worker starting a task of the job.
+   *
+   * @param job the job
+   * @param worker the worker starting a task of the job
+   * @return the lease of the worker
+   */
+  public synchronized RateLease acquire(Job<?> job, WorkerInfoIdentity worker) {
+    Map<WorkerInfoIdentity, Integer> running =
+        mRunningTasks.computeIfAbsent(job, k -> new HashMap<>());
+    int workerTasks = running.merge(worker, 1, Integer::sum);
+    int totalTasks = running.values().stream().mapToInt(Integer::intValue).sum();
+    return new RateLease(share(job.getBandwidth(), workerTasks, totalTasks),
+        share(job.getRequestRate(), workerTasks, totalTasks));
+  }
+
+  /**
+   * Gives the share of a task completed on a worker back to the job.
+   *
+   * @param job the job
+   * @param worker the worker which ran the task
+   */
+  public synchronized void release(Job<?> job, WorkerInfoIdentity worker) {
+    Map<WorkerInfoIdentity, Integer> running = mRunningTasks.get(job);
+    if (running == null) {
+      return;
+    }
+    running.computeIfPresent(worker, (k, v) -> v > 1 ? v - 1 : null);
+    if (running.isEmpty()) {
+      mRunningTasks.remove(job);
+    }
+  }
+
+  /**
+   * Gives the shares of a worker which left the cluster back to the jobs.
+   *
+   * @param worker the worker
+   */
+  public synchronized void removeWorker(WorkerInfoIdentity worker) {
+    mRunningTasks.values().removeIf(running -> {
+      running.remove(worker);
+      return running.isEmpty();
+    });
+  }
+
+  private static OptionalLong share(OptionalLong limit, int workerTasks, int totalTasks) {
+    if (!limit.isPresent()) {
+      return OptionalLong.empty();
+    }
+    // never lease nothing, the worker would not make any progress
+    return OptionalLong.of(Math.max(1, limit.getAsLong() * workerTasks / totalTasks));
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.master.scheduler;
+
+import alluxio.grpc.JobPriority;
+import alluxio.master.scheduler.Scheduler.WorkerInfoIdentity;
+import alluxio.scheduler.job.Job;
+import alluxio.scheduler.job.Task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Shares the workers among the running jobs.
+ *
+ * Jobs are scheduled by priority class: a worker starts the tasks of a lower class only when no
+ * task of a higher class is waiting for it. Within a class, every job gets a share of each worker
+ * in proportion to its weight, and the jobs of the same user split their weights among them, so
+ * that a user submitting many jobs does not crowd out the others. Shares are enforced at both
+ * ends of the task queue of a worker:
+ * <ul>
+ *   <li>when the queue is full, a task of a job below its share of the queue takes the place of a
+ *   waiting task of the job furthest above its share, or of a job of a lower class</li>
+ *   <li>the waiting tasks are started with deficit round-robin over the jobs, so each job starts
+ *   tasks in proportion to its share no matter how many tasks it has queued</li>
+ * </ul>
+ */
+@ThreadSafe
+public final class JobShares {
+  /** Shares of the running jobs, jobs missing from it have a share of one. */
+  private Map<Job<?>, Double> mShares = new HashMap<>();
+  private final Map<WorkerInfoIdentity, Map<JobPriority, DeficitRoundRobin>> mWorkerToRoundRobin =
+      new HashMap<>();
+
+  /**
+   * Recomputes the shares from the jobs currently running.
+   *
+   * @param jobs the running jobs
+   */
+  public synchronized void update(Collection<? extends Job<?>> jobs) {
+    Map<JobPriority, Map<String, Integer>> userJobs = new EnumMap<>(JobPriority.class);
+    for (Job<?> job : jobs) {
+      userJobs.computeIfAbsent(job.getPriority(), k -> new HashMap<>())
+          .merge(job.getUser().orElse(""), 1, Integer::sum);
+    }
+    Map<Job<?>, Double> shares = new HashMap<>();
+    for (Job<?> job : jobs) {
+      int sameUserJobs = userJobs.get(job.getPriority()).get(job.getUser().orElse(""));
+      shares.put(job, (double) Math.max(1, job.getWeight()) / sameUserJobs);
+    }
+    mShares = shares;
+  }
+
+  /**
+   * @param job a job
+   * @return the share of the job among the jobs of its priority class
+   */
+  public synchronized double getShare(Job<?> job) {
+    return mShares.getOrDefault(job, 1.0);
+  }
+
+  /**
+   * Picks the tasks to start on a worker.
+   *
+   * @param worker the worker
+   * @param waitingTasks the tasks waiting in the queue of the worker, in the order each job would
+   *        like them started
+   * @param slots the maximum number of tasks to start
+   * @return the tasks to start, in order
+   */
+  public synchronized List<Task> pickTasksToStart(WorkerInfoIdentity worker,
+      List<Task> waitingTasks, int slots) {
+    Map<JobPriority, Map<Job<?>, Deque<Task>>> classes = new EnumMap<>(JobPriority.class);
+    for (Task task : waitingTasks) {
+      Job<?> job = task.getJob();
+      classes.computeIfAbsent(job.getPriority(), k -> new LinkedHashMap<>())
+          .computeIfAbsent(job, k -> new ArrayDeque<>()).add(task);
+    }
+    Map<JobPriority, DeficitRoundRobin> roundRobins =
+        mWorkerToRoundRobin.computeIfAbsent(worker, k -> new EnumMap<>(JobPriority.class));
+    List<Task> picked = new ArrayList<>();
+    for (JobPriority priority : JobPriority.values()) {
+      Map<Job<?>, Deque<Task>> flows = classes.getOrDefault(priority, new HashMap<>());
+      DeficitRoundRobin roundRobin =
+          roundRobins.computeIfAbsent(priority, k -> new DeficitRoundRobin());
+      roundRobin.pick(flows, slots - picked.size(), picked);
+    }
+    return picked;
+  }
+
+  /**
+   * Picks a waiting task to give up its place in a full worker queue to a new task.
+   *
+   * @param queuedTasks the tasks in the queue of the worker, including the running ones
+   * @param incoming the task which does not fit in the queue
+   * @return the task to take out of the queue, or null if the job of the new task already has
+   *         its share of the queue
+   */
+  @Nullable
+  public synchronized Task pickTaskToEvict(Collection<Task> queuedTasks, Task incoming) {
+    JobPriority incomingPriority = incoming.getJob().getPriority();
+    Map<Job<?>, Integer> queued = new HashMap<>();
+    Map<Job<?>, Task> lastWaiting = new HashMap<>();
+    for (Task task : queuedTasks) {
+      queued.merge(task.getJob(), 1, Integer::sum);
+      if (task.getResponseFuture() == null) {
+        lastWaiting.merge(task.getJob(), task, (a, b) -> a.compareTo(b) >= 0 ? a : b);
+      }
+    }
+    double incomingLoad = (queued.getOrDefault(incoming.getJob(), 0) + 1)
+        / getShare(incoming.getJob());
+    Job<?> victim = null;
+    double victimLoad = 0;
+    for (Map.Entry<Job<?>, Task> entry : lastWaiting.entrySet()) {
+      Job<?> job = entry.getKey();
+      int order = job.getPriority().compareTo(incomingPriority);
+      // the load left after giving up a task, to not take a place which would be taken back
+      double load = (queued.get(job) - 1) / getShare(job);
+      if (order < 0 || (order == 0 && load < incomingLoad)) {
+        continue;
+      }
+      if (victim == null || order > victim.getPriority().compareTo(incomingPriority)
+          || (victim.getPriority() == job.getPriority() && load > victimLoad)) {
+        victim = job;
+        victimLoad = load;
+      }
+    }
+    return victim == null ? null : lastWaiting.get(victim);
+  }
+
+  /**
+   * Forgets the state kept for a worker which left the cluster.
+   *
+   * @param worker the worker
+   */
+  public synchronized void removeWorker(WorkerInfoIdentity worker) {
+    mWorkerToRoundRobin.remove(worker);
+  }
+
+  /**
+   * Deficit round-robin over the jobs of a priority class on a worker. Every time a job comes up,
+   * it is credited with its share relative to the smallest share among the jobs with waiting
+   * tasks and starts a task for every whole credit. A job with no task waiting loses its credit.
+   */
+  private final class DeficitRoundRobin {
+    /** Credit of the jobs with waiting tasks, in round-robin order. */
+    private final LinkedHashMap<Job<?>, Double> mDeficits = new LinkedHashMap<>();
+    /** The job at the head which has been credited but ran out of slots. */
+    @Nullable
+    private Job<?> mServing;
+
+    private void pick(Map<Job<?>, Deque<Task>> flows, int slots, List<Task> picked) {
+      mDeficits.keySet().retainAll(flows.keySet());
+      if (mServing != null && !mDeficits.containsKey(mServing)) {
+        mServing = null;
+      }
+      if (slots <= 0 || flows.isEmpty()) {
+        return;
+      }
+      double minShare = Double.MAX_VALUE;
+      for (Job<?> job : flows.keySet()) {
+        mDeficits.putIfAbsent(job, 0.0);
+        minShare = Math.min(minShare, getShare(job));
+      }
+      while (slots > 0 && !mDeficits.isEmpty()) {
+        Iterator<Map.Entry<Job<?>, Double>> head = mDeficits.entrySet().iterator();
+        Map.Entry<Job<?>, Double> entry = head.next();
+        Job<?> job = entry.getKey();
+        double deficit = entry.getValue();
+        if (job != mServing) {
+          // every job is credited at least one task
+          deficit += getShare(job) / minShare;
+        }
+        Deque<Task> tasks = flows.get(job);
+        while (deficit >= 1 && !tasks.isEmpty() && slots > 0) {
+          picked.add(tasks.poll());
+          deficit--;
+          slots--;
+        }
+        head.remove();
+        if (tasks.isEmpty()) {
+          mServing = null;
+        } else if (deficit >= 1) {
+          // out of slots, the job carries on at the head next time
+          mServing = job;
+          LinkedHashMap<Job<?>, Double> rest = new LinkedHashMap<>(mDeficits);
+          mDeficits.clear();
+          mDeficits.put(job, deficit);
+          mDeficits.putAll(rest);
+        } else {
+          mServing = null;
+          mDeficits.put(job, deficit);
+        }
+      }
+    }
+  }
+}
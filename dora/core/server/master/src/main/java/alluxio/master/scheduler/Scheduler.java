@@ -47,6 +47,8 @@ import com.google.common.collect.ImmutableSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -70,7 +72,8 @@ import javax.annotation.concurrent.ThreadSafe;
  *  2. The scheduler will pull the task from the job and assign the task to a worker.
  *  3. The worker will execute the task and report the result to the job.
  *  4. The job will update the progress. And schedule the next task if the job is not done.
- *  5. One worker would have one task running for one job description at a time.
+ *  5. Each worker runs as many tasks as its {@link WorkerTaskWindow} allows, shared among the
+ *  jobs according to their priority classes and weights by {@link JobShares}.
  */
 @ThreadSafe
 @SuppressFBWarnings({"SE_NO_SERIALVERSIONID"})
@@ -78,12 +81,17 @@ public final class Scheduler {
 
   private static final Logger LOG = LoggerFactory.getLogger(Scheduler.class);
   private static final int CAPACITY = 100;
-  private static final int MAX_TASK_PER_WORKER = 10;
+  /** The minimum number of tasks queued for a worker, including the running ones. */
+  private static final int MIN_TASK_Q_CAPACITY = 10;
+  private static final int MAX_TASK_WINDOW = Configuration.getInt(
+      PropertyKey.MASTER_SCHEDULER_WORKER_TASK_WINDOW_MAX);
   private static final long WORKER_UPDATE_INTERVAL = Configuration.getMs(
       PropertyKey.MASTER_WORKER_INFO_CACHE_REFRESH_TIME);
   private final long mSchedulerInitialDelay = Configuration.getMs(
       PropertyKey.MASTER_SCHEDULER_INITIAL_DELAY
   );
+  private static final long JOB_CHECKPOINT_INTERVAL = Configuration.getMs(
+      PropertyKey.MASTER_SCHEDULER_JOB_CHECKPOINT_INTERVAL);
   private static final int EXECUTOR_SHUTDOWN_MS = 10 * Constants.SECOND_MS;
   private static AtomicReference<Scheduler> sInstance = new AtomicReference<>();
   private final Map<JobDescription, Job<?>> mExistingJobs = new ConcurrentHashMap<>();
@@ -95,6 +103,8 @@ public final class Scheduler {
   private volatile boolean mRunning = false;
   private final FileSystemContext mFileSystemContext;
   private final WorkerInfoHub mWorkerInfoHub;
+  private final JobShares mJobShares = new JobShares();
+  private final JobRateLeases mJobRateLeases = new JobRateLeases();
 
   /**
    * Constructor.
@@ -136,6 +146,8 @@ public final class Scheduler {
       mSchedulerExecutor.scheduleWithFixedDelay(this::processJobs, mSchedulerInitialDelay, 2000,
           TimeUnit.MILLISECONDS);
       mSchedulerExecutor.scheduleWithFixedDelay(this::cleanupStaleJob, 1, 1, TimeUnit.HOURS);
+      mSchedulerExecutor.scheduleWithFixedDelay(this::journalRunningJobs,
+          JOB_CHECKPOINT_INTERVAL, JOB_CHECKPOINT_INTERVAL, TimeUnit.MILLISECONDS);
       mRunning = true;
     }
   }
@@ -176,6 +188,8 @@ public final class Scheduler {
       mExistingJobs.clear();
       mJobToRunningTasks.clear();
       mWorkerInfoHub.mWorkerToTaskQ.clear();
+      mWorkerInfoHub.mWorkerToTaskWindow.values().forEach(WorkerTaskWindow::close);
+      mWorkerInfoHub.mWorkerToTaskWindow.clear();
       mRunning = false;
     }
   }
@@ -293,6 +307,27 @@ public final class Scheduler {
         PropertyKey.JOB_RETENTION_TIME)));
   }
 
+  /**
+   * Journals the progress of all running jobs, so that jobs restored after a master restart or
+   * failover resume from there.
+   */
+  @VisibleForTesting
+  public void journalRunningJobs() {
+    for (Job<?> job : mJobToRunningTasks.keySet()) {
+      if (!job.isRunning()) {
+        continue;
+      }
+      try {
+        mJobMetaStore.updateJob(job);
+      } catch (UnavailableRuntimeException e) {
+        LOG.warn("Failed to journal the progress of running jobs: {}", e.getMessage());
+        return;
+      } catch (RuntimeException e) {
+        LOG.warn("Failed to journal the progress of job {}", job.getJobId(), e);
+      }
+    }
+  }
+
   /**
    * Get jobs.
    *
@@ -307,7 +342,11 @@ public final class Scheduler {
     if (Thread.currentThread().isInterrupted()) {
       return;
     }
-    mJobToRunningTasks.forEach((k, v) -> processJob(k));
+    List<Job<?>> jobs = new ArrayList<>(mJobToRunningTasks.keySet());
+    mJobShares.update(jobs);
+    // jobs of a higher priority class get the room in the worker queues first
+    jobs.sort((a, b) -> a.getPriority().compareTo(b.getPriority()));
+    jobs.forEach(this::processJob);
     // kickstart the head task from each q of the worker if it's not running
     mWorkerInfoHub.kickStartTasks();
   }
@@ -411,7 +450,7 @@ public final class Scheduler {
   public class BoundedPriorityBlockingQueue<E> extends PriorityBlockingQueue<E> {
 
     private AtomicInteger mLen = new AtomicInteger(0);
-    private final int mCapacity;
+    private volatile int mCapacity;
 
     /**
      * Constructor for Bounded priority queue with a max capacity.
@@ -421,6 +460,14 @@ public final class Scheduler {
       mCapacity = capacity;
     }
 
+    /**
+     * Changes the max capacity. Elements already in the queue are kept if it shrinks.
+     * @param capacity the new max capacity
+     */
+    public void setCapacity(int capacity) {
+      mCapacity = capacity;
+    }
+
     @Override
     public boolean offer(E e) {
       if (mLen.incrementAndGet() > mCapacity) {
@@ -515,59 +562,104 @@ public final class Scheduler {
 
     private final Map<WorkerInfoIdentity, BoundedPriorityBlockingQueue<Task>> mWorkerToTaskQ
         = new ConcurrentHashMap<>();
+    private final Map<WorkerInfoIdentity, WorkerTaskWindow> mWorkerToTaskWindow
+        = new ConcurrentHashMap<>();
 
     /**
      * Kick stark tasks for each worker task q.
      */
     public void kickStartTasks() {
-      // Kick off one task for each worker
+      // Kick off as many tasks as the window of each worker allows
       mWorkerToTaskQ.forEach((workerInfo, tasksQ) -> {
-        LOG.debug("Kick start task for worker:{}, taskQ size:{}",
+        if (tasksQ.isEmpty() && !mActiveWorkers.containsKey(workerInfo)) {
+          // the worker is gone and none of its tasks is left
+          mWorkerToTaskQ.remove(workerInfo, tasksQ);
+          removeTaskWindow(workerInfo);
+          return;
+        }
+        WorkerTaskWindow window = getTaskWindow(workerInfo);
+        LOG.debug("Kick start task for worker:{}, taskQ size:{}, window:{}",
             workerInfo.mWorkerInfo.getAddress().getHost(),
-            tasksQ.size());
+            tasksQ.size(), window.getWindow());
         CloseableResource<BlockWorkerClient> blkWorkerClientResource
             = mActiveWorkers.get(workerInfo);
-        Task task = tasksQ.peek();
-        // only make sure 1 task is running at the time
-        if (task == null || task.getResponseFuture() != null) {
-          LOG.debug("head task is {}", (task == null) ? "NULL" : "already running");
-          return;
-        }
-        if (blkWorkerClientResource == null) {
-          LOG.warn("Didn't find corresponding BlockWorkerClient for workerInfo:{}",
-              workerInfo);
-          task.getJob().onWorkerUnavailable(task);
-          return;
+        List<Task> waitingTasks = new ArrayList<>();
+        int runningTasks = 0;
+        for (Task task : tasksQ) {
+          if (task.getResponseFuture() == null) {
+            waitingTasks.add(task);
+          } else {
+            runningTasks++;
+          }
         }
-        task.execute(blkWorkerClientResource.get(), workerInfo.mWorkerInfo);
-        task.getResponseFuture().addListener(() -> {
-          Job job = task.getJob();
-          try {
-            job.processResponse(task); // retry on failure logic inside
-            // TODO(lucy) currently processJob is only called in the single
-            // threaded scheduler thread context, in future once tasks are
-            // completed, they should be able to call processJob to resume
-            // their own job to schedule next set of tasks to run.
-          } catch (Exception e) {
-            // Unknown exception. This should not happen, but if it happens we don't
-            // want to lose the worker thread, thus catching it here. Any exception
-            // surfaced here should be properly handled.
-            LOG.error("Unexpected exception thrown in response future listener.", e);
-            job.failJob(new InternalRuntimeException(e));
-          } finally {
-            tasksQ.remove(task);
-            mJobToRunningTasks.compute(job, (k, v) -> {
-              if (v == null) {
-                return null;
-              }
-              v.remove(task);
-              return v;
-            });
+        // the iterator of the queue is not ordered by priority
+        Collections.sort(waitingTasks);
+        List<Task> tasksToStart = mJobShares.pickTasksToStart(workerInfo, waitingTasks,
+            window.getWindow() - runningTasks);
+        LOG.debug("{} tasks already running, starting {} more", runningTasks, tasksToStart.size());
+        for (Task task : tasksToStart) {
+          if (blkWorkerClientResource == null) {
+            LOG.warn("Didn't find corresponding BlockWorkerClient for workerInfo:{}",
+                workerInfo);
+            task.getJob().onWorkerUnavailable(task);
+            return;
           }
-        }, mSchedulerExecutor);
+          executeTask(task, workerInfo, blkWorkerClientResource.get(), tasksQ, window);
+        }
       });
     }
 
+    private void executeTask(Task task, WorkerInfoIdentity workerInfo,
+        BlockWorkerClient workerClient, BoundedPriorityBlockingQueue<Task> tasksQ,
+        WorkerTaskWindow window) {
+      task.getTaskStat().recordTimeInQ();
+      window.onTaskStarted(task.getTaskStat().getTimeInQ());
+      task.setRateLease(mJobRateLeases.acquire(task.getJob(), workerInfo));
+      task.execute(workerClient, workerInfo.mWorkerInfo);
+      task.getResponseFuture().addListener(() -> {
+        Job job = task.getJob();
+        boolean succeeded = false;
+        try {
+          succeeded = job.processResponse(task); // retry on failure logic inside
+          // TODO(lucy) currently processJob is only called in the single
+          // threaded scheduler thread context, in future once tasks are
+          // completed, they should be able to call processJob to resume
+          // their own job to schedule next set of tasks to run.
+        } catch (Exception e) {
+          // Unknown exception. This should not happen, but if it happens we don't
+          // want to lose the worker thread, thus catching it here. Any exception
+          // surfaced here should be properly handled.
+          LOG.error("Unexpected exception thrown in response future listener.", e);
+          job.failJob(new InternalRuntimeException(e));
+        } finally {
+          task.getTaskStat().recordTimeToComplete();
+          window.onTaskCompleted(task.getTaskStat().getTotalTimeToComplete()
+              - task.getTaskStat().getTimeInQ(), task.getSize(), succeeded);
+          mJobRateLeases.release(job, workerInfo);
+          tasksQ.remove(task);
+          mJobToRunningTasks.compute(job, (k, v) -> {
+            if (v == null) {
+              return null;
+            }
+            v.remove(task);
+            return v;
+          });
+        }
+      }, mSchedulerExecutor);
+    }
+
+    private WorkerTaskWindow getTaskWindow(WorkerInfoIdentity workerInfo) {
+      return mWorkerToTaskWindow.computeIfAbsent(workerInfo, k -> new WorkerTaskWindow(
+          MAX_TASK_WINDOW, k.mWorkerInfo.getAddress().getHost()));
+    }
+
+    private void removeTaskWindow(WorkerInfoIdentity workerInfo) {
+      WorkerTaskWindow window = mWorkerToTaskWindow.remove(workerInfo);
+      if (window != null) {
+        window.close();
+      }
+    }
+
     /**
      * Enqueue task for worker.
      * @param workerInfo the worker
@@ -578,12 +670,14 @@ public final class Scheduler {
       if (workerInfo == null) {
         return false;
       }
+      WorkerInfoIdentity workerInfoId = new WorkerInfoIdentity(workerInfo);
+      // keep enough tasks queued to refill the window of the worker
+      int capacity = Math.max(MIN_TASK_Q_CAPACITY, 2 * getTaskWindow(workerInfoId).getWindow());
       BoundedPriorityBlockingQueue workerTaskQ = mWorkerToTaskQ
-          .computeIfAbsent(new WorkerInfoIdentity(workerInfo),
-              k -> new BoundedPriorityBlockingQueue<>(MAX_TASK_PER_WORKER));
-      if (!workerTaskQ.offer(task)) {
-        LOG.debug("Exceeded maximum task per q[{}] for worker:{}",
-            MAX_TASK_PER_WORKER, new WorkerInfoIdentity(workerInfo));
+          .computeIfAbsent(workerInfoId, k -> new BoundedPriorityBlockingQueue<>(capacity));
+      workerTaskQ.setCapacity(capacity);
+      if (!workerTaskQ.offer(task) && !makeRoomForTask(workerTaskQ, task)) {
+        LOG.debug("Exceeded maximum task per q[{}] for worker:{}", capacity, workerInfoId);
         return false;
       }
       ConcurrentHashSet<Task<?>> tasks = mJobToRunningTasks.computeIfAbsent(task.getJob(),
@@ -592,6 +686,26 @@ public final class Scheduler {
       return true;
     }
 
+    /**
+     * Takes a waiting task of a job above its share out of a full queue, in favor of a task of a
+     * job below its share. The task taken out is handed back to its job to be submitted again.
+     *
+     * @return whether the task has been enqueued
+     */
+    private boolean makeRoomForTask(BoundedPriorityBlockingQueue<Task> workerTaskQ, Task task) {
+      Task evicted = mJobShares.pickTaskToEvict(workerTaskQ, task);
+      if (evicted == null || !workerTaskQ.remove(evicted)) {
+        return false;
+      }
+      LOG.debug("Task {} gave its place in the queue to task {}", evicted, task);
+      mJobToRunningTasks.computeIfPresent(evicted.getJob(), (k, v) -> {
+        v.remove(evicted);
+        return v;
+      });
+      evicted.getJob().onTaskSubmitFailure(evicted);
+      return workerTaskQ.offer(task);
+    }
+
     /**
      * @return the worker to task queue
      */
@@ -648,6 +762,9 @@ public final class Scheduler {
             CloseableResource<BlockWorkerClient> resource = entry.getValue();
             resource.close();
             LOG.debug("Closed BlockWorkerClient to lost worker {}", workerInfoId);
+            mJobShares.removeWorker(workerInfoId);
+            mJobRateLeases.removeWorker(workerInfoId);
+            removeTaskWindow(workerInfoId);
           }
         }
         // Build the clients to the current active worker list
@@ -0,0 +1,137 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.master.scheduler;
+
+import alluxio.Constants;
+import alluxio.metrics.Metric;
+import alluxio.metrics.MetricKey;
+import alluxio.metrics.MetricsSystem;
+
+import com.codahale.metrics.Timer;
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The window of tasks the scheduler runs concurrently on a single worker.
+ *
+ * The window follows an AIMD (additive increase, multiplicative decrease) policy: every task
+ * completing in time grows the window by {@code 1 / window}, i.e. roughly one task per round of
+ * tasks, while a failed task, or a task taking more than {@link #LATENCY_TOLERANCE} times the
+ * lowest latency per MB recently observed on the worker, halves it. The latency is compared per
+ * MB so that tasks of different sizes can be compared, and tasks of unknown size only resize the
+ * window on failure. At most one decrease is applied per round of tasks, so the tasks started
+ * under the same window don't collapse it to one. Workers keeping up thus end up with more tasks
+ * in flight than slower or overloaded ones.
+ */
+@ThreadSafe
+public final class WorkerTaskWindow {
+  private static final double BACKOFF_RATIO = 0.5;
+  private static final double LATENCY_TOLERANCE = 2.0;
+  /** The number of tasks after which the lowest latency observed so far is forgotten. */
+  private static final int LATENCY_EPOCH_TASKS = 100;
+  /** Tasks smaller than this are counted as this size, since their latency is mostly fixed. */
+  private static final long MIN_TASK_SIZE = Constants.MB;
+  private static final String TAG_WORKER = "Worker";
+
+  private final int mMaxWindow;
+  private final Timer mQueueingDelayTimer;
+  private final Timer mLatencyTimer;
+  private final String mWindowGaugeName;
+
+  private double mWindow = 1;
+  /** Tasks completed since the last decrease, a round is complete once it reaches the window. */
+  private int mCompletedSinceDecrease = 0;
+  /* the lowest latency per MB observed in the current and the previous epochs */
+  private double mMinLatencyPerMb = Double.MAX_VALUE;
+  private double mPreviousMinLatencyPerMb = Double.MAX_VALUE;
+  private int mEpochTasks = 0;
+
+  /**
+   * Creates a window for a worker.
+   *
+   * @param maxWindow the maximum number of tasks running concurrently on the worker
+   * @param workerHost the host of the worker, used to tag metrics
+   */
+  public WorkerTaskWindow(int maxWindow, String workerHost) {
+    Preconditions.checkArgument(maxWindow > 0, "max window must be positive");
+    mMaxWindow = maxWindow;
+    String tag = workerHost.replace('.', '_');
+    mQueueingDelayTimer = MetricsSystem.timer(Metric.getMetricNameWithTags(
+        MetricKey.MASTER_JOB_SCHEDULER_WORKER_TASK_QUEUEING_DELAY.getName(), TAG_WORKER, tag));
+    mLatencyTimer = MetricsSystem.timer(Metric.getMetricNameWithTags(
+        MetricKey.MASTER_JOB_SCHEDULER_WORKER_TASK_LATENCY.getName(), TAG_WORKER, tag));
+    mWindowGaugeName = MetricsSystem.getMetricName(
+        Metric.getMetricNameWithTags(MetricKey.MASTER_JOB_SCHEDULER_WORKER_TASK_WINDOW.getName(),
+            TAG_WORKER, tag));
+    MetricsSystem.registerGaugeIfAbsent(mWindowGaugeName, this::getWindow);
+  }
+
+  /**
+   * Removes the gauge of the window, once the worker is gone.
+   */
+  public void close() {
+    MetricsSystem.removeMetrics(mWindowGaugeName);
+  }
+
+  /**
+   * @return the number of tasks allowed to run concurrently on the worker
+   */
+  public synchronized int getWindow() {
+    return (int) mWindow;
+  }
+
+  /**
+   * Records a task starting to run on the worker.
+   *
+   * @param queueingDelayMs the time the task waited in the queue
+   */
+  public void onTaskStarted(long queueingDelayMs) {
+    mQueueingDelayTimer.update(Math.max(0, queueingDelayMs), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Records a task completing on the worker and resizes the window accordingly.
+   *
+   * @param latencyMs the time the task took to run
+   * @param size the number of bytes the task processed, or 0 if unknown
+   * @param success whether the task succeeded
+   */
+  public synchronized void onTaskCompleted(long latencyMs, long size, boolean success) {
+    latencyMs = Math.max(0, latencyMs);
+    mLatencyTimer.update(latencyMs, TimeUnit.MILLISECONDS);
+    mCompletedSinceDecrease++;
+    if (!success || (size > 0 && isSlow(latencyMs, size))) {
+      if (mCompletedSinceDecrease >= mWindow) {
+        mWindow = Math.max(1, mWindow * BACKOFF_RATIO);
+        mCompletedSinceDecrease = 0;
+      }
+    } else {
+      mWindow = Math.min(mMaxWindow, mWindow + 1.0 / mWindow);
+    }
+  }
+
+  private boolean isSlow(long latencyMs, long size) {
+    double sizeMb = (double) Math.max(MIN_TASK_SIZE, size) / Constants.MB;
+    double latencyPerMb = latencyMs / sizeMb;
+    mMinLatencyPerMb = Math.min(mMinLatencyPerMb, latencyPerMb);
+    if (++mEpochTasks >= LATENCY_EPOCH_TASKS) {
+      mPreviousMinLatencyPerMb = mMinLatencyPerMb;
+      mMinLatencyPerMb = Double.MAX_VALUE;
+      mEpochTasks = 0;
+    }
+    // a task of a millisecond is never slow
+    double baseline = Math.max(1 / sizeMb, Math.min(mMinLatencyPerMb, mPreviousMinLatencyPerMb));
+    return latencyPerMb > LATENCY_TOLERANCE * baseline;
+  }
+}
@@ -12,17 +12,30 @@
 package alluxio.master.file.scheduler;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import alluxio.Constants;
+import alluxio.client.block.stream.BlockWorkerClient;
 import alluxio.conf.Configuration;
 import alluxio.conf.PropertyKey;
 import alluxio.exception.runtime.ResourceExhaustedRuntimeException;
+import alluxio.grpc.CachedBlock;
+import alluxio.grpc.LoadFileRequest;
+import alluxio.grpc.LoadFileResponse;
+import alluxio.grpc.TaskStatus;
 import alluxio.master.job.DoraLoadJob;
+import alluxio.master.job.ListingCheckpoint;
 import alluxio.master.job.LoadDataSubTask;
 import alluxio.master.job.LoadMetadataSubTask;
 import alluxio.master.job.LoadSubTask;
 import alluxio.master.job.UfsStatusIterable;
+import alluxio.proto.journal.Job.JobListingCheckpoint;
 import alluxio.underfs.UfsStatus;
 import alluxio.underfs.UnderFileSystem;
 import alluxio.underfs.UnderFileSystemConfiguration;
@@ -32,22 +45,32 @@ import alluxio.wire.WorkerNetAddress;
 
 import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.protobuf.ByteString;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
 public class DoraLoadJobTest {
+  private static final long PAGE_SIZE = Constants.MB / 2;
+  private static final WorkerInfo WORKER = new WorkerInfo().setId(1).setAddress(
+      new WorkerNetAddress().setHost("worker1").setRpcPort(1234));
+
   @Rule
   public TemporaryFolder mTestFolder = new TemporaryFolder();
   private String mLocalUfsRoot;
@@ -138,6 +161,128 @@ public class DoraLoadJobTest {
     });
   }
 
+  @Test
+  public void testVerifyReloadsPagesNotProvenCached() throws IOException {
+    int testLength = 3 * Constants.MB;
+    String testPath = createByteFileInUfs("verifyLoad", testLength);
+    DoraLoadJob loadJob = newVerifiedJob(testPath, null);
+    BitSet firstPageOnly = new BitSet();
+    firstPageOnly.set(0);
+    // the first page of the second block is cached, the second one is missing
+    DoraLoadJob.DoraLoadTask task = loadJob.getNextTasks(ImmutableSet.of(WORKER)).get(0);
+    respond(task, WORKER,
+        cachedBlock(testPath, 0, mVirtualBlockSize, PAGE_SIZE, null, true),
+        cachedBlock(testPath, mVirtualBlockSize, testLength - mVirtualBlockSize, PAGE_SIZE,
+            firstPageOnly, false));
+    assertTrue(loadJob.processResponse(task));
+    assertTrue(loadJob.isCurrentPassDone());
+    assertTrue(loadJob.needVerification());
+
+    loadJob.initiateVerification();
+    // the blocks not proven cached fail the job only once verified
+    assertFalse(loadJob.hasFailure());
+    task = loadJob.getNextTasks(ImmutableSet.of(WORKER)).get(0);
+    assertEquals(1, task.getSubTasks().size());
+    LoadDataSubTask reload = (LoadDataSubTask) task.getSubTasks().get(0);
+    assertEquals(mVirtualBlockSize + PAGE_SIZE, reload.getOffset());
+    assertEquals(PAGE_SIZE, reload.getLength());
+    respond(task, WORKER,
+        cachedBlock(testPath, reload.getOffset(), reload.getLength(), PAGE_SIZE, null, true));
+    assertTrue(loadJob.processResponse(task));
+    assertFalse(loadJob.hasFailure());
+    assertFalse(loadJob.needVerification());
+  }
+
+  @Test
+  public void testVerifyFailsOnceDone() throws IOException {
+    int testLength = Constants.MB;
+    String testPath = createByteFileInUfs("verifyFail", testLength);
+    DoraLoadJob loadJob = newVerifiedJob(testPath, null);
+    DoraLoadJob.DoraLoadTask task = loadJob.getNextTasks(ImmutableSet.of(WORKER)).get(0);
+    respond(task, WORKER, cachedBlock(testPath, 0, testLength, PAGE_SIZE, new BitSet(), false));
+    assertTrue(loadJob.processResponse(task));
+    assertTrue(loadJob.needVerification());
+
+    loadJob.initiateVerification();
+    task = loadJob.getNextTasks(ImmutableSet.of(WORKER)).get(0);
+    assertFalse(loadJob.hasFailure());
+    respond(task, WORKER, cachedBlock(testPath, 0, testLength, PAGE_SIZE, new BitSet(), false));
+    assertTrue(loadJob.processResponse(task));
+    assertTrue(loadJob.hasFailure());
+    assertFalse(loadJob.needVerification());
+  }
+
+  @Test
+  public void testVerifyListsAgainFilesBeforeRestored() throws IOException {
+    int testLength = Constants.MB;
+    mTestFolder.newFolder("restored");
+    createByteFileInUfs("restored/a", testLength);
+    String after = createByteFileInUfs("restored/b", testLength);
+    String dir = mLocalUfsRoot + "/restored";
+    // the job was restored after listing the file a
+    ListingCheckpoint checkpoint = ListingCheckpoint.fromProto(
+        JobListingCheckpoint.newBuilder().setStartAfter("a").build());
+    DoraLoadJob loadJob = newVerifiedJob(dir, checkpoint);
+    loadJob.setRestoredListing(() -> listing(dir, null));
+    DoraLoadJob.DoraLoadTask task = loadJob.getNextTasks(ImmutableSet.of(WORKER)).get(0);
+    assertEquals(ImmutableSet.of(after), task.getSubTasks().stream()
+        .map(LoadSubTask::getUfsPath).collect(Collectors.toSet()));
+    LoadFileRequest request =
+        respond(task, WORKER, cachedBlock(after, 0, testLength, PAGE_SIZE, null, true));
+    assertFalse(request.getSkipIfExists());
+    assertTrue(request.getReportCachedBlocks());
+    assertTrue(loadJob.processResponse(task));
+    assertTrue(loadJob.isCurrentPassDone());
+    assertTrue(loadJob.needVerification());
+
+    loadJob.initiateVerification();
+    task = loadJob.getNextTasks(ImmutableSet.of(WORKER)).get(0);
+    assertEquals(1, task.getSubTasks().size());
+    LoadSubTask reload = task.getSubTasks().get(0);
+    assertTrue(reload instanceof LoadDataSubTask);
+    assertEquals(dir + "/a", reload.getUfsPath());
+    request = respond(task, WORKER,
+        cachedBlock(reload.getUfsPath(), 0, testLength, PAGE_SIZE, null, true));
+    // the blocks cached are proven, not loaded again
+    assertTrue(request.getSkipIfExists());
+    assertTrue(loadJob.processResponse(task));
+    assertTrue(loadJob.isCurrentPassDone());
+    assertFalse(loadJob.hasFailure());
+    assertFalse(loadJob.needVerification());
+  }
+
+  private DoraLoadJob newVerifiedJob(String path, @Nullable ListingCheckpoint checkpoint) {
+    return new DoraLoadJob(path, Optional.of("user"), "1", OptionalLong.empty(), false, true,
+        false, false, Optional.empty(), listing(path, checkpoint), mLocalUfs, 1, checkpoint);
+  }
+
+  private Iterator<UfsStatus> listing(String path, @Nullable ListingCheckpoint checkpoint) {
+    return new UfsStatusIterable(mLocalUfs, path, Optional.empty(), Predicates.alwaysTrue(),
+        checkpoint).iterator();
+  }
+
+  private static LoadFileRequest respond(DoraLoadJob.DoraLoadTask task, WorkerInfo worker,
+      CachedBlock... cachedBlocks) {
+    BlockWorkerClient client = mock(BlockWorkerClient.class);
+    when(client.loadFile(any())).thenReturn(Futures.immediateFuture(
+        LoadFileResponse.newBuilder().setStatus(TaskStatus.SUCCESS)
+            .addAllCachedBlocks(Arrays.asList(cachedBlocks)).build()));
+    task.execute(client, worker);
+    ArgumentCaptor<LoadFileRequest> request = ArgumentCaptor.forClass(LoadFileRequest.class);
+    verify(client).loadFile(request.capture());
+    return request.getValue();
+  }
+
+  private static CachedBlock cachedBlock(String path, long offset, long length, long pageSize,
+      BitSet pages, boolean complete) {
+    CachedBlock.Builder block = CachedBlock.newBuilder().setUfsPath(path)
+        .setOffsetInFile(offset).setLength(length).setPageSize(pageSize).setComplete(complete);
+    if (pages != null) {
+      block.setPageBitmap(ByteString.copyFrom(pages.toByteArray()));
+    }
+    return block.build();
+  }
+
   protected String createByteFileInUfs(String fileName, int length) throws IOException {
     if (fileName.startsWith("/")) {
       fileName = fileName.substring(1);
@@ -0,0 +1,99 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.master.file.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import alluxio.master.scheduler.JobRateLeases;
+import alluxio.master.scheduler.Scheduler.WorkerInfoIdentity;
+import alluxio.scheduler.job.Job;
+import alluxio.scheduler.job.RateLease;
+import alluxio.wire.WorkerInfo;
+import alluxio.wire.WorkerNetAddress;
+
+import org.junit.Test;
+
+import java.util.OptionalLong;
+
+public class JobRateLeasesTest {
+  private static final WorkerInfoIdentity WORKER_1 = worker(1);
+  private static final WorkerInfoIdentity WORKER_2 = worker(2);
+
+  @Test
+  public void leaseWholeLimitToSingleWorker() {
+    Job<?> job = job(OptionalLong.of(1000), OptionalLong.of(10));
+    JobRateLeases leases = new JobRateLeases();
+    assertEquals(lease(1000, 10), leases.acquire(job, WORKER_1));
+    // a second task on the same worker shares the same lease
+    assertEquals(lease(1000, 10), leases.acquire(job, WORKER_1));
+  }
+
+  @Test
+  public void splitLimitByRunningTasks() {
+    Job<?> job = job(OptionalLong.of(1000), OptionalLong.of(10));
+    JobRateLeases leases = new JobRateLeases();
+    leases.acquire(job, WORKER_1);
+    assertEquals(lease(500, 5), leases.acquire(job, WORKER_2));
+    // in proportion to the tasks of the job running on each worker
+    assertEquals(lease(666, 6), leases.acquire(job, WORKER_2));
+  }
+
+  @Test
+  public void redistributeReleasedShare() {
+    Job<?> job = job(OptionalLong.of(1000), OptionalLong.empty());
+    JobRateLeases leases = new JobRateLeases();
+    leases.acquire(job, WORKER_1);
+    leases.acquire(job, WORKER_2);
+    leases.release(job, WORKER_2);
+    // the worker still running tasks gets the whole limit back with its next task
+    assertEquals(new RateLease(OptionalLong.of(1000), OptionalLong.empty()),
+        leases.acquire(job, WORKER_1));
+  }
+
+  @Test
+  public void forgetRemovedWorker() {
+    Job<?> job = job(OptionalLong.of(1000), OptionalLong.empty());
+    JobRateLeases leases = new JobRateLeases();
+    leases.acquire(job, WORKER_1);
+    leases.acquire(job, WORKER_2);
+    leases.removeWorker(WORKER_2);
+    // the share of the lost worker is not held back
+    assertEquals(new RateLease(OptionalLong.of(1000), OptionalLong.empty()),
+        leases.acquire(job, WORKER_1));
+  }
+
+  @Test
+  public void unlimitedJob() {
+    Job<?> job = job(OptionalLong.empty(), OptionalLong.empty());
+    JobRateLeases leases = new JobRateLeases();
+    leases.acquire(job, WORKER_1);
+    assertEquals(RateLease.UNLIMITED, leases.acquire(job, WORKER_2));
+  }
+
+  private static RateLease lease(long bandwidth, long requestRate) {
+    return new RateLease(OptionalLong.of(bandwidth), OptionalLong.of(requestRate));
+  }
+
+  private static Job<?> job(OptionalLong bandwidth, OptionalLong requestRate) {
+    Job<?> job = mock(Job.class);
+    when(job.getBandwidth()).thenReturn(bandwidth);
+    when(job.getRequestRate()).thenReturn(requestRate);
+    return job;
+  }
+
+  private static WorkerInfoIdentity worker(long id) {
+    return new WorkerInfoIdentity(
+        new WorkerInfo().setId(id).setAddress(new WorkerNetAddress().setHost("worker" + id)));
+  }
+}
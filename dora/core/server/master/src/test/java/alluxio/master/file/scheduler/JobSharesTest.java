@@ -0,0 +1,154 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.master.file.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import alluxio.grpc.JobPriority;
+import alluxio.master.scheduler.JobShares;
+import alluxio.master.scheduler.Scheduler.WorkerInfoIdentity;
+import alluxio.scheduler.job.Job;
+import alluxio.scheduler.job.Task;
+import alluxio.wire.WorkerInfo;
+import alluxio.wire.WorkerNetAddress;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class JobSharesTest {
+  private static final WorkerInfoIdentity WORKER = new WorkerInfoIdentity(
+      new WorkerInfo().setId(1).setAddress(new WorkerNetAddress().setHost("worker")));
+
+  @Test
+  public void startInProportionToWeights() {
+    Job<?> small = job("a", JobPriority.NORMAL, 1);
+    Job<?> large = job("b", JobPriority.NORMAL, 3);
+    JobShares shares = new JobShares();
+    shares.update(ImmutableList.of(small, large));
+    List<Task> waiting = new ArrayList<>();
+    waiting.addAll(tasks(small, 100));
+    waiting.addAll(tasks(large, 100));
+    List<Task> started = shares.pickTasksToStart(WORKER, waiting, 8);
+    assertEquals(2, count(started, small));
+    assertEquals(6, count(started, large));
+  }
+
+  @Test
+  public void splitWeightAmongJobsOfSameUser() {
+    Job<?> first = job("a", JobPriority.NORMAL, 1);
+    Job<?> second = job("a", JobPriority.NORMAL, 1);
+    Job<?> other = job("b", JobPriority.NORMAL, 1);
+    JobShares shares = new JobShares();
+    shares.update(ImmutableList.of(first, second, other));
+    List<Task> waiting = new ArrayList<>();
+    waiting.addAll(tasks(first, 100));
+    waiting.addAll(tasks(second, 100));
+    waiting.addAll(tasks(other, 100));
+    List<Task> started = shares.pickTasksToStart(WORKER, waiting, 8);
+    assertEquals(2, count(started, first));
+    assertEquals(2, count(started, second));
+    assertEquals(4, count(started, other));
+  }
+
+  @Test
+  public void startHigherClassFirst() {
+    Job<?> warmUp = job("a", JobPriority.NORMAL, 10);
+    Job<?> urgent = job("b", JobPriority.HIGH, 1);
+    JobShares shares = new JobShares();
+    shares.update(ImmutableList.of(warmUp, urgent));
+    List<Task> waiting = new ArrayList<>();
+    waiting.addAll(tasks(warmUp, 100));
+    waiting.addAll(tasks(urgent, 2));
+    List<Task> started = shares.pickTasksToStart(WORKER, waiting, 4);
+    assertSame(urgent, started.get(0).getJob());
+    assertSame(urgent, started.get(1).getJob());
+    assertEquals(2, count(started, warmUp));
+  }
+
+  @Test
+  public void carryCreditOverCalls() {
+    Job<?> small = job("a", JobPriority.NORMAL, 1);
+    Job<?> large = job("b", JobPriority.NORMAL, 3);
+    JobShares shares = new JobShares();
+    shares.update(ImmutableList.of(small, large));
+    List<Task> waiting = new ArrayList<>();
+    waiting.addAll(tasks(small, 100));
+    waiting.addAll(tasks(large, 100));
+    int startedBySmall = 0;
+    // one slot frees up at a time
+    for (int i = 0; i < 40; i++) {
+      List<Task> started = shares.pickTasksToStart(WORKER, waiting, 1);
+      assertEquals(1, started.size());
+      waiting.removeAll(started);
+      startedBySmall += count(started, small);
+    }
+    assertEquals(10, startedBySmall);
+  }
+
+  @Test
+  public void evictTaskOfJobAboveShare() {
+    Job<?> warmUp = job("a", JobPriority.NORMAL, 1);
+    Job<?> small = job("b", JobPriority.NORMAL, 1);
+    JobShares shares = new JobShares();
+    shares.update(ImmutableList.of(warmUp, small));
+    List<Task> queued = new ArrayList<>(tasks(warmUp, 6));
+    queued.addAll(tasks(small, 4));
+    assertSame(warmUp, shares.pickTaskToEvict(queued, tasks(small, 1).get(0)).getJob());
+    // both jobs have their share of the queue
+    queued.remove(0);
+    queued.addAll(tasks(small, 1));
+    assertNull(shares.pickTaskToEvict(queued, tasks(small, 1).get(0)));
+    assertNull(shares.pickTaskToEvict(queued, tasks(warmUp, 1).get(0)));
+  }
+
+  @Test
+  public void evictTaskOfLowerClass() {
+    Job<?> background = job("a", JobPriority.LOW, 1);
+    Job<?> urgent = job("b", JobPriority.HIGH, 1);
+    JobShares shares = new JobShares();
+    shares.update(ImmutableList.of(background, urgent));
+    List<Task> queued = new ArrayList<>(tasks(background, 1));
+    queued.addAll(tasks(urgent, 9));
+    assertSame(background, shares.pickTaskToEvict(queued, tasks(urgent, 1).get(0)).getJob());
+    assertNull(shares.pickTaskToEvict(queued, tasks(background, 1).get(0)));
+  }
+
+  private static Job<?> job(String user, JobPriority priority, int weight) {
+    Job<?> job = mock(Job.class);
+    when(job.getUser()).thenReturn(Optional.of(user));
+    when(job.getPriority()).thenReturn(priority);
+    when(job.getWeight()).thenReturn(weight);
+    return job;
+  }
+
+  private static List<Task> tasks(Job<?> job, int count) {
+    List<Task> tasks = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Task<?> task = mock(Task.class);
+      when(task.getJob()).thenReturn(job);
+      tasks.add(task);
+    }
+    return tasks;
+  }
+
+  private static int count(List<Task> tasks, Job<?> job) {
+    return (int) tasks.stream().filter(task -> task.getJob() == job).count();
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.master.file.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import alluxio.master.job.ListingCheckpoint;
+import alluxio.proto.journal.Job.JobListingCheckpoint;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import java.util.Optional;
+
+public class ListingCheckpointTest {
+  private static final String ROOT = "s3://bucket/dir/";
+
+  @Test
+  public void advanceInListingOrder() {
+    ListingCheckpoint checkpoint = new ListingCheckpoint();
+    assertFalse(checkpoint.getStartAfter().isPresent());
+    checkpoint.onListed(ROOT + "a", "a", 2);
+    checkpoint.onListed(ROOT + "b", "b", 1);
+    checkpoint.onListed(ROOT + "c", "c", 1);
+    // files after an unfinished one don't move the watermark
+    checkpoint.onProcessed(ROOT + "b");
+    checkpoint.onProcessed(ROOT + "a");
+    assertFalse(checkpoint.getStartAfter().isPresent());
+    checkpoint.onProcessed(ROOT + "a");
+    assertEquals(Optional.of("b"), checkpoint.getStartAfter());
+    checkpoint.onProcessed(ROOT + "c");
+    assertEquals(Optional.of("c"), checkpoint.getStartAfter());
+    assertTrue(checkpoint.getRetrying().isEmpty());
+  }
+
+  @Test
+  public void passRetryingFiles() {
+    ListingCheckpoint checkpoint = new ListingCheckpoint();
+    checkpoint.onListed(ROOT + "a", "a", 1);
+    checkpoint.onListed(ROOT + "b", "b", 1);
+    checkpoint.onRetry(ROOT + "a");
+    checkpoint.onProcessed(ROOT + "a");
+    checkpoint.onProcessed(ROOT + "b");
+    assertEquals(Optional.of("b"), checkpoint.getStartAfter());
+    assertEquals(ImmutableSet.of("a"), checkpoint.getRetrying());
+    // the retry finishes
+    checkpoint.onProcessed(ROOT + "a");
+    assertTrue(checkpoint.getRetrying().isEmpty());
+  }
+
+  @Test
+  public void restore() {
+    ListingCheckpoint checkpoint = new ListingCheckpoint();
+    checkpoint.onListed(ROOT + "a", "a", 1);
+    checkpoint.onListed(ROOT + "b", "b", 1);
+    checkpoint.onListed(ROOT + "c", "c", 1);
+    checkpoint.onRetry(ROOT + "a");
+    checkpoint.onProcessed(ROOT + "a");
+    checkpoint.onProcessed(ROOT + "b");
+    JobListingCheckpoint proto = checkpoint.toProto();
+    assertEquals("b", proto.getStartAfter());
+    assertEquals(ImmutableSet.of("a"), ImmutableSet.copyOf(proto.getRetryingList()));
+
+    ListingCheckpoint restored = ListingCheckpoint.fromProto(proto);
+    assertEquals(Optional.of("b"), restored.getStartAfter());
+    assertEquals(ImmutableSet.of("a"), restored.getRetrying());
+    // the retrying file is listed again, and stays retrying until it is processed
+    restored.onListed(ROOT + "a", "a", 1);
+    restored.onListed(ROOT + "c", "c", 1);
+    restored.onProcessed(ROOT + "c");
+    assertEquals(ImmutableSet.of("a"), restored.getRetrying());
+    assertEquals(Optional.of("b"), restored.getStartAfter());
+    restored.onProcessed(ROOT + "a");
+    assertEquals(Optional.of("c"), restored.getStartAfter());
+    assertTrue(restored.getRetrying().isEmpty());
+  }
+
+  @Test
+  public void clear() {
+    ListingCheckpoint checkpoint = new ListingCheckpoint();
+    checkpoint.onListed(ROOT + "a", "a", 1);
+    checkpoint.onProcessed(ROOT + "a");
+    checkpoint.clear();
+    assertFalse(checkpoint.getStartAfter().isPresent());
+    assertFalse(checkpoint.toProto().hasStartAfter());
+    // work reported for files listed before the checkpoint was cleared is ignored
+    checkpoint.onProcessed(ROOT + "a");
+    checkpoint.onRetry(ROOT + "a");
+    assertFalse(checkpoint.getStartAfter().isPresent());
+  }
+}
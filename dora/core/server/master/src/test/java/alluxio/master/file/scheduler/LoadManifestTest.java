@@ -0,0 +1,128 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.master.file.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import alluxio.AlluxioURI;
+import alluxio.master.job.LoadManifest;
+import alluxio.master.job.LoadManifest.Change;
+import alluxio.underfs.UfsFileStatus;
+import alluxio.underfs.UfsStatus;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.util.Collections;
+
+public class LoadManifestTest {
+  private static final String PATH = "s3://bucket/dir";
+
+  @Rule
+  public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+  private String mManifestDir;
+
+  @Before
+  public void before() {
+    mManifestDir = mTemporaryFolder.getRoot().getAbsolutePath();
+  }
+
+  @Test
+  public void loadOnlyNewOrChangedFiles() {
+    LoadManifest first = new LoadManifest(mManifestDir, PATH, true);
+    assertEquals(Change.NEW, first.diff(file("a", "etag1", 10)));
+    assertEquals(Change.NEW, first.diff(file("b", "etag2", 10)));
+    first.commit(Collections.emptySet());
+
+    LoadManifest second = new LoadManifest(mManifestDir, PATH, true);
+    assertEquals(Change.UNCHANGED, second.diff(file("a", "etag1", 10)));
+    assertEquals(Change.CHANGED, second.diff(file("b", "etag3", 10)));
+    assertEquals(Change.NEW, second.diff(file("c", "etag4", 10)));
+    second.commit(Collections.emptySet());
+
+    LoadManifest third = new LoadManifest(mManifestDir, PATH, true);
+    assertEquals(Change.UNCHANGED, third.diff(file("b", "etag3", 10)));
+    assertEquals(Change.UNCHANGED, third.diff(file("c", "etag4", 10)));
+  }
+
+  @Test
+  public void fallBackToModificationTime() {
+    LoadManifest first = new LoadManifest(mManifestDir, PATH, true);
+    first.diff(file("a", "", 10, 1000L));
+    first.diff(file("b", "", 10, 1000L));
+    first.commit(Collections.emptySet());
+
+    LoadManifest second = new LoadManifest(mManifestDir, PATH, true);
+    assertEquals(Change.UNCHANGED, second.diff(file("a", "", 10, 1000L)));
+    assertEquals(Change.CHANGED, second.diff(file("b", "", 10, 2000L)));
+  }
+
+  @Test
+  public void reloadFailedFiles() {
+    LoadManifest first = new LoadManifest(mManifestDir, PATH, true);
+    first.diff(file("a", "etag1", 10));
+    first.diff(file("b", "etag2", 10));
+    first.commit(ImmutableSet.of(PATH + "/b"));
+
+    LoadManifest second = new LoadManifest(mManifestDir, PATH, true);
+    assertEquals(Change.UNCHANGED, second.diff(file("a", "etag1", 10)));
+    // what the failed job cached of the file is not known to be up to date
+    assertEquals(Change.CHANGED, second.diff(file("b", "etag2", 10)));
+  }
+
+  @Test
+  public void keepPreviousManifestOnFailure() {
+    LoadManifest first = new LoadManifest(mManifestDir, PATH, true);
+    first.diff(file("a", "etag1", 10));
+    first.commit(Collections.emptySet());
+
+    LoadManifest failed = new LoadManifest(mManifestDir, PATH, true);
+    failed.diff(file("a", "etag2", 10));
+    failed.discard();
+
+    LoadManifest restored = new LoadManifest(mManifestDir, PATH, false);
+    assertEquals(Change.CHANGED, restored.diff(file("a", "etag2", 10)));
+    restored.commit(Collections.emptySet());
+
+    LoadManifest next = new LoadManifest(mManifestDir, PATH, true);
+    assertEquals(Change.CHANGED, next.diff(file("a", "etag2", 10)));
+  }
+
+  @Test
+  public void separateManifestPerPath() {
+    LoadManifest first = new LoadManifest(mManifestDir, PATH, true);
+    first.diff(file("a", "etag1", 10));
+    first.commit(Collections.emptySet());
+
+    LoadManifest other = new LoadManifest(mManifestDir, "s3://bucket_dir", true);
+    assertFalse(Files.exists(other.getManifestFile()));
+    assertEquals(Change.NEW, other.diff(file("a", "etag1", 10)));
+  }
+
+  private static UfsStatus file(String name, String contentHash, long length) {
+    return file(name, contentHash, length, 0L);
+  }
+
+  private static UfsStatus file(String name, String contentHash, long length,
+      long lastModified) {
+    UfsStatus status = new UfsFileStatus(name, contentHash, length, lastModified, "owner",
+        "group", (short) 0644, 64);
+    status.setUfsFullPath(new AlluxioURI(PATH).join(name));
+    return status;
+  }
+}
@@ -144,7 +144,8 @@ public class MoveJobTest {
     assertTrue(job.getProgress(JobProgressReportFormat.TEXT, true)
                   .contains(expectedTextReport));
     String expectedJsonReport = "{\"mVerbose\":false,\"mJobState\":\"RUNNING\","
-        + "\"mCheckContent\":false,\"mProcessedFileCount\":25,"
+        + "\"mCheckContent\":false,\"mPriority\":\"NORMAL\",\"mWeight\":1,"
+        + "\"mProcessedFileCount\":25,"
         + "\"mByteCount\":671088640,\"mTotalByteCount\":33554432000,"
         + "\"mFailurePercentage\":0.0,\"mFailedFileCount\":0,\"mSuccessFileCount\":0,"
         + "\"mFailedFilesWithReasons\":{},\"mJobId\":\"1\",\"mStartTime\":1690000000000,"
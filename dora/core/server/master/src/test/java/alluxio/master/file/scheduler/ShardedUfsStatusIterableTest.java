@@ -0,0 +1,131 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.master.file.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import alluxio.conf.Configuration;
+import alluxio.exception.runtime.AlluxioRuntimeException;
+import alluxio.master.job.ShardedUfsStatusIterable;
+import alluxio.master.job.ShardedUfsStatusIterable.ShardedUfsStatusIterator;
+import alluxio.master.job.UfsStatusIterable;
+import alluxio.underfs.UfsStatus;
+import alluxio.underfs.UnderFileSystem;
+import alluxio.underfs.UnderFileSystemConfiguration;
+
+import com.google.common.base.Predicates;
+import com.google.common.collect.Iterators;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+
+public class ShardedUfsStatusIterableTest {
+  private String mLocalUfsRoot;
+  private UnderFileSystem mLocalUfs;
+
+  @Rule
+  public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+  @Before
+  public void before() throws IOException {
+    mLocalUfsRoot = mTemporaryFolder.getRoot().getAbsolutePath();
+    mLocalUfs = UnderFileSystem.Factory.create(mLocalUfsRoot,
+        UnderFileSystemConfiguration.defaults(Configuration.global()));
+  }
+
+  @Test
+  public void sameAsSingleListing() throws IOException {
+    mTemporaryFolder.newFile("a");
+    for (int i = 0; i < 5; i++) {
+      mTemporaryFolder.newFolder("d" + i, "e", "f", "g");
+      mTemporaryFolder.newFile("d" + i + "/b");
+      mTemporaryFolder.newFile("d" + i + "/e/c");
+      mTemporaryFolder.newFile("d" + i + "/e/f/g/h");
+    }
+    mTemporaryFolder.newFolder("empty");
+
+    Set<String> expected = list(new UfsStatusIterable(mLocalUfs, mLocalUfsRoot,
+        Optional.empty(), Predicates.alwaysTrue()).iterator());
+    Iterator<UfsStatus> iterator = new ShardedUfsStatusIterable(mLocalUfs, mLocalUfsRoot,
+        Optional.empty(), Predicates.alwaysTrue(), 3).iterator();
+    assertEquals(37, expected.size());
+    assertEquals(expected, list(iterator));
+    // the root, 6 top level directories and the 5 "e" directories
+    assertEquals(12, ((ShardedUfsStatusIterator) iterator).getTotalShards());
+    assertEquals(12, ((ShardedUfsStatusIterator) iterator).getListedShards());
+  }
+
+  @Test
+  public void filter() throws IOException {
+    mTemporaryFolder.newFile("a.csv");
+    mTemporaryFolder.newFolder("d", "e", "f");
+    mTemporaryFolder.newFile("d/b.csv");
+    mTemporaryFolder.newFile("d/b.txt");
+    mTemporaryFolder.newFile("d/e/f/c.csv");
+    Set<String> listed = list(new ShardedUfsStatusIterable(mLocalUfs, mLocalUfsRoot,
+        Optional.empty(), status -> status.getName().endsWith(".csv"), 2).iterator());
+    Set<String> expected = new HashSet<>();
+    expected.add("a.csv");
+    expected.add("d/b.csv");
+    expected.add("d/e/f/c.csv");
+    assertEquals(expected, listed);
+  }
+
+  @Test
+  public void singleFile() throws IOException {
+    File file = mTemporaryFolder.newFile("a");
+    Iterator<UfsStatus> iterator = new ShardedUfsStatusIterable(mLocalUfs,
+        file.getAbsolutePath(), Optional.empty(), Predicates.alwaysTrue(), 2).iterator();
+    assertEquals(1, Iterators.size(iterator));
+  }
+
+  @Test
+  public void missingPath() {
+    ShardedUfsStatusIterable iterable = new ShardedUfsStatusIterable(mLocalUfs,
+        mLocalUfsRoot + "/missing", Optional.empty(), Predicates.alwaysTrue(), 2);
+    assertThrows(AlluxioRuntimeException.class, () -> iterable.iterator().hasNext());
+  }
+
+  @Test
+  public void close() throws IOException {
+    for (int i = 0; i < 10; i++) {
+      mTemporaryFolder.newFile("a" + i);
+    }
+    ShardedUfsStatusIterator iterator = (ShardedUfsStatusIterator) new ShardedUfsStatusIterable(
+        mLocalUfs, mLocalUfsRoot, Optional.empty(), Predicates.alwaysTrue(), 2).iterator();
+    assertTrue(iterator.hasNext());
+    iterator.next();
+    iterator.close();
+    assertFalse(iterator.hasNext());
+  }
+
+  private Set<String> list(Iterator<UfsStatus> iterator) {
+    Set<String> listed = new HashSet<>();
+    while (iterator.hasNext()) {
+      UfsStatus status = iterator.next();
+      assertEquals(mLocalUfsRoot + "/" + status.getName(), status.getUfsFullPath().toString());
+      assertTrue(listed.add(status.getName()));
+    }
+    return listed;
+  }
+}
@@ -12,14 +12,18 @@
 package alluxio.master.file.scheduler;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import alluxio.conf.Configuration;
+import alluxio.master.job.ListingCheckpoint;
 import alluxio.master.job.UfsStatusIterable;
+import alluxio.proto.journal.Job.JobListingCheckpoint;
 import alluxio.underfs.UfsStatus;
 import alluxio.underfs.UnderFileSystem;
 import alluxio.underfs.UnderFileSystemConfiguration;
 
 import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableSet;
 import org.apache.commons.compress.utils.Lists;
 import org.junit.Before;
 import org.junit.Rule;
@@ -28,8 +32,10 @@ import org.junit.rules.TemporaryFolder;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Optional;
+import java.util.Set;
 
 public class UfsStatusIterableTest {
   private String mLocalUfsRoot;
@@ -59,4 +65,24 @@ public class UfsStatusIterableTest {
     ArrayList<UfsStatus> array = Lists.newArrayList(iterator);
     assertEquals(4, array.size());
   }
+
+  @Test
+  public void resumeFromCheckpoint() throws IOException {
+    mTemporaryFolder.newFile("a");
+    mTemporaryFolder.newFile("b");
+    mTemporaryFolder.newFile("c");
+    mTemporaryFolder.newFolder("d");
+    mTemporaryFolder.newFile("d/e");
+    ListingCheckpoint checkpoint = ListingCheckpoint.fromProto(JobListingCheckpoint.newBuilder()
+        .setStartAfter("b").addRetrying("a").addRetrying("missing").build());
+    Iterator<UfsStatus> iterator = new UfsStatusIterable(mLocalUfs, mLocalUfsRoot,
+        Optional.empty(), Predicates.alwaysTrue(), checkpoint).iterator();
+    // retrying files come first
+    UfsStatus retrying = iterator.next();
+    assertEquals("a", retrying.getName());
+    assertEquals(mLocalUfsRoot + "/a", retrying.getUfsFullPath().toString());
+    Set<String> listed = new HashSet<>();
+    iterator.forEachRemaining(status -> assertTrue(listed.add(status.getName())));
+    assertEquals(ImmutableSet.of("c", "d", "d/e"), listed);
+  }
 }
@@ -0,0 +1,98 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.master.file.scheduler;
+
+import static org.junit.Assert.assertEquals;
+
+import alluxio.Constants;
+import alluxio.master.scheduler.WorkerTaskWindow;
+
+import org.junit.Test;
+
+public class WorkerTaskWindowTest {
+  private static final int MAX_WINDOW = 8;
+  private static final long TASK_SIZE = 64 * Constants.MB;
+
+  @Test
+  public void growUpToMax() {
+    WorkerTaskWindow window = new WorkerTaskWindow(MAX_WINDOW, "grow.host");
+    assertEquals(1, window.getWindow());
+    window.onTaskCompleted(10, TASK_SIZE, true);
+    assertEquals(2, window.getWindow());
+    // roughly one more task per round of tasks
+    window.onTaskCompleted(10, TASK_SIZE, true);
+    assertEquals(2, window.getWindow());
+    window.onTaskCompleted(10, TASK_SIZE, true);
+    assertEquals(2, window.getWindow());
+    window.onTaskCompleted(10, TASK_SIZE, true);
+    assertEquals(3, window.getWindow());
+    for (int i = 0; i < 100; i++) {
+      window.onTaskCompleted(10, TASK_SIZE, true);
+    }
+    assertEquals(MAX_WINDOW, window.getWindow());
+  }
+
+  @Test
+  public void shrinkOncePerRoundOnFailure() {
+    WorkerTaskWindow window = grown("failure.host");
+    window.onTaskCompleted(10, TASK_SIZE, false);
+    assertEquals(4, window.getWindow());
+    // the other tasks of the round fail as well, without shrinking the window further
+    for (int i = 0; i < 3; i++) {
+      window.onTaskCompleted(10, TASK_SIZE, false);
+      assertEquals(4, window.getWindow());
+    }
+    window.onTaskCompleted(10, TASK_SIZE, false);
+    assertEquals(2, window.getWindow());
+    for (int i = 0; i < 10; i++) {
+      window.onTaskCompleted(10, TASK_SIZE, false);
+    }
+    assertEquals(1, window.getWindow());
+  }
+
+  @Test
+  public void shrinkOnSlowTask() {
+    WorkerTaskWindow window = grown("slow.host");
+    // within the tolerance of the lowest latency observed
+    window.onTaskCompleted(20, TASK_SIZE, true);
+    assertEquals(MAX_WINDOW, window.getWindow());
+    window.onTaskCompleted(50, TASK_SIZE, true);
+    assertEquals(MAX_WINDOW / 2, window.getWindow());
+  }
+
+  @Test
+  public void compareLatencyPerMb() {
+    WorkerTaskWindow window = grown("size.host");
+    // a larger task taking longer at the same pace
+    window.onTaskCompleted(40, 4 * TASK_SIZE, true);
+    assertEquals(MAX_WINDOW, window.getWindow());
+    // a smaller task at half the pace
+    window.onTaskCompleted(10, TASK_SIZE / 4, true);
+    assertEquals(MAX_WINDOW / 2, window.getWindow());
+  }
+
+  @Test
+  public void ignoreLatencyOfUnknownSize() {
+    WorkerTaskWindow window = grown("unknown.size.host");
+    window.onTaskCompleted(1000, 0, true);
+    assertEquals(MAX_WINDOW, window.getWindow());
+  }
+
+  private WorkerTaskWindow grown(String host) {
+    WorkerTaskWindow window = new WorkerTaskWindow(MAX_WINDOW, host);
+    for (int i = 0; i < 100; i++) {
+      window.onTaskCompleted(10, TASK_SIZE, true);
+    }
+    assertEquals(MAX_WINDOW, window.getWindow());
+    return window;
+  }
+}
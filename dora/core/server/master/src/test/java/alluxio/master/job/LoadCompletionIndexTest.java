@@ -0,0 +1,188 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.master.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import alluxio.AlluxioURI;
+import alluxio.grpc.CachedBlock;
+import alluxio.underfs.UfsFileStatus;
+import alluxio.wire.WorkerIdentity;
+import alluxio.wire.WorkerInfo;
+import alluxio.wire.WorkerNetAddress;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.ByteString;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Tests for the {@link LoadCompletionIndex} class.
+ */
+public final class LoadCompletionIndexTest {
+  private static final String PATH = "s3://bucket/data/file";
+  private static final long PAGE_SIZE = 100;
+  private static final long BLOCK_SIZE = 1000;
+  private static final WorkerInfo WORKER_A = worker(1);
+  private static final WorkerInfo WORKER_B = worker(2);
+  private static final WorkerInfo WORKER_C = worker(3);
+
+  private final LoadCompletionIndex mIndex = new LoadCompletionIndex();
+
+  @Test
+  public void proveBlocksOfFile() {
+    mIndex.expect(subTask(PATH, 0, BLOCK_SIZE, WORKER_A));
+    mIndex.expect(subTask(PATH, BLOCK_SIZE, 500, WORKER_B));
+    assertEquals(2, mIndex.getUnprovenBlocks());
+    assertNull(mIndex.prove(WORKER_A, cached(PATH, 0, BLOCK_SIZE, null, true)));
+    assertEquals(PATH, mIndex.prove(WORKER_B, cached(PATH, BLOCK_SIZE, 500, null, true)));
+    assertFalse(mIndex.hasUnproven());
+    assertEquals(2, mIndex.getProvenBlocks());
+    assertEquals(1, mIndex.getProvenFiles());
+    assertEquals(BLOCK_SIZE + 500, mIndex.getProvenBytes());
+  }
+
+  @Test
+  public void missingPagesOfBlockNotStartingOnPageBoundary() {
+    // the block spans the pages 1 to 5, the bitmap starts from page 1
+    mIndex.expect(subTask(PATH, 150, 400, WORKER_A));
+    assertNull(mIndex.prove(WORKER_A, cached(PATH, 150, 400, pages(0, 1, 4), false)));
+    List<LoadDataSubTask> missing = mIndex.getMissing();
+    assertEquals(1, missing.size());
+    assertEquals(300, missing.get(0).getOffset());
+    assertEquals(200, missing.get(0).getLength());
+    assertEquals(WORKER_A, missing.get(0).getWorkerInfo());
+    // loading the pages missing proves the block
+    assertEquals(PATH, mIndex.prove(WORKER_A, cached(PATH, 300, 200, null, true)));
+    assertEquals(400, mIndex.getProvenBytes());
+  }
+
+  @Test
+  public void missingFirstPageClippedToBlock() {
+    mIndex.expect(subTask(PATH, 150, 400, WORKER_A));
+    assertNull(mIndex.prove(WORKER_A, cached(PATH, 150, 400, pages(1, 2, 3, 4), false)));
+    List<LoadDataSubTask> missing = mIndex.getMissing();
+    assertEquals(150, missing.get(0).getOffset());
+    assertEquals(50, missing.get(0).getLength());
+  }
+
+  @Test
+  public void widenMissingPagesOverReplicas() {
+    mIndex.expect(subTask(PATH, 0, BLOCK_SIZE, WORKER_A));
+    mIndex.expect(subTask(PATH, 0, BLOCK_SIZE, WORKER_B));
+    mIndex.prove(WORKER_A, cached(PATH, 0, BLOCK_SIZE, allPagesBut(2), false));
+    mIndex.prove(WORKER_B, cached(PATH, 0, BLOCK_SIZE, allPagesBut(5), false));
+    List<LoadDataSubTask> missing = mIndex.getMissing();
+    assertEquals(2, missing.size());
+    for (LoadDataSubTask subTask : missing) {
+      assertEquals(200, subTask.getOffset());
+      assertEquals(400, subTask.getLength());
+    }
+    assertEquals(ImmutableSet.of(WORKER_A, WORKER_B), ImmutableSet.of(
+        missing.get(0).getWorkerInfo(), missing.get(1).getWorkerInfo()));
+  }
+
+  @Test
+  public void proveEachReplicaOnce() {
+    mIndex.expect(subTask(PATH, 0, BLOCK_SIZE, WORKER_A));
+    mIndex.expect(subTask(PATH, 0, BLOCK_SIZE, WORKER_B));
+    assertNull(mIndex.prove(WORKER_A, cached(PATH, 0, BLOCK_SIZE, null, true)));
+    // the same replica proven again does not count for the other one
+    assertNull(mIndex.prove(WORKER_A, cached(PATH, 0, BLOCK_SIZE, null, true)));
+    assertTrue(mIndex.hasUnproven());
+    List<LoadDataSubTask> missing = mIndex.getMissing();
+    assertEquals(1, missing.size());
+    assertEquals(WORKER_B, missing.get(0).getWorkerInfo());
+    assertEquals(PATH, mIndex.prove(WORKER_B, cached(PATH, 0, BLOCK_SIZE, null, true)));
+    // each block counts once, however many replicas it has
+    assertEquals(BLOCK_SIZE, mIndex.getProvenBytes());
+  }
+
+  @Test
+  public void proveReplicaMovedToAnotherWorker() {
+    mIndex.expect(subTask(PATH, 0, BLOCK_SIZE, WORKER_A));
+    mIndex.expect(subTask(PATH, 0, BLOCK_SIZE, WORKER_B));
+    assertNull(mIndex.prove(WORKER_C, cached(PATH, 0, BLOCK_SIZE, null, true)));
+    assertEquals(1, mIndex.getMissing().size());
+    assertEquals(PATH, mIndex.prove(WORKER_B, cached(PATH, 0, BLOCK_SIZE, null, true)));
+  }
+
+  @Test
+  public void proveWorkerWithChangedInfo() {
+    mIndex.expect(subTask(PATH, 0, BLOCK_SIZE, WORKER_A));
+    mIndex.expect(subTask(PATH, 0, BLOCK_SIZE, WORKER_B));
+    WorkerInfo reported = worker(1).setLastContactSec(10).setUsedBytes(BLOCK_SIZE);
+    assertNull(mIndex.prove(reported, cached(PATH, 0, BLOCK_SIZE, null, true)));
+    List<LoadDataSubTask> missing = mIndex.getMissing();
+    assertEquals(1, missing.size());
+    assertEquals(WORKER_B, missing.get(0).getWorkerInfo());
+  }
+
+  @Test
+  public void discard() {
+    String other = "s3://bucket/data/other";
+    mIndex.expect(subTask(PATH, 0, BLOCK_SIZE, WORKER_A));
+    mIndex.expect(subTask(PATH, BLOCK_SIZE, BLOCK_SIZE, WORKER_A));
+    mIndex.expect(subTask(other, 0, BLOCK_SIZE, WORKER_B));
+    mIndex.discard(PATH);
+    assertEquals(ImmutableSet.of(other), mIndex.getUnprovenFiles());
+    assertEquals(1, mIndex.getUnprovenBlocks());
+    assertNull(mIndex.prove(WORKER_A, cached(PATH, 0, BLOCK_SIZE, null, true)));
+    assertEquals(0, mIndex.getProvenBlocks());
+    assertEquals(1, mIndex.getMissing().size());
+  }
+
+  private static LoadDataSubTask subTask(String path, long offset, long length,
+      WorkerInfo worker) {
+    UfsFileStatus status = new UfsFileStatus("file", "", 2 * BLOCK_SIZE, 0L, "owner", "group",
+        (short) 0644, null, BLOCK_SIZE);
+    status.setUfsFullPath(new AlluxioURI(path));
+    return (LoadDataSubTask) new LoadDataSubTask(status, BLOCK_SIZE, offset, length)
+        .setWorkerInfo(worker);
+  }
+
+  private static CachedBlock cached(String path, long offset, long length, BitSet pages,
+      boolean complete) {
+    CachedBlock.Builder block = CachedBlock.newBuilder().setUfsPath(path)
+        .setOffsetInFile(offset).setLength(length).setPageSize(PAGE_SIZE).setComplete(complete);
+    if (pages != null) {
+      block.setPageBitmap(ByteString.copyFrom(pages.toByteArray()));
+    }
+    return block.build();
+  }
+
+  private static BitSet pages(int... indexes) {
+    BitSet pages = new BitSet();
+    for (int index : indexes) {
+      pages.set(index);
+    }
+    return pages;
+  }
+
+  private static BitSet allPagesBut(int index) {
+    BitSet pages = new BitSet();
+    pages.set(0, (int) (BLOCK_SIZE / PAGE_SIZE));
+    pages.clear(index);
+    return pages;
+  }
+
+  private static WorkerInfo worker(long id) {
+    return new WorkerInfo().setId(id)
+        .setIdentity(WorkerIdentity.ParserV0.INSTANCE.fromLong(id))
+        .setAddress(new WorkerNetAddress().setHost("worker" + id).setRpcPort(1234));
+  }
+}
@@ -30,6 +30,8 @@ import alluxio.grpc.S3SyntaxOptions;
 import alluxio.grpc.XAttrPropagationStrategy;
 import alluxio.metrics.MetricKey;
 import alluxio.metrics.MetricsSystem;
+import alluxio.s3.CompleteMultipartUploadRequest;
+import alluxio.s3.CompleteMultipartUploadResult;
 import alluxio.s3.S3Constants;
 import alluxio.s3.S3Error;
 import alluxio.s3.S3ErrorCode;
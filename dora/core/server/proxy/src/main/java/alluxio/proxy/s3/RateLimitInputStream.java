@@ -18,6 +18,9 @@ import java.io.InputStream;
 
 /**
  * This class is a wrapper for InputStream which limit rate when reading bytes.
+ * Permits are taken for the bytes actually returned by a read rather than the size of the
+ * caller's buffer, so reading into a large buffer from a slow stream (e.g. a request body
+ * arriving over the network) is not throttled for bytes that never arrived.
  */
 public class RateLimitInputStream extends InputStream {
 
@@ -37,8 +40,11 @@ public class RateLimitInputStream extends InputStream {
 
   @Override
   public int read() throws IOException {
-    acquire(1);
-    return mInputStream.read();
+    int b = mInputStream.read();
+    if (b != -1) {
+      acquire(1);
+    }
+    return b;
   }
 
   @Override
@@ -48,8 +54,11 @@ public class RateLimitInputStream extends InputStream {
 
   @Override
   public int read(byte[] b, int off, int len) throws IOException {
-    acquire(Math.min(b.length - off, len));
-    return mInputStream.read(b, off, len);
+    int read = mInputStream.read(b, off, len);
+    if (read > 0) {
+      acquire(read);
+    }
+    return read;
   }
 
   @Override
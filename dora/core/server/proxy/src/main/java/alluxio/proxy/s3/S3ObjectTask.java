@@ -39,7 +39,10 @@ import alluxio.metrics.MetricKey;
 import alluxio.metrics.MetricsSystem;
 import alluxio.proto.journal.File;
 import alluxio.s3.ChunkedEncodingInputStream;
+import alluxio.s3.CompleteMultipartUploadRequest;
+import alluxio.s3.CompleteMultipartUploadResult;
 import alluxio.s3.CopyObjectResult;
+import alluxio.s3.InitiateMultipartUploadResult;
 import alluxio.s3.S3AuditContext;
 import alluxio.s3.S3Constants;
 import alluxio.s3.S3ErrorCode;
@@ -548,6 +551,15 @@ public class S3ObjectTask extends S3BaseTask {
   private static class PutObjectTask extends S3ObjectTask {
     // For both PutObject and UploadPart
 
+    /**
+     * Buffer the request body is read into. It is sized to a full netty write packet so every
+     * write to the file out stream goes to the worker as one full packet instead of many small
+     * ones, each of which waits for its own flush.
+     */
+    private static final ThreadLocal<byte[]> TLS_WRITE_BYTES = ThreadLocal.withInitial(
+        () -> new byte[(int) Configuration.getBytes(
+            PropertyKey.USER_NETWORK_NETTY_WRITER_PACKET_SIZE_BYTES)]);
+
     public PutObjectTask(S3Handler handler, OpType opType) {
       super(handler, opType);
     }
@@ -584,10 +596,14 @@ public class S3ObjectTask extends S3BaseTask {
         } else {
           toRead = Long.parseLong(contentLength);
         }
-        FileOutStream os = userFs.createFile(objectUri, createFilePOptions);
-        try (DigestOutputStream digestOutputStream = new DigestOutputStream(os, md5)) {
-          long read = ByteStreams.copy(ByteStreams.limit(readStream, toRead),
-              digestOutputStream);
+        long rate = (long) mHandler.getMetaFS().getConf()
+            .getInt(PropertyKey.PROXY_S3_SINGLE_CONNECTION_WRITE_RATE_LIMIT_MB) * Constants.MB;
+        RateLimiter rateLimiter = S3RestUtils.createRateLimiter(rate).orElse(null);
+        if (rateLimiter != null) {
+          readStream = new RateLimitInputStream(readStream, rateLimiter);
+        }
+        try (FileOutStream os = userFs.createFile(objectUri, createFilePOptions)) {
+          long read = copy(readStream, toRead, os, md5);
           if (read < toRead) {
             throw new IOException(String.format(
                 "Failed to read all required bytes from the stream. Read %d/%d",
@@ -619,6 +635,32 @@ public class S3ObjectTask extends S3BaseTask {
       }
     }
 
+    /**
+     * Copies up to the given number of bytes of the request body into the file, updating the
+     * digest on the way. Reads fill the whole buffer before it is written.
+     *
+     * @param in the request body
+     * @param length the number of bytes to copy
+     * @param out the stream to write to
+     * @param md5 the digest to update
+     * @return the number of bytes copied, less than length only if the body ended early
+     */
+    private static long copy(InputStream in, long length, FileOutStream out, MessageDigest md5)
+        throws IOException {
+      byte[] buffer = TLS_WRITE_BYTES.get();
+      long copied = 0;
+      while (copied < length) {
+        int read = ByteStreams.read(in, buffer, 0, (int) Math.min(buffer.length, length - copied));
+        if (read == 0) {
+          break;
+        }
+        md5.update(buffer, 0, read);
+        out.write(buffer, 0, read);
+        copied += read;
+      }
+      return copied;
+    }
+
     /**
      * Common util func to create directory in alluxio.
      * @param objectPath
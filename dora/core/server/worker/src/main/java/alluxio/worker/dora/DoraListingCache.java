@@ -0,0 +1,437 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.dora;
+
+import alluxio.AlluxioURI;
+import alluxio.underfs.UfsFileStatus;
+import alluxio.underfs.UfsStatus;
+import alluxio.util.io.PathUtils;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A cache of UFS directory listings shared by recursive and non-recursive listings.
+ *
+ * The listing of each directory is stored once, in a map sorted by path, so the listings of a
+ * directory and all its descendants form a contiguous key range. A recursive listing is served
+ * by stitching together the listings of a directory and its sub-directories, and a recursive
+ * listing from the UFS populates the listing of every directory it covers.
+ *
+ * Creating, updating or deleting a path patches the single entry in the listing of its parent
+ * instead of dropping the whole listing. The capacity is accounted per entry: once the total
+ * number of cached entries exceeds it, whole listings are evicted in LRU order.
+ *
+ * A cache hit does not copy the listing: the statuses of a listing are kept as an array shared
+ * by every result served for it, and a listing changed later gets a new array instead of
+ * changing the shared one, so the results served before are left as they were.
+ */
+@ThreadSafe
+public class DoraListingCache {
+  private final long mCapacity;
+  private final long mTtlNs;
+  /** Listings keyed by normalized path, sorted so that descendants form a key range. */
+  private final TreeMap<String, Listing> mListings = new TreeMap<>();
+  /** The same listings in access order, for LRU eviction. */
+  private final LinkedHashMap<String, Listing> mLru = new LinkedHashMap<>(16, 0.75f, true);
+  private long mNumEntries = 0;
+
+  /**
+   * The listing of a single path.
+   */
+  private static final class Listing {
+    /** The time the listing was fetched from the UFS, in {@link System#nanoTime()}. */
+    private final long mTimestamp;
+    /** The entries keyed by name, or null if the path does not exist. */
+    @Nullable
+    private final TreeMap<String, UfsStatus> mEntries;
+    private final boolean mIsFile;
+    /** The token to resume the UFS listing from, or null if the listing is complete. */
+    @Nullable
+    private String mContinuationToken;
+    /** The entries as served to the callers, or null until served since the last change. */
+    @Nullable
+    private UfsStatus[] mStatuses;
+
+    Listing(long timestamp, @Nullable TreeMap<String, UfsStatus> entries,
+        boolean isFile, @Nullable String continuationToken) {
+      mTimestamp = timestamp;
+      mEntries = entries;
+      mIsFile = isFile;
+      mContinuationToken = continuationToken;
+    }
+
+    @Nullable
+    UfsStatus[] statuses() {
+      if (mStatuses == null && mEntries != null) {
+        mStatuses = mEntries.values().toArray(new UfsStatus[0]);
+      }
+      return mStatuses;
+    }
+
+    long weight() {
+      return 1 + (mEntries == null ? 0 : mEntries.size());
+    }
+
+    boolean isDirectory() {
+      return mEntries != null && !mIsFile;
+    }
+  }
+
+  /**
+   * @param capacity the maximum number of entries to cache
+   * @param ttlNs the time in nanoseconds after which a listing expires
+   */
+  public DoraListingCache(long capacity, long ttlNs) {
+    mCapacity = capacity;
+    mTtlNs = ttlNs;
+  }
+
+  /**
+   * Gets a cached listing.
+   *
+   * A recursive listing is only returned if the listings of the path and all of its
+   * sub-directories are cached and complete.
+   *
+   * @param path the listed path
+   * @param isRecursive whether the listing is recursive
+   * @return the cached listing, if any
+   */
+  public synchronized Optional<ListStatusResult> get(String path, boolean isRecursive) {
+    String key = normalize(path);
+    Listing listing = getValid(key);
+    if (listing == null) {
+      return Optional.empty();
+    }
+    if (!listing.isDirectory() || !isRecursive) {
+      return Optional.of(toResult(listing, listing.statuses()));
+    }
+    List<UfsStatus> statuses = new ArrayList<>();
+    long[] timestamp = {listing.mTimestamp};
+    if (!collectRecursive(key, "", listing, statuses, timestamp)) {
+      return Optional.empty();
+    }
+    return Optional.of(new ListStatusResult(timestamp[0],
+        statuses.toArray(new UfsStatus[0]), false));
+  }
+
+  private boolean collectRecursive(String key, String prefix, Listing listing,
+      List<UfsStatus> statuses, long[] timestamp) {
+    if (listing.mContinuationToken != null) {
+      return false;
+    }
+    timestamp[0] = Math.min(timestamp[0], listing.mTimestamp);
+    for (UfsStatus entry : listing.mEntries.values()) {
+      String relativeName = prefix.isEmpty() ? entry.getName()
+          : PathUtils.concatPath(prefix, entry.getName());
+      statuses.add(entry.copy().setName(relativeName));
+      if (entry.isDirectory()) {
+        String childKey = childKey(key, entry.getName());
+        Listing child = getValid(childKey);
+        if (child == null || !child.isDirectory()
+            || !collectRecursive(childKey, relativeName, child, statuses, timestamp)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Caches the complete non-recursive listing of a path.
+   *
+   * @param path the listed path
+   * @param statuses the listed statuses, or null if the path does not exist
+   * @param isFile whether the path is a file, in which case the only status is the file itself
+   */
+  public synchronized void put(String path,
+      @Nullable UfsStatus[] statuses, boolean isFile) {
+    TreeMap<String, UfsStatus> entries = null;
+    if (statuses != null) {
+      entries = new TreeMap<>();
+      for (UfsStatus status : statuses) {
+        entries.put(status.getName(), status);
+      }
+    }
+    Listing listing = new Listing(System.nanoTime(), entries, isFile, null);
+    // the listed array is served as is until the listing changes
+    listing.mStatuses = statuses;
+    insert(normalize(path), listing);
+  }
+
+  /**
+   * Caches a page of a non-recursive listing.
+   *
+   * @param path the listed path
+   * @param page the statuses of the page
+   * @param isFirstPage whether this is the first page, which replaces any cached listing
+   * @param continuationToken the token of the next page, or null if this is the last page
+   * @param isFile whether the path is a file
+   * @param timestamp the time the listing started, in {@link System#nanoTime()}
+   * @return false if the listing is no longer cached and later pages should not be added
+   */
+  public synchronized boolean putPage(String path, UfsStatus[] page,
+      boolean isFirstPage, @Nullable String continuationToken, boolean isFile, long timestamp) {
+    String key = normalize(path);
+    if (isFirstPage) {
+      TreeMap<String, UfsStatus> entries = new TreeMap<>();
+      for (UfsStatus status : page) {
+        entries.put(status.getName(), status);
+      }
+      insert(key, new Listing(timestamp, entries, isFile, continuationToken));
+      return mListings.containsKey(key);
+    }
+    Listing listing = mListings.get(key);
+    if (listing == null || !listing.isDirectory() || listing.mContinuationToken == null) {
+      return false;
+    }
+    for (UfsStatus status : page) {
+      if (listing.mEntries.put(status.getName(), status) == null) {
+        mNumEntries++;
+      }
+    }
+    listing.mContinuationToken = continuationToken;
+    listing.mStatuses = null;
+    evictIfNeeded();
+    return mListings.containsKey(key);
+  }
+
+  /**
+   * Caches a complete recursive listing by populating the listing of the path and of every
+   * sub-directory in it.
+   *
+   * @param path the listed path
+   * @param statuses the statuses named relative to the listed path
+   */
+  public synchronized void putRecursive(String path, UfsStatus[] statuses) {
+    if (statuses.length >= mCapacity) {
+      return;
+    }
+    Map<String, TreeMap<String, UfsStatus>> listings = new HashMap<>();
+    listings.put("", new TreeMap<>());
+    for (UfsStatus status : statuses) {
+      if (status.isDirectory()) {
+        listings.putIfAbsent(status.getName(), new TreeMap<>());
+      }
+    }
+    for (UfsStatus status : statuses) {
+      String name = status.getName();
+      int separator = name.lastIndexOf(AlluxioURI.SEPARATOR);
+      String parent = separator < 0 ? "" : name.substring(0, separator);
+      TreeMap<String, UfsStatus> entries = listings.get(parent);
+      if (entries == null) {
+        // the parent directory is implied by the key of an object but is not listed, so its
+        // own listing and the listing of its parent are unknown
+        return;
+      }
+      entries.put(name.substring(separator + 1),
+          status.copy().setName(name.substring(separator + 1)));
+    }
+    String key = normalize(path);
+    removeRange(key);
+    long timestamp = System.nanoTime();
+    for (Map.Entry<String, TreeMap<String, UfsStatus>> entry
+        : listings.entrySet()) {
+      String childKey = entry.getKey().isEmpty() ? key : childKey(key, entry.getKey());
+      insert(childKey, new Listing(timestamp, entry.getValue(), false, null));
+    }
+  }
+
+  /**
+   * Adds or updates the entry of a path in the cached listing of its parent.
+   *
+   * @param path the path
+   * @param status the status of the path
+   */
+  public synchronized void addOrUpdate(String path, UfsStatus status) {
+    String key = normalize(path);
+    AlluxioURI uri = new AlluxioURI(key);
+    Listing own = mListings.get(key);
+    if (own != null && (!own.isDirectory() || status.isFile())) {
+      // the path was absent, a file, or turned from a directory into a file
+      removeRange(key);
+    }
+    if (uri.isRoot()) {
+      return;
+    }
+    Listing parent = mListings.get(uri.getParent().toString());
+    if (parent == null || !parent.isDirectory()) {
+      return;
+    }
+    String name = uri.getName();
+    UfsStatus cached = parent.mEntries.get(name);
+    if (cached != null && isUnchanged(cached, status)) {
+      // keep serving the listing as is
+      return;
+    }
+    parent.mStatuses = null;
+    if (parent.mEntries.put(name, status.copy().setName(name)) == null) {
+      mNumEntries++;
+      evictIfNeeded();
+    }
+  }
+
+  private static boolean isUnchanged(UfsStatus cached, UfsStatus status) {
+    if (cached.isFile() != status.isFile()
+        || !Objects.equals(cached.getLastModifiedTime(), status.getLastModifiedTime())
+        || cached.getMode() != status.getMode()
+        || !Objects.equals(cached.getOwner(), status.getOwner())
+        || !Objects.equals(cached.getGroup(), status.getGroup())) {
+      return false;
+    }
+    if (!cached.isFile()) {
+      return true;
+    }
+    UfsFileStatus cachedFile = (UfsFileStatus) cached;
+    UfsFileStatus file = (UfsFileStatus) status;
+    return cachedFile.getContentLength() == file.getContentLength()
+        && Objects.equals(cachedFile.getContentHash(), file.getContentHash());
+  }
+
+  /**
+   * Drops the cached listings of a path deleted from the UFS and of its descendants, and
+   * removes the entry of the path from the cached listing of its parent.
+   *
+   * @param path the path
+   */
+  public synchronized void delete(String path) {
+    String key = normalize(path);
+    AlluxioURI uri = new AlluxioURI(key);
+    removeRange(key);
+    if (uri.isRoot()) {
+      return;
+    }
+    String parentKey = uri.getParent().toString();
+    Listing parent = mListings.get(parentKey);
+    if (parent == null || !parent.isDirectory()
+        || parent.mEntries.remove(uri.getName()) == null) {
+      return;
+    }
+    parent.mStatuses = null;
+    mNumEntries--;
+    if (parent.mEntries.isEmpty()) {
+      // the parent may only have been implied by the key of the object deleted, and be gone
+      // from the ufs and from the listing of its own parent with it
+      remove(parentKey);
+    }
+  }
+
+  /**
+   * Drops the cached listings of a path, of its descendants and of its parent.
+   *
+   * The listing of the parent is dropped rather than patched, for the paths the state of which
+   * in the UFS is unknown, such as a path about to be overwritten or which failed to delete.
+   *
+   * @param path the path
+   */
+  public synchronized void remove(String path) {
+    String key = normalize(path);
+    AlluxioURI uri = new AlluxioURI(key);
+    removeRange(key);
+    if (!uri.isRoot()) {
+      removeListing(uri.getParent().toString());
+    }
+  }
+
+  /**
+   * Drops the cached listing of a path.
+   *
+   * @param path the path
+   */
+  public synchronized void invalidate(String path) {
+    removeListing(normalize(path));
+  }
+
+  /**
+   * @return the number of cached entries, including one per cached listing
+   */
+  public synchronized long getNumEntries() {
+    return mNumEntries;
+  }
+
+  @Nullable
+  private Listing getValid(String key) {
+    Listing listing = mLru.get(key);
+    if (listing != null && mTtlNs > 0 && System.nanoTime() - listing.mTimestamp > mTtlNs) {
+      removeListing(key);
+      return null;
+    }
+    return listing;
+  }
+
+  private void insert(String key, Listing listing) {
+    removeListing(key);
+    mListings.put(key, listing);
+    mLru.put(key, listing);
+    mNumEntries += listing.weight();
+    evictIfNeeded();
+  }
+
+  private void evictIfNeeded() {
+    Iterator<Map.Entry<String, Listing>> iterator = mLru.entrySet().iterator();
+    while (mNumEntries > mCapacity && iterator.hasNext()) {
+      Map.Entry<String, Listing> eldest = iterator.next();
+      iterator.remove();
+      mListings.remove(eldest.getKey());
+      mNumEntries -= eldest.getValue().weight();
+    }
+  }
+
+  private void removeListing(String key) {
+    Listing listing = mListings.remove(key);
+    if (listing != null) {
+      mLru.remove(key);
+      mNumEntries -= listing.weight();
+    }
+  }
+
+  private void removeRange(String key) {
+    removeListing(key);
+    String prefix = key.endsWith(AlluxioURI.SEPARATOR) ? key : key + AlluxioURI.SEPARATOR;
+    Iterator<Map.Entry<String, Listing>> iterator =
+        mListings.subMap(prefix, prefix + Character.MAX_VALUE).entrySet().iterator();
+    while (iterator.hasNext()) {
+      // read the entry before removing it, as the tree may reuse the removed node
+      Map.Entry<String, Listing> entry = iterator.next();
+      String descendant = entry.getKey();
+      mNumEntries -= entry.getValue().weight();
+      iterator.remove();
+      mLru.remove(descendant);
+    }
+  }
+
+  private static ListStatusResult toResult(Listing listing,
+      @Nullable UfsStatus[] statuses) {
+    return new ListStatusResult(listing.mTimestamp,
+        statuses == null ? null : ImmutableList.<UfsStatus[]>of(statuses),
+        listing.mContinuationToken, listing.mIsFile);
+  }
+
+  private static String childKey(String key, String name) {
+    return PathUtils.concatPath(key, name);
+  }
+
+  private static String normalize(String path) {
+    return new AlluxioURI(path).toString();
+  }
+}
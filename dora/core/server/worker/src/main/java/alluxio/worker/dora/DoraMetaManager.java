@@ -18,10 +18,14 @@ import alluxio.conf.AlluxioConfiguration;
 import alluxio.conf.Configuration;
 import alluxio.conf.PropertyKey;
 import alluxio.file.FileId;
+import alluxio.file.options.DescendantType;
 import alluxio.grpc.FileInfo;
+import alluxio.metrics.MetricKey;
+import alluxio.metrics.MetricsSystem;
 import alluxio.proto.meta.DoraMeta;
 import alluxio.proto.meta.DoraMeta.FileStatus;
 import alluxio.underfs.Fingerprint;
+import alluxio.underfs.UfsLoadResult;
 import alluxio.underfs.UfsManager;
 import alluxio.underfs.UfsStatus;
 import alluxio.underfs.UnderFileSystem;
@@ -30,10 +34,11 @@ import alluxio.underfs.options.GetStatusOptions;
 import alluxio.underfs.options.ListOptions;
 import alluxio.util.logging.SamplingLogger;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,9 +46,20 @@ import org.slf4j.LoggerFactory;
 import java.io.Closeable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
 
 /**
  * The Dora metadata manager that orchestrates the metadata operations.
@@ -66,14 +82,14 @@ public class DoraMetaManager implements Closeable {
       = Configuration.getBoolean(PropertyKey.USER_FILE_METADATA_LOAD_REAL_CONTENT_HASH);
   private final boolean mXAttrWriteToUFSEnabled =
       Configuration.getBoolean(PropertyKey.UNDERFS_XATTR_CHANGE_ENABLED);
-  private final Cache<String, ListStatusResult> mListStatusCache = mListingCacheCapacity == 0
+  /** The version of the files the cached data of which was invalidated for a load, by path. */
+  private final Cache<String, String> mInvalidatedVersions = CacheBuilder.newBuilder()
+      .maximumSize(10_000).expireAfterWrite(1, TimeUnit.HOURS).build();
+  @Nullable
+  private final DoraListingCache mListingCache = mListingCacheCapacity == 0
       ? null
-      : Caffeine.newBuilder()
-      .maximumWeight(mListingCacheCapacity)
-      .weigher((String k, ListStatusResult v) ->
-          v.mUfsStatuses == null ? 0 : v.mUfsStatuses.length)
-      .expireAfterWrite(Configuration.getDuration(PropertyKey.DORA_UFS_LIST_STATUS_CACHE_TTL))
-      .build();
+      : new DoraListingCache(mListingCacheCapacity, Configuration.getDuration(
+          PropertyKey.DORA_UFS_LIST_STATUS_CACHE_TTL).toNanos());
 
   /**
    * Creates a dora meta manager.
@@ -112,12 +128,28 @@ public class DoraMetaManager implements Closeable {
    * @return the file status, or empty optional if not found
    */
   public Optional<FileStatus> getFromUfs(String path) throws IOException {
+    UnderFileSystem ufs = getUfsInstance(path);
+    return buildFileStatus(ufs, path, getUfsStatus(ufs, path));
+  }
+
+  @Nullable
+  private UfsStatus getUfsStatus(UnderFileSystem ufs, String path) throws IOException {
     try {
-      UnderFileSystem ufs = getUfsInstance(path);
-      UfsStatus status = ufs.getStatus(path,
+      return ufs.getStatus(path,
           GetStatusOptions.defaults().setIncludeRealContentHash(mGetRealContentHash));
+    } catch (FileNotFoundException e) {
+      return null;
+    }
+  }
+
+  private Optional<FileStatus> buildFileStatus(UnderFileSystem ufs, String path,
+      @Nullable UfsStatus status) throws IOException {
+    if (status == null) {
+      return Optional.empty();
+    }
+    try {
       Map<String, String> xattrMap = null;
-      if (status != null && mXAttrWriteToUFSEnabled) {
+      if (mXAttrWriteToUFSEnabled) {
         xattrMap = ufs.getAttributes(path);
       }
       DoraMeta.FileStatus fs = PagedDoraWorker.buildFileStatusFromUfsStatus(
@@ -136,13 +168,18 @@ public class DoraMetaManager implements Closeable {
    * @return the file status, or empty optional if not found
    */
   public Optional<FileStatus> loadFromUfs(String path) throws IOException {
-    Optional<FileStatus> fileStatus = getFromUfs(path);
+    UnderFileSystem ufs = getUfsInstance(path);
+    UfsStatus status = getUfsStatus(ufs, path);
+    Optional<FileStatus> fileStatus = buildFileStatus(ufs, path, status);
     if (!fileStatus.isPresent()) {
       removeFromMetaStore(path);
     } else {
       put(path, fileStatus.get());
+      if (mListingCache != null) {
+        // patch the entry in the listing of the parent instead of dropping the listing
+        mListingCache.addOrUpdate(path, status);
+      }
     }
-    // TODO(elega) invalidate/update listing cache based on the load result
     return fileStatus;
   }
 
@@ -174,13 +211,53 @@ public class DoraMetaManager implements Closeable {
     mMetaStore.putDoraMeta(path, status);
   }
 
+  /**
+   * Puts meta of multiple files into the metastore in a single batch, and invalidates the data
+   * cache of the files whose content changed.
+   * @param statuses the file meta keyed by the full ufs path
+   */
+  public void putAll(Map<String, FileStatus> statuses) {
+    for (Map.Entry<String, FileStatus> entry : statuses.entrySet()) {
+      Optional<FileStatus> existingStatus = mMetaStore.getDoraMeta(entry.getKey());
+      if (existingStatus.isPresent()
+          && !existingStatus.get().getFileInfo().getFolder()
+          && existingStatus.get().getFileInfo().getLength() != 0
+          && shouldInvalidatePageCache(
+              existingStatus.get().getFileInfo(), entry.getValue().getFileInfo())) {
+        invalidateCachedFile(entry.getKey());
+      }
+    }
+    mMetaStore.putDoraMetas(statuses);
+    MetricsSystem.meter(MetricKey.WORKER_METADATA_BATCH_PUT_FILES.getName())
+        .mark(statuses.size());
+  }
+
   /**
    * Removes meta of a file from the meta store.
    * @param path the full ufs path
    * @return the removed file meta, if exists
    */
   public Optional<FileStatus> removeFromMetaStore(String path) {
-    invalidateListingCache(getPathParent(path));
+    if (mListingCache != null) {
+      mListingCache.remove(path);
+    }
+    return removeMeta(path);
+  }
+
+  /**
+   * Removes meta of a file deleted from the UFS from the meta store, and removes its entry
+   * from the cached listing of its parent instead of dropping the listing.
+   * @param path the full ufs path
+   * @return the removed file meta, if exists
+   */
+  public Optional<FileStatus> removeDeleted(String path) {
+    if (mListingCache != null) {
+      mListingCache.delete(path);
+    }
+    return removeMeta(path);
+  }
+
+  private Optional<FileStatus> removeMeta(String path) {
     Optional<FileStatus> status = mMetaStore.getDoraMeta(path);
     if (status.isPresent()) {
       mMetaStore.removeDoraMeta(path);
@@ -194,8 +271,8 @@ public class DoraMetaManager implements Closeable {
    * @param path the full ufs path
    */
   public void invalidateListingCache(String path) {
-    if (mListStatusCache != null) {
-      mListStatusCache.invalidate(path);
+    if (mListingCache != null) {
+      mListingCache.invalidate(path);
     }
   }
 
@@ -205,8 +282,8 @@ public class DoraMetaManager implements Closeable {
    * @param path the full ufs path
    */
   public void invalidateListingCacheOfParent(String path) {
-    if (mListStatusCache != null) {
-      mListStatusCache.invalidate(getPathParent(path));
+    if (mListingCache != null) {
+      mListingCache.invalidate(getPathParent(path));
     }
   }
 
@@ -218,16 +295,10 @@ public class DoraMetaManager implements Closeable {
    * is empty, it means that the directory does not exist.
    */
   public Optional<ListStatusResult> listCached(String path, boolean isRecursive) {
-    if (mListStatusCache == null) {
-      return Optional.empty();
-    }
-    // We don't cache recursive listing result as usually the number of files are too
-    // large to cache.
-    if (isRecursive) {
+    if (mListingCache == null) {
       return Optional.empty();
     }
-    ListStatusResult result = mListStatusCache.getIfPresent(path);
-    return Optional.ofNullable(result);
+    return mListingCache.get(path, isRecursive);
   }
 
   /**
@@ -241,38 +312,30 @@ public class DoraMetaManager implements Closeable {
    */
   public Optional<UfsStatus[]> listFromUfsThenCache(String path, boolean isRecursive)
       throws IOException {
-    // Recursive listing results are not cached.
-    if (mListStatusCache == null || isRecursive) {
+    if (mListingCache == null) {
       return listFromUfs(path, isRecursive);
     }
-    try {
-      ListStatusResult cached = mListStatusCache.get(path, (k) -> {
-        try {
-          Optional<UfsStatus[]> listResults = listFromUfs(path, false);
-          return listResults.map(
-                  ufsStatuses -> new ListStatusResult(
-                      System.nanoTime(), ufsStatuses,
-                      ufsStatuses.length == 1 && ufsStatuses[0].isFile()
-                  ))
-              // This cache also serves as absent cache, so we persist a NULL (not empty) result,
-              // if the path not found or is not a directory.
-              .orElseGet(() -> new ListStatusResult(System.nanoTime(), null, false));
-        } catch (Exception e) {
-          throw new RuntimeException(e);
-        }
-      });
-      if (cached == null) {
-        return Optional.empty();
-      } else {
-        return Optional.ofNullable(cached.mUfsStatuses);
-      }
-    } catch (RuntimeException e) {
-      Throwable cause = e.getCause();
-      if (cause instanceof IOException) {
-        throw (IOException) cause;
-      }
-      throw new RuntimeException(e);
+    Optional<ListStatusResult> cached = mListingCache.get(path, isRecursive);
+    if (cached.isPresent() && cached.get().isComplete()) {
+      return Optional.ofNullable(cached.get().getUfsStatuses());
     }
+    Optional<UfsStatus[]> listResults = listFromUfs(path, isRecursive);
+    if (!listResults.isPresent()) {
+      // This cache also serves as absent cache, so we persist a NULL (not empty) result,
+      // if the path not found or is not a directory.
+      mListingCache.put(path, null, false);
+    } else if (isFileListing(listResults.get())) {
+      mListingCache.put(path, listResults.get(), true);
+    } else if (!isRecursive) {
+      // recursive listings are only cached by the paged listing, which stops accumulating one
+      // as soon as it no longer fits in the cache
+      mListingCache.put(path, listResults.get(), false);
+    }
+    return listResults;
+  }
+
+  private static boolean isFileListing(UfsStatus[] statuses) {
+    return statuses.length == 1 && statuses[0].isFile() && statuses[0].getName().isEmpty();
   }
 
   /**
@@ -315,6 +378,246 @@ public class DoraMetaManager implements Closeable {
     }
   }
 
+  /**
+   * Lists a path page by page as the UFS returns them, and hands each page to the consumer.
+   * The next page is requested from the UFS before the current page is consumed, so the UFS
+   * round trip overlaps with the processing of the current page, and at most two pages are held
+   * in memory unless the listing is cached.
+   *
+   * Non-recursive listings are cached chunk by chunk as long as they fit in the listing cache,
+   * together with the continuation token of the next page. If the listing is interrupted, a
+   * later call can pass the partial result to serve the cached chunks and resume the listing
+   * from where it stopped. Recursive listings that fit in the listing cache are cached once
+   * complete, as the listings of every directory they cover.
+   *
+   * @param path the ufs path
+   * @param isRecursive if the listing is recursive
+   * @param partial a partial cached listing to resume, or null to list from the beginning
+   * @param pageConsumer the consumer of the pages, whose statuses are named relative to the path
+   * @return false if the path does not exist, true otherwise
+   * @throws IOException if the UFS call failed
+   */
+  public boolean listFromUfsPaged(String path, boolean isRecursive,
+      @Nullable ListStatusResult partial, Consumer<UfsStatus[]> pageConsumer)
+      throws IOException {
+    UnderFileSystem ufs = getUfsInstance(path);
+    DescendantType descendantType = isRecursive ? DescendantType.ALL : DescendantType.ONE;
+    String listedKey = trimSlashes(stripSchemeAndAuthority(path));
+    boolean cacheable = mListingCache != null;
+    // recursive listings are accumulated and cached as a whole once complete
+    List<UfsStatus> recursiveStatuses = new ArrayList<>();
+    long timestamp = System.nanoTime();
+    String token = null;
+    if (partial != null && partial.getChunks() != null && !partial.isComplete()) {
+      timestamp = partial.mTimeStamp;
+      token = partial.getContinuationToken();
+      for (UfsStatus[] chunk : partial.getChunks()) {
+        pageConsumer.accept(chunk);
+      }
+    }
+    boolean isFirstPage = token == null;
+    CompletableFuture<UfsLoadResult> nextPage =
+        listPageAsync(ufs, path, token, descendantType, isFirstPage);
+    while (nextPage != null) {
+      UfsLoadResult result;
+      try {
+        result = waitForPage(nextPage);
+      } catch (FileNotFoundException e) {
+        if (!isFirstPage) {
+          throw e;
+        }
+        result = null;
+      }
+      String nextToken = result != null && result.isTruncated()
+          ? result.getContinuationToken() : null;
+      nextPage = nextToken == null
+          ? null : listPageAsync(ufs, path, nextToken, descendantType, false);
+      List<UfsStatus> page = new ArrayList<>(result == null ? 0 : result.getItemsCount());
+      UfsStatus base = null;
+      if (result != null) {
+        Iterator<UfsStatus> items = result.getItems().iterator();
+        while (items.hasNext()) {
+          UfsStatus item = items.next();
+          String name = getRelativeName(listedKey, item.getName());
+          if (name.isEmpty()) {
+            base = item;
+            continue;
+          }
+          item.setName(name);
+          page.add(item);
+        }
+      }
+      boolean isFile = false;
+      boolean startsListing = token == null;
+      if (isFirstPage) {
+        isFirstPage = false;
+        if (base != null && base.isFile()) {
+          // listStatus() expects relative name to the path
+          base.setName("");
+          page = Collections.singletonList(base);
+          isFile = true;
+        } else if (base == null && page.isEmpty() && nextToken == null) {
+          if (cacheable) {
+            // This cache also serves as absent cache
+            mListingCache.put(path, null, false);
+          }
+          return false;
+        }
+      }
+      UfsStatus[] chunk = page.toArray(new UfsStatus[0]);
+      if (cacheable && (isFile || !isRecursive)) {
+        // the cache stops accepting pages once the listing no longer fits
+        cacheable = mListingCache.putPage(
+            path, chunk, startsListing, nextToken, isFile, timestamp);
+      } else if (cacheable) {
+        Collections.addAll(recursiveStatuses, chunk);
+        cacheable = recursiveStatuses.size() < mListingCacheCapacity;
+      }
+      token = nextToken;
+      if (chunk.length > 0) {
+        pageConsumer.accept(chunk);
+      }
+    }
+    if (cacheable && isRecursive && !recursiveStatuses.isEmpty()) {
+      mListingCache.putRecursive(path, recursiveStatuses.toArray(new UfsStatus[0]));
+    }
+    return true;
+  }
+
+  /**
+   * Lists a path from the UFS in the order of the keys of the items, starting after a given
+   * key. The key of a directory is its name followed by a separator, as in an object store.
+   * The UFS is listed one chunk at a time, and the listing stops as soon as the consumer
+   * returns false, so only the chunks consumed are fetched. Unlike {@link #listFromUfsPaged},
+   * the listing is neither cached nor served from the cache.
+   *
+   * @param path the ufs path
+   * @param isRecursive if the listing is recursive
+   * @param startAfter the key relative to the path to start the listing after, or null to list
+   *        from the beginning
+   * @param consumer the consumer of the statuses, named relative to the path, which returns
+   *        false to stop the listing
+   * @throws IOException if the UFS call failed
+   */
+  public void listFromUfsStartAfter(String path, boolean isRecursive, @Nullable String startAfter,
+      Predicate<UfsStatus> consumer) throws IOException {
+    UnderFileSystem ufs = getUfsInstance(path);
+    DescendantType descendantType = isRecursive ? DescendantType.ALL : DescendantType.ONE;
+    String listedKey = trimSlashes(stripSchemeAndAuthority(path));
+    String token = null;
+    do {
+      UfsLoadResult result;
+      try {
+        result = waitForPage(listPageAsync(ufs, path, token,
+            token == null ? startAfter : null, descendantType, false));
+      } catch (FileNotFoundException e) {
+        if (token != null) {
+          throw e;
+        }
+        return;
+      }
+      token = result.isTruncated() ? result.getContinuationToken() : null;
+      Iterator<UfsStatus> items = result.getItems().iterator();
+      while (items.hasNext()) {
+        UfsStatus item = items.next();
+        String name = getRelativeName(listedKey, item.getName());
+        // not every UFS lists from the start-after key
+        if (name.isEmpty() || (startAfter != null
+            && getListingKey(name, item.isDirectory()).compareTo(startAfter) <= 0)) {
+          continue;
+        }
+        item.setName(name);
+        if (!consumer.test(item)) {
+          return;
+        }
+      }
+    } while (token != null);
+  }
+
+  /**
+   * @param name the name of an item relative to the listed path
+   * @param isDirectory whether the item is a directory
+   * @return the key the item is ordered by in a listing
+   */
+  static String getListingKey(String name, boolean isDirectory) {
+    return isDirectory ? name + AlluxioURI.SEPARATOR : name;
+  }
+
+  private static CompletableFuture<UfsLoadResult> listPageAsync(UnderFileSystem ufs,
+      String path, @Nullable String continuationToken, DescendantType descendantType,
+      boolean checkStatus) {
+    return listPageAsync(ufs, path, continuationToken, null, descendantType, checkStatus);
+  }
+
+  private static CompletableFuture<UfsLoadResult> listPageAsync(UnderFileSystem ufs,
+      String path, @Nullable String continuationToken, @Nullable String startAfter,
+      DescendantType descendantType, boolean checkStatus) {
+    CompletableFuture<UfsLoadResult> future = new CompletableFuture<>();
+    ufs.performListingAsync(path, continuationToken, startAfter, descendantType, checkStatus,
+        future::complete, future::completeExceptionally);
+    return future;
+  }
+
+  private static UfsLoadResult waitForPage(CompletableFuture<UfsLoadResult> future)
+      throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the UFS listing");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * Converts a name returned by {@link UnderFileSystem#performListingAsync}, which is the
+   * full path of the item from the UFS root, to a name relative to the listed path.
+   *
+   * @param listedKey the listed path from the UFS root, without leading or trailing slashes
+   * @param name the name of a listed item
+   * @return the name relative to the listed path, or an empty string for the listed path itself
+   */
+  @VisibleForTesting
+  static String getRelativeName(String listedKey, String name) {
+    String key = trimSlashes(stripSchemeAndAuthority(name));
+    if (listedKey.isEmpty()) {
+      return key;
+    }
+    if (key.equals(listedKey)) {
+      return "";
+    }
+    if (key.startsWith(listedKey) && key.charAt(listedKey.length()) == '/') {
+      return key.substring(listedKey.length() + 1);
+    }
+    return key;
+  }
+
+  private static String stripSchemeAndAuthority(String path) {
+    int schemeEnd = path.indexOf("://");
+    if (schemeEnd < 0) {
+      return path;
+    }
+    int pathStart = path.indexOf('/', schemeEnd + 3);
+    return pathStart < 0 ? "" : path.substring(pathStart);
+  }
+
+  private static String trimSlashes(String path) {
+    int start = 0;
+    int end = path.length();
+    while (start < end && path.charAt(start) == '/') {
+      start++;
+    }
+    while (end > start && path.charAt(end - 1) == '/') {
+      end--;
+    }
+    return path.substring(start, end);
+  }
+
   /**
    * Decides if the page cache should be invalidated if the file metadata is updated.
    * Similar to {@link alluxio.underfs.Fingerprint#matchContent(Fingerprint)},
@@ -342,6 +645,18 @@ public class DoraMetaManager implements Closeable {
         || !origin.getContentHash().equals(updated.getContentHash());
   }
 
+  /**
+   * Invalidates the cached data of a file changed in the ufs, once for each version of the
+   * file, so the blocks of the version loaded since are kept.
+   * @param path the full ufs path
+   * @param version the version of the file, such as its content hash
+   */
+  public synchronized void invalidateCachedFile(String path, String version) {
+    if (!version.equals(mInvalidatedVersions.asMap().put(path, version))) {
+      invalidateCachedFile(path);
+    }
+  }
+
   private void invalidateCachedFile(String path) {
     SAMPLING_LOG.info("Invalidating cached file {}", path);
     FileId fileId = FileId.of(AlluxioURI.hash(path));
@@ -13,6 +13,7 @@ package alluxio.worker.dora;
 
 import alluxio.proto.meta.DoraMeta.FileStatus;
 
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -36,6 +37,13 @@ public interface DoraMetaStore {
    */
   void putDoraMeta(String path, FileStatus meta);
 
+  /**
+   * Adds or updates the dora metadata of multiple files in a single write.
+   *
+   * @param metas the metadata keyed by the full path of each file
+   */
+  void putDoraMetas(Map<String, FileStatus> metas);
+
   /**
    * Removes a dora meta, or does nothing if the dora meta does not exist.
    *
@@ -0,0 +1,380 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.dora;
+
+import alluxio.conf.AlluxioConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.metrics.MetricKey;
+import alluxio.metrics.MetricsSystem;
+import alluxio.underfs.UfsStatus;
+import alluxio.util.ThreadFactoryUtils;
+
+import com.codahale.metrics.Counter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Prefetches into the cache the files clients are predicted to read next, from the order the
+ * files of each directory were read in before.
+ *
+ * The read path records every file a client starts reading. Once a client moves on from a
+ * file of a directory to another, the next files are predicted from:
+ * <ul>
+ *   <li>the files read after them before, e.g. the shards of a data set read in the same order
+ *   epoch after epoch;</li>
+ *   <li>otherwise, the order of the files in the listing of the directory, if the file read
+ *   follows right after the file read before it.</li>
+ * </ul>
+ * The beginning of the predicted files is loaded in the background, at low priority, by the
+ * worker clients read them from by consistent hashing only, so that a prediction made on
+ * several workers is prefetched once, into the cache it is read from. A file
+ * prefetched and not read yet counts against a budget shared by all the directories, until it
+ * is read, counting as used, or it expires, counting as wasted.
+ */
+@ThreadSafe
+public final class DoraPrefetchService implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(DoraPrefetchService.class);
+  private static final int MAX_DIRECTORIES = 10_000;
+  private static final int MAX_SUCCESSORS = 200_000;
+  private static final int MAX_PENDING_PREDICTIONS = 1_000;
+
+  /**
+   * Loads the beginning of a file into the cache in the background.
+   */
+  @FunctionalInterface
+  public interface Loader {
+    /**
+     * @param ufsPath the path of the file
+     * @param length the number of bytes to load from the beginning of the file
+     * @return the number of bytes scheduled to load, 0 if they are cached already
+     * @throws IOException if failed to get the status of the file
+     * @throws RejectedExecutionException if too busy to load more
+     */
+    long load(String ufsPath, long length) throws IOException;
+  }
+
+  /**
+   * Lists the files of a directory.
+   */
+  @FunctionalInterface
+  public interface Lister {
+    /**
+     * @param ufsPath the path of the directory
+     * @return the statuses of the entries of the directory, named relative to it
+     * @throws IOException if failed to list the directory
+     */
+    @Nullable
+    UfsStatus[] list(String ufsPath) throws IOException;
+  }
+
+  private final int mDepth;
+  private final long mMaxFileBytes;
+  private final long mBudget;
+  private final long mExpirationMs;
+  private final Loader mLoader;
+  private final Lister mLister;
+  private final Predicate<String> mOwned;
+  private final Executor mExecutor;
+  private final Clock mClock;
+
+  /** The file read after each file last time. */
+  private final Cache<String, String> mSuccessors = CacheBuilder.newBuilder()
+      .maximumSize(MAX_SUCCESSORS).build();
+  private final Cache<String, DirectoryHistory> mDirectories = CacheBuilder.newBuilder()
+      .maximumSize(MAX_DIRECTORIES).build();
+  /** The files prefetched and neither read nor expired yet, by path. */
+  private final Map<String, Prefetch> mOutstanding = new ConcurrentHashMap<>();
+  /** The same prefetches in the order they were issued in, for expiring them. */
+  private final ConcurrentLinkedQueue<Prefetch> mIssued = new ConcurrentLinkedQueue<>();
+  private final AtomicLong mOutstandingBytes = new AtomicLong();
+
+  private final Counter mFiles = MetricsSystem.counter(MetricKey.WORKER_PREFETCH_FILES.getName());
+  private final Counter mBytes = MetricsSystem.counter(MetricKey.WORKER_PREFETCH_BYTES.getName());
+  private final Counter mUsedFiles =
+      MetricsSystem.counter(MetricKey.WORKER_PREFETCH_USED_FILES.getName());
+  private final Counter mWastedFiles =
+      MetricsSystem.counter(MetricKey.WORKER_PREFETCH_WASTED_FILES.getName());
+  private final Counter mWastedBytes =
+      MetricsSystem.counter(MetricKey.WORKER_PREFETCH_WASTED_BYTES.getName());
+  private final Counter mSkippedFiles =
+      MetricsSystem.counter(MetricKey.WORKER_PREFETCH_SKIPPED_FILES.getName());
+
+  /**
+   * Creates the prefetch service as configured, predicting on a thread of its own.
+   *
+   * @param conf the configuration
+   * @param loader the loader of the predicted files
+   * @param lister the lister of the directories
+   * @param owned whether a file is read from this worker
+   */
+  public DoraPrefetchService(AlluxioConfiguration conf, Loader loader, Lister lister,
+      Predicate<String> owned) {
+    this(conf.getInt(PropertyKey.WORKER_PREFETCH_DEPTH),
+        conf.getBytes(PropertyKey.WORKER_PREFETCH_FILE_MAX_BYTES),
+        conf.getBytes(PropertyKey.WORKER_PREFETCH_BUDGET),
+        conf.getMs(PropertyKey.WORKER_PREFETCH_EXPIRATION), loader, lister, owned,
+        // predictions are dropped rather than queued up behind a slow listing
+        new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_PENDING_PREDICTIONS),
+            ThreadFactoryUtils.build("dora-prefetch-%d", true),
+            new ThreadPoolExecutor.DiscardPolicy()),
+        Clock.systemUTC());
+  }
+
+  /**
+   * Creates the prefetch service.
+   *
+   * @param depth the number of files to prefetch ahead
+   * @param maxFileBytes the number of bytes to prefetch from the beginning of each file
+   * @param budget the total number of prefetched bytes not read yet
+   * @param expirationMs the time after which a prefetched file not read counts as wasted
+   * @param loader the loader of the predicted files
+   * @param lister the lister of the directories
+   * @param owned whether a file is read from this worker
+   * @param executor the executor to predict on
+   * @param clock the clock
+   */
+  @VisibleForTesting
+  DoraPrefetchService(int depth, long maxFileBytes, long budget, long expirationMs,
+      Loader loader, Lister lister, Predicate<String> owned, Executor executor, Clock clock) {
+    mDepth = depth;
+    mMaxFileBytes = maxFileBytes;
+    mBudget = budget;
+    mExpirationMs = expirationMs;
+    mLoader = loader;
+    mLister = lister;
+    mOwned = owned;
+    mExecutor = executor;
+    mClock = clock;
+    MetricsSystem.registerGaugeIfAbsent(
+        MetricsSystem.getMetricName(MetricKey.WORKER_PREFETCH_ACCURACY.getName()),
+        () -> {
+          long used = MetricsSystem.counter(
+              MetricKey.WORKER_PREFETCH_USED_FILES.getName()).getCount();
+          long total = used + MetricsSystem.counter(
+              MetricKey.WORKER_PREFETCH_WASTED_FILES.getName()).getCount();
+          return total == 0 ? 0.0 : (double) used / total;
+        });
+    MetricsSystem.registerGaugeIfAbsent(
+        MetricsSystem.getMetricName(MetricKey.WORKER_PREFETCH_OUTSTANDING_BYTES.getName()),
+        mOutstandingBytes::get);
+  }
+
+  /**
+   * Records that a client started reading a file, and prefetches the files predicted to be
+   * read next in the background. Called on the read path, so it does not block.
+   *
+   * @param ufsPath the path of the file
+   */
+  public void recordAccess(String ufsPath) {
+    Prefetch prefetch = mOutstanding.remove(ufsPath);
+    if (prefetch != null) {
+      mOutstandingBytes.addAndGet(-prefetch.mBytes);
+      mUsedFiles.inc();
+    }
+    int slash = ufsPath.lastIndexOf('/');
+    if (slash <= 0 || slash == ufsPath.length() - 1) {
+      return;
+    }
+    String directory = ufsPath.substring(0, slash);
+    DirectoryHistory history =
+        mDirectories.asMap().computeIfAbsent(directory, DirectoryHistory::new);
+    String previous;
+    synchronized (history) {
+      previous = history.mLastFile;
+      // a client reading a file through several readers reads it only once
+      if (ufsPath.equals(previous)) {
+        return;
+      }
+      history.mLastFile = ufsPath;
+    }
+    if (previous != null) {
+      mSuccessors.put(previous, ufsPath);
+    }
+    try {
+      mExecutor.execute(() -> prefetch(history, previous, ufsPath));
+    } catch (RejectedExecutionException e) {
+      LOG.debug("Dropped the prediction of the files read after {}", ufsPath, e);
+    }
+  }
+
+  private void prefetch(DirectoryHistory history, @Nullable String previous, String current) {
+    expire();
+    for (String path : predict(history, previous, current)) {
+      if (mOutstanding.containsKey(path) || !mOwned.test(path)) {
+        continue;
+      }
+      if (mOutstandingBytes.addAndGet(mMaxFileBytes) > mBudget) {
+        mOutstandingBytes.addAndGet(-mMaxFileBytes);
+        mSkippedFiles.inc();
+        continue;
+      }
+      long bytes = 0;
+      try {
+        bytes = mLoader.load(path, mMaxFileBytes);
+      } catch (RejectedExecutionException e) {
+        mSkippedFiles.inc();
+        LOG.debug("Skipped prefetching {}, too busy", path);
+      } catch (IOException | RuntimeException e) {
+        LOG.debug("Failed to prefetch {}", path, e);
+      } finally {
+        mOutstandingBytes.addAndGet(bytes - mMaxFileBytes);
+      }
+      if (bytes > 0) {
+        Prefetch prefetch = new Prefetch(path, bytes, mClock.millis());
+        mOutstanding.put(path, prefetch);
+        mIssued.add(prefetch);
+        mFiles.inc();
+        mBytes.inc(bytes);
+        LOG.debug("Prefetching {} bytes of {}, predicted to be read after {}",
+            bytes, path, current);
+      }
+    }
+  }
+
+  /**
+   * Predicts the files read after a file, other than the file itself.
+   */
+  private List<String> predict(DirectoryHistory history, @Nullable String previous,
+      String current) {
+    Set<String> predicted = new LinkedHashSet<>();
+    String path = current;
+    while (predicted.size() < mDepth) {
+      path = mSuccessors.getIfPresent(path);
+      if (path == null || path.equals(current) || !predicted.add(path)) {
+        break;
+      }
+    }
+    if (!predicted.isEmpty() || previous == null || previous.compareTo(current) >= 0) {
+      return new ArrayList<>(predicted);
+    }
+    List<String> files = history.getFiles(this);
+    int index = Collections.binarySearch(files, current);
+    if (index > 0 && files.get(index - 1).equals(previous)) {
+      return new ArrayList<>(files.subList(index + 1, Math.min(files.size(),
+          index + 1 + mDepth)));
+    }
+    return Collections.emptyList();
+  }
+
+  private void expire() {
+    long expiredBefore = mClock.millis() - mExpirationMs;
+    Prefetch prefetch;
+    while ((prefetch = mIssued.peek()) != null && prefetch.mIssuedAtMs <= expiredBefore) {
+      mIssued.poll();
+      if (mOutstanding.remove(prefetch.mPath, prefetch)) {
+        mOutstandingBytes.addAndGet(-prefetch.mBytes);
+        mWastedFiles.inc();
+        mWastedBytes.inc(prefetch.mBytes);
+      }
+    }
+  }
+
+  /**
+   * @return the number of prefetched bytes of files neither read nor expired yet
+   */
+  @VisibleForTesting
+  long getOutstandingBytes() {
+    return mOutstandingBytes.get();
+  }
+
+  @Override
+  public void close() {
+    if (mExecutor instanceof ExecutorService) {
+      ((ExecutorService) mExecutor).shutdownNow();
+    }
+  }
+
+  /**
+   * The files of a directory and the last one read.
+   */
+  private static final class DirectoryHistory {
+    private final String mPath;
+    @Nullable
+    private String mLastFile;
+    /** The paths of the files of the directory in order, or null if not listed yet. */
+    @Nullable
+    private List<String> mFiles;
+    private long mListedAtMs;
+
+    private DirectoryHistory(String path) {
+      mPath = path;
+    }
+
+    /**
+     * @return the paths of the files of the directory in order, listed again once expired
+     */
+    private synchronized List<String> getFiles(DoraPrefetchService service) {
+      long now = service.mClock.millis();
+      if (mFiles != null && now - mListedAtMs < service.mExpirationMs) {
+        return mFiles;
+      }
+      List<String> files = new ArrayList<>();
+      try {
+        UfsStatus[] statuses = service.mLister.list(mPath);
+        if (statuses != null) {
+          for (UfsStatus status : statuses) {
+            if (status.isFile()) {
+              files.add(mPath + "/" + status.getName());
+            }
+          }
+        }
+        Collections.sort(files);
+      } catch (IOException | RuntimeException e) {
+        LOG.debug("Failed to list {} to predict the files read next", mPath, e);
+      }
+      mFiles = files;
+      mListedAtMs = now;
+      return files;
+    }
+  }
+
+  /**
+   * A file prefetched.
+   */
+  private static final class Prefetch {
+    private final String mPath;
+    private final long mBytes;
+    private final long mIssuedAtMs;
+
+    private Prefetch(String path, long bytes, long issuedAtMs) {
+      mPath = path;
+      mBytes = bytes;
+      mIssuedAtMs = issuedAtMs;
+    }
+  }
+}
@@ -13,12 +13,26 @@ package alluxio.worker.dora;
 
 import alluxio.underfs.UfsStatus;
 
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nullable;
+
 /**
  * The list status results stored in the cache.
+ *
+ * A result consists of the chunks (UFS listing pages) received so far. A result is partial if
+ * the listing was interrupted before the UFS returned the last page, in which case the
+ * continuation token can be used to resume the listing after the cached chunks.
  */
 public class ListStatusResult {
   long mTimeStamp;
-  UfsStatus[] mUfsStatuses;
+  @Nullable
+  private final List<UfsStatus[]> mChunks;
+  @Nullable
+  private final String mContinuationToken;
+  private final int mSize;
 
   private final boolean mIsFile;
 
@@ -30,9 +44,67 @@ public class ListStatusResult {
     return mIsFile;
   }
 
-  ListStatusResult(long timeStamp, UfsStatus[] ufsStatuses, boolean isFile) {
+  ListStatusResult(long timeStamp, @Nullable UfsStatus[] ufsStatuses, boolean isFile) {
+    this(timeStamp, ufsStatuses == null ? null : ImmutableList.<UfsStatus[]>of(ufsStatuses),
+        null, isFile);
+  }
+
+  ListStatusResult(long timeStamp, @Nullable List<UfsStatus[]> chunks,
+      @Nullable String continuationToken, boolean isFile) {
     mTimeStamp = timeStamp;
-    mUfsStatuses = ufsStatuses;
+    mChunks = chunks;
+    mContinuationToken = continuationToken;
     mIsFile = isFile;
+    int size = 0;
+    if (chunks != null) {
+      for (UfsStatus[] chunk : chunks) {
+        size += chunk.length;
+      }
+    }
+    mSize = size;
+  }
+
+  /**
+   * @return the listing chunks in order, or null if the path does not exist
+   */
+  @Nullable
+  List<UfsStatus[]> getChunks() {
+    return mChunks;
+  }
+
+  /**
+   * @return the token to resume the listing from, or null if the result is complete
+   */
+  @Nullable
+  String getContinuationToken() {
+    return mContinuationToken;
+  }
+
+  /**
+   * @return true if the result contains the whole listing
+   */
+  boolean isComplete() {
+    return mContinuationToken == null;
+  }
+
+  /**
+   * @return the number of statuses in the result
+   */
+  int size() {
+    return mSize;
+  }
+
+  /**
+   * @return all statuses of a complete result, or null if the path does not exist
+   */
+  @Nullable
+  UfsStatus[] getUfsStatuses() {
+    if (mChunks == null) {
+      return null;
+    }
+    if (mChunks.size() == 1) {
+      return mChunks.get(0);
+    }
+    return mChunks.stream().flatMap(Arrays::stream).toArray(UfsStatus[]::new);
   }
 }
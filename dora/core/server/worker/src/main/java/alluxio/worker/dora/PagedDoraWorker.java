@@ -24,6 +24,7 @@ import alluxio.client.file.FileSystemContext;
 import alluxio.client.file.cache.CacheManager;
 import alluxio.client.file.cache.CacheUsage;
 import alluxio.client.file.cache.PageId;
+import alluxio.client.file.dora.WorkerLocationPolicy;
 import alluxio.client.file.dora.netty.NettyDataReader;
 import alluxio.client.file.options.UfsFileSystemOptions;
 import alluxio.client.file.ufs.UfsBaseFileSystem;
@@ -38,6 +39,7 @@ import alluxio.exception.runtime.FailedPreconditionRuntimeException;
 import alluxio.exception.runtime.UnavailableRuntimeException;
 import alluxio.exception.status.AlreadyExistsException;
 import alluxio.exception.status.FailedPreconditionException;
+import alluxio.grpc.CachedBlock;
 import alluxio.grpc.Command;
 import alluxio.grpc.CommandType;
 import alluxio.grpc.CompleteFilePOptions;
@@ -54,6 +56,7 @@ import alluxio.grpc.LoadFailure;
 import alluxio.grpc.LoadFileResponse;
 import alluxio.grpc.LoadMetadataPType;
 import alluxio.grpc.LoadMetadataSubTask;
+import alluxio.grpc.LoadRangePOptions;
 import alluxio.grpc.LoadSubTask;
 import alluxio.grpc.RenamePOptions;
 import alluxio.grpc.Route;
@@ -70,6 +73,7 @@ import alluxio.heartbeat.HeartbeatExecutor;
 import alluxio.heartbeat.HeartbeatThread;
 import alluxio.membership.MasterMembershipManager;
 import alluxio.membership.MembershipManager;
+import alluxio.membership.WorkerClusterView;
 import alluxio.metrics.MetricKey;
 import alluxio.metrics.MetricsSystem;
 import alluxio.proto.dataserver.Protocol;
@@ -80,6 +84,7 @@ import alluxio.retry.RetryUtils;
 import alluxio.security.authentication.AuthenticatedClientUser;
 import alluxio.security.authorization.Mode;
 import alluxio.security.user.ServerUserState;
+import alluxio.underfs.UfsConcurrencyLimiter;
 import alluxio.underfs.UfsFileStatus;
 import alluxio.underfs.UfsInputStreamCache;
 import alluxio.underfs.UfsManager;
@@ -91,6 +96,7 @@ import alluxio.underfs.options.DeleteOptions;
 import alluxio.underfs.options.MkdirsOptions;
 import alluxio.util.CommonUtils;
 import alluxio.util.ModeUtils;
+import alluxio.util.ThreadFactoryUtils;
 import alluxio.util.executor.ExecutorServiceFactories;
 import alluxio.wire.FileInfo;
 import alluxio.wire.WorkerIdentity;
@@ -104,10 +110,14 @@ import alluxio.worker.block.io.BlockWriter;
 import alluxio.worker.grpc.GrpcExecutors;
 import alluxio.worker.task.CopyHandler;
 import alluxio.worker.task.DeleteHandler;
+import alluxio.worker.task.JobReadThrottle;
+import alluxio.worker.task.LoadRangePlanner;
 import alluxio.worker.task.ValidateHandler;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Closer;
@@ -124,20 +134,30 @@ import org.slf4j.LoggerFactory;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import javax.annotation.Nullable;
 import javax.inject.Named;
 
@@ -171,9 +191,21 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
   private final boolean mClientWriteToUFSEnabled;
   private final boolean mXAttrWriteToUFSEnabled;
   private final ConcurrentHashSet<PageId> mLoadingPages = new ConcurrentHashSet<>();
-  private final ExecutorService mCacheDataExecutor = Executors.newFixedThreadPool(
-      Configuration.getInt(PropertyKey.WORKER_PRELOAD_DATA_THREAD_POOL_SIZE));
+  private final JobReadThrottle mJobReadThrottle = new JobReadThrottle();
+  private final ThreadPoolExecutor mCacheDataExecutor = (ThreadPoolExecutor)
+      Executors.newFixedThreadPool(
+          Configuration.getInt(PropertyKey.WORKER_PRELOAD_DATA_THREAD_POOL_SIZE));
   private final boolean mFastDataLoadEnabled;
+  private final boolean mServerSideCopyEnabled;
+  private final LoadRangePlanner mLoadRangePlanner;
+  @Nullable
+  private final DoraPrefetchService mPrefetchService;
+  /** Loads the pages prefetched, apart from the executor preloading data for clients. */
+  @Nullable
+  private final ThreadPoolExecutor mPrefetchExecutor;
+  private final WorkerLocationPolicy mWorkerLocationPolicy;
+  private final Supplier<WorkerClusterView> mPrefetchWorkers;
+  private final int mPreferredWorkerCount;
 
   /**
    * Constructor.
@@ -219,6 +251,37 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
         .getBoolean(PropertyKey.CLIENT_WRITE_TO_UFS_ENABLED);
     mXAttrWriteToUFSEnabled = mConf.getBoolean(PropertyKey.UNDERFS_XATTR_CHANGE_ENABLED);
     mFastDataLoadEnabled = mConf.getBoolean(PropertyKey.WORKER_FAST_DATA_LOAD_ENABLED);
+    mServerSideCopyEnabled = mConf.getBoolean(PropertyKey.WORKER_SERVER_SIDE_COPY_ENABLED);
+    mLoadRangePlanner = new LoadRangePlanner(mPageSize);
+    mWorkerLocationPolicy = WorkerLocationPolicy.Factory.create(mConf);
+    mPreferredWorkerCount = Math.max(1, mConf.getInt(PropertyKey.USER_FILE_REPLICATION_MIN));
+    boolean dynamicHashRing =
+        mConf.getBoolean(PropertyKey.USER_DYNAMIC_CONSISTENT_HASH_RING_ENABLED);
+    // the workers clients read from, refreshed as often as clients refresh them
+    mPrefetchWorkers = Suppliers.memoizeWithExpiration(() -> {
+      try {
+        return dynamicHashRing ? mMembershipManager.getLiveMembers()
+            : mMembershipManager.getAllMembers();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }, mConf.getMs(PropertyKey.USER_WORKER_LIST_REFRESH_INTERVAL), TimeUnit.MILLISECONDS);
+    if (mConf.getBoolean(PropertyKey.WORKER_PREFETCH_ENABLED)) {
+      int threads = mConf.getInt(PropertyKey.WORKER_PREFETCH_THREADS);
+      // room for the pages of one round of predictions, the prefetches beyond are skipped
+      int queueSize = (int) Math.max(threads, mConf.getInt(PropertyKey.WORKER_PREFETCH_DEPTH)
+          * ((mConf.getBytes(PropertyKey.WORKER_PREFETCH_FILE_MAX_BYTES) + mPageSize - 1)
+          / mPageSize));
+      mPrefetchExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<>(queueSize),
+          ThreadFactoryUtils.build("dora-prefetch-load-%d", true),
+          new ThreadPoolExecutor.AbortPolicy());
+      mPrefetchService = mResourceCloser.register(new DoraPrefetchService(
+          mConf, this::prefetch, this::listForPrefetch, this::isReadFromThisWorker));
+    } else {
+      mPrefetchExecutor = null;
+      mPrefetchService = null;
+    }
   }
 
   /**
@@ -358,6 +421,9 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
     } catch (Exception e) {
       throw new IOException(e);
     } finally {
+      if (mPrefetchExecutor != null) {
+        mPrefetchExecutor.shutdownNow();
+      }
       super.close();
     }
   }
@@ -371,19 +437,12 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
   @Nullable
   public UfsStatus[] listStatus(String path, ListStatusPOptions options)
       throws IOException, AccessControlException {
-    final long syncIntervalMs = options.hasCommonOptions()
-        ? (options.getCommonOptions().hasSyncIntervalMs()
-        ? options.getCommonOptions().getSyncIntervalMs() : -1) :
-        -1;
     boolean isRecursive = options.getRecursive();
     final Optional<ListStatusResult> resultFromCache = mMetaManager.listCached(path, isRecursive);
-    if (resultFromCache.isPresent()
-        && options.getLoadMetadataType() != LoadMetadataPType.ALWAYS
-        && (syncIntervalMs < 0
-        || System.nanoTime() - resultFromCache.get().mTimeStamp
-        <= syncIntervalMs * Constants.MS_NANO)) {
+    if (resultFromCache.isPresent() && resultFromCache.get().isComplete()
+        && isListingCacheValid(resultFromCache.get(), options)) {
       MetricsSystem.counter(MetricKey.WORKER_LIST_STATUS_HIT_REQUESTS.getName()).inc();
-      return resultFromCache.get().mUfsStatuses;
+      return resultFromCache.get().getUfsStatuses();
     }
     mMetaManager.invalidateListingCache(path);
     Optional<UfsStatus[]> ufsStatuses =
@@ -392,6 +451,81 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
     return ufsStatuses.orElse(null);
   }
 
+  @Override
+  public boolean listStatus(String path, ListStatusPOptions options,
+      Consumer<UfsStatus[]> pageConsumer) throws IOException, AccessControlException {
+    boolean isRecursive = options.getRecursive();
+    final Optional<ListStatusResult> resultFromCache = mMetaManager.listCached(path, isRecursive);
+    if (resultFromCache.isPresent() && isListingCacheValid(resultFromCache.get(), options)) {
+      ListStatusResult result = resultFromCache.get();
+      if (result.isComplete()) {
+        MetricsSystem.counter(MetricKey.WORKER_LIST_STATUS_HIT_REQUESTS.getName()).inc();
+        if (result.getChunks() == null) {
+          return false;
+        }
+        result.getChunks().forEach(pageConsumer);
+        return true;
+      }
+      // serve the cached chunks and resume the listing from where it stopped
+      MetricsSystem.counter(MetricKey.WORKER_LIST_STATUS_EXTERNAL_REQUESTS.getName()).inc();
+      return mMetaManager.listFromUfsPaged(path, isRecursive, result, pageConsumer);
+    }
+    mMetaManager.invalidateListingCache(path);
+    MetricsSystem.counter(MetricKey.WORKER_LIST_STATUS_EXTERNAL_REQUESTS.getName()).inc();
+    return mMetaManager.listFromUfsPaged(path, isRecursive, null, pageConsumer);
+  }
+
+  @Override
+  public void listStatusFrom(String path, boolean isRecursive, @Nullable String startAfter,
+      Predicate<UfsStatus> consumer) throws IOException, AccessControlException {
+    Optional<ListStatusResult> cached = mMetaManager.listCached(path, isRecursive);
+    if (cached.isPresent() && cached.get().isComplete()) {
+      MetricsSystem.counter(MetricKey.WORKER_LIST_STATUS_HIT_REQUESTS.getName()).inc();
+      if (cached.get().getChunks() != null && !cached.get().isFile()) {
+        listCachedFrom(cached.get().getChunks(), startAfter, consumer);
+      }
+      return;
+    }
+    MetricsSystem.counter(MetricKey.WORKER_LIST_STATUS_EXTERNAL_REQUESTS.getName()).inc();
+    mMetaManager.listFromUfsStartAfter(path, isRecursive, startAfter, consumer);
+  }
+
+  /**
+   * Serves a listing from the cache in the order of the keys. The cache orders the entries of a
+   * directory by name, which puts a directory before the siblings sorting between its name and
+   * its key, and a recursive listing in depth-first order.
+   */
+  private static void listCachedFrom(List<UfsStatus[]> chunks, @Nullable String startAfter,
+      Predicate<UfsStatus> consumer) {
+    List<UfsStatus> statuses = new ArrayList<>();
+    for (UfsStatus[] chunk : chunks) {
+      for (UfsStatus status : chunk) {
+        if (startAfter == null || DoraMetaManager.getListingKey(status.getName(),
+            status.isDirectory()).compareTo(startAfter) > 0) {
+          statuses.add(status);
+        }
+      }
+    }
+    statuses.sort(Comparator.comparing((UfsStatus status) ->
+        DoraMetaManager.getListingKey(status.getName(), status.isDirectory())));
+    for (UfsStatus status : statuses) {
+      // the cached statuses are shared by every listing served from the cache
+      if (!consumer.test(status.copy())) {
+        return;
+      }
+    }
+  }
+
+  private boolean isListingCacheValid(ListStatusResult result, ListStatusPOptions options) {
+    final long syncIntervalMs = options.hasCommonOptions()
+        ? (options.getCommonOptions().hasSyncIntervalMs()
+        ? options.getCommonOptions().getSyncIntervalMs() : -1) :
+        -1;
+    return options.getLoadMetadataType() != LoadMetadataPType.ALWAYS
+        && (syncIntervalMs < 0
+        || System.nanoTime() - result.mTimeStamp <= syncIntervalMs * Constants.MS_NANO);
+  }
+
   @Override
   public FileInfo getFileInfo(String ufsFullPath, GetStatusPOptions options)
       throws IOException, AccessControlException {
@@ -459,6 +593,14 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
   @Override
   public BlockReader createFileReader(String fileId, long offset, boolean positionShort,
       Protocol.OpenUfsBlockOptions options) throws IOException, AccessControlException {
+    if (mPrefetchService != null) {
+      mPrefetchService.recordAccess(options.getUfsPath());
+    }
+    return openFileReader(fileId, offset, options);
+  }
+
+  private BlockReader openFileReader(String fileId, long offset,
+      Protocol.OpenUfsBlockOptions options) {
     UnderFileSystem ufs = getUfsInstance(options.getUfsPath());
     return PagedFileReader.create(mConf, mCacheManager, ufs, fileId,
         options.getUfsPath(), options.getBlockSize(), offset);
@@ -488,30 +630,53 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
 
   @Override
   public ListenableFuture<LoadFileResponse> load(List<LoadSubTask> subTasks, boolean skipIfExists,
-      UfsReadOptions options) throws AccessControlException, IOException {
+      UfsReadOptions options, @Nullable LoadRangePOptions ranges, boolean reportCachedBlocks)
+      throws AccessControlException, IOException {
     List<ListenableFuture<Void>> futures = new ArrayList<>();
     List<LoadFailure> errors = Collections.synchronizedList(new ArrayList<>());
     AtomicInteger numSkipped = new AtomicInteger();
     AtomicLong skippedLength = new AtomicLong();
+    AtomicLong notSelectedLength = new AtomicLong();
+    List<CachedBlock> cachedBlocks = Collections.synchronizedList(new ArrayList<>());
+    List<UfsStatus> metadataToLoad = new ArrayList<>();
     for (LoadSubTask task : subTasks) {
       if (task.hasLoadMetadataSubtask()) {
-        UfsStatus status = UfsStatus.fromProto(task.getLoadMetadataSubtask().getUfsStatus());
-        loadMetadata(status, errors);
+        metadataToLoad.add(UfsStatus.fromProto(task.getLoadMetadataSubtask().getUfsStatus()));
       }
+    }
+    loadMetadata(metadataToLoad, errors);
+    for (LoadSubTask task : subTasks) {
       if (task.hasLoadDataSubtask()) {
         LoadDataSubTask subtask = task.getLoadDataSubtask();
         if (subtask.getLength() <= 0) {
           continue;
         }
-        boolean countAsSkipped = skipIfExists && isAllPageCached(subtask.getUfsStatus(),
-            subtask.getOffsetInFile(), subtask.getLength());
+        if (subtask.getInvalidateCache()) {
+          // before any block of the file is loaded again, so none of the blocks loaded is dropped
+          alluxio.grpc.UfsStatus status = subtask.getUfsStatus();
+          mMetaManager.invalidateCachedFile(subtask.getUfsPath(),
+              status.getUfsFileStatus().getContentHash().isEmpty()
+                  ? status.getLastModifiedTimeMs() + ":"
+                  + status.getUfsFileStatus().getContentLength()
+                  : status.getUfsFileStatus().getContentHash());
+        }
+        // the cached pages of a changed file are stale, they never count as loaded
+        boolean countAsSkipped = skipIfExists && !subtask.getInvalidateCache()
+            && isAllPageCached(subtask.getUfsStatus(), subtask.getOffsetInFile(),
+            subtask.getLength());
         if (countAsSkipped) {
           numSkipped.incrementAndGet();
           skippedLength.addAndGet(subtask.getLength());
+          if (reportCachedBlocks) {
+            cachedBlocks.add(findCachedPages(subtask, Collections.singletonList(
+                new LoadRangePlanner.Range(subtask.getOffsetInFile(), subtask.getLength()))));
+          }
           continue;
         }
         try {
-          ListenableFuture<Void> loadFuture = submitLoadDataSubTask(subtask, options, errors);
+          ListenableFuture<Void> loadFuture = submitLoadDataSubTask(
+              subtask, options, ranges, errors, notSelectedLength,
+              reportCachedBlocks ? cachedBlocks : null);
           futures.add(loadFuture);
         } catch (RejectedExecutionException ex) {
           LOG.warn("Load task overloaded.");
@@ -525,6 +690,8 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
     return Futures.whenAllComplete(futures).call(
         () -> LoadFileResponse.newBuilder().addAllFailures(errors)
             .setBytesSkipped(skippedLength.get()).setNumSkipped(numSkipped.get())
+            .setBytesNotSelected(notSelectedLength.get())
+            .addAllCachedBlocks(cachedBlocks)
             // Status is a required field, put it as a placeholder
             .setStatus(TaskStatus.SUCCESS).build(),
         GrpcExecutors.READER_EXECUTOR);
@@ -534,12 +701,25 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
   // TODO(yimin) integrate this method with load() method
   public void cacheData(String ufsPath, long length, long pos, boolean isAsync)
       throws IOException {
-    List<CompletableFuture<Void>> futures = new ArrayList<>();
     // TODO(yimin) To implement the sync data caching.
     alluxio.grpc.FileInfo fi = getGrpcFileInfo(ufsPath, -1);
+    preloadPages(ufsPath, fi.getLength(), length, pos, isAsync, mCacheDataExecutor);
+  }
+
+  /**
+   * Loads the pages of a file which are not cached or being loaded yet in the background.
+   *
+   * @param executor the executor to load the pages on
+   * @return the number of bytes of the pages scheduled to load
+   * @throws RejectedExecutionException if the executor is too busy to load any of the pages
+   */
+  private long preloadPages(String ufsPath, long fileLength, long length, long pos,
+      boolean isAsync, Executor executor) {
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    long scheduled = 0;
     String fileId = new AlluxioURI(ufsPath).hash();
     for (long i = pos / mPageSize;
-         i <= Math.min(pos + length, fi.getLength()) / mPageSize; ++i) {
+         i <= Math.min(pos + length, fileLength) / mPageSize; ++i) {
       PageId pageId = new PageId(fileId, i);
       // TODO(yimin) As an optimization, data does not need to load on a page basis.
       // Can implement a bulk load mechanism and load a couple of pages at the same time,
@@ -548,7 +728,7 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
         continue;
       }
       long loadPos = i * mPageSize;
-      long loadLength = Math.min(mPageSize, fi.getLength() - loadPos);
+      long loadLength = Math.min(mPageSize, fileLength - loadPos);
       if (loadLength == 0) {
         continue;
       }
@@ -556,20 +736,33 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
         continue;
       }
 
-      futures.add(CompletableFuture.runAsync(() -> {
-        try {
-          if (mCacheManager.hasPageUnsafe(pageId)) {
-            return;
+      CompletableFuture<Void> future;
+      try {
+        future = CompletableFuture.runAsync(() -> {
+          try (UfsConcurrencyLimiter.PriorityScope ignored =
+                   UfsConcurrencyLimiter.withPriority(UfsConcurrencyLimiter.Priority.BACKGROUND)) {
+            if (mCacheManager.hasPageUnsafe(pageId)) {
+              return;
+            }
+            LOG.debug("Preloading {} pos: {} length: {} started", ufsPath, loadPos, loadLength);
+            loadPages(ufsPath, Collections.singletonList(pageId), fileLength);
+            LOG.debug("Preloading {} pos: {} length: {} finished", ufsPath, loadPos, loadLength);
+          } catch (Exception e) {
+            LOG.info("Preloading failed for {} page: {}", ufsPath, pageId, e);
+          } finally {
+            mLoadingPages.remove(pageId);
           }
-          LOG.debug("Preloading {} pos: {} length: {} started", ufsPath, loadPos, loadLength);
-          loadPages(ufsPath, Collections.singletonList(pageId), fi.getLength());
-          LOG.debug("Preloading {} pos: {} length: {} finished", ufsPath, loadPos, loadLength);
-        } catch (Exception e) {
-          LOG.info("Preloading failed for {} page: {}", ufsPath, pageId, e);
-        } finally {
-          mLoadingPages.remove(pageId);
+        }, executor);
+      } catch (RejectedExecutionException e) {
+        mLoadingPages.remove(pageId);
+        if (scheduled == 0) {
+          throw e;
         }
-      }, mCacheDataExecutor));
+        // the pages scheduled are loaded, the rest are left to the reads of clients
+        break;
+      }
+      futures.add(future);
+      scheduled += loadLength;
       if (!isAsync) {
         try {
           CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
@@ -578,46 +771,76 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
         }
       }
     }
+    return scheduled;
+  }
+
+  /**
+   * Prefetches the beginning of a file predicted to be read next, on an executor of its own so
+   * the preloads of clients never queue up behind prefetches, at low priority.
+   */
+  private long prefetch(String ufsPath, long length) throws IOException {
+    Preconditions.checkState(mPrefetchExecutor != null, "prefetch is disabled");
+    alluxio.grpc.FileInfo fi = getGrpcFileInfo(ufsPath, -1);
+    return preloadPages(ufsPath, fi.getLength(), Math.min(length, fi.getLength()), 0, true,
+        mPrefetchExecutor);
+  }
+
+  /**
+   * @return whether clients read a file from this worker by consistent hashing
+   */
+  private boolean isReadFromThisWorker(String ufsPath) {
+    WorkerIdentity workerId = mWorkerId.get();
+    if (workerId == null) {
+      return false;
+    }
+    try {
+      return mWorkerLocationPolicy.getPreferredWorkers(mPrefetchWorkers.get(), ufsPath,
+          mPreferredWorkerCount).stream()
+          .anyMatch(worker -> workerId.equals(worker.getIdentity()));
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Failed to find the workers {} is read from", ufsPath, e);
+      return false;
+    }
+  }
+
+  @Nullable
+  private UfsStatus[] listForPrefetch(String ufsPath) throws IOException {
+    try {
+      return listStatus(ufsPath, ListStatusPOptions.newBuilder().setRecursive(false).build());
+    } catch (AccessControlException e) {
+      throw new IOException(e);
+    }
   }
 
   private ListenableFuture<Void> submitLoadDataSubTask(
-      LoadDataSubTask subTask, UfsReadOptions options, List<LoadFailure> errors) {
+      LoadDataSubTask subTask, UfsReadOptions options, @Nullable LoadRangePOptions ranges,
+      List<LoadFailure> errors, AtomicLong notSelectedLength,
+      @Nullable List<CachedBlock> cachedBlocks) {
     ListenableFuture<Void> future =
         Futures.submit(() -> {
-          try {
+          try (UfsConcurrencyLimiter.PriorityScope ignored =
+                   UfsConcurrencyLimiter.withPriority(UfsConcurrencyLimiter.Priority.BACKGROUND)) {
             if (options.hasUser()) {
               AuthenticatedClientUser.set(options.getUser());
             }
             long fileLength = subTask.getUfsStatus().getUfsFileStatus().getContentLength();
-            if (subTask.hasMainWorker()) {
-              WorkerNetAddress address = GrpcUtils.fromProto(subTask.getMainWorker());
-              if (mAddress != address) {
-                long chunkSize = mPageSize;
-                Protocol.OpenUfsBlockOptions openOptions =
-                    Protocol.OpenUfsBlockOptions.newBuilder().setUfsPath(subTask.getUfsPath())
-                                                .setMountId(0).setNoCache(false)
-                                                .setOffsetInFile(0)
-                                                .setBlockSize(fileLength).build();
-                Protocol.ReadRequest.Builder builder =
-                    Protocol.ReadRequest.newBuilder().setBlockId(-1)
-                                        .setOpenUfsBlockOptions(openOptions)
-                                        .setChunkSize(chunkSize);
-                try (PositionReader reader = new NettyDataReader(mFsContext, address, builder)) {
-                  loadDataFromRemote(subTask.getUfsPath(), subTask.getOffsetInFile(),
-                      subTask.getLength(), reader, (int) chunkSize);
-                }
-              }
+            List<LoadRangePlanner.Range> selected;
+            if (ranges == null) {
+              selected = Collections.singletonList(
+                  new LoadRangePlanner.Range(subTask.getOffsetInFile(), subTask.getLength()));
+            } else {
+              selected = mLoadRangePlanner.plan(ranges, getUfsInstance(subTask.getUfsPath()),
+                  subTask.getUfsPath(), subTask.getUfsStatus().getUfsFileStatus().getContentHash(),
+                  fileLength, subTask.getOffsetInFile(), subTask.getLength());
+              long selectedLength =
+                  selected.stream().mapToLong(LoadRangePlanner.Range::getLength).sum();
+              notSelectedLength.addAndGet(Math.max(0, subTask.getLength() - selectedLength));
             }
-            else {
-              if (mFastDataLoadEnabled) {
-                loadPages(
-                    subTask.getUfsPath(), 0, subTask.getOffsetInFile(), subTask.getLength(),
-                    fileLength);
-              } else {
-                loadData(
-                    subTask.getUfsPath(), 0, subTask.getOffsetInFile(), subTask.getLength(),
-                    fileLength);
-              }
+            for (LoadRangePlanner.Range range : selected) {
+              loadRange(subTask, range.getOffset(), range.getLength(), fileLength, options);
+            }
+            if (cachedBlocks != null) {
+              cachedBlocks.add(findCachedPages(subTask, selected));
             }
           } catch (Throwable e) {
             LOG.error("Loading {} failed", subTask, e);
@@ -633,45 +856,134 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
     return future;
   }
 
+  private void loadRange(LoadDataSubTask subTask, long offset, long length, long fileLength,
+      UfsReadOptions options) throws AccessControlException, IOException {
+    if (subTask.hasMainWorker()) {
+      WorkerNetAddress address = GrpcUtils.fromProto(subTask.getMainWorker());
+      if (mAddress != address) {
+        long chunkSize = mPageSize;
+        Protocol.OpenUfsBlockOptions openOptions =
+            Protocol.OpenUfsBlockOptions.newBuilder().setUfsPath(subTask.getUfsPath())
+                                        .setMountId(0).setNoCache(false)
+                                        .setOffsetInFile(0)
+                                        .setBlockSize(fileLength).build();
+        Protocol.ReadRequest.Builder builder =
+            Protocol.ReadRequest.newBuilder().setBlockId(-1)
+                                .setOpenUfsBlockOptions(openOptions)
+                                .setChunkSize(chunkSize);
+        try (PositionReader reader = new NettyDataReader(mFsContext, address, builder)) {
+          loadDataFromRemote(subTask.getUfsPath(), offset, length, reader, (int) chunkSize);
+        }
+      }
+    }
+    else {
+      // loading by pages reads every page with a request of its own
+      int requests = mFastDataLoadEnabled ? (int) ((length + mPageSize - 1) / mPageSize) : 1;
+      mJobReadThrottle.acquire(options, length, requests);
+      if (mFastDataLoadEnabled) {
+        loadPages(subTask.getUfsPath(), 0, offset, length, fileLength);
+      } else {
+        loadData(subTask.getUfsPath(), 0, offset, length, fileLength);
+      }
+    }
+  }
+
   /**
-   * We use the ufs status sent from master to construct the file metadata,
-   * and that ufs status might be stale.
-   * This is a known consistency issue and will remain as long as the get metadata and
-   * load data operations are not atomic.
-   * Ideally, we can either:
-   * 1. Use a single API to load the file alongside with fetching the file metadata
-   * 2. Getting a last updated timestamp when loading data of a file and use it to
-   * validate the freshness of the metadata and discard the metadata if it is stale.
-   * These two need UFS api support and cannot be achieved in a generic UFS interface.
-   * We may be able to solve this by providing specific implementations for certain UFSes
-   * in the future.
+   * Finds which pages of the block of a load data subtask are cached, for the master to know
+   * the block loaded without reading it again.
    *
-   * @param status the ufs status
-   * @param errors the errors
+   * @param subTask the subtask
+   * @param selected the ranges of the block the subtask was to load
+   * @return the pages of the block cached
    */
-  private void loadMetadata(UfsStatus status, List<LoadFailure> errors) {
-    String ufsFullPath = status.getUfsFullPath().toString();
-    Map<String, String> xattrMap = null;
-    UnderFileSystem ufs = getUfsInstance(ufsFullPath);
-    try {
-      if (mXAttrWriteToUFSEnabled) {
-        xattrMap = ufs.getAttributes(ufsFullPath);
+  private CachedBlock findCachedPages(LoadDataSubTask subTask,
+      List<LoadRangePlanner.Range> selected) {
+    String fileId = new AlluxioURI(subTask.getUfsPath()).hash();
+    long start = subTask.getOffsetInFile();
+    long end = Math.min(start + subTask.getLength(),
+        subTask.getUfsStatus().getUfsFileStatus().getContentLength());
+    long firstPage = start / mPageSize;
+    BitSet cached = new BitSet();
+    long bytesCached = 0;
+    for (long page = firstPage; page * mPageSize < end; page++) {
+      if (mCacheManager.hasPageUnsafe(new PageId(fileId, page))) {
+        cached.set((int) (page - firstPage));
+        bytesCached +=
+            Math.min(end, (page + 1) * mPageSize) - Math.max(start, page * mPageSize);
       }
-      DoraMeta.FileStatus fs = buildFileStatusFromUfsStatus(getCacheUsage(), ufs.getUnderFSType(),
-          status, ufsFullPath, xattrMap);
-      mMetaManager.put(ufsFullPath, fs);
+    }
+    boolean complete = true;
+    for (LoadRangePlanner.Range range : selected) {
+      long rangeEnd = Math.min(end, range.getOffset() + range.getLength());
+      for (long page = range.getOffset() / mPageSize; page * mPageSize < rangeEnd; page++) {
+        complete &= cached.get((int) (page - firstPage));
+      }
+    }
+    return CachedBlock.newBuilder()
+        .setUfsPath(subTask.getUfsPath())
+        .setOffsetInFile(start)
+        .setLength(end - start)
+        .setPageSize(mPageSize)
+        .setPageBitmap(ByteString.copyFrom(cached.toByteArray()))
+        .setBytesCached(bytesCached)
+        .setComplete(complete)
+        .build();
+  }
+
+  /**
+   * Loads the metadata of a batch of files. The file statuses are built one by one, and then
+   * written into the metastore in a single batch.
+   *
+   * The file statuses are built from the ufs statuses sent from master, which might be stale,
+   * as getting the metadata and loading the data of a file are not atomic.
+   *
+   * @param statuses the ufs statuses of the files
+   * @param errors the errors to add the files failing to load to
+   */
+  private void loadMetadata(List<UfsStatus> statuses, List<LoadFailure> errors) {
+    if (statuses.isEmpty()) {
+      return;
+    }
+    Map<String, DoraMeta.FileStatus> fileStatuses = new LinkedHashMap<>();
+    Map<String, UfsStatus> ufsStatuses = new HashMap<>();
+    for (UfsStatus status : statuses) {
+      String ufsFullPath = status.getUfsFullPath().toString();
+      Map<String, String> xattrMap = null;
+      UnderFileSystem ufs = getUfsInstance(ufsFullPath);
+      try (UfsConcurrencyLimiter.PriorityScope ignored =
+               UfsConcurrencyLimiter.withPriority(UfsConcurrencyLimiter.Priority.BACKGROUND)) {
+        if (mXAttrWriteToUFSEnabled) {
+          xattrMap = ufs.getAttributes(ufsFullPath);
+        }
+        DoraMeta.FileStatus fs = buildFileStatusFromUfsStatus(getCacheUsage(),
+            ufs.getUnderFSType(), status, ufsFullPath, xattrMap);
+        fileStatuses.put(ufsFullPath, fs);
+        ufsStatuses.put(ufsFullPath, status);
+      } catch (Exception e) {
+        addLoadMetadataFailure(status, e, errors);
+      }
+    }
+    try {
+      mMetaManager.putAll(fileStatuses);
     } catch (Exception e) {
-      LOG.error("Failed to put file status to meta manager", e);
-      AlluxioRuntimeException t = AlluxioRuntimeException.from(e);
-      errors.add(LoadFailure.newBuilder().setSubtask(LoadSubTask.newBuilder()
-                            .setLoadMetadataSubtask(
-                                LoadMetadataSubTask.newBuilder().setUfsStatus(status.toProto())
-                                                   .build()))
-                            .setCode(t.getStatus().getCode().value()).setRetryable(true)
-                            .setMessage(t.getMessage()).build());
+      for (UfsStatus status : ufsStatuses.values()) {
+        addLoadMetadataFailure(status, e, errors);
+      }
     }
   }
 
+  private static void addLoadMetadataFailure(UfsStatus status, Exception e,
+      List<LoadFailure> errors) {
+    LOG.error("Failed to put file status to meta manager", e);
+    AlluxioRuntimeException t = AlluxioRuntimeException.from(e);
+    errors.add(LoadFailure.newBuilder().setSubtask(LoadSubTask.newBuilder()
+                          .setLoadMetadataSubtask(
+                              LoadMetadataSubTask.newBuilder().setUfsStatus(status.toProto())
+                                                 .build()))
+                          .setCode(t.getStatus().getCode().value()).setRetryable(true)
+                          .setMessage(t.getMessage()).build());
+  }
+
   private void loadPages(String ufsPath, List<PageId> pageIds, long fileLength)
       throws AccessControlException, IOException {
     Optional<UnderFileSystem> ufs = mUfsManager.get(new AlluxioURI(ufsPath));
@@ -707,8 +1019,10 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
     lengthToLoad = Math.min(lengthToLoad, fileLength - offset);
     List<PageId> pagesToLoad = new ArrayList<>();
     String fileId = new AlluxioURI(ufsPath).hash();
-    for (long current = offset; current < offset + lengthToLoad; current += mPageSize) {
-      pagesToLoad.add(new PageId(fileId, current / mPageSize));
+    // a range not starting on a page boundary spans the page its last byte falls in as well
+    for (long page = offset / mPageSize; page <= (offset + lengthToLoad - 1) / mPageSize;
+         page++) {
+      pagesToLoad.add(new PageId(fileId, page));
     }
     loadPages(ufsPath, pagesToLoad, fileLength);
   }
@@ -723,7 +1037,8 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
     int bufferSize = (int) Math.min(4 * mPageSize, lengthToLoad);
     ByteBuf buf =
         PooledByteBufAllocator.DEFAULT.directBuffer(bufferSize);
-    try (BlockReader fileReader = createFileReader(fileId, offset, false, options)) {
+    // loads are not reads of clients to predict the next reads from
+    try (BlockReader fileReader = openFileReader(fileId, offset, options)) {
       //Transfers data from this reader to the buffer until we reach lengthToLoad.
       int bytesRead;
       while (lengthToLoad > 0 && (bytesRead = fileReader.transferTo(buf)) != -1) {
@@ -733,7 +1048,7 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
           buf.capacity((int) Math.min(lengthToLoad, bufferSize));
         }
       }
-    } catch (IOException | AccessControlException e) {
+    } catch (IOException e) {
       throw AlluxioRuntimeException.from(e);
     } finally {
       buf.release();
@@ -801,7 +1116,10 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
               errors.add(builder.build());
               return;
             }
-            CopyHandler.copy(route, writeOptions, srcFs, dstFs);
+            if (!copyInStore(route, srcUfs, dstUfs, readOptions)) {
+              CopyHandler.copy(route, writeOptions, srcFs, dstFs,
+                  in -> mJobReadThrottle.throttle(readOptions, in));
+            }
           } catch (Throwable t) {
             boolean permissionCheckSucceeded = !(t instanceof AccessControlException);
             LOG.error("Failed to copy {} to {}", route.getSrc(), route.getDst(), t);
@@ -831,6 +1149,30 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
     return Futures.whenAllComplete(futures).call(() -> errors, GrpcExecutors.WRITER_EXECUTOR);
   }
 
+  /**
+   * Has the object store copy a file itself when the destination is in an object store of the
+   * same kind, so the data does not go through the worker. The copy is a single request to the
+   * store, which copies large objects in parts in parallel, and takes the object as of a single
+   * version, so the content does not need to be checked afterwards.
+   *
+   * @return whether the file has been copied
+   */
+  private boolean copyInStore(Route route, UnderFileSystem srcUfs, UnderFileSystem dstUfs,
+      UfsReadOptions readOptions) throws IOException {
+    if (!mServerSideCopyEnabled || !srcUfs.isObjectStorage() || !dstUfs.isObjectStorage()
+        || !srcUfs.getUnderFSType().equals(dstUfs.getUnderFSType())
+        || !srcUfs.isFile(route.getSrc())) {
+      return false;
+    }
+    mJobReadThrottle.acquire(readOptions, 0, 1);
+    if (srcUfs.copyFile(route.getSrc(), route.getDst())) {
+      return true;
+    }
+    LOG.debug("Object store failed to copy {} to {}, copying through the worker",
+        route.getSrc(), route.getDst());
+    return false;
+  }
+
   protected UnderFileSystem getUnderFileSystem(String ufsPath) {
     return mUfsManager.getOrAdd(new AlluxioURI(ufsPath),
         () -> UnderFileSystemConfiguration.defaults(mConf));
@@ -861,7 +1203,10 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
               throw new FailedPreconditionRuntimeException("File " + route.getDst()
                   + " is already in UFS");
             }
-            CopyHandler.copy(route, writeOptions, srcFs, dstFs);
+            if (!copyInStore(route, srcUfs, dstUfs, readOptions)) {
+              CopyHandler.copy(route, writeOptions, srcFs, dstFs,
+                  in -> mJobReadThrottle.throttle(readOptions, in));
+            }
             try {
               DeleteHandler.delete(new AlluxioURI(route.getSrc()), srcFs);
             } catch (Exception e) {
@@ -979,7 +1324,6 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
       mOpenFileHandleContainer.remove(path);
       handle.close();
       Optional<DoraMeta.FileStatus> status = mMetaManager.loadFromUfs(path);
-      mMetaManager.invalidateListingCacheOfParent(path);
       if (!status.isPresent()) {
         throw new FileNotFoundException("Cannot retrieve file metadata of "
             + path + " when completing the file");
@@ -991,26 +1335,32 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
   public void delete(String path, DeletePOptions options) throws IOException,
       AccessControlException {
     UnderFileSystem ufs = getUfsInstance(path);
+    boolean deleted = false;
     try {
-      mMetaManager.removeFromMetaStore(path);
-
       // TODO(hua) Close the open file handle?
       if (!options.getAlluxioOnly()) {
         // By being a cache, Dora assume the file exists in UFS when a delete is issued
         // So if the file does not exist in UFS, an IOException will be thrown here
         UfsStatus status = ufs.getStatus(path);
         if (status.isFile()) {
-          ufs.deleteFile(path);
+          deleted = ufs.deleteFile(path);
         } else {
           if (options.hasRecursive() && options.getRecursive()) {
-            ufs.deleteDirectory(path, DeleteOptions.RECURSIVE);
+            deleted = ufs.deleteDirectory(path, DeleteOptions.RECURSIVE);
           } else {
-            ufs.deleteDirectory(path, DeleteOptions.NON_RECURSIVE);
+            deleted = ufs.deleteDirectory(path, DeleteOptions.NON_RECURSIVE);
           }
         }
       }
     } catch (IOException e) {
       throw new RuntimeException(e);
+    } finally {
+      if (deleted) {
+        mMetaManager.removeDeleted(path);
+      } else {
+        // the path is only dropped from the cache, or its state in the ufs is unknown
+        mMetaManager.removeFromMetaStore(path);
+      }
     }
   }
 
@@ -1049,9 +1399,8 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
         rc = srcUfs.renameDirectory(src, dst);
       }
       if (rc) {
-        mMetaManager.removeFromMetaStore(src);
+        mMetaManager.removeDeleted(src);
         mMetaManager.loadFromUfs(dst);
-        mMetaManager.invalidateListingCacheOfParent(dst);
       }
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -1074,7 +1423,6 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
         success = ufs.mkdirs(path, mMkdirsNonRecursive);
       }
       mMetaManager.loadFromUfs(path);
-      mMetaManager.invalidateListingCacheOfParent(path);
       if (!success) {
         throw new AlreadyExistsException(String.format("%s already exists", path));
       }
@@ -1131,7 +1479,6 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
       }
     }
     mMetaManager.loadFromUfs(path);
-    mMetaManager.invalidateListingCacheOfParent(path);
   }
 
   @Override
@@ -113,24 +113,12 @@ public class PagedFileReader extends BlockReader implements PositionReader {
       return new CompositeDataBuffer(Collections.emptyList());
     }
     List<DataBuffer> dataBufferList = new ArrayList<>();
-    long bytesToTransfer = Math.min(length, mFileSize - mPos);
-    long bytesToTransferLeft = bytesToTransfer;
+    long bytesToTransferLeft = Math.min(length, mFileSize - mPos);
     while (bytesToTransferLeft > 0) {
-      long lengthPerOp = Math.min(bytesToTransferLeft, mPositionReader.getPageSize());
-      DataBuffer dataBuffer;
-      Optional<DataFileChannel> dataFileChannel =
-          mPositionReader.getDataFileChannel(mPos, (int) lengthPerOp);
-      if (!dataFileChannel.isPresent()) {
-        dataBuffer = getDataBufferByCopying(channel, (int) lengthPerOp);
-      } else {
-        // update mPos
-        // TODO(JiamingMai): need to lock page files since the openFile op is called in netty latter
-        dataBuffer = dataFileChannel.get();
-        if (dataBuffer.getLength() > 0) {
-          mPos += dataBuffer.getLength();
-        } else {
-          dataBuffer = getDataBufferByCopying(channel, (int) lengthPerOp);
-        }
+      DataBuffer dataBuffer = getNextDataBuffer(channel, bytesToTransferLeft);
+      if (dataBuffer.getLength() == 0) {
+        dataBuffer.release();
+        break;
       }
       // update bytesToTransferLeft
       bytesToTransferLeft -= dataBuffer.getLength();
@@ -140,6 +128,33 @@ public class PagedFileReader extends BlockReader implements PositionReader {
     return compositeDataBuffer;
   }
 
+  /**
+   * Gets the data from the current position up to the end of the page the position is in.
+   * A cached page is returned as a {@link DataFileChannel} to be transferred with zero copy,
+   * otherwise the data is read from the UFS into a buffer. The position is advanced past the
+   * data returned.
+   *
+   * @param channel the Channel object which is used for allocating ByteBuf
+   * @param length the maximum bytes to read
+   * @return the data, which is empty at the end of the file
+   */
+  public DataBuffer getNextDataBuffer(Channel channel, long length) throws IOException {
+    long pageSize = mPositionReader.getPageSize();
+    int lengthPerOp = (int) Math.min(Math.min(length, mFileSize - mPos),
+        pageSize - mPos % pageSize);
+    if (lengthPerOp <= 0) {
+      return new NettyDataBuffer(Unpooled.EMPTY_BUFFER);
+    }
+    Optional<DataFileChannel> dataFileChannel =
+        mPositionReader.getDataFileChannel(mPos, lengthPerOp);
+    // TODO(JiamingMai): need to lock page files since the openFile op is called in netty latter
+    if (dataFileChannel.isPresent() && dataFileChannel.get().getLength() > 0) {
+      mPos += dataFileChannel.get().getLength();
+      return dataFileChannel.get();
+    }
+    return getDataBufferByCopying(channel, lengthPerOp);
+  }
+
   private DataBuffer getDataBufferByCopying(Channel channel, int len) throws IOException {
     ByteBuf buf = channel.alloc().buffer(len, len);
     try {
@@ -11,13 +11,19 @@
 
 package alluxio.worker.dora;
 
+import alluxio.conf.Configuration;
 import alluxio.conf.PropertyKey;
 import alluxio.master.metastore.rocks.RocksExclusiveLockHandle;
 import alluxio.master.metastore.rocks.RocksSharedLockHandle;
+import alluxio.metrics.MetricKey;
+import alluxio.metrics.MetricsSystem;
 import alluxio.proto.meta.DoraMeta;
 import alluxio.rocks.RocksStore;
 import alluxio.util.io.PathUtils;
 
+import com.codahale.metrics.Counter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.base.Preconditions;
 import org.rocksdb.BlockBasedTableConfig;
 import org.rocksdb.ColumnFamilyDescriptor;
@@ -30,21 +36,30 @@ import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksObject;
+import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
  * Dora Meta Store in RocksDB.
+ *
+ * A bounded on-heap LRU cache of parsed metadata sits in front of RocksDB, so that repeated
+ * reads of hot files skip both the RocksDB lookup and the protobuf parsing. Only reads
+ * populate the cache, one path at a time. Every write goes to RocksDB first and then drops the
+ * path from the cache, so a status cached by a read racing with the write does not outlive it.
  */
 @ThreadSafe
 public class RocksDBDoraMetaStore implements DoraMetaStore {
@@ -66,6 +81,14 @@ public class RocksDBDoraMetaStore implements DoraMetaStore {
 
   private final AtomicReference<ColumnFamilyHandle> mFileStatusColumn = new AtomicReference<>();
 
+  /** The cache of parsed metadata, or null if disabled. */
+  @Nullable
+  private final Cache<String, DoraMeta.FileStatus> mCache;
+  private final Counter mCacheHits =
+      MetricsSystem.counter(MetricKey.WORKER_METASTORE_CACHE_HITS.getName());
+  private final Counter mCacheMisses =
+      MetricsSystem.counter(MetricKey.WORKER_METASTORE_CACHE_MISSES.getName());
+
   /**
    * Creates and initializes a rocks block store.
    *
@@ -111,6 +134,26 @@ public class RocksDBDoraMetaStore implements DoraMetaStore {
     mRocksStore = new RocksStore(DORA_META_STORE_NAME, dbPath, backupPath, opts, columns,
             Arrays.asList(mFileStatusColumn), false);
     mMetaTTL = metaTTL;
+
+    int cacheSize = Configuration.getInt(PropertyKey.DORA_WORKER_METASTORE_CACHE_SIZE);
+    if (cacheSize > 0) {
+      Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(cacheSize);
+      if (metaTTL > 0) {
+        builder.expireAfterWrite(Duration.ofSeconds(metaTTL));
+      }
+      mCache = builder.build();
+    } else {
+      mCache = null;
+    }
+    MetricsSystem.registerGaugeIfAbsent(
+        MetricsSystem.getMetricName(MetricKey.WORKER_METASTORE_CACHE_HIT_RATIO.getName()),
+        () -> {
+          long hits = MetricsSystem.counter(
+              MetricKey.WORKER_METASTORE_CACHE_HITS.getName()).getCount();
+          long total = hits + MetricsSystem.counter(
+              MetricKey.WORKER_METASTORE_CACHE_MISSES.getName()).getCount();
+          return total == 0 ? 0.0 : (double) hits / total;
+        });
   }
 
   /**
@@ -121,6 +164,25 @@ public class RocksDBDoraMetaStore implements DoraMetaStore {
    */
   @Override
   public Optional<DoraMeta.FileStatus> getDoraMeta(String path) {
+    if (mCache == null) {
+      return readDoraMeta(path);
+    }
+    boolean[] loaded = {false};
+    // a status read before a concurrent write is dropped by the invalidation following the
+    // write, which waits for the load of the path to finish
+    DoraMeta.FileStatus fs = mCache.get(path, key -> {
+      loaded[0] = true;
+      return readDoraMeta(key).orElse(null);
+    });
+    if (loaded[0]) {
+      mCacheMisses.inc();
+    } else {
+      mCacheHits.inc();
+    }
+    return Optional.ofNullable(fs);
+  }
+
+  private Optional<DoraMeta.FileStatus> readDoraMeta(String path) {
     byte[] status;
     try (RocksSharedLockHandle lock = mRocksStore.checkAndAcquireSharedLock()) {
       status = db().get(mFileStatusColumn.get(), path.getBytes());
@@ -134,7 +196,8 @@ public class RocksDBDoraMetaStore implements DoraMetaStore {
       DoraMeta.FileStatus fs = DoraMeta.FileStatus.parseFrom(status);
       return Optional.of(fs);
     } catch (Exception e) {
-      removeDoraMeta(path);
+      // called while the cache loads the path, so only the RocksDB record is removed here
+      deleteFromRocks(path);
       LOG.error("Cannot parse get result for {} : {}", path, e);
       return Optional.empty();
     }
@@ -153,6 +216,39 @@ public class RocksDBDoraMetaStore implements DoraMetaStore {
               meta.toByteString().toByteArray());
     } catch (RocksDBException e) {
       LOG.error("Cannot put {} : {}", path, e);
+    } finally {
+      // not updating the cache, as a concurrent remove could then be overwritten
+      if (mCache != null) {
+        mCache.invalidate(path);
+      }
+    }
+  }
+
+  /**
+   * Stores the metadata of multiple files with a single {@link WriteBatch}, so the whole batch
+   * goes through the WAL and memtable in one write instead of one write per file.
+   *
+   * @param metas the metadata keyed by the full path of each file
+   */
+  @Override
+  public void putDoraMetas(Map<String, DoraMeta.FileStatus> metas) {
+    if (metas.isEmpty()) {
+      return;
+    }
+    try (RocksSharedLockHandle lock = mRocksStore.checkAndAcquireSharedLock();
+         WriteBatch batch = new WriteBatch()) {
+      for (Map.Entry<String, DoraMeta.FileStatus> entry : metas.entrySet()) {
+        batch.put(mFileStatusColumn.get(), entry.getKey().getBytes(),
+            entry.getValue().toByteArray());
+      }
+      db().write(mWriteOption, batch);
+    } catch (RocksDBException e) {
+      throw new RuntimeException(
+          String.format("Cannot put metadata of %d files", metas.size()), e);
+    } finally {
+      if (mCache != null) {
+        mCache.invalidateAll(metas.keySet());
+      }
     }
   }
 
@@ -164,6 +260,16 @@ public class RocksDBDoraMetaStore implements DoraMetaStore {
    */
   @Override
   public void removeDoraMeta(String path) {
+    try {
+      deleteFromRocks(path);
+    } finally {
+      if (mCache != null) {
+        mCache.invalidate(path);
+      }
+    }
+  }
+
+  private void deleteFromRocks(String path) {
     try (RocksSharedLockHandle lock = mRocksStore.checkAndAcquireSharedLock()) {
       db().delete(mFileStatusColumn.get(), mWriteOption, path.getBytes());
     } catch (RocksDBException e) {
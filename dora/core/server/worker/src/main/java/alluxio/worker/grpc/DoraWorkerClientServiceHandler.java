@@ -130,7 +130,8 @@ public class DoraWorkerClientServiceHandler extends BlockWorkerGrpc.BlockWorkerI
     try {
       MultiDimensionalMetricsSystem.META_OPERATION.labelValues("load").inc();
       ListenableFuture<LoadFileResponse> response =
-          mWorker.load(request.getSubtasksList(), request.getSkipIfExists(), request.getOptions());
+          mWorker.load(request.getSubtasksList(), request.getSkipIfExists(), request.getOptions(),
+              request.hasRanges() ? request.getRanges() : null, request.getReportCachedBlocks());
       ListenableFuture<LoadFileResponse> future = Futures.transform(response, resp -> {
         int numFiles = request.getSubtasksCount();
         TaskStatus taskStatus = TaskStatus.SUCCESS;
@@ -219,39 +220,41 @@ public class DoraWorkerClientServiceHandler extends BlockWorkerGrpc.BlockWorkerI
 
     try {
       MultiDimensionalMetricsSystem.META_OPERATION.labelValues("listStatus").inc();
-      UfsStatus[] statuses = mWorker.listStatus(request.getPath(), request.getOptions());
-      if (statuses == null) {
+      // Pages are sent out as the UFS returns them, so the client starts receiving results
+      // before the whole directory is listed.
+      ListStatusPResponse.Builder[] builder = {ListStatusPResponse.newBuilder()};
+      boolean exists = mWorker.listStatus(request.getPath(), request.getOptions(), statuses -> {
+        for (UfsStatus status : statuses) {
+          String ufsFullPath = PathUtils.concatPath(request.getPath(), status.getName());
+
+          // the list status do not include xattr now. GetAttr will cause some additional
+          // overhead. And not every request requires the Xattr. Now only get file xattr in
+          // GetStatus.
+          alluxio.grpc.FileInfo fi =
+              PagedDoraWorker.buildFileInfoFromUfsStatus(mWorker.getCacheUsage(),
+                  mWorker.getUfsInstance(ufsFullPath).getUnderFSType(),
+                  status, ufsFullPath, null);
+
+          builder[0].addFileInfos(fi);
+          if (builder[0].getFileInfosCount() == LIST_STATUS_BATCH_SIZE) {
+            // Reached the batch size of the reply message. Send it out and create a new one.
+            responseObserver.onNext(builder[0].build());
+            builder[0] = ListStatusPResponse.newBuilder();
+          }
+        }
+        if (builder[0].getFileInfosCount() != 0) {
+          // Send out the remaining items of the page, instead of waiting for the next page.
+          responseObserver.onNext(builder[0].build());
+          builder[0] = ListStatusPResponse.newBuilder();
+        }
+      });
+      if (!exists) {
         responseObserver.onError(
             new NotFoundRuntimeException(String.format("%s Not Found", request.getPath()))
                 .toGrpcStatusRuntimeException());
         return;
       }
 
-      ListStatusPResponse.Builder builder = ListStatusPResponse.newBuilder();
-
-      for (int i = 0; i < statuses.length; i++) {
-        UfsStatus status = statuses[i];
-        String ufsFullPath = PathUtils.concatPath(request.getPath(), status.getName());
-
-        // the list status do not include xattr now. GetAttr will cause some additional overhead.
-        // And not every request requires the Xattr. Now only get file xattr in GetStatus.
-        alluxio.grpc.FileInfo fi =
-            PagedDoraWorker.buildFileInfoFromUfsStatus(mWorker.getCacheUsage(),
-                    mWorker.getUfsInstance(ufsFullPath).getUnderFSType(),
-                    status, ufsFullPath, null);
-
-        builder.addFileInfos(fi);
-        if (builder.getFileInfosCount() == LIST_STATUS_BATCH_SIZE) {
-          // Reached the batch size of the reply message. Send it out and create a new one.
-          responseObserver.onNext(builder.build());
-          builder = ListStatusPResponse.newBuilder();
-        }
-      }
-      if (builder.getFileInfosCount() != 0) {
-        // Send out the remaining items if there is any.
-        responseObserver.onNext(builder.build());
-      }
-
       responseObserver.onCompleted();
     } catch (Exception e) {
       LOG.error(String.format("Failed to list status of %s: ", request.getPath()), e);
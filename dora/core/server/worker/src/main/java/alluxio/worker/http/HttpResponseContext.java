@@ -11,6 +11,8 @@
 
 package alluxio.worker.http;
 
+import alluxio.worker.dora.PagedFileReader;
+
 import io.netty.channel.FileRegion;
 import io.netty.handler.codec.http.HttpResponse;
 
@@ -23,6 +25,10 @@ public class HttpResponseContext {
 
   private final FileRegion mFileRegion;
 
+  private final PagedFileReader mFileReader;
+
+  private final long mLength;
+
   /**
    * Http response context for wrapping useful information.
    * @param httpResponse the http response to client
@@ -31,6 +37,21 @@ public class HttpResponseContext {
   public HttpResponseContext(HttpResponse httpResponse, FileRegion fileRegion) {
     mHttpResponse = httpResponse;
     mFileRegion = fileRegion;
+    mFileReader = null;
+    mLength = fileRegion == null ? 0 : fileRegion.count();
+  }
+
+  /**
+   * Http response context for wrapping useful information.
+   * @param httpResponse the http response to client
+   * @param fileReader the reader to read the response body from, page by page
+   * @param length the length of the response body
+   */
+  public HttpResponseContext(HttpResponse httpResponse, PagedFileReader fileReader, long length) {
+    mHttpResponse = httpResponse;
+    mFileRegion = null;
+    mFileReader = fileReader;
+    mLength = length;
   }
 
   /**
@@ -48,4 +69,20 @@ public class HttpResponseContext {
   public FileRegion getFileRegion() {
     return mFileRegion;
   }
+
+  /**
+   * Get the reader to read the response body from, page by page.
+   * @return the file reader, or null if the body is not read from a file reader
+   */
+  public PagedFileReader getFileReader() {
+    return mFileReader;
+  }
+
+  /**
+   * Get the length of the response body.
+   * @return the length
+   */
+  public long getLength() {
+    return mLength;
+  }
 }
@@ -84,6 +84,7 @@ public final class HttpServer {
     } finally {
       bossGroup.shutdownGracefully();
       workerGroup.shutdownGracefully();
+      mHttpServerInitializer.shutdown();
     }
   }
 }
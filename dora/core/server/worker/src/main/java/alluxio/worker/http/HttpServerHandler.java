@@ -11,28 +11,47 @@
 
 package alluxio.worker.http;
 
+import static io.netty.handler.codec.http.HttpHeaderNames.ACCEPT_RANGES;
 import static io.netty.handler.codec.http.HttpHeaderNames.CONNECTION;
 import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_RANGE;
 import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_TYPE;
+import static io.netty.handler.codec.http.HttpHeaderNames.RANGE;
 import static io.netty.handler.codec.http.HttpHeaderValues.APPLICATION_JSON;
+import static io.netty.handler.codec.http.HttpHeaderValues.APPLICATION_OCTET_STREAM;
+import static io.netty.handler.codec.http.HttpHeaderValues.BYTES;
 import static io.netty.handler.codec.http.HttpHeaderValues.CLOSE;
 import static io.netty.handler.codec.http.HttpHeaderValues.KEEP_ALIVE;
 import static io.netty.handler.codec.http.HttpHeaderValues.TEXT_PLAIN;
+import static io.netty.handler.codec.http.HttpResponseStatus.BAD_REQUEST;
+import static io.netty.handler.codec.http.HttpResponseStatus.FORBIDDEN;
+import static io.netty.handler.codec.http.HttpResponseStatus.INTERNAL_SERVER_ERROR;
+import static io.netty.handler.codec.http.HttpResponseStatus.NOT_FOUND;
 import static io.netty.handler.codec.http.HttpResponseStatus.OK;
+import static io.netty.handler.codec.http.HttpResponseStatus.PARTIAL_CONTENT;
+import static io.netty.handler.codec.http.HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
 
 import alluxio.AlluxioURI;
 import alluxio.client.file.FileSystem;
 import alluxio.client.file.FileSystemContext;
 import alluxio.client.file.URIStatus;
 import alluxio.conf.Configuration;
+import alluxio.exception.AccessControlException;
 import alluxio.exception.AlluxioException;
 import alluxio.exception.PageNotFoundException;
 import alluxio.grpc.ListStatusPOptions;
 import alluxio.metrics.MetricKey;
 import alluxio.metrics.MetricsSystem;
+import alluxio.network.protocol.databuffer.DataBuffer;
+import alluxio.network.protocol.databuffer.DataFileChannel;
+import alluxio.network.protocol.databuffer.NettyDataBuffer;
+import alluxio.s3.S3RangeSpec;
 import alluxio.util.FileSystemOptionsUtils;
+import alluxio.worker.dora.PagedFileReader;
 import alluxio.worker.http.vo.WritePageResponseVO;
+import alluxio.worker.netty.WriteWindow;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.gson.Gson;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
@@ -43,17 +62,21 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.FileRegion;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
 import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpObject;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.codec.http2.Http2StreamChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -67,13 +90,21 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<HttpObject> {
 
   private static final Logger LOG = LoggerFactory.getLogger(HttpServerHandler.class);
 
+  /** The size of the buffers the data of HTTP/2 streams is read into. */
+  private static final int HTTP2_CHUNK_SIZE = 64 * 1024;
+
   private final PagedService mPagedService;
 
-  private final HttpLoadService mLoadService;
+  private final FileSystemContext.FileSystemContextFactory mFsContextFactory;
+
+  private HttpLoadService mLoadService;
+
+  private FileSystemContext mFileSystemContext;
 
-  private final FileSystemContext mFileSystemContext;
+  private FileSystem mFileSystem;
 
-  private final FileSystem mFileSystem;
+  /** Whether the data can be sent as {@link FileRegion}, which HTTP/2 streams can not carry. */
+  private boolean mZeroCopy = true;
 
   /**
    * {@link HttpServerHandler} deals with HTTP requests received from Netty Channel.
@@ -84,9 +115,41 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<HttpObject> {
   public HttpServerHandler(PagedService pagedService,
                            FileSystemContext.FileSystemContextFactory fsContextFactory) {
     mPagedService = pagedService;
-    mFileSystemContext = fsContextFactory.create(Configuration.global());
-    mFileSystem = FileSystem.Factory.create(mFileSystemContext);
-    mLoadService = new HttpLoadService(mFileSystem);
+    mFsContextFactory = fsContextFactory;
+  }
+
+  @VisibleForTesting
+  HttpServerHandler(PagedService pagedService, FileSystemContext fsContext,
+                    FileSystem fileSystem) {
+    mPagedService = pagedService;
+    mFsContextFactory = null;
+    mFileSystemContext = fsContext;
+    mFileSystem = fileSystem;
+  }
+
+  /**
+   * The file system is created on first use, since a handler is created for every HTTP/2
+   * stream and most of the requests, e.g. those reading data, do not need it.
+   */
+  private FileSystem getFileSystem() {
+    if (mFileSystem == null) {
+      mFileSystemContext = mFsContextFactory.create(Configuration.global());
+      mFileSystem = FileSystem.Factory.create(mFileSystemContext);
+    }
+    return mFileSystem;
+  }
+
+  private HttpLoadService getLoadService() {
+    if (mLoadService == null) {
+      mLoadService = new HttpLoadService(getFileSystem());
+    }
+    return mLoadService;
+  }
+
+  @Override
+  public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+    super.handlerAdded(ctx);
+    mZeroCopy = !(ctx.channel() instanceof Http2StreamChannel);
   }
 
   @Override
@@ -95,7 +158,8 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<HttpObject> {
   }
 
   @Override
-  public void channelRead0(ChannelHandlerContext ctx, HttpObject msg) throws PageNotFoundException {
+  public void channelRead0(ChannelHandlerContext ctx, HttpObject msg)
+      throws PageNotFoundException, IOException {
     if (msg instanceof HttpRequest) {
       HttpRequest req = (HttpRequest) msg;
       HttpResponseContext responseContext = dispatch(req);
@@ -114,6 +178,9 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<HttpObject> {
       ChannelFuture channelFuture;
       if (response instanceof FullHttpResponse) {
         channelFuture = ctx.write(response);
+      } else if (responseContext.getFileReader() != null) {
+        channelFuture = writeFile(ctx, response, responseContext.getFileReader(),
+            responseContext.getLength());
       } else {
         ctx.write(response);
         ctx.write(responseContext.getFileRegion());
@@ -163,6 +230,8 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<HttpObject> {
     switch (httpRequestUri.getMappingPath()) {
       case "file":
         return doGetPage(httpRequest, httpRequestUri);
+      case "data":
+        return doGetData(httpRequest, httpRequestUri);
       case "files":
         return doListFiles(httpRequest, httpRequestUri);
       case "info":
@@ -252,13 +321,153 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<HttpObject> {
     return httpResponseContext;
   }
 
+  private HttpResponseContext doGetData(HttpRequest httpRequest, HttpRequestUri httpRequestUri) {
+    Map<String, String> parameters = httpRequestUri.getParameters();
+    String path = parameters.get("path");
+    if (path == null || path.isEmpty()) {
+      return doErrorResponse(httpRequest, BAD_REQUEST, "The path of the file is not specified");
+    }
+    path = handleReservedCharacters(path);
+    long fileLength;
+    try {
+      fileLength = mPagedService.getFileLength(path);
+    } catch (IOException | AccessControlException e) {
+      return doErrorResponse(httpRequest, path, e);
+    }
+
+    // the range is given by either the offset and length parameters or the Range header
+    HttpResponseStatus status = OK;
+    long offset = 0;
+    long length = fileLength;
+    S3RangeSpec range = S3RangeSpec.Factory.create(httpRequest.headers().get(RANGE));
+    String offsetStr = parameters.get("offset");
+    String lengthStr = parameters.get("length");
+    if (offsetStr != null && !offsetStr.isEmpty()) {
+      try {
+        offset = Long.parseLong(offsetStr);
+        length = lengthStr != null && !lengthStr.isEmpty() ? Long.parseLong(lengthStr) : length;
+      } catch (NumberFormatException e) {
+        return doErrorResponse(httpRequest, BAD_REQUEST, "Invalid offset or length");
+      }
+      if (offset < 0 || length < 0) {
+        return doErrorResponse(httpRequest, BAD_REQUEST, "Invalid offset or length");
+      }
+      offset = Math.min(offset, fileLength);
+      length = Math.min(length, fileLength - offset);
+    } else if (range.isValid()) {
+      offset = range.getOffset(fileLength);
+      length = range.getLength(fileLength);
+      if (length == 0 && fileLength > 0) {
+        FullHttpResponse response = new DefaultFullHttpResponse(httpRequest.protocolVersion(),
+            REQUESTED_RANGE_NOT_SATISFIABLE);
+        response.headers()
+            .set(CONTENT_RANGE, "bytes */" + fileLength)
+            .setInt(CONTENT_LENGTH, 0);
+        return new HttpResponseContext(response, null);
+      }
+      status = PARTIAL_CONTENT;
+    }
+    MetricsSystem.meter(MetricKey.WORKER_HTTP_BYTES_REQUESTED.getName()).mark(length);
+
+    HttpResponse response;
+    PagedFileReader reader = null;
+    if (length == 0) {
+      response = new DefaultFullHttpResponse(httpRequest.protocolVersion(), status);
+    } else {
+      response = new DefaultHttpResponse(httpRequest.protocolVersion(), status);
+      try {
+        reader = mPagedService.openFile(path, offset, length);
+      } catch (IOException | AccessControlException e) {
+        return doErrorResponse(httpRequest, path, e);
+      }
+    }
+    response.headers()
+        .set(CONTENT_TYPE, APPLICATION_OCTET_STREAM)
+        .set(ACCEPT_RANGES, BYTES)
+        .set(CONTENT_LENGTH, length);
+    if (status == PARTIAL_CONTENT) {
+      response.headers().set(CONTENT_RANGE, range.getRealRange(fileLength));
+    }
+    return new HttpResponseContext(response, reader, length);
+  }
+
+  /**
+   * Writes the response and its body read from the file reader page by page. The pages are
+   * sent as soon as they are read. Over HTTP/1.1, cached pages are sent through
+   * {@link FileRegion} with zero copy. The reader is closed after all the pages are read.
+   */
+  private ChannelFuture writeFile(ChannelHandlerContext ctx, HttpResponse response,
+      PagedFileReader reader, long length) throws IOException {
+    try (PagedFileReader fileReader = reader) {
+      WriteWindow window = new WriteWindow(ctx);
+      window.write(response, 0);
+      long remaining = length;
+      while (remaining > 0) {
+        DataBuffer chunk = readChunk(ctx, fileReader, remaining);
+        if (chunk.getLength() == 0) {
+          chunk.release();
+          throw new IOException(String.format("Unexpected end of file %s, %d bytes left to send",
+              fileReader.getLocation(), remaining));
+        }
+        if (chunk instanceof DataFileChannel) {
+          MetricsSystem.meter(MetricKey.WORKER_HTTP_BYTES_READ_CACHE.getName())
+              .mark(chunk.getLength());
+        }
+        remaining -= chunk.getLength();
+        Object msg = chunk.getNettyOutput();
+        window.write(msg instanceof ByteBuf ? new DefaultHttpContent((ByteBuf) msg) : msg,
+            chunk.getLength());
+      }
+      return window.write(LastHttpContent.EMPTY_LAST_CONTENT, 0);
+    }
+  }
+
+  private DataBuffer readChunk(ChannelHandlerContext ctx, PagedFileReader reader, long length)
+      throws IOException {
+    if (mZeroCopy) {
+      return reader.getNextDataBuffer(ctx.channel(), length);
+    }
+    // the data of HTTP/2 streams is sent in frames, so it is always copied into buffers
+    int chunkSize = (int) Math.min(length, HTTP2_CHUNK_SIZE);
+    ByteBuf buf = ctx.alloc().buffer(chunkSize, chunkSize);
+    try {
+      while (buf.writableBytes() > 0 && reader.transferTo(buf) != -1) {
+      }
+    } catch (Throwable e) {
+      buf.release();
+      throw e;
+    }
+    return new NettyDataBuffer(buf);
+  }
+
+  private HttpResponseContext doErrorResponse(HttpRequest httpRequest, String path, Exception e) {
+    if (e instanceof FileNotFoundException) {
+      return doErrorResponse(httpRequest, NOT_FOUND, e.getMessage());
+    }
+    if (e instanceof AccessControlException) {
+      return doErrorResponse(httpRequest, FORBIDDEN, e.getMessage());
+    }
+    LOG.error("Failed to read file {}", path, e);
+    return doErrorResponse(httpRequest, INTERNAL_SERVER_ERROR, e.getMessage());
+  }
+
+  private HttpResponseContext doErrorResponse(HttpRequest httpRequest, HttpResponseStatus status,
+      String message) {
+    FullHttpResponse response = new DefaultFullHttpResponse(httpRequest.protocolVersion(), status,
+        Unpooled.wrappedBuffer(String.valueOf(message).getBytes()));
+    response.headers()
+        .set(CONTENT_TYPE, TEXT_PLAIN)
+        .setInt(CONTENT_LENGTH, response.content().readableBytes());
+    return new HttpResponseContext(response, null);
+  }
+
   private HttpResponseContext doListFiles(HttpRequest httpRequest, HttpRequestUri httpRequestUri) {
     String path = httpRequestUri.getParameters().get("path");
     path = handleReservedCharacters(path);
     ListStatusPOptions options = FileSystemOptionsUtils.listStatusDefaults(
         Configuration.global()).toBuilder().build();
     try {
-      List<URIStatus> uriStatuses = mFileSystem.listStatus(new AlluxioURI(path), options);
+      List<URIStatus> uriStatuses = getFileSystem().listStatus(new AlluxioURI(path), options);
       List<ResponseFileInfo> responseFileInfoList = new ArrayList<>();
       for (URIStatus uriStatus : uriStatuses) {
         String type = uriStatus.isFolder() ? "directory" : "file";
@@ -287,7 +496,7 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<HttpObject> {
     String path = httpRequestUri.getParameters().get("path");
     path = handleReservedCharacters(path);
     try {
-      URIStatus uriStatus = mFileSystem.getStatus(new AlluxioURI(path));
+      URIStatus uriStatus = getFileSystem().getStatus(new AlluxioURI(path));
       List<ResponseFileInfo> responseFileInfoList = new ArrayList<>();
       String type = uriStatus.isFolder() ? "directory" : "file";
       ResponseFileInfo responseFileInfo = new ResponseFileInfo(type, uriStatus.getName(),
@@ -352,7 +561,7 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<HttpObject> {
     String path = parameters.get("path");
     path = handleReservedCharacters(path);
 
-    String responseStr = mLoadService.load(new AlluxioURI(path), builder.build());
+    String responseStr = getLoadService().load(new AlluxioURI(path), builder.build());
 
     FullHttpResponse response = new DefaultFullHttpResponse(httpRequest.protocolVersion(), OK,
         Unpooled.wrappedBuffer(responseStr.getBytes()));
@@ -378,8 +587,10 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<HttpObject> {
   @Override
   public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
     super.handlerRemoved(ctx);
-    mFileSystem.close();
-    mFileSystemContext.close();
+    if (mFileSystem != null) {
+      mFileSystem.close();
+      mFileSystemContext.close();
+    }
   }
 
   private static final class Metrics {
@@ -12,24 +12,59 @@
 package alluxio.worker.http;
 
 import alluxio.client.file.FileSystemContext;
+import alluxio.conf.Configuration;
+import alluxio.conf.PropertyKey;
+import alluxio.util.ThreadFactoryUtils;
 
 import com.google.inject.Inject;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.http.HttpMessage;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.HttpServerExpectContinueHandler;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler;
+import io.netty.handler.codec.http2.CleartextHttp2ServerUpgradeHandler;
+import io.netty.handler.codec.http2.Http2CodecUtil;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2ServerUpgradeCodec;
+import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import io.netty.util.AsciiString;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
 
 /**
  * {@link HttpServerInitializer} is used for initializing the Netty pipeline of HTTP Server.
+ * A connection speaks HTTP/1.1 unless the client starts HTTP/2 over cleartext (h2c), either by
+ * sending the HTTP/2 preface directly or by upgrading from HTTP/1.1. Every HTTP/2 stream is
+ * served by its own {@link HttpServerHandler}, so the requests of a connection are served
+ * concurrently and each response is flow controlled separately.
  */
 public class HttpServerInitializer extends ChannelInitializer<SocketChannel> {
 
+  private static final int MAX_CONTENT_LENGTH = 1024 * 10;
+
   private final PagedService mPagedService;
 
   private final FileSystemContext.FileSystemContextFactory mFsContextFactory;
 
+  /**
+   * The threads serving the requests, which may block on reading from the UFS. Each channel is
+   * bound to one of them, so the pipelined requests of an HTTP/1.1 connection are answered in
+   * order, while the streams of an HTTP/2 connection are served by different threads.
+   */
+  private final EventExecutorGroup mHandlerGroup = new DefaultEventExecutorGroup(
+      Configuration.getInt(PropertyKey.WORKER_HTTP_SERVER_HANDLER_THREADS),
+      ThreadFactoryUtils.build("HttpServerHandler-%d", true));
+
   /**
    * {@link HttpServerInitializer} is used for initializing the Netty pipeline of HTTP Server.
    * @param pagedService the {@link PagedService} object provides page related RESTful API
@@ -42,12 +77,62 @@ public class HttpServerInitializer extends ChannelInitializer<SocketChannel> {
     mFsContextFactory = fsContextFactory;
   }
 
+  private final Http2Settings mHttp2Settings = Http2Settings.defaultSettings()
+      .maxConcurrentStreams(
+          Configuration.getInt(PropertyKey.WORKER_HTTP_SERVER_HTTP2_MAX_CONCURRENT_STREAMS));
+
+  private final ChannelInitializer<Http2StreamChannel> mStreamInitializer =
+      new ChannelInitializer<Http2StreamChannel>() {
+        @Override
+        protected void initChannel(Http2StreamChannel ch) {
+          ChannelPipeline p = ch.pipeline();
+          p.addLast(new Http2StreamFrameToHttpObjectCodec(true));
+          p.addLast(new HttpObjectAggregator(MAX_CONTENT_LENGTH));
+          p.addLast(mHandlerGroup, new HttpServerHandler(mPagedService, mFsContextFactory));
+        }
+      };
+
   @Override
   public void initChannel(SocketChannel ch) {
+    HttpServerCodec sourceCodec = new HttpServerCodec();
+    HttpServerUpgradeHandler upgradeHandler = new HttpServerUpgradeHandler(sourceCodec,
+        protocol -> AsciiString.contentEquals(Http2CodecUtil.HTTP_UPGRADE_PROTOCOL_NAME, protocol)
+            ? new Http2ServerUpgradeCodec(newHttp2FrameCodecBuilder().build(),
+                new Http2MultiplexHandler(mStreamInitializer, mStreamInitializer))
+            : null, MAX_CONTENT_LENGTH);
+    ChannelInitializer<Channel> priorKnowledgeInitializer = new ChannelInitializer<Channel>() {
+      @Override
+      protected void initChannel(Channel channel) {
+        channel.pipeline().addLast(newHttp2FrameCodecBuilder().build(),
+            new Http2MultiplexHandler(mStreamInitializer));
+      }
+    };
+
     ChannelPipeline p = ch.pipeline();
-    p.addLast(new HttpServerCodec());
-    p.addLast(new HttpObjectAggregator(1024 * 10));
-    p.addLast(new HttpServerExpectContinueHandler());
-    p.addLast(new HttpServerHandler(mPagedService, mFsContextFactory));
+    p.addLast(new CleartextHttp2ServerUpgradeHandler(
+        sourceCodec, upgradeHandler, priorKnowledgeInitializer));
+    p.addLast(new SimpleChannelInboundHandler<HttpMessage>() {
+      @Override
+      protected void channelRead0(ChannelHandlerContext ctx, HttpMessage msg) {
+        // the client did not upgrade, so the connection stays on HTTP/1.1
+        ChannelPipeline pipeline = ctx.pipeline();
+        pipeline.addAfter(mHandlerGroup, ctx.name(), null,
+            new HttpServerHandler(mPagedService, mFsContextFactory));
+        pipeline.addAfter(ctx.name(), null, new HttpServerExpectContinueHandler());
+        pipeline.replace(this, null, new HttpObjectAggregator(MAX_CONTENT_LENGTH));
+        ctx.fireChannelRead(ReferenceCountUtil.retain(msg));
+      }
+    });
+  }
+
+  /**
+   * Shuts down the threads serving the requests.
+   */
+  public void shutdown() {
+    mHandlerGroup.shutdownGracefully();
+  }
+
+  private Http2FrameCodecBuilder newHttp2FrameCodecBuilder() {
+    return Http2FrameCodecBuilder.forServer().initialSettings(mHttp2Settings);
   }
 }
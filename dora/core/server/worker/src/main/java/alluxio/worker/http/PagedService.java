@@ -11,20 +11,26 @@
 
 package alluxio.worker.http;
 
+import alluxio.AlluxioURI;
 import alluxio.client.file.CacheContext;
 import alluxio.client.file.cache.CacheManager;
 import alluxio.client.file.cache.PageId;
 import alluxio.conf.Configuration;
 import alluxio.conf.PropertyKey;
+import alluxio.exception.AccessControlException;
 import alluxio.exception.PageNotFoundException;
-import alluxio.file.NettyBufTargetBuffer;
+import alluxio.grpc.GetStatusPOptions;
 import alluxio.network.protocol.databuffer.DataFileChannel;
+import alluxio.proto.dataserver.Protocol;
+import alluxio.wire.FileInfo;
+import alluxio.worker.dora.DoraWorker;
+import alluxio.worker.dora.PagedFileReader;
 
 import com.google.inject.Inject;
-import io.netty.buffer.ByteBuf;
-import io.netty.channel.Channel;
 import io.netty.channel.FileRegion;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.Optional;
 
 /**
@@ -34,16 +40,20 @@ public class PagedService {
 
   private final CacheManager mCacheManager;
 
+  private final DoraWorker mDoraWorker;
+
   private final long mPageSize;
 
   /**
    * {@link PagedService} is used for providing page related RESTful API service.
    *
    * @param cacheManager The interface for managing cached pages
+   * @param doraWorker the worker which reads missing pages from the UFS
    */
   @Inject
-  public PagedService(CacheManager cacheManager) {
+  public PagedService(CacheManager cacheManager, DoraWorker doraWorker) {
     mCacheManager = cacheManager;
+    mDoraWorker = doraWorker;
     mPageSize = Configuration.global().getBytes(PropertyKey.WORKER_PAGE_STORE_PAGE_SIZE);
   }
 
@@ -60,21 +70,39 @@ public class PagedService {
   }
 
   /**
-   * Get page bytes given fileId, pageIndex, and channel which is used for allocating ByteBuf.
+   * Gets the length of a file in the UFS.
    *
-   * @param fileId    the file ID
-   * @param pageIndex the page index
-   * @param channel   the Netty channel which is used for allocating ByteBuf
-   * @return the ByteBuf object that wraps page bytes
+   * @param ufsFullPath the UFS path of the file
+   * @return the length of the file
+   * @throws FileNotFoundException if the file does not exist or is a directory
    */
-  public ByteBuf getPage(String fileId, long pageIndex, Channel channel) {
-    ByteBuf byteBuf = channel.alloc().buffer((int) mPageSize);
-    NettyBufTargetBuffer targetBuffer = new NettyBufTargetBuffer(byteBuf);
-    PageId pageId = new PageId(fileId, pageIndex);
-    // TODO(JiamingMai): load the page from UFS if it doesn't exist, but this requires AlluxioURI
-    // instead of the given fileId
-    int bytesRead = mCacheManager.get(pageId, 0, targetBuffer, CacheContext.defaults());
-    return targetBuffer.getTargetBuffer();
+  public long getFileLength(String ufsFullPath) throws IOException, AccessControlException {
+    FileInfo fileInfo =
+        mDoraWorker.getFileInfo(ufsFullPath, GetStatusPOptions.getDefaultInstance());
+    if (fileInfo.isFolder()) {
+      throw new FileNotFoundException(ufsFullPath + " is a directory");
+    }
+    return fileInfo.getLength();
+  }
+
+  /**
+   * Opens a reader of a byte range of a file. The pages of the range missing in the cache are
+   * read from the UFS and cached through the same path as the other reads of the worker.
+   * The caller must close the reader.
+   *
+   * @param ufsFullPath the UFS path of the file
+   * @param offset the offset of the range
+   * @param length the length of the range
+   * @return the reader positioned at the start of the range
+   */
+  public PagedFileReader openFile(String ufsFullPath, long offset, long length)
+      throws IOException, AccessControlException {
+    Protocol.OpenUfsBlockOptions options = Protocol.OpenUfsBlockOptions.newBuilder()
+        .setUfsPath(ufsFullPath).setMountId(0).setNoCache(false).setOffsetInFile(offset)
+        .setBlockSize(offset + length).build();
+    // dora workers always read files page by page
+    return (PagedFileReader) mDoraWorker.createFileReader(
+        new AlluxioURI(ufsFullPath).hash(), offset, false, options);
   }
 
   /**
@@ -12,6 +12,7 @@
 package alluxio.worker.netty;
 
 import alluxio.client.file.FileSystem;
+import alluxio.client.file.cache.CacheManager;
 import alluxio.conf.Configuration;
 import alluxio.conf.PropertyKey;
 import alluxio.network.ChannelType;
@@ -52,6 +53,7 @@ public class NettyDataServer implements DataServer {
   private ServerBootstrap mBootstrap;
   private ChannelFuture mChannelFuture;
   private ChannelFuture mHttpChannelFuture;
+  private S3HttpPipelineHandler mS3PipelineHandler;
   private final UfsManager mUfsManager;
   private final SocketAddress mSocketAddress;
   private final long mQuietPeriodMs =
@@ -66,13 +68,15 @@ public class NettyDataServer implements DataServer {
    * @param s3BindAddress    the s3 server address
    * @param ufsManager       the UfsManager object
    * @param doraWorker       the DoraWorker object
+   * @param cacheManager     the CacheManager object
    */
   @Inject
   public NettyDataServer(
       @Named("NettyBindAddress") InetSocketAddress nettyBindAddress,
       @Named("S3BindAddress") InetSocketAddress s3BindAddress,
       UfsManager ufsManager,
-      DoraWorker doraWorker) {
+      DoraWorker doraWorker,
+      CacheManager cacheManager) {
     mSocketAddress = nettyBindAddress;
     mUfsManager = ufsManager;
     mBootstrap = createBootstrap().childHandler(
@@ -82,7 +86,8 @@ public class NettyDataServer implements DataServer {
 
       if (Configuration.getBoolean(PropertyKey.WORKER_S3_REST_ENABLED)) {
         FileSystem fileSystem = FileSystem.Factory.create(Configuration.global());
-        mBootstrap.childHandler(new S3HttpPipelineHandler(fileSystem, doraWorker));
+        mS3PipelineHandler = new S3HttpPipelineHandler(fileSystem, doraWorker, cacheManager);
+        mBootstrap.childHandler(mS3PipelineHandler);
         mHttpChannelFuture = mBootstrap.bind(s3BindAddress).sync();
       }
     } catch (InterruptedException e) {
@@ -136,6 +141,9 @@ public class NettyDataServer implements DataServer {
     if (!completed) {
       LOG.warn("Forced child group shutdown because graceful shutdown timed out.");
     }
+    if (mS3PipelineHandler != null) {
+      mS3PipelineHandler.shutdown();
+    }
   }
 
   private ServerBootstrap createBootstrap() {
@@ -0,0 +1,76 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.netty;
+
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Flushes each write of a response to the channel right away, and limits the bytes written but
+ * not yet sent, so that a large response is sent at the pace of the client instead of being
+ * buffered in memory. The HTTP servers of the worker serve their requests off the event loop of
+ * the channel, so the writer can wait for the event loop to send its writes. A writer running
+ * in the event loop, such as a handler of an embedded channel, cannot wait and is not limited.
+ */
+@NotThreadSafe
+public final class WriteWindow {
+  /** The maximum bytes of a response written to the channel but not yet sent. */
+  public static final long MAX_PENDING_WRITE_BYTES = 4L * 1024 * 1024;
+
+  private final ChannelHandlerContext mContext;
+  private final boolean mBlockingAllowed;
+  private final Deque<ChannelFuture> mFutures = new ArrayDeque<>();
+  private final Deque<Long> mLengths = new ArrayDeque<>();
+  private long mPendingBytes;
+
+  /**
+   * @param context the context of the handler writing the response
+   */
+  public WriteWindow(ChannelHandlerContext context) {
+    mContext = context;
+    mBlockingAllowed = !context.channel().eventLoop().inEventLoop();
+  }
+
+  /**
+   * Writes and flushes a message, then waits until the bytes not yet sent are within the limit.
+   *
+   * @param msg the message
+   * @param length the bytes of the message counted against the limit
+   * @return the future of the write
+   * @throws IOException if a write waited on failed
+   */
+  public ChannelFuture write(Object msg, long length) throws IOException {
+    // the promise is completed by the event loop of the channel rather than the executor of
+    // the handler, so it can be waited on here
+    ChannelFuture future = mContext.writeAndFlush(msg, mContext.channel().newPromise());
+    if (!mBlockingAllowed) {
+      return future;
+    }
+    mFutures.addLast(future);
+    mLengths.addLast(length);
+    mPendingBytes += length;
+    while (mPendingBytes > MAX_PENDING_WRITE_BYTES) {
+      ChannelFuture first = mFutures.removeFirst();
+      mPendingBytes -= mLengths.removeFirst();
+      first.awaitUninterruptibly();
+      if (!first.isSuccess()) {
+        throw new IOException("Failed to write the response", first.cause());
+      }
+    }
+    return future;
+  }
+}
@@ -42,6 +42,7 @@ public class S3HttpHandler extends ChannelInboundHandlerAdapter {
 
   private final FileSystem mFileSystem;
   private final DoraWorker mDoraWorker;
+  private final S3NettyMultipartUploadManager mMultipartUploadManager;
   private final AsyncUserAccessAuditLogWriter mAsyncAuditLogWriter;
   private final ThreadPoolExecutor mLightPool;
   private final ThreadPoolExecutor mHeavyPool;
@@ -53,15 +54,18 @@ public class S3HttpHandler extends ChannelInboundHandlerAdapter {
    *
    * @param fileSystem
    * @param doraWorker
+   * @param multipartUploadManager
    * @param asyncAuditLogWriter
    * @param lightPool
    * @param heavyPool
    */
   public S3HttpHandler(FileSystem fileSystem, DoraWorker doraWorker,
+                       S3NettyMultipartUploadManager multipartUploadManager,
                        AsyncUserAccessAuditLogWriter asyncAuditLogWriter,
                        ThreadPoolExecutor lightPool, ThreadPoolExecutor heavyPool) {
     mFileSystem = fileSystem;
     mDoraWorker = doraWorker;
+    mMultipartUploadManager = multipartUploadManager;
     mAsyncAuditLogWriter = asyncAuditLogWriter;
     mLightPool = lightPool;
     mHeavyPool = heavyPool;
@@ -82,7 +86,7 @@ public class S3HttpHandler extends ChannelInboundHandlerAdapter {
       if (msg instanceof HttpRequest) {
         HttpRequest request = (HttpRequest) msg;
         mHandler = S3NettyHandler.createHandler(context, request, mFileSystem, mDoraWorker,
-            mAsyncAuditLogWriter);
+            mMultipartUploadManager, mAsyncAuditLogWriter);
 
         // Handle request async
         if (Configuration.getBoolean(PropertyKey.WORKER_S3_ASYNC_PROCESS_ENABLED)) {
@@ -12,6 +12,7 @@
 package alluxio.worker.s3;
 
 import alluxio.client.file.FileSystem;
+import alluxio.client.file.cache.CacheManager;
 import alluxio.conf.Configuration;
 import alluxio.conf.PropertyKey;
 import alluxio.master.audit.AsyncUserAccessAuditLogWriter;
@@ -27,6 +28,8 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.HttpServerExpectContinueHandler;
 import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
 
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -39,6 +42,7 @@ import javax.annotation.Nullable;
 public class S3HttpPipelineHandler extends ChannelInitializer<SocketChannel> {
   private final FileSystem mFileSystem;
   private final DoraWorker mDoraWorker;
+  private final S3NettyMultipartUploadManager mMultipartUploadManager;
 
   @Nullable
   private final AsyncUserAccessAuditLogWriter mAsyncAuditLogWriter;
@@ -46,15 +50,27 @@ public class S3HttpPipelineHandler extends ChannelInitializer<SocketChannel> {
   private final ThreadPoolExecutor mLightPool;
   @Nullable
   private final ThreadPoolExecutor mHeavyPool;
+  /**
+   * The threads serving the requests when they are not handled in async mode, since serving a
+   * request may block on reading from the UFS. Each channel is bound to one of them, so the
+   * pipelined requests of a connection are answered in order.
+   */
+  @Nullable
+  private final EventExecutorGroup mHandlerGroup;
 
   /**
    * Constructs an instance of {@link S3HttpPipelineHandler}.
    * @param fileSystem AlluxioFileSystem
    * @param doraWorker dora worker
+   * @param cacheManager the cache manager of the worker, which stores the multipart upload parts
    */
-  public S3HttpPipelineHandler(FileSystem fileSystem, DoraWorker doraWorker) {
+  public S3HttpPipelineHandler(FileSystem fileSystem, DoraWorker doraWorker,
+                               CacheManager cacheManager) {
     mFileSystem = fileSystem;
     mDoraWorker = doraWorker;
+    mMultipartUploadManager = new S3NettyMultipartUploadManager(cacheManager,
+        Configuration.getBytes(PropertyKey.WORKER_PAGE_STORE_PAGE_SIZE),
+        Configuration.getMs(PropertyKey.PROXY_S3_MULTIPART_UPLOAD_CLEANER_TIMEOUT));
     if (Configuration.getBoolean(PropertyKey.WORKER_S3_AUDIT_LOGGING_ENABLED)) {
       mAsyncAuditLogWriter = new AsyncUserAccessAuditLogWriter("NETTY_S3_AUDIT_LOG");
       mAsyncAuditLogWriter.start();
@@ -69,9 +85,13 @@ public class S3HttpPipelineHandler extends ChannelInitializer<SocketChannel> {
     if (Configuration.getBoolean(PropertyKey.WORKER_S3_ASYNC_PROCESS_ENABLED)) {
       mLightPool = createLightThreadPool();
       mHeavyPool = createHeavyThreadPool();
+      mHandlerGroup = null;
     } else {
       mLightPool = null;
       mHeavyPool = null;
+      mHandlerGroup = new DefaultEventExecutorGroup(
+          Configuration.getInt(PropertyKey.WORKER_S3_HANDLER_THREADS),
+          ThreadFactoryUtils.build("S3-HANDLER-%d", true));
     }
   }
 
@@ -81,8 +101,24 @@ public class S3HttpPipelineHandler extends ChannelInitializer<SocketChannel> {
     pipeline.addLast(new HttpServerCodec());
     pipeline.addLast(new ChunkedWriteHandler());
     pipeline.addLast(new HttpServerExpectContinueHandler());
-    pipeline.addLast(
-        new S3HttpHandler(mFileSystem, mDoraWorker, mAsyncAuditLogWriter, mLightPool, mHeavyPool));
+    pipeline.addLast(mHandlerGroup,
+        new S3HttpHandler(mFileSystem, mDoraWorker, mMultipartUploadManager, mAsyncAuditLogWriter,
+            mLightPool, mHeavyPool));
+  }
+
+  /**
+   * Shuts down the threads serving the requests.
+   */
+  public void shutdown() {
+    if (mHandlerGroup != null) {
+      mHandlerGroup.shutdownGracefully();
+    }
+    if (mLightPool != null) {
+      mLightPool.shutdownNow();
+    }
+    if (mHeavyPool != null) {
+      mHeavyPool.shutdownNow();
+    }
   }
 
   private static ThreadPoolExecutor createLightThreadPool() {
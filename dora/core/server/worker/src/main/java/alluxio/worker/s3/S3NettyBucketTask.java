@@ -24,7 +24,6 @@ import alluxio.exception.InvalidPathException;
 import alluxio.grpc.Bits;
 import alluxio.grpc.CreateDirectoryPOptions;
 import alluxio.grpc.DeletePOptions;
-import alluxio.grpc.ListStatusPOptions;
 import alluxio.grpc.PMode;
 import alluxio.grpc.SetAttributePOptions;
 import alluxio.s3.DeleteObjectsRequest;
@@ -37,8 +36,11 @@ import alluxio.s3.S3AuditContext;
 import alluxio.s3.S3Constants;
 import alluxio.s3.S3ErrorCode;
 import alluxio.s3.S3Exception;
+import alluxio.underfs.UfsFileStatus;
+import alluxio.wire.FileInfo;
 
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.net.InetAddresses;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
@@ -56,6 +58,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
 /**
  * S3 Netty Tasks to handle bucket level or global level request.
@@ -94,6 +97,9 @@ public class S3NettyBucketTask extends S3NettyBaseTask {
         case "GET":
           if (StringUtils.isEmpty(handler.getBucket())) {
             return new ListBucketsTask(handler, OpType.ListBuckets);
+          } else if (handler.getQueryParameter("uploads") != null) {
+            // ListMultipartUploads is not supported
+            return new S3NettyBucketTask(handler, OpType.ListMultipartUploads);
           } else {
             return new ListObjectsTask(handler, OpType.ListObjects);
           }
@@ -148,40 +154,134 @@ public class S3NettyBucketTask extends S3NettyBaseTask {
     }
   } // end of ListBucketsTask
 
-  private static class ListObjectsTask extends S3NettyBucketTask {
-    protected ListObjectsTask(S3NettyHandler handler, OpType opType) {
-      super(handler, opType);
+  private static String normalizeS3Prefix(String prefix, char delimiter) {
+    if (prefix != null) {
+      int pos = prefix.lastIndexOf(delimiter);
+      if (pos >= 0) {
+        return prefix.substring(0, pos + 1);
+      }
     }
+    return S3Constants.EMPTY;
+  }
 
-    private String normalizeS3Prefix(String prefix, char delimiter) {
-      if (prefix != null) {
-        int pos = prefix.lastIndexOf(delimiter);
-        if (pos >= 0) {
-          return prefix.substring(0, pos + 1);
-        }
-      }
-      return S3Constants.EMPTY;
+  private static String parsePathWithDelimiter(String bucketPath, String prefix, String delimiter)
+      throws S3Exception {
+    // TODO(czhu): allow non-"/" delimiters
+    // Alluxio only support use / as delimiter
+    if (!delimiter.equals(AlluxioURI.SEPARATOR)) {
+      throw new S3Exception(bucketPath, new S3ErrorCode(
+          S3ErrorCode.PRECONDITION_FAILED.getCode(),
+          "Alluxio S3 API only support / as delimiter.",
+          S3ErrorCode.PRECONDITION_FAILED.getStatus()));
     }
+    char delim = AlluxioURI.SEPARATOR.charAt(0);
+    String normalizedBucket =
+        bucketPath.replace(S3Constants.BUCKET_SEPARATOR, AlluxioURI.SEPARATOR);
+    String normalizedPrefix = normalizeS3Prefix(prefix, delim);
 
-    private String parsePathWithDelimiter(String bucketPath, String prefix, String delimiter)
-        throws S3Exception {
-      // TODO(czhu): allow non-"/" delimiters
-      // Alluxio only support use / as delimiter
-      if (!delimiter.equals(AlluxioURI.SEPARATOR)) {
-        throw new S3Exception(bucketPath, new S3ErrorCode(
-            S3ErrorCode.PRECONDITION_FAILED.getCode(),
-            "Alluxio S3 API only support / as delimiter.",
-            S3ErrorCode.PRECONDITION_FAILED.getStatus()));
-      }
-      char delim = AlluxioURI.SEPARATOR.charAt(0);
-      String normalizedBucket =
-          bucketPath.replace(S3Constants.BUCKET_SEPARATOR, AlluxioURI.SEPARATOR);
-      String normalizedPrefix = normalizeS3Prefix(prefix, delim);
+    if (!normalizedPrefix.isEmpty() && !normalizedPrefix.startsWith(AlluxioURI.SEPARATOR)) {
+      normalizedPrefix = AlluxioURI.SEPARATOR + normalizedPrefix;
+    }
+    return normalizedBucket + normalizedPrefix;
+  }
 
-      if (!normalizedPrefix.isEmpty() && !normalizedPrefix.startsWith(AlluxioURI.SEPARATOR)) {
-        normalizedPrefix = AlluxioURI.SEPARATOR + normalizedPrefix;
-      }
-      return normalizedBucket + normalizedPrefix;
+  /**
+   * Lists the objects of the requested page from the UFS. The listing starts from the marker,
+   * continuation token or start-after key of the request, and stops as soon as one key past
+   * the page is found to tell if the result is truncated. So the time and memory a page takes
+   * do not depend on its position in the bucket.
+   *
+   * @param handler the handler of the request
+   * @param bucketPath the bucket path
+   * @param options the list bucket options
+   * @return the objects and common prefixes of the page, plus at most one more
+   */
+  @VisibleForTesting
+  static List<URIStatus> listChildren(S3NettyHandler handler, String bucketPath,
+      ListBucketOptions options)
+      throws IOException, AlluxioException, S3Exception {
+    List<URIStatus> children = new ArrayList<>();
+    if (options.getMaxKeys() <= 0) {
+      return children;
+    }
+    final String prefix = options.getPrefix() == null ? S3Constants.EMPTY : options.getPrefix();
+    final String delimiter = options.getDelimiter();
+    final boolean isRecursive = StringUtils.isEmpty(delimiter);
+    final String marker;
+    final String startAfter;
+    if (options.getListType() != null && options.getListType() == 2) {
+      marker = ListBucketResult.decodeToken(options.getContinuationToken());
+      startAfter = options.getStartAfter() == null ? S3Constants.EMPTY : options.getStartAfter();
+    } else {
+      marker = options.getMarker() == null ? S3Constants.EMPTY : options.getMarker();
+      startAfter = S3Constants.EMPTY;
+    }
+    // TODO(czhu): allow non-"/" delimiters by parsing the prefix & delimiter pair to
+    //             determine what directory to list the contents of
+    //             only list the direct children if delimiter is not null
+    String dirPath = parsePathWithDelimiter(bucketPath, prefix,
+        isRecursive ? AlluxioURI.SEPARATOR : delimiter);
+    // the keys of the listed directory start with this
+    String dirKey = StringUtils.removeStart(normalizeS3Prefix(prefix,
+        AlluxioURI.SEPARATOR.charAt(0)), AlluxioURI.SEPARATOR);
+    String from = marker.compareTo(startAfter) > 0 ? marker : startAfter;
+    String listStartAfter = null;
+    if (from.startsWith(dirKey)) {
+      listStartAfter = from.substring(dirKey.length());
+    } else if (from.compareTo(dirKey) > 0) {
+      // the whole directory is before the requested page
+      return children;
+    }
+    final String keyPrefix =
+        AlluxioURI.SEPARATOR + handler.getBucket() + AlluxioURI.SEPARATOR + dirKey;
+    final int[] keyCount = {0};
+    handler.getDoraWorker().listStatusFrom(
+        handler.getUfsPath(new AlluxioURI(dirPath)).toString(), isRecursive,
+        StringUtils.isEmpty(listStartAfter) ? null : listStartAfter, status -> {
+          String key = dirKey + status.getName();
+          FileInfo info = new FileInfo()
+              .setPath(keyPrefix + status.getName())
+              .setName(status.getName())
+              .setFolder(status.isDirectory())
+              .setLastModificationTimeMs(status.getLastModifiedTime() == null
+                  ? 0 : status.getLastModifiedTime())
+              .setLength(status.isFile()
+                  ? ((UfsFileStatus) status).getContentLength() : 0);
+          children.add(new URIStatus(info));
+          if (isListed(key, status.isDirectory(), prefix, delimiter, marker, startAfter)) {
+            keyCount[0]++;
+          }
+          // the key past the page tells that the result is truncated
+          return keyCount[0] <= options.getMaxKeys();
+        });
+    return children;
+  }
+
+  /**
+   * @return whether the key is returned in the listing, the same as {@link ListBucketResult}
+   *         decides
+   */
+  @VisibleForTesting
+  static boolean isListed(String key, boolean isFolder, String prefix,
+      @Nullable String delimiter, String marker, String startAfter) {
+    // the key of a folder ends with the separator, as in the order of the listing
+    String contentKey = isFolder ? key + AlluxioURI.SEPARATOR : key;
+    if (!contentKey.startsWith(prefix) || contentKey.compareTo(marker) <= 0
+        || contentKey.compareTo(startAfter) <= 0) {
+      return false;
+    }
+    if (StringUtils.isEmpty(delimiter)) {
+      return true;
+    }
+    int delimiterIndex = contentKey.indexOf(delimiter, prefix.length());
+    // a common prefix equal to the marker has been returned already
+    return delimiterIndex == -1
+        || !contentKey.substring(0, delimiterIndex + delimiter.length()).equals(marker);
+  }
+
+  private static class ListObjectsTask extends S3NettyBucketTask {
+    protected ListObjectsTask(S3NettyHandler handler, OpType opType) {
+      super(handler, opType);
     }
 
     public HttpResponse continueTask() {
@@ -217,28 +317,7 @@ public class S3NettyBucketTask extends S3NettyBaseTask {
 
           List<URIStatus> children;
           try {
-            // TODO(czhu): allow non-"/" delimiters by parsing the prefix & delimiter pair to
-            //             determine what directory to list the contents of
-            //             only list the direct children if delimiter is not null
-            if (StringUtils.isNotEmpty(delimiterParam)) {
-              if (prefixParam == null) {
-                path = parsePathWithDelimiter(path, S3Constants.EMPTY, delimiterParam);
-              } else {
-                path = parsePathWithDelimiter(path, prefixParam, delimiterParam);
-              }
-              children = userFs.listStatus(new AlluxioURI(path));
-            } else {
-              if (prefixParam != null) {
-                path = parsePathWithDelimiter(path, prefixParam, AlluxioURI.SEPARATOR);
-              }
-              ListStatusPOptions options = ListStatusPOptions.newBuilder()
-                  .setRecursive(true).build();
-              children = userFs.listStatus(new AlluxioURI(path), options);
-            }
-          } catch (FileDoesNotExistException e) {
-            // Since we've called S3RestUtils.checkPathIsAlluxioDirectory() on the bucket path
-            // already, this indicates that the prefix was unable to be found in the Alluxio FS
-            children = new ArrayList<>();
+            children = listChildren(mHandler, path, listBucketOptions);
           } catch (IOException | AlluxioException e) {
             throw NettyRestUtils.toBucketS3Exception(e, mHandler.getBucket(), auditContext);
           }
@@ -42,7 +42,10 @@ import alluxio.security.User;
 import alluxio.util.CommonUtils;
 import alluxio.worker.block.io.BlockReader;
 import alluxio.worker.dora.DoraWorker;
+import alluxio.worker.dora.PagedFileReader;
+import alluxio.worker.netty.WriteWindow;
 
+import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -98,6 +101,7 @@ public class S3NettyHandler {
   private FileSystem mFsClient;
   private FileSystem mUserFsClient;
   private DoraWorker mDoraWorker;
+  private final S3NettyMultipartUploadManager mMultipartUploadManager;
   private Stopwatch mStopwatch;
   public AsyncUserAccessAuditLogWriter mAsyncAuditLogWriter;
   private final FileTransferType mFileTransferType;
@@ -126,14 +130,14 @@ public class S3NettyHandler {
           Configuration.global().getMs(PropertyKey.PROXY_S3_BUCKETPATHCACHE_TIMEOUT_MS),
           TimeUnit.MILLISECONDS)
       .build();
-  private static final int PACKET_LENGTH = 8 * 1024;
+  private static final int PACKET_LENGTH = 64 * 1024;
   private static final String[] UNSUPPORTED_SUB_RESOURCES = {"acl", "policy", "versioning", "cors",
       "encryption", "intelligent-tiering", "inventory", "lifecycle",
       "metrics", "ownershipControls", "replication", "website", "accelerate",
       "location", "logging", "metrics", "notification", "ownershipControls",
       "policyStatus", "requestPayment", "attributes", "legal-hold", "object-lock",
       "retention", "torrent", "publicAccessBlock", "restore", "select",
-      "tagging", "uploads", "uploadId"};
+      "tagging"};
   private static final Set<String> UNSUPPORTED_SUB_RESOURCES_SET =
       new HashSet<>(Arrays.asList(UNSUPPORTED_SUB_RESOURCES));
   Map<String, String> mAmzHeaderMap = new HashMap<>();
@@ -146,11 +150,13 @@ public class S3NettyHandler {
    * @param ctx
    * @param fileSystem
    * @param doraWorker
+   * @param multipartUploadManager
    * @param asyncAuditLogWriter
    */
   public S3NettyHandler(String bucket, String object, HttpRequest request,
                         ChannelHandlerContext ctx, FileSystem fileSystem,
                         DoraWorker doraWorker,
+                        S3NettyMultipartUploadManager multipartUploadManager,
                         AsyncUserAccessAuditLogWriter asyncAuditLogWriter) {
     mBucket = bucket;
     mObject = object;
@@ -158,6 +164,7 @@ public class S3NettyHandler {
     mContext = ctx;
     mFsClient = fileSystem;
     mDoraWorker = doraWorker;
+    mMultipartUploadManager = multipartUploadManager;
     mQueryDecoder = new QueryStringDecoder(request.uri());
     mFileTransferType = Configuration
         .getEnum(PropertyKey.WORKER_NETWORK_NETTY_FILE_TRANSFER_TYPE, FileTransferType.class);
@@ -170,6 +177,7 @@ public class S3NettyHandler {
    * @param request
    * @param fileSystem
    * @param doraWorker
+   * @param multipartUploadManager
    * @param asyncAuditLogWriter
    * @return A S3Handler
    * @throws Exception
@@ -177,6 +185,7 @@ public class S3NettyHandler {
    */
   public static S3NettyHandler createHandler(ChannelHandlerContext context, HttpRequest request,
                                              FileSystem fileSystem, DoraWorker doraWorker,
+                                             S3NettyMultipartUploadManager multipartUploadManager,
                                              AsyncUserAccessAuditLogWriter asyncAuditLogWriter)
       throws Exception {
     String path = java.net.URI.create(request.uri()).getPath();
@@ -196,7 +205,7 @@ public class S3NettyHandler {
     }
     S3NettyHandler handler =
         new S3NettyHandler(bucket, object, request, context, fileSystem, doraWorker,
-            asyncAuditLogWriter);
+            multipartUploadManager, asyncAuditLogWriter);
     handler.setStopwatch(stopwatch);
     handler.init();
     S3NettyBaseTask task = null;
@@ -222,9 +231,6 @@ public class S3NettyHandler {
     rejectUnsupportedResources();
     // Init utils
     mContentQueue = new LinkedBlockingQueue<>();
-
-    // TODO(wyy) init directories
-    // Initiate the S3 API MPU metadata directories
   }
 
   /**
@@ -364,28 +370,70 @@ public class S3NettyHandler {
     }
   }
 
+  /**
+   * Writes a range of a paged file into netty channel page by page. Cached pages are sent
+   * through {@link FileRegion} with zero copy. The other pages are read from the UFS while the
+   * pages before them are being sent.
+   *
+   * @param reader the reader positioned at the start of the range
+   * @param length the length of the range
+   * @throws IOException
+   */
+  public void processPagedResponse(PagedFileReader reader, long length) throws IOException {
+    WriteWindow window = newWriteWindow();
+    long remaining = length;
+    while (remaining > 0) {
+      DataBuffer packet = reader.getNextDataBuffer(mContext.channel(), remaining);
+      if (packet.getLength() == 0) {
+        packet.release();
+        throw new IOException(String.format(
+            "Unexpected end of file %s, %d bytes left to send", reader.getLocation(), remaining));
+      }
+      remaining -= packet.getLength();
+      window.write(packet.getNettyOutput(), packet.getLength());
+    }
+  }
+
   /**
    * Writes data into netty channel by copying through ByteBuf.
    * @param blockReader reader instance
-   * @param objectSize size of the object
+   * @param length the bytes to write
    * @throws IOException
    */
-  public void processMappedResponse(BlockReader blockReader, long objectSize) throws IOException {
-    int packetSize = PACKET_LENGTH;
-    if (objectSize < (long) PACKET_LENGTH) {
-      packetSize = (int) objectSize;
-    }
-    ByteBuf buf = mContext.channel().alloc().buffer(packetSize, packetSize);
-    try {
-      while (buf.writableBytes() > 0 && blockReader.transferTo(buf) != -1) {
-        mContext.write(new DefaultHttpContent(buf));
-        buf = mContext.channel().alloc().buffer(packetSize, packetSize);
+  public void processMappedResponse(BlockReader blockReader, long length) throws IOException {
+    WriteWindow window = newWriteWindow();
+    long remaining = length;
+    while (remaining > 0) {
+      int packetSize = (int) Math.min(PACKET_LENGTH, remaining);
+      ByteBuf buf = mContext.channel().alloc().buffer(packetSize, packetSize);
+      try {
+        while (buf.writableBytes() > 0) {
+          if (blockReader.transferTo(buf) == -1) {
+            break;
+          }
+        }
+      } catch (Throwable e) {
+        buf.release();
+        throw e;
       }
-    } catch (Exception e) {
-      throw e;
+      if (buf.readableBytes() == 0) {
+        buf.release();
+        throw new IOException(String.format(
+            "Unexpected end of file %s, %d bytes left to send", blockReader.getLocation(),
+            remaining));
+      }
+      remaining -= buf.readableBytes();
+      window.write(new DefaultHttpContent(buf), buf.readableBytes());
     }
   }
 
+  private WriteWindow newWriteWindow() {
+    // the requests are served off the event loop, so that the window can wait for the writes
+    Preconditions.checkState(!mContext.channel().eventLoop().inEventLoop(),
+        "The response body must not be written in the event loop of the channel");
+    return new WriteWindow(mContext);
+  }
+
   /**
    * Gets a {@link BlockReader} according the ufs full path, offset and length.
    * @param ufsFullPath UFS full path
@@ -488,6 +536,14 @@ public class S3NettyHandler {
     return mDoraWorker;
   }
 
+  /**
+   * Get the manager of the multipart uploads.
+   * @return S3NettyMultipartUploadManager object
+   */
+  public S3NettyMultipartUploadManager getMultipartUploadManager() {
+    return mMultipartUploadManager;
+  }
+
   /**
    * get HTTP request.
    * @return HTTP request
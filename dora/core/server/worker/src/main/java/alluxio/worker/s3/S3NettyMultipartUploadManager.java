@@ -0,0 +1,437 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.s3;
+
+import alluxio.client.file.CacheContext;
+import alluxio.client.file.cache.CacheManager;
+import alluxio.client.file.cache.PageId;
+import alluxio.s3.S3Constants;
+import alluxio.s3.S3ErrorCode;
+import alluxio.s3.S3Exception;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import org.apache.commons.codec.binary.Hex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Keeps the multipart uploads of the worker S3 API.
+ *
+ * The parts of an upload are stored as temporary pages of the worker page store, each part under
+ * a file id of its own, so the UploadPart requests of an upload are written in parallel without
+ * touching the UFS, and a part uploaded again simply replaces the previous one. Completing the
+ * upload streams the parts in order into the object, after which the parts are dropped. The parts
+ * are also dropped when the upload is aborted, or when it is not accessed within the timeout.
+ *
+ * Uploads are kept in memory, so all requests of an upload must be sent to the worker which
+ * created it, and uploads in progress are lost when the worker restarts.
+ */
+@ThreadSafe
+public class S3NettyMultipartUploadManager {
+  private static final Logger LOG = LoggerFactory.getLogger(S3NettyMultipartUploadManager.class);
+
+  private final CacheManager mCacheManager;
+  private final int mPageSize;
+  /** The uploads in progress, keyed by the upload id. */
+  private final Cache<String, MultipartUpload> mUploads;
+
+  /**
+   * @param cacheManager the cache manager of the worker
+   * @param pageSize the page size of the page store
+   * @param timeoutMs the time after which an upload not accessed is aborted
+   */
+  public S3NettyMultipartUploadManager(CacheManager cacheManager, long pageSize,
+      long timeoutMs) {
+    Preconditions.checkArgument(pageSize > 0 && pageSize <= Integer.MAX_VALUE,
+        "invalid page size %s", pageSize);
+    mCacheManager = Preconditions.checkNotNull(cacheManager);
+    mPageSize = (int) pageSize;
+    mUploads = CacheBuilder.newBuilder()
+        .expireAfterAccess(timeoutMs, TimeUnit.MILLISECONDS)
+        .<String, MultipartUpload>removalListener(notification -> {
+          // explicitly removed uploads are completed or aborted by the remover
+          if (notification.getCause() != RemovalCause.EXPLICIT) {
+            LOG.warn("Aborting expired multipart upload {} of {}/{}",
+                notification.getKey(), notification.getValue().getBucket(),
+                notification.getValue().getObject());
+            MultipartUpload upload = notification.getValue();
+            dropParts(upload, upload.end().values());
+          }
+        })
+        .build();
+  }
+
+  /**
+   * Starts a multipart upload.
+   *
+   * @param bucket the bucket
+   * @param object the object
+   * @return the upload
+   */
+  public MultipartUpload create(String bucket, String object) {
+    MultipartUpload upload = new MultipartUpload(UUID.randomUUID().toString(), bucket, object);
+    mUploads.put(upload.getUploadId(), upload);
+    return upload;
+  }
+
+  /**
+   * @param uploadId the upload id
+   * @param bucket the bucket of the request
+   * @param object the object of the request
+   * @return the upload
+   * @throws S3Exception if there is no such upload in progress for the object
+   */
+  public MultipartUpload get(@Nullable String uploadId, String bucket, String object)
+      throws S3Exception {
+    MultipartUpload upload = uploadId == null ? null : mUploads.getIfPresent(uploadId);
+    if (upload == null || !upload.getBucket().equals(bucket)
+        || !upload.getObject().equals(object)) {
+      throw new S3Exception(bucket + "/" + object, S3ErrorCode.NO_SUCH_UPLOAD);
+    }
+    return upload;
+  }
+
+  /**
+   * Ends an upload, so that no part can be added to it anymore. The parts must be dropped by the
+   * caller with {@link #dropParts(MultipartUpload, Collection)}.
+   *
+   * @param upload the upload
+   * @return the parts of the upload, keyed by the part number
+   * @throws S3Exception if the upload has been ended already
+   */
+  public Map<Integer, Part> end(MultipartUpload upload) throws S3Exception {
+    if (!mUploads.asMap().remove(upload.getUploadId(), upload)) {
+      throw new S3Exception(upload.getBucket() + "/" + upload.getObject(),
+          S3ErrorCode.NO_SUCH_UPLOAD);
+    }
+    return upload.end();
+  }
+
+  /**
+   * Drops the parts of an ended upload from the page store, along with the pages of the parts
+   * still being written, which would be left behind if their requests never complete.
+   *
+   * @param upload the upload
+   * @param parts the parts returned when the upload ended
+   */
+  public void dropParts(MultipartUpload upload, Collection<Part> parts) {
+    for (Part part : parts) {
+      dropPart(part);
+    }
+    for (String fileId : upload.getOpenPartFileIds()) {
+      mCacheManager.deleteTempFile(fileId);
+    }
+  }
+
+  /**
+   * @param upload the upload
+   * @param partNumber the part number
+   * @return a writer of the part into the page store
+   */
+  public PartWriter createPartWriter(MultipartUpload upload, int partNumber) {
+    return new PartWriter(upload, partNumber);
+  }
+
+  /**
+   * Copies a part from the page store to a stream.
+   *
+   * @param part the part
+   * @param out the stream
+   */
+  public void transferTo(Part part, OutputStream out) throws IOException {
+    byte[] page = new byte[(int) Math.min(mPageSize, part.getLength())];
+    long pageIndex = 0;
+    for (long pos = 0; pos < part.getLength(); pos += mPageSize, pageIndex++) {
+      int length = (int) Math.min(mPageSize, part.getLength() - pos);
+      int read = mCacheManager.get(new PageId(part.getFileId(), pageIndex), 0, length, page, 0,
+          CacheContext.defaults().setTemporary(true));
+      if (read != length) {
+        throw new IOException(String.format(
+            "Page %s of part %s is missing from the page store", pageIndex, part.getFileId()));
+      }
+      out.write(page, 0, length);
+    }
+  }
+
+  /**
+   * @return the number of uploads in progress
+   */
+  public long getNumUploads() {
+    return mUploads.size();
+  }
+
+  private void dropPart(Part part) {
+    mCacheManager.deleteTempFile(part.getFileId());
+  }
+
+  /**
+   * A multipart upload in progress.
+   */
+  public static final class MultipartUpload {
+    private final String mUploadId;
+    private final String mBucket;
+    private final String mObject;
+    private final AtomicLong mNextPartSequence = new AtomicLong();
+    /** The uploaded parts keyed by the part number, or null once the upload has ended. */
+    @GuardedBy("this")
+    private Map<Integer, Part> mParts = new HashMap<>();
+    /** The file ids of the parts being written. */
+    @GuardedBy("this")
+    private final Set<String> mOpenPartFileIds = new HashSet<>();
+
+    private MultipartUpload(String uploadId, String bucket, String object) {
+      mUploadId = uploadId;
+      mBucket = bucket;
+      mObject = object;
+    }
+
+    /**
+     * @return the upload id
+     */
+    public String getUploadId() {
+      return mUploadId;
+    }
+
+    /**
+     * @return the bucket
+     */
+    public String getBucket() {
+      return mBucket;
+    }
+
+    /**
+     * @return the object
+     */
+    public String getObject() {
+      return mObject;
+    }
+
+    /**
+     * @return a snapshot of the uploaded parts, keyed by the part number
+     */
+    public synchronized Map<Integer, Part> getParts() {
+      return mParts == null ? Collections.emptyMap() : new HashMap<>(mParts);
+    }
+
+    private synchronized void openPart(String fileId) {
+      mOpenPartFileIds.add(fileId);
+    }
+
+    private synchronized void closePart(String fileId) {
+      mOpenPartFileIds.remove(fileId);
+    }
+
+    private synchronized List<String> getOpenPartFileIds() {
+      return new ArrayList<>(mOpenPartFileIds);
+    }
+
+    /**
+     * @param part the uploaded part
+     * @return the part replaced, or the part itself if the upload has ended
+     */
+    private synchronized Part addPart(Part part) {
+      mOpenPartFileIds.remove(part.getFileId());
+      if (mParts == null) {
+        return part;
+      }
+      return mParts.put(part.getPartNumber(), part);
+    }
+
+    private synchronized Map<Integer, Part> end() {
+      Map<Integer, Part> parts = mParts;
+      mParts = null;
+      return parts == null ? Collections.emptyMap() : parts;
+    }
+  }
+
+  /**
+   * An uploaded part stored in the page store.
+   */
+  public static final class Part {
+    private final int mPartNumber;
+    private final String mFileId;
+    private final long mLength;
+    private final String mEntityTag;
+
+    private Part(int partNumber, String fileId, long length, String entityTag) {
+      mPartNumber = partNumber;
+      mFileId = fileId;
+      mLength = length;
+      mEntityTag = entityTag;
+    }
+
+    /**
+     * @return the part number
+     */
+    public int getPartNumber() {
+      return mPartNumber;
+    }
+
+    /**
+     * @return the file id of the pages of the part
+     */
+    public String getFileId() {
+      return mFileId;
+    }
+
+    /**
+     * @return the length of the part
+     */
+    public long getLength() {
+      return mLength;
+    }
+
+    /**
+     * @return the entity tag of the part, i.e. the MD5 checksum of its content
+     */
+    public String getEntityTag() {
+      return mEntityTag;
+    }
+  }
+
+  /**
+   * Writes a part into temporary pages of the page store.
+   */
+  public final class PartWriter extends OutputStream {
+    private final MultipartUpload mUpload;
+    private final int mPartNumber;
+    private final String mFileId;
+    private final MessageDigest mDigest;
+    private byte[] mPage;
+    private int mPageLength;
+    private long mNumPages;
+    private long mLength;
+    private byte[] mFinalDigest;
+
+    private PartWriter(MultipartUpload upload, int partNumber) {
+      mUpload = upload;
+      mPartNumber = partNumber;
+      // every upload of a part gets its own file id, as an existing page is never overwritten
+      mFileId = String.format("%s_%s%d_%d", upload.getUploadId(),
+          S3Constants.S3_MULTIPART_PART_PREFIX, partNumber,
+          upload.mNextPartSequence.getAndIncrement());
+      upload.openPart(mFileId);
+      try {
+        mDigest = MessageDigest.getInstance("MD5");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) throws IOException {
+      mDigest.update(buf, off, len);
+      mLength += len;
+      while (len > 0) {
+        if (mPage == null) {
+          mPage = new byte[mPageSize];
+          mPageLength = 0;
+        }
+        int toCopy = Math.min(len, mPageSize - mPageLength);
+        System.arraycopy(buf, off, mPage, mPageLength, toCopy);
+        mPageLength += toCopy;
+        off += toCopy;
+        len -= toCopy;
+        if (mPageLength == mPageSize) {
+          flushPage();
+        }
+      }
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    public long getLength() {
+      return mLength;
+    }
+
+    /**
+     * Stores the last page of the part.
+     *
+     * @return the MD5 checksum of the part
+     */
+    public byte[] finish() throws IOException {
+      if (mFinalDigest == null) {
+        if (mPageLength > 0) {
+          flushPage();
+        }
+        mFinalDigest = mDigest.digest();
+      }
+      return mFinalDigest;
+    }
+
+    /**
+     * Adds the finished part to the upload, replacing any part uploaded before with the same
+     * part number. The part is dropped instead if the upload has ended meanwhile.
+     *
+     * @return the part
+     */
+    public Part commit() throws IOException {
+      Part part = new Part(mPartNumber, mFileId, mLength, Hex.encodeHexString(finish()));
+      Part dropped = mUpload.addPart(part);
+      if (dropped != null) {
+        dropPart(dropped);
+      }
+      return part;
+    }
+
+    /**
+     * Drops the pages written.
+     */
+    public void abort() {
+      mPage = null;
+      mCacheManager.deleteTempFile(mFileId);
+      mUpload.closePart(mFileId);
+    }
+
+    private void flushPage() throws IOException {
+      if (!mCacheManager.put(new PageId(mFileId, mNumPages),
+          ByteBuffer.wrap(mPage, 0, mPageLength), CacheContext.defaults().setTemporary(true))) {
+        throw new IOException(String.format(
+            "Failed to store page %s of part %s of upload %s in the page store",
+            mNumPages, mPartNumber, mUpload.getUploadId()));
+      }
+      mNumPages++;
+      // the page store may still hold the buffer, so a new one is used for the next page
+      mPage = null;
+      mPageLength = 0;
+    }
+  }
+}
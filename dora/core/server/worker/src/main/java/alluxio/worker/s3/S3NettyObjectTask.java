@@ -34,8 +34,10 @@ import alluxio.grpc.OpenFilePOptions;
 import alluxio.grpc.PMode;
 import alluxio.grpc.XAttrPropagationStrategy;
 import alluxio.network.netty.FileTransferType;
-import alluxio.network.protocol.databuffer.DataBuffer;
+import alluxio.s3.CompleteMultipartUploadRequest;
+import alluxio.s3.CompleteMultipartUploadResult;
 import alluxio.s3.CopyObjectResult;
+import alluxio.s3.InitiateMultipartUploadResult;
 import alluxio.s3.MultiChunkEncodingInputStream;
 import alluxio.s3.NettyRestUtils;
 import alluxio.s3.S3AuditContext;
@@ -49,7 +51,11 @@ import alluxio.wire.BlockLocationInfo;
 import alluxio.wire.WorkerNetAddress;
 import alluxio.worker.block.io.BlockReader;
 import alluxio.worker.dora.PagedFileReader;
+import alluxio.worker.s3.S3NettyMultipartUploadManager.MultipartUpload;
+import alluxio.worker.s3.S3NettyMultipartUploadManager.Part;
+import alluxio.worker.s3.S3NettyMultipartUploadManager.PartWriter;
 
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.google.common.base.Preconditions;
 import com.google.common.io.BaseEncoding;
 import com.google.common.io.ByteStreams;
@@ -65,6 +71,7 @@ import org.apache.commons.codec.binary.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -74,7 +81,10 @@ import java.net.URLDecoder;
 import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import javax.ws.rs.core.MediaType;
 
 /**
@@ -115,17 +125,36 @@ public class S3NettyObjectTask extends S3NettyBaseTask {
     public static S3NettyObjectTask create(S3NettyHandler handler) throws S3Exception {
       switch (handler.getHttpMethod()) {
         case "GET":
+          if (handler.getQueryParameter("uploadId") != null) {
+            // ListParts is not supported
+            return new S3NettyObjectTask(handler, OpType.ListParts);
+          }
           return new GetObjectTask(handler, OpType.GetObject);
         case "PUT":
+          if (handler.getQueryParameter("uploadId") != null) {
+            if (handler.getHeader(S3Constants.S3_COPY_SOURCE_HEADER) != null) {
+              // UploadPartCopy is not supported
+              return new S3NettyObjectTask(handler, OpType.UploadPartCopy);
+            }
+            return new UploadPartTask(handler, OpType.UploadPart);
+          }
           if (handler.getHeader(S3Constants.S3_COPY_SOURCE_HEADER) != null) {
             return new CopyObjectTask(handler, OpType.CopyObject);
           }
           return new PutObjectTask(handler, OpType.PutObject);
         case "POST":
+          if (handler.getQueryParameter("uploads") != null) {
+            return new CreateMultipartUploadTask(handler, OpType.CreateMultipartUpload);
+          } else if (handler.getQueryParameter("uploadId") != null) {
+            return new CompleteMultipartUploadTask(handler, OpType.CompleteMultipartUpload);
+          }
           break;
         case "HEAD":
           return new HeadObjectTask(handler, OpType.HeadObject);
         case "DELETE":
+          if (handler.getQueryParameter("uploadId") != null) {
+            return new AbortMultipartUploadTask(handler, OpType.AbortMultipartUpload);
+          }
           return new DeleteObjectTask(handler, OpType.DeleteObject);
         default:
           return new S3NettyObjectTask(handler, OpType.Unsupported);
@@ -297,25 +326,17 @@ public class S3NettyObjectTask extends S3NettyBaseTask {
 
     public void processGetObject(String ufsFullPath, S3RangeSpec range, long objectSize,
                                  HttpResponse response) throws AccessControlException, IOException {
-      DataBuffer packet = null;
       long offset = range.getOffset(objectSize);
       long length = range.getLength(objectSize);
-      BlockReader blockReader = mHandler.openBlock(ufsFullPath, offset, offset + length);
-
-      // Writes http response to the netty channel before data.
-      mHandler.processHttpResponse(response, false);
-      try {
-        if (mHandler.getFileTransferType() == FileTransferType.TRANSFER) {
-          if (blockReader instanceof PagedFileReader) {
-            PagedFileReader pagedFileReader = (PagedFileReader) blockReader;
-            packet =
-                pagedFileReader.getMultipleDataFileChannel(mHandler.getContext().channel(), length);
-          }
-          if (packet != null) {
-            mHandler.processTransferResponse(packet);
-          }
+      try (BlockReader blockReader = mHandler.openBlock(ufsFullPath, offset, offset + length)) {
+        // Writes http response to the netty channel before data.
+        mHandler.processHttpResponse(response, false);
+        // Only the pages of the range are read, and each page is sent as soon as it is read
+        if (mHandler.getFileTransferType() == FileTransferType.TRANSFER
+            && blockReader instanceof PagedFileReader) {
+          mHandler.processPagedResponse((PagedFileReader) blockReader, length);
         } else {
-          mHandler.processMappedResponse(blockReader, objectSize);
+          mHandler.processMappedResponse(blockReader, length);
         }
       } catch (Exception e) {
         LOG.error("Failed to read data.", e);
@@ -727,6 +748,334 @@ public class S3NettyObjectTask extends S3NettyBaseTask {
     }
   } // end of PutObjectTask
 
+  private static final class CreateMultipartUploadTask extends S3NettyObjectTask {
+
+    public CreateMultipartUploadTask(S3NettyHandler handler, OpType opType) {
+      super(handler, opType);
+    }
+
+    @Override
+    public HttpResponse continueTask() {
+      return NettyRestUtils.call(getObjectTaskResource(), () -> {
+        // CreateMultipartUploadTask ...
+        final String user = mHandler.getUser();
+        final FileSystem userFs = mHandler.getFileSystemForUser(user);
+        final String bucket = mHandler.getBucket();
+        final String object = mHandler.getObject();
+        Preconditions.checkNotNull(bucket, "required 'bucket' parameter is missing");
+        Preconditions.checkNotNull(object, "required 'object' parameter is missing");
+        String bucketPath = NettyRestUtils.parsePath(AlluxioURI.SEPARATOR + bucket);
+
+        try (S3AuditContext auditContext =
+                 mHandler.createAuditContext(mOPType.name(), user, bucket, object)) {
+          S3NettyHandler.checkPathIsAlluxioDirectory(userFs, bucketPath, auditContext);
+          MultipartUpload upload = mHandler.getMultipartUploadManager().create(bucket, object);
+          return new InitiateMultipartUploadResult(bucket, object, upload.getUploadId());
+        }
+      });
+    }
+  } // end of CreateMultipartUploadTask
+
+  private static final class UploadPartTask extends S3NettyObjectTask {
+    private PartWriter mPartWriter;
+    private MultiChunkEncodingInputStream mChunkEncodingInputStream;
+    private long mAlreadyRead;
+    private long mToRead;
+
+    public UploadPartTask(S3NettyHandler handler, OpType opType) {
+      super(handler, opType);
+    }
+
+    @Override
+    public HttpResponse continueTask() {
+      return NettyRestUtils.call(getObjectTaskResource(), () -> {
+        // UploadPartTask ...
+        final String user = mHandler.getUser();
+        final String bucket = mHandler.getBucket();
+        final String object = mHandler.getObject();
+        Preconditions.checkNotNull(bucket, "required 'bucket' parameter is missing");
+        Preconditions.checkNotNull(object, "required 'object' parameter is missing");
+        final String partNumberParam = mHandler.getQueryParameter("partNumber");
+        int partNumber;
+        try {
+          partNumber = Integer.parseInt(partNumberParam);
+        } catch (NumberFormatException e) {
+          throw new S3Exception(e, getObjectTaskResource(), S3ErrorCode.INVALID_ARGUMENT);
+        }
+        if (partNumber < 1) {
+          throw new S3Exception(getObjectTaskResource(), S3ErrorCode.INVALID_ARGUMENT);
+        }
+
+        try (S3AuditContext auditContext =
+                 mHandler.createAuditContext(mOPType.name(), user, bucket, object)) {
+          S3NettyMultipartUploadManager manager = mHandler.getMultipartUploadManager();
+          MultipartUpload upload;
+          try {
+            upload = manager.get(mHandler.getQueryParameter("uploadId"), bucket, object);
+          } catch (S3Exception e) {
+            auditContext.setSucceeded(false);
+            throw e;
+          }
+          final String decodedLengthHeader = mHandler.getHeader("x-amz-decoded-content-length");
+          final String contentLength = mHandler.getHeader("Content-Length");
+          // The request body can be in the aws-chunked encoding format, or not encoded at all
+          mToRead = Long.parseLong(decodedLengthHeader != null ? decodedLengthHeader
+              : contentLength);
+          mPartWriter = manager.createPartWriter(upload, partNumber);
+          return null;
+        }
+      });
+    }
+
+    @Override
+    public boolean needContent() {
+      return true;
+    }
+
+    @Override
+    public HttpResponse handleContent(HttpContent content) {
+      return NettyRestUtils.call(getObjectTaskResource(), () -> {
+        final String user = mHandler.getUser();
+        final String bucket = mHandler.getBucket();
+        final String object = mHandler.getObject();
+        String objectPath = NettyRestUtils.getFullPath(
+            NettyRestUtils.parsePath(AlluxioURI.SEPARATOR + bucket), object);
+        try (S3AuditContext auditContext =
+                 mHandler.createAuditContext(mOPType.name(), user, bucket, object)) {
+          final String decodedLengthHeader = mHandler.getHeader("x-amz-decoded-content-length");
+          boolean isChunkedEncoding = decodedLengthHeader != null;
+          try {
+            ByteBuf buf = content.content();
+            InputStream readStream = new ByteBufInputStream(buf);
+            if (isChunkedEncoding) {
+              if (mChunkEncodingInputStream == null) {
+                mChunkEncodingInputStream = new MultiChunkEncodingInputStream(buf);
+              } else {
+                mChunkEncodingInputStream.setCurrentContent(buf);
+              }
+              readStream = mChunkEncodingInputStream;
+            }
+            if (buf.readableBytes() > 0) {
+              mAlreadyRead += ByteStreams.copy(
+                  ByteStreams.limit(readStream, buf.readableBytes()), mPartWriter);
+            }
+            if (content instanceof LastHttpContent) {
+              if (mAlreadyRead < mToRead) {
+                throw new IOException(String.format(
+                    "Failed to read all required bytes from the stream. Read %d/%d",
+                    mAlreadyRead, mToRead));
+              }
+              byte[] digest = mPartWriter.finish();
+              final String contentMD5 = mHandler.getHeader("Content-MD5");
+              if (contentMD5 != null
+                  && !contentMD5.equals(BaseEncoding.base64().encode(digest))) {
+                throw new S3Exception(objectPath, S3ErrorCode.BAD_DIGEST);
+              }
+              Part part = mPartWriter.commit();
+              HttpResponse response =
+                  new DefaultHttpResponse(NettyRestUtils.HTTP_VERSION, HttpResponseStatus.OK);
+              response.headers().set(S3Constants.S3_ETAG_HEADER, part.getEntityTag());
+              return response;
+            }
+            return null;
+          } catch (Exception e) {
+            mPartWriter.abort();
+            throw NettyRestUtils.toObjectS3Exception(e, objectPath, auditContext);
+          }
+        }
+      });
+    }
+  } // end of UploadPartTask
+
+  private static final class CompleteMultipartUploadTask extends S3NettyObjectTask {
+    private final ByteArrayOutputStream mRequestBody = new ByteArrayOutputStream();
+    private MultipartUpload mUpload;
+
+    public CompleteMultipartUploadTask(S3NettyHandler handler, OpType opType) {
+      super(handler, opType);
+    }
+
+    @Override
+    public HttpResponse continueTask() {
+      return NettyRestUtils.call(getObjectTaskResource(), () -> {
+        // CompleteMultipartUploadTask ...
+        final String user = mHandler.getUser();
+        final String bucket = mHandler.getBucket();
+        final String object = mHandler.getObject();
+        Preconditions.checkNotNull(bucket, "required 'bucket' parameter is missing");
+        Preconditions.checkNotNull(object, "required 'object' parameter is missing");
+        try (S3AuditContext auditContext =
+                 mHandler.createAuditContext(mOPType.name(), user, bucket, object)) {
+          try {
+            mUpload = mHandler.getMultipartUploadManager()
+                .get(mHandler.getQueryParameter("uploadId"), bucket, object);
+          } catch (S3Exception e) {
+            auditContext.setSucceeded(false);
+            throw e;
+          }
+          return null;
+        }
+      });
+    }
+
+    @Override
+    public boolean needContent() {
+      return true;
+    }
+
+    @Override
+    public HttpResponse handleContent(HttpContent content) {
+      return NettyRestUtils.call(getObjectTaskResource(), () -> {
+        ByteBuf buf = content.content();
+        byte[] bytes = new byte[buf.readableBytes()];
+        buf.readBytes(bytes);
+        mRequestBody.write(bytes, 0, bytes.length);
+        if (!(content instanceof LastHttpContent)) {
+          return null;
+        }
+        final String user = mHandler.getUser();
+        final FileSystem userFs = mHandler.getFileSystemForUser(user);
+        final String bucket = mHandler.getBucket();
+        final String object = mHandler.getObject();
+        String bucketPath = NettyRestUtils.parsePath(AlluxioURI.SEPARATOR + bucket);
+        String objectPath = NettyRestUtils.getFullPath(bucketPath, object);
+        AlluxioURI objectUri = new AlluxioURI(objectPath);
+        S3NettyMultipartUploadManager manager = mHandler.getMultipartUploadManager();
+
+        try (S3AuditContext auditContext =
+                 mHandler.createAuditContext(mOPType.name(), user, bucket, object)) {
+          S3NettyHandler.checkPathIsAlluxioDirectory(userFs, bucketPath, auditContext);
+          // Validate the requested parts before ending the upload, so that the client may
+          // retry with a corrected request
+          CompleteMultipartUploadRequest request =
+              parseCompleteMultipartUploadRequest(objectPath);
+          validateParts(request, mUpload.getParts(), objectPath);
+          Map<Integer, Part> uploadedParts = manager.end(mUpload);
+          try {
+            List<Part> parts = validateParts(request, uploadedParts, objectPath);
+            LOG.debug("CompleteMultipartUploadTask (bucket: {}, object: {}, uploadId: {}) "
+                + "combining {} parts...", bucket, object, mUpload.getUploadId(), parts.size());
+            CreateFilePOptions createFilePOptions = CreateFilePOptions.newBuilder()
+                .setRecursive(true)
+                .setMode(PMode.newBuilder()
+                    .setOwnerBits(Bits.ALL)
+                    .setGroupBits(Bits.ALL)
+                    .setOtherBits(Bits.NONE).build())
+                .setWriteType(S3NettyHandler.S3_WRITE_TYPE)
+                .setOverwrite(true)
+                .setCheckS3BucketPath(true)
+                .build();
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            try (FileOutStream out = userFs.createFile(objectUri, createFilePOptions)) {
+              try (DigestOutputStream digestOut = new DigestOutputStream(out, md5)) {
+                for (Part part : parts) {
+                  manager.transferTo(part, digestOut);
+                }
+              } catch (IOException e) {
+                try {
+                  out.cancel();
+                } catch (Throwable t2) {
+                  e.addSuppressed(t2);
+                }
+                throw e;
+              }
+            }
+            String entityTag = Hex.encodeHexString(md5.digest());
+            // persist the ETag via xAttr
+            S3NettyHandler.setEntityTag(userFs, objectUri, entityTag);
+            return new CompleteMultipartUploadResult(objectPath, bucket, object, entityTag);
+          } catch (Exception e) {
+            throw NettyRestUtils.toObjectS3Exception(e, objectPath, auditContext);
+          } finally {
+            manager.dropParts(mUpload, uploadedParts.values());
+          }
+        }
+      });
+    }
+
+    private CompleteMultipartUploadRequest parseCompleteMultipartUploadRequest(
+        String objectPath) throws S3Exception {
+      try {
+        return new XmlMapper().readerFor(CompleteMultipartUploadRequest.class)
+            .readValue(mRequestBody.toByteArray());
+      } catch (IllegalArgumentException | IOException e) {
+        LOG.debug("Failed parsing CompleteMultipartUploadRequest of {}", objectPath, e);
+        throw new S3Exception(e, objectPath, S3ErrorCode.MALFORMED_XML);
+      }
+    }
+
+    /**
+     * Validates the parts requested to complete the upload against the uploaded parts.
+     *
+     * @param request the request
+     * @param uploadedParts the uploaded parts keyed by the part number
+     * @param objectPath the object path
+     * @return the requested parts in order
+     */
+    private List<Part> validateParts(CompleteMultipartUploadRequest request,
+        Map<Integer, Part> uploadedParts, String objectPath) throws S3Exception {
+      final List<CompleteMultipartUploadRequest.Part> requestParts = request.getParts();
+      if (requestParts == null || requestParts.isEmpty()) {
+        throw new S3Exception(objectPath, S3ErrorCode.MALFORMED_XML);
+      }
+      final long minPartSize =
+          Configuration.getBytes(PropertyKey.PROXY_S3_COMPLETE_MULTIPART_UPLOAD_MIN_PART_SIZE);
+      List<Part> parts = new ArrayList<>(requestParts.size());
+      for (CompleteMultipartUploadRequest.Part requestPart : requestParts) {
+        Part part = uploadedParts.get(requestPart.getPartNumber());
+        if (part == null || (requestPart.getETag() != null
+            && !requestPart.getETag().replace("\"", "").equals(part.getEntityTag()))) {
+          throw new S3Exception(objectPath, S3ErrorCode.INVALID_PART);
+        }
+        if (!parts.isEmpty()) {
+          Part prev = parts.get(parts.size() - 1);
+          if (prev.getPartNumber() >= part.getPartNumber()) {
+            throw new S3Exception(objectPath, S3ErrorCode.INVALID_PART_ORDER);
+          }
+          // every part but the last one must be large enough
+          if (prev.getLength() < minPartSize) {
+            throw new S3Exception(objectPath, S3ErrorCode.ENTITY_TOO_SMALL);
+          }
+        }
+        parts.add(part);
+      }
+      return parts;
+    }
+  } // end of CompleteMultipartUploadTask
+
+  private static final class AbortMultipartUploadTask extends S3NettyObjectTask {
+
+    public AbortMultipartUploadTask(S3NettyHandler handler, OpType opType) {
+      super(handler, opType);
+    }
+
+    @Override
+    public HttpResponse continueTask() {
+      return NettyRestUtils.call(getObjectTaskResource(), () -> {
+        // AbortMultipartUploadTask ...
+        final String user = mHandler.getUser();
+        final String bucket = mHandler.getBucket();
+        final String object = mHandler.getObject();
+        Preconditions.checkNotNull(bucket, "required 'bucket' parameter is missing");
+        Preconditions.checkNotNull(object, "required 'object' parameter is missing");
+        try (S3AuditContext auditContext =
+                 mHandler.createAuditContext(mOPType.name(), user, bucket, object)) {
+          S3NettyMultipartUploadManager manager = mHandler.getMultipartUploadManager();
+          try {
+            MultipartUpload upload =
+                manager.get(mHandler.getQueryParameter("uploadId"), bucket, object);
+            manager.dropParts(upload, manager.end(upload).values());
+          } catch (S3Exception e) {
+            auditContext.setSucceeded(false);
+            throw e;
+          }
+        }
+        // Note: the normal response for S3 AbortMultipartUpload is 204 NO_CONTENT
+        return HttpResponseStatus.NO_CONTENT;
+      });
+    }
+  } // end of AbortMultipartUploadTask
+
   private static final class DeleteObjectTask extends S3NettyObjectTask {
 
     public DeleteObjectTask(S3NettyHandler handler, OpType opType) {
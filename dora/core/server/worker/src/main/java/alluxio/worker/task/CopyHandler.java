@@ -36,6 +36,7 @@ import org.slf4j.LoggerFactory;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Objects;
+import java.util.function.UnaryOperator;
 
 /**
  * CopyHandler is responsible for copying files.
@@ -55,6 +56,20 @@ public final class CopyHandler {
    */
   public static void copy(Route route, WriteOptions writeOptions,
       FileSystem srcFs, FileSystem dstFs) {
+    copy(route, writeOptions, srcFs, dstFs, UnaryOperator.identity());
+  }
+
+  /**
+   * Copies a file from source to destination, reading the source through a throttle.
+   *
+   * @param route        the route
+   * @param writeOptions the write options
+   * @param srcFs        the source file system
+   * @param dstFs        the destination file system
+   * @param throttle     wraps the stream reading the source file
+   */
+  public static void copy(Route route, WriteOptions writeOptions,
+      FileSystem srcFs, FileSystem dstFs, UnaryOperator<InputStream> throttle) {
     AlluxioURI src = new AlluxioURI(route.getSrc());
     AlluxioURI dst = new AlluxioURI(route.getDst());
     URIStatus sourceStatus;
@@ -73,7 +88,7 @@ public final class CopyHandler {
         throw AlluxioRuntimeException.from(e);
       }
     }
-    long copiedLength = copyFile(src, dst, srcFs, dstFs, writeOptions.getWriteType());
+    long copiedLength = copyFile(src, dst, srcFs, dstFs, writeOptions.getWriteType(), throttle);
     if (writeOptions.getCheckContent()) {
       if (!checkLengthAndContentHash(sourceStatus, dst, dstFs, copiedLength)) {
         try {
@@ -89,13 +104,13 @@ public final class CopyHandler {
   }
 
   private static long copyFile(AlluxioURI src, AlluxioURI dst, FileSystem srcFs, FileSystem dstFs,
-      WritePType writeType) {
+      WritePType writeType, UnaryOperator<InputStream> throttle) {
     long copiedLength;
     CreateFilePOptions createOptions =
         CreateFilePOptions.getDefaultInstance().toBuilder().setRecursive(true).setMode(
             PMode.newBuilder().setOwnerBits(Bits.ALL).setGroupBits(Bits.ALL)
                  .setOtherBits(Bits.NONE)).setWriteType(writeType).setIsAtomicWrite(true).build();
-    try (InputStream in = srcFs.openFile(src);
+    try (InputStream in = throttle.apply(srcFs.openFile(src));
         OutputStream out = dstFs.createFile(dst, createOptions)) {
       copiedLength = IOUtils.copyLarge(in, out, new byte[Constants.MB * 8]);
     } catch (Exception e) {
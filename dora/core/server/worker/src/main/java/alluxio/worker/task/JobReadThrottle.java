@@ -0,0 +1,180 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.task;
+
+import alluxio.grpc.UfsReadOptions;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.RateLimiter;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Throttles the UFS reads of the load, copy and move tasks against the rate limits the master
+ * leased to this worker for their jobs. Jobs are told apart by the tag of the read options, and
+ * all the tasks of a job running on the worker share the same limiters, set to the lease sent
+ * with the latest task of the job.
+ */
+@ThreadSafe
+public final class JobReadThrottle {
+  /** Limiters of jobs without any task for this long are dropped. */
+  private static final long IDLE_EXPIRY_MINUTES = 10;
+
+  private final Cache<String, Limiters> mJobLimiters = CacheBuilder.newBuilder()
+      .expireAfterAccess(IDLE_EXPIRY_MINUTES, TimeUnit.MINUTES).build();
+
+  /**
+   * Waits until the job may read from the UFS, blocking the calling thread.
+   *
+   * @param options the read options of the task, carrying the lease of the job
+   * @param bytes the number of bytes to read
+   * @param requests the number of read requests the bytes are read in
+   */
+  public void acquire(UfsReadOptions options, long bytes, int requests) {
+    Limiters limiters = getLimiters(options);
+    if (limiters != null) {
+      limiters.acquireRequests(requests);
+      limiters.acquireBytes(bytes);
+    }
+  }
+
+  /**
+   * Throttles a stream reading from the UFS, as a single read request.
+   *
+   * @param options the read options of the task, carrying the lease of the job
+   * @param in the stream
+   * @return a stream reading no faster than the job is allowed to
+   */
+  public InputStream throttle(UfsReadOptions options, InputStream in) {
+    Limiters limiters = getLimiters(options);
+    if (limiters == null) {
+      return in;
+    }
+    limiters.acquireRequests(1);
+    return new FilterInputStream(in) {
+      @Override
+      public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+          limiters.acquireBytes(1);
+        }
+        return b;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read > 0) {
+          limiters.acquireBytes(read);
+        }
+        return read;
+      }
+    };
+  }
+
+  /**
+   * @param tag the tag of the job
+   * @return the bandwidth limiter of the job, or null if its bandwidth is not limited
+   */
+  @VisibleForTesting
+  @Nullable
+  RateLimiter getBandwidthLimiter(String tag) {
+    Limiters limiters = mJobLimiters.getIfPresent(tag);
+    return limiters == null ? null : limiters.mBytes;
+  }
+
+  /**
+   * @param tag the tag of the job
+   * @return the request rate limiter of the job, or null if its request rate is not limited
+   */
+  @VisibleForTesting
+  @Nullable
+  RateLimiter getRequestRateLimiter(String tag) {
+    Limiters limiters = mJobLimiters.getIfPresent(tag);
+    return limiters == null ? null : limiters.mRequests;
+  }
+
+  @Nullable
+  private Limiters getLimiters(UfsReadOptions options) {
+    if (!options.hasBandwidth() && !options.hasRequestRate()) {
+      mJobLimiters.invalidate(options.getTag());
+      return null;
+    }
+    Limiters limiters;
+    try {
+      limiters = mJobLimiters.get(options.getTag(), Limiters::new);
+    } catch (ExecutionException e) {
+      // the loader does not throw
+      throw new IllegalStateException(e);
+    }
+    limiters.update(options);
+    return limiters;
+  }
+
+  /**
+   * The limiters of a job, a missing limiter means no limit.
+   */
+  private static final class Limiters {
+    @Nullable
+    private volatile RateLimiter mBytes;
+    @Nullable
+    private volatile RateLimiter mRequests;
+
+    private synchronized void update(UfsReadOptions options) {
+      mBytes = updated(mBytes, options.hasBandwidth(), options.getBandwidth());
+      mRequests = updated(mRequests, options.hasRequestRate(), options.getRequestRate());
+    }
+
+    @Nullable
+    private static RateLimiter updated(@Nullable RateLimiter limiter, boolean limited,
+        long rate) {
+      if (!limited || rate <= 0) {
+        return null;
+      }
+      if (limiter == null) {
+        return RateLimiter.create(rate);
+      }
+      if (limiter.getRate() != rate) {
+        limiter.setRate(rate);
+      }
+      return limiter;
+    }
+
+    private void acquireBytes(long bytes) {
+      RateLimiter limiter = mBytes;
+      if (limiter == null) {
+        return;
+      }
+      // a large acquisition goes through at once and makes the next one wait for it
+      while (bytes > 0) {
+        int permits = (int) Math.min(bytes, Integer.MAX_VALUE);
+        limiter.acquire(permits);
+        bytes -= permits;
+      }
+    }
+
+    private void acquireRequests(int requests) {
+      RateLimiter limiter = mRequests;
+      if (limiter != null && requests > 0) {
+        limiter.acquire(requests);
+      }
+    }
+  }
+}
@@ -0,0 +1,402 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.task;
+
+import alluxio.Constants;
+import alluxio.PositionReader;
+import alluxio.grpc.FileByteRange;
+import alluxio.grpc.LoadRangePOptions;
+import alluxio.underfs.UnderFileSystem;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Plans which pages of a file a load job loads when it only loads parts of the files, from the
+ * byte ranges asked for and from the layout of Parquet and ORC files: their footer, and the
+ * chunks of the columns asked for in Parquet files. The layout of a file is read from the tail
+ * of the file and kept for a while, as the virtual blocks of a file are loaded by the worker
+ * one subtask at a time.
+ */
+@ThreadSafe
+public final class LoadRangePlanner {
+  private static final Logger LOG = LoggerFactory.getLogger(LoadRangePlanner.class);
+  private static final int MAX_LAYOUTS = 10_000;
+  private static final long LAYOUT_EXPIRY_MINUTES = 10;
+  /** Files with a larger Parquet footer are loaded in full rather than reading the footer. */
+  private static final int MAX_FOOTER_LENGTH = 16 * Constants.MB;
+  /** The postscript length is a single byte, so the ORC tail to parse fits in this. */
+  private static final int ORC_MAX_TAIL_LENGTH = 256;
+  private static final String ORC_MAGIC = "ORC";
+  private static final int ORC_POSTSCRIPT_FOOTER_LENGTH = 1;
+  private static final int ORC_POSTSCRIPT_METADATA_LENGTH = 5;
+  private static final int ORC_POSTSCRIPT_MAGIC = 8000;
+
+  private final long mPageSize;
+  private final int mMaxFooterLength;
+  private final Cache<String, FileLayout> mLayouts = CacheBuilder.newBuilder()
+      .maximumSize(MAX_LAYOUTS)
+      .expireAfterAccess(LAYOUT_EXPIRY_MINUTES, TimeUnit.MINUTES)
+      .build();
+
+  /**
+   * @param pageSize the size of the pages the ranges are aligned to
+   */
+  public LoadRangePlanner(long pageSize) {
+    this(pageSize, MAX_FOOTER_LENGTH);
+  }
+
+  /**
+   * @param pageSize the size of the pages the ranges are aligned to
+   * @param maxFooterLength the length of the largest Parquet footer to read
+   */
+  @VisibleForTesting
+  LoadRangePlanner(long pageSize, int maxFooterLength) {
+    mPageSize = pageSize;
+    mMaxFooterLength = maxFooterLength;
+  }
+
+  /**
+   * Plans the parts of a virtual block of a file to load.
+   *
+   * @param options the parts of the files to load
+   * @param ufs the ufs of the file
+   * @param ufsPath the path of the file
+   * @param contentHash the content hash of the file, telling apart versions of the file
+   * @param fileLength the length of the file
+   * @param offset the offset of the block in the file
+   * @param length the length of the block
+   * @return the ranges to load within the block, aligned to pages, sorted and disjoint
+   * @throws IOException if failed to read the layout of the file
+   */
+  public List<Range> plan(LoadRangePOptions options, UnderFileSystem ufs, String ufsPath,
+      String contentHash, long fileLength, long offset, long length) throws IOException {
+    List<Range> selected = new ArrayList<>();
+    for (FileByteRange range : options.getByteRangesList()) {
+      long start = range.getOffset() < 0
+          ? Math.max(0, fileLength + range.getOffset()) : range.getOffset();
+      selected.add(new Range(start, Math.min(range.getLength(), fileLength - start)));
+    }
+    if (options.getFooter() || options.getColumnsCount() > 0) {
+      FileLayout layout = getLayout(ufs, ufsPath, contentHash, fileLength);
+      if (layout.mLoadFully) {
+        selected.add(new Range(0, fileLength));
+      }
+      if (options.getFooter() && layout.mFooter != null) {
+        selected.add(layout.mFooter);
+      }
+      Set<String> columns = new HashSet<>(options.getColumnsList());
+      for (ParquetFooter.ColumnChunk chunk : layout.mColumnChunks) {
+        if (isSelected(chunk.getColumn(), columns)) {
+          selected.add(new Range(chunk.getOffset(), chunk.getLength()));
+        }
+      }
+    }
+    return alignAndMerge(selected, fileLength, offset, offset + Math.min(length,
+        fileLength - offset));
+  }
+
+  /**
+   * A column is selected by its own path or the path of any of its parents.
+   */
+  private static boolean isSelected(String column, Set<String> columns) {
+    if (columns.contains(column)) {
+      return true;
+    }
+    for (int dot = column.indexOf('.'); dot > 0; dot = column.indexOf('.', dot + 1)) {
+      if (columns.contains(column.substring(0, dot))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private List<Range> alignAndMerge(List<Range> ranges, long fileLength, long blockStart,
+      long blockEnd) {
+    List<Range> aligned = new ArrayList<>();
+    for (Range range : ranges) {
+      if (range.getLength() <= 0) {
+        continue;
+      }
+      long start = Math.max(blockStart, range.getOffset() / mPageSize * mPageSize);
+      long end = Math.min(Math.min(blockEnd, fileLength),
+          (range.getOffset() + range.getLength() + mPageSize - 1) / mPageSize * mPageSize);
+      if (start < end) {
+        aligned.add(new Range(start, end - start));
+      }
+    }
+    if (aligned.isEmpty()) {
+      return Collections.emptyList();
+    }
+    aligned.sort(Comparator.comparingLong(Range::getOffset));
+    List<Range> merged = new ArrayList<>();
+    Range current = aligned.get(0);
+    for (Range range : aligned.subList(1, aligned.size())) {
+      long currentEnd = current.getOffset() + current.getLength();
+      if (range.getOffset() <= currentEnd) {
+        current = new Range(current.getOffset(),
+            Math.max(currentEnd, range.getOffset() + range.getLength()) - current.getOffset());
+      } else {
+        merged.add(current);
+        current = range;
+      }
+    }
+    merged.add(current);
+    return merged;
+  }
+
+  private FileLayout getLayout(UnderFileSystem ufs, String ufsPath, String contentHash,
+      long fileLength) throws IOException {
+    String key = ufsPath + "@" + fileLength + "@" + contentHash;
+    try {
+      return mLayouts.get(key, () -> readLayout(ufs, ufsPath, fileLength));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  private FileLayout readLayout(UnderFileSystem ufs, String ufsPath, long fileLength)
+      throws IOException {
+    try (PositionReader reader = ufs.openPositionRead(ufsPath, fileLength)) {
+      if (fileLength >= ParquetFooter.MAGIC.length + ParquetFooter.TRAILER_LENGTH) {
+        ByteBuffer trailer = read(reader, fileLength - ParquetFooter.TRAILER_LENGTH,
+            ParquetFooter.TRAILER_LENGTH);
+        byte[] magic = new byte[ParquetFooter.MAGIC.length];
+        trailer.position(Integer.BYTES);
+        trailer.get(magic);
+        if (Arrays.equals(magic, ParquetFooter.MAGIC)) {
+          long footerLength = trailer.order(ByteOrder.LITTLE_ENDIAN).getInt(0) & 0xffffffffL;
+          long footerStart = fileLength - ParquetFooter.TRAILER_LENGTH - footerLength;
+          if (footerStart < ParquetFooter.MAGIC.length) {
+            throw new IOException(String.format(
+                "Invalid Parquet footer length %d of %s", footerLength, ufsPath));
+          }
+          if (footerLength > mMaxFooterLength) {
+            LOG.debug("Parquet footer of {} is {} bytes, loading the whole file", ufsPath,
+                footerLength);
+            return FileLayout.LOAD_FULLY;
+          }
+          ByteBuffer footer = read(reader, footerStart, (int) footerLength);
+          return new FileLayout(new Range(footerStart, fileLength - footerStart),
+              ParquetFooter.parseColumnChunks(footer));
+        }
+      }
+      int tailLength = (int) Math.min(ORC_MAX_TAIL_LENGTH, fileLength);
+      if (tailLength > ORC_MAGIC.length() + 1) {
+        ByteBuffer tail = read(reader, fileLength - tailLength, tailLength);
+        Long tailStart = orcTailStart(tail, fileLength);
+        if (tailStart != null) {
+          return new FileLayout(new Range(tailStart, fileLength - tailStart),
+              Collections.emptyList());
+        }
+      }
+      LOG.debug("{} is neither a Parquet nor an ORC file, no footer to load", ufsPath);
+      return new FileLayout(null, Collections.emptyList());
+    }
+  }
+
+  /**
+   * Finds where the metadata, footer and postscript at the end of an ORC file start, from the
+   * postscript protobuf message at the end of the tail.
+   *
+   * @return the offset of the tail, or null if the file is not an ORC file
+   */
+  @Nullable
+  private static Long orcTailStart(ByteBuffer tail, long fileLength) {
+    int postscriptLength = tail.get(tail.limit() - 1) & 0xff;
+    if (postscriptLength == 0 || postscriptLength + 1 > tail.limit()) {
+      return null;
+    }
+    ByteBuffer postscript = tail.duplicate();
+    postscript.position(tail.limit() - 1 - postscriptLength).limit(tail.limit() - 1);
+    long footerLength = -1;
+    long metadataLength = 0;
+    boolean orc = false;
+    try {
+      while (postscript.hasRemaining()) {
+        long key = readProtoVarint(postscript);
+        int field = (int) (key >>> 3);
+        int wireType = (int) (key & 0x7);
+        if (wireType == 0) {
+          long value = readProtoVarint(postscript);
+          if (field == ORC_POSTSCRIPT_FOOTER_LENGTH) {
+            footerLength = value;
+          } else if (field == ORC_POSTSCRIPT_METADATA_LENGTH) {
+            metadataLength = value;
+          }
+        } else if (wireType == 2) {
+          int length = (int) readProtoVarint(postscript);
+          if (length < 0 || length > postscript.remaining()) {
+            return null;
+          }
+          if (field == ORC_POSTSCRIPT_MAGIC) {
+            byte[] magic = new byte[length];
+            postscript.get(magic);
+            orc = ORC_MAGIC.equals(new String(magic, StandardCharsets.US_ASCII));
+          } else {
+            postscript.position(postscript.position() + length);
+          }
+        } else if (wireType == 1 || wireType == 5) {
+          int length = wireType == 1 ? Long.BYTES : Integer.BYTES;
+          if (length > postscript.remaining()) {
+            return null;
+          }
+          postscript.position(postscript.position() + length);
+        } else {
+          return null;
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+    long tailStart = fileLength - 1 - postscriptLength - footerLength - metadataLength;
+    if (!orc || footerLength < 0 || metadataLength < 0 || tailStart < ORC_MAGIC.length()) {
+      return null;
+    }
+    return tailStart;
+  }
+
+  private static long readProtoVarint(ByteBuffer buffer) {
+    long value = 0;
+    for (int shift = 0; shift < 64 && buffer.hasRemaining(); shift += 7) {
+      byte b = buffer.get();
+      value |= (long) (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed varint");
+  }
+
+  private static ByteBuffer read(PositionReader reader, long position, int length)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      int read = reader.read(position + buffer.position(), buffer, buffer.remaining());
+      if (read <= 0) {
+        throw new IOException(String.format(
+            "Unexpected end of file reading %d bytes at %d", length, position));
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * A byte range of a file.
+   */
+  @Immutable
+  public static final class Range {
+    private final long mOffset;
+    private final long mLength;
+
+    /**
+     * @param offset the offset of the range in the file
+     * @param length the length of the range
+     */
+    public Range(long offset, long length) {
+      mOffset = offset;
+      mLength = length;
+    }
+
+    /**
+     * @return the offset of the range in the file
+     */
+    public long getOffset() {
+      return mOffset;
+    }
+
+    /**
+     * @return the length of the range
+     */
+    public long getLength() {
+      return mLength;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Range that = (Range) o;
+      return mOffset == that.mOffset && mLength == that.mLength;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(mOffset, mLength);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("offset", mOffset)
+          .add("length", mLength)
+          .toString();
+    }
+  }
+
+  /**
+   * Where the footer and the column chunks of a file are, if it has any.
+   */
+  private static final class FileLayout {
+    /** The layout of a file whose footer is too large to read, and which is loaded in full. */
+    private static final FileLayout LOAD_FULLY = new FileLayout(null, Collections.emptyList(),
+        true);
+
+    @Nullable
+    private final Range mFooter;
+    private final List<ParquetFooter.ColumnChunk> mColumnChunks;
+    private final boolean mLoadFully;
+
+    private FileLayout(@Nullable Range footer,
+        List<ParquetFooter.ColumnChunk> columnChunks) {
+      this(footer, columnChunks, false);
+    }
+
+    private FileLayout(@Nullable Range footer,
+        List<ParquetFooter.ColumnChunk> columnChunks, boolean loadFully) {
+      mFooter = footer;
+      mColumnChunks = columnChunks;
+      mLoadFully = loadFully;
+    }
+  }
+}
@@ -0,0 +1,301 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.task;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Locates the column chunks of a Parquet file from its footer, the FileMetaData structure
+ * encoded with the Thrift compact protocol. Only the fields locating the column chunks are
+ * decoded, every other field is skipped.
+ */
+final class ParquetFooter {
+  /** The magic bytes a Parquet file ends with. */
+  static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+  /** The length of the footer length and the magic bytes ending the file. */
+  static final int TRAILER_LENGTH = 8;
+
+  // Thrift compact protocol types
+  private static final int TYPE_STOP = 0;
+  private static final int TYPE_BOOLEAN_TRUE = 1;
+  private static final int TYPE_BOOLEAN_FALSE = 2;
+  private static final int TYPE_BYTE = 3;
+  private static final int TYPE_I16 = 4;
+  private static final int TYPE_I32 = 5;
+  private static final int TYPE_I64 = 6;
+  private static final int TYPE_DOUBLE = 7;
+  private static final int TYPE_BINARY = 8;
+  private static final int TYPE_LIST = 9;
+  private static final int TYPE_SET = 10;
+  private static final int TYPE_MAP = 11;
+  private static final int TYPE_STRUCT = 12;
+
+  // field ids of the Parquet format
+  private static final int FILE_META_DATA_ROW_GROUPS = 4;
+  private static final int ROW_GROUP_COLUMNS = 1;
+  private static final int COLUMN_CHUNK_META_DATA = 3;
+  private static final int COLUMN_META_DATA_PATH_IN_SCHEMA = 3;
+  private static final int COLUMN_META_DATA_TOTAL_COMPRESSED_SIZE = 7;
+  private static final int COLUMN_META_DATA_DATA_PAGE_OFFSET = 9;
+  private static final int COLUMN_META_DATA_DICTIONARY_PAGE_OFFSET = 11;
+
+  /**
+   * A column chunk of a row group.
+   */
+  static final class ColumnChunk {
+    private final String mColumn;
+    private final long mOffset;
+    private final long mLength;
+
+    ColumnChunk(String column, long offset, long length) {
+      mColumn = column;
+      mOffset = offset;
+      mLength = length;
+    }
+
+    /**
+     * @return the path of the column in the schema, dot separated
+     */
+    String getColumn() {
+      return mColumn;
+    }
+
+    /**
+     * @return the offset of the chunk in the file
+     */
+    long getOffset() {
+      return mOffset;
+    }
+
+    /**
+     * @return the length of the chunk
+     */
+    long getLength() {
+      return mLength;
+    }
+  }
+
+  private final ByteBuffer mBuffer;
+
+  private ParquetFooter(ByteBuffer footer) {
+    mBuffer = footer;
+  }
+
+  /**
+   * Locates the column chunks of all the row groups of a Parquet file.
+   *
+   * @param footer the footer of the file, without the trailer
+   * @return the column chunks
+   * @throws IOException if the footer is malformed
+   */
+  static List<ColumnChunk> parseColumnChunks(ByteBuffer footer) throws IOException {
+    List<ColumnChunk> chunks = new ArrayList<>();
+    ParquetFooter reader = new ParquetFooter(footer.duplicate());
+    try {
+      reader.readStruct((id, type) -> {
+        if (id != FILE_META_DATA_ROW_GROUPS || type != TYPE_LIST) {
+          return false;
+        }
+        reader.readList(TYPE_STRUCT, () -> reader.readStruct((rowGroupId, rowGroupType) -> {
+          if (rowGroupId != ROW_GROUP_COLUMNS || rowGroupType != TYPE_LIST) {
+            return false;
+          }
+          reader.readList(TYPE_STRUCT, () -> reader.readColumnChunk(chunks));
+          return true;
+        }));
+        return true;
+      });
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      throw new IOException("Malformed Parquet footer", e);
+    }
+    return chunks;
+  }
+
+  private void readColumnChunk(List<ColumnChunk> chunks) throws IOException {
+    readStruct((id, type) -> {
+      if (id != COLUMN_CHUNK_META_DATA || type != TYPE_STRUCT) {
+        return false;
+      }
+      List<String> path = new ArrayList<>();
+      long[] values = {0, -1, -1};
+      readStruct((fieldId, fieldType) -> {
+        if (fieldId == COLUMN_META_DATA_PATH_IN_SCHEMA && fieldType == TYPE_LIST) {
+          readList(TYPE_BINARY, () -> path.add(readString()));
+        } else if (fieldId == COLUMN_META_DATA_TOTAL_COMPRESSED_SIZE && fieldType == TYPE_I64) {
+          values[0] = readVarLong();
+        } else if (fieldId == COLUMN_META_DATA_DATA_PAGE_OFFSET && fieldType == TYPE_I64) {
+          values[1] = readVarLong();
+        } else if (fieldId == COLUMN_META_DATA_DICTIONARY_PAGE_OFFSET && fieldType == TYPE_I64) {
+          values[2] = readVarLong();
+        } else {
+          return false;
+        }
+        return true;
+      });
+      long dataPageOffset = values[1];
+      long dictionaryPageOffset = values[2];
+      // the dictionary page comes first in the chunk if there is one
+      long offset = dictionaryPageOffset > 0 && dictionaryPageOffset < dataPageOffset
+          ? dictionaryPageOffset : dataPageOffset;
+      if (offset < 0 || values[0] <= 0 || path.isEmpty()) {
+        throw new IOException("Column chunk without location in Parquet footer");
+      }
+      chunks.add(new ColumnChunk(String.join(".", path), offset, values[0]));
+      return true;
+    });
+  }
+
+  /**
+   * Reads a field of a struct, returns false to skip it.
+   */
+  @FunctionalInterface
+  private interface FieldReader {
+    boolean read(int id, int type) throws IOException;
+  }
+
+  /**
+   * Reads an element of a list.
+   */
+  @FunctionalInterface
+  private interface ElementReader {
+    void read() throws IOException;
+  }
+
+  private void readStruct(FieldReader reader) throws IOException {
+    int lastId = 0;
+    while (true) {
+      int header = mBuffer.get() & 0xff;
+      int type = header & 0x0f;
+      if (type == TYPE_STOP) {
+        return;
+      }
+      int delta = header >>> 4;
+      int id = delta == 0 ? (int) readVarLong() : lastId + delta;
+      lastId = id;
+      if (!reader.read(id, type)) {
+        skipField(type);
+      }
+    }
+  }
+
+  private void readList(int expectedType, ElementReader reader) throws IOException {
+    int header = mBuffer.get() & 0xff;
+    int size = header >>> 4;
+    if (size == 15) {
+      size = (int) readVarUnsigned();
+    }
+    int type = header & 0x0f;
+    if (size > 0 && type != expectedType) {
+      throw new IOException(
+          String.format("Unexpected list element type %d in Parquet footer", type));
+    }
+    for (int i = 0; i < size; i++) {
+      reader.read();
+    }
+  }
+
+  private void skipField(int type) throws IOException {
+    if (type == TYPE_BOOLEAN_TRUE || type == TYPE_BOOLEAN_FALSE) {
+      // the value of a boolean field is in its type
+      return;
+    }
+    skipValue(type);
+  }
+
+  private void skipValue(int type) throws IOException {
+    switch (type) {
+      case TYPE_BOOLEAN_TRUE:
+      case TYPE_BOOLEAN_FALSE:
+      case TYPE_BYTE:
+        mBuffer.get();
+        break;
+      case TYPE_I16:
+      case TYPE_I32:
+      case TYPE_I64:
+        readVarUnsigned();
+        break;
+      case TYPE_DOUBLE:
+        skipBytes(Double.BYTES);
+        break;
+      case TYPE_BINARY:
+        skipBytes(readVarUnsigned());
+        break;
+      case TYPE_LIST:
+      case TYPE_SET: {
+        int header = mBuffer.get() & 0xff;
+        long size = header >>> 4;
+        if (size == 15) {
+          size = readVarUnsigned();
+        }
+        for (long i = 0; i < size; i++) {
+          skipValue(header & 0x0f);
+        }
+        break;
+      }
+      case TYPE_MAP: {
+        long size = readVarUnsigned();
+        if (size > 0) {
+          int types = mBuffer.get() & 0xff;
+          for (long i = 0; i < size; i++) {
+            skipValue(types >>> 4);
+            skipValue(types & 0x0f);
+          }
+        }
+        break;
+      }
+      case TYPE_STRUCT:
+        readStruct((id, fieldType) -> false);
+        break;
+      default:
+        throw new IOException(String.format("Unknown type %d in Parquet footer", type));
+    }
+  }
+
+  private String readString() {
+    long length = readVarUnsigned();
+    if (length < 0 || length > mBuffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    byte[] bytes = new byte[(int) length];
+    mBuffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private void skipBytes(long length) {
+    if (length < 0 || length > mBuffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    mBuffer.position(mBuffer.position() + (int) length);
+  }
+
+  private long readVarLong() {
+    long zigzag = readVarUnsigned();
+    return (zigzag >>> 1) ^ -(zigzag & 1);
+  }
+
+  private long readVarUnsigned() {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = mBuffer.get();
+      value |= (long) (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Variable length integer too long");
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.dora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import alluxio.underfs.UfsDirectoryStatus;
+import alluxio.underfs.UfsFileStatus;
+import alluxio.underfs.UfsStatus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tests for the {@link DoraListingCache} class.
+ */
+public final class DoraListingCacheTest {
+  private static final long NO_TTL = 0;
+
+  @Test
+  public void recursiveListingPopulatesSubDirectories() {
+    DoraListingCache cache = new DoraListingCache(100, NO_TTL);
+    cache.putRecursive("/root", new UfsStatus[] {
+        dir("a"), file("a/f1"), dir("a/b"), file("a/b/f2"), file("f3")});
+    assertEquals(names("a", "f3"), names(cache.get("/root", false)));
+    assertEquals(names("b", "f1"), names(cache.get("/root/a", false)));
+    assertEquals(names("f2"), names(cache.get("/root/a/b", false)));
+    assertEquals(names("a", "a/b", "a/b/f2", "a/f1", "f3"), names(cache.get("/root", true)));
+    assertEquals(names("b", "b/f2", "f1"), names(cache.get("/root/a", true)));
+  }
+
+  @Test
+  public void recursiveListingWithImplicitDirectoryIsNotCached() {
+    DoraListingCache cache = new DoraListingCache(100, NO_TTL);
+    cache.putRecursive("/root", new UfsStatus[] {file("a/f1")});
+    assertFalse(cache.get("/root", true).isPresent());
+    assertEquals(0, cache.getNumEntries());
+  }
+
+  @Test
+  public void recursiveGetRequiresAllSubDirectories() {
+    DoraListingCache cache = new DoraListingCache(100, NO_TTL);
+    cache.put("/root", new UfsStatus[] {dir("a"), file("f")}, false);
+    assertTrue(cache.get("/root", false).isPresent());
+    assertFalse(cache.get("/root", true).isPresent());
+    cache.put("/root/a", new UfsStatus[0], false);
+    assertEquals(names("a", "f"), names(cache.get("/root", true)));
+  }
+
+  @Test
+  public void addOrUpdatePatchesParent() {
+    DoraListingCache cache = new DoraListingCache(100, NO_TTL);
+    cache.put("/root", new UfsStatus[] {file("f")}, false);
+    cache.put("/root/g", null, false);
+    cache.addOrUpdate("/root/g", file("/root/g"));
+    assertEquals(names("f", "g"), names(cache.get("/root", false)));
+    // the absent marker of the created path is dropped
+    assertFalse(cache.get("/root/g", false).isPresent());
+    UfsStatus updated = file("f");
+    cache.addOrUpdate("/root/f", updated);
+    assertEquals(2, cache.get("/root", false).get().size());
+  }
+
+  @Test
+  public void removeDropsEntryAndDescendants() {
+    DoraListingCache cache = new DoraListingCache(100, NO_TTL);
+    cache.putRecursive("/root", new UfsStatus[] {dir("a"), dir("a/b"), file("a/b/f"), dir("ab")});
+    cache.remove("/root/a");
+    // the listing of the parent is dropped, as the delete from the ufs may still fail
+    assertFalse(cache.get("/root", false).isPresent());
+    assertFalse(cache.get("/root/a", false).isPresent());
+    assertFalse(cache.get("/root/a/b", false).isPresent());
+    // a sibling sharing the name prefix is kept
+    assertTrue(cache.get("/root/ab", false).isPresent());
+    assertEquals(1, cache.getNumEntries());
+  }
+
+  @Test
+  public void deletePatchesParent() {
+    DoraListingCache cache = new DoraListingCache(100, NO_TTL);
+    cache.putRecursive("/root", new UfsStatus[] {dir("a"), dir("a/b"), file("a/b/f"), dir("ab")});
+    cache.delete("/root/a");
+    assertEquals(names("ab"), names(cache.get("/root", false)));
+    assertFalse(cache.get("/root/a", false).isPresent());
+    assertFalse(cache.get("/root/a/b", false).isPresent());
+    assertTrue(cache.get("/root/ab", false).isPresent());
+    assertEquals(3, cache.getNumEntries());
+  }
+
+  @Test
+  public void deleteLastEntryDropsParent() {
+    DoraListingCache cache = new DoraListingCache(100, NO_TTL);
+    cache.putRecursive("/root", new UfsStatus[] {dir("a"), file("a/f"), file("g")});
+    cache.delete("/root/a/f");
+    // the directory may only have been implied by the key of the object deleted
+    assertFalse(cache.get("/root/a", false).isPresent());
+    assertFalse(cache.get("/root", false).isPresent());
+  }
+
+  @Test
+  public void getServesListingWithoutCopy() {
+    DoraListingCache cache = new DoraListingCache(100, NO_TTL);
+    UfsStatus[] statuses = new UfsStatus[] {file("f")};
+    cache.put("/root", statuses, false);
+    assertSame(statuses, cache.get("/root", false).get().getUfsStatuses());
+    assertSame(statuses, cache.get("/root", false).get().getUfsStatuses());
+
+    cache.addOrUpdate("/root/g", file("/root/g"));
+    UfsStatus[] patched = cache.get("/root", false).get().getUfsStatuses();
+    assertEquals(names("f", "g"), names(cache.get("/root", false)));
+    assertSame(patched, cache.get("/root", false).get().getUfsStatuses());
+    // the listing served before the change is left as it was
+    assertEquals(1, statuses.length);
+  }
+
+  @Test
+  public void pagesAreAppended() {
+    DoraListingCache cache = new DoraListingCache(100, NO_TTL);
+    long timestamp = System.nanoTime();
+    assertTrue(cache.putPage("/root", new UfsStatus[] {file("f1")}, true, "t1", false,
+        timestamp));
+    ListStatusResult partial = cache.get("/root", false).get();
+    assertFalse(partial.isComplete());
+    assertEquals("t1", partial.getContinuationToken());
+    // a partial listing cannot serve a recursive listing
+    assertFalse(cache.get("/root", true).isPresent());
+    assertTrue(cache.putPage("/root", new UfsStatus[] {file("f2")}, false, null, false,
+        timestamp));
+    ListStatusResult complete = cache.get("/root", false).get();
+    assertTrue(complete.isComplete());
+    assertEquals(names("f1", "f2"), names(Optional.of(complete)));
+    // a complete listing does not accept more pages
+    assertFalse(cache.putPage("/root", new UfsStatus[] {file("f3")}, false, null, false,
+        timestamp));
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedListing() {
+    DoraListingCache cache = new DoraListingCache(5, NO_TTL);
+    cache.put("/a", new UfsStatus[] {file("f1")}, false);
+    cache.put("/b", new UfsStatus[] {file("f2")}, false);
+    cache.get("/a", false);
+    cache.put("/c", new UfsStatus[] {file("f3")}, false);
+    assertTrue(cache.get("/a", false).isPresent());
+    assertFalse(cache.get("/b", false).isPresent());
+    assertTrue(cache.get("/c", false).isPresent());
+    assertEquals(4, cache.getNumEntries());
+  }
+
+  @Test
+  public void expiresListing() throws Exception {
+    DoraListingCache cache = new DoraListingCache(100, 1);
+    cache.put("/a", null, false);
+    Thread.sleep(1);
+    assertFalse(cache.get("/a", false).isPresent());
+    assertEquals(0, cache.getNumEntries());
+  }
+
+  @Test
+  public void absentMarker() {
+    DoraListingCache cache = new DoraListingCache(100, NO_TTL);
+    cache.put("/a", null, false);
+    assertNull(cache.get("/a", false).get().getUfsStatuses());
+    assertNull(cache.get("/a", true).get().getUfsStatuses());
+  }
+
+  private static UfsStatus file(String name) {
+    return new UfsFileStatus(name, "", 0, 0L, "", "", (short) 0644);
+  }
+
+  private static UfsStatus dir(String name) {
+    return new UfsDirectoryStatus(name, "", "", (short) 0755);
+  }
+
+  private static List<String> names(String... names) {
+    List<String> list = new ArrayList<>();
+    for (String name : names) {
+      list.add(name);
+    }
+    return list;
+  }
+
+  private static List<String> names(Optional<ListStatusResult> result) {
+    List<String> list = new ArrayList<>();
+    for (UfsStatus status : result.get().getUfsStatuses()) {
+      list.add(status.getName());
+    }
+    return list;
+  }
+}
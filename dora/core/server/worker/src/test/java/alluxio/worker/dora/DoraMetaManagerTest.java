@@ -13,18 +13,29 @@ package alluxio.worker.dora;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import alluxio.AlluxioURI;
 import alluxio.client.file.cache.CacheManager;
 import alluxio.conf.AlluxioConfiguration;
 import alluxio.conf.AlluxioProperties;
 import alluxio.conf.InstancedConfiguration;
 import alluxio.conf.PropertyKey;
+import alluxio.file.options.DescendantType;
+import alluxio.underfs.UfsFileStatus;
+import alluxio.underfs.UfsLoadResult;
 import alluxio.underfs.UfsStatus;
 import alluxio.underfs.UnderFileSystem;
 
@@ -37,7 +48,13 @@ import org.junit.rules.TemporaryFolder;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class DoraMetaManagerTest {
   private DoraMetaManager mManager;
@@ -135,4 +152,96 @@ public class DoraMetaManagerTest {
     Optional<UfsStatus[]> status = mManager.listFromUfsThenCache("/test", false);
     assertEquals(status, Optional.empty());
   }
+
+  @Test
+  public void getRelativeName() {
+    assertEquals("a", DoraMetaManager.getRelativeName("dir", "dir/a"));
+    assertEquals("sub/a", DoraMetaManager.getRelativeName("dir", "/dir/sub/a"));
+    assertEquals("sub", DoraMetaManager.getRelativeName("dir", "dir/sub/"));
+    assertEquals("", DoraMetaManager.getRelativeName("dir", "dir/"));
+    assertEquals("a", DoraMetaManager.getRelativeName("tmp/dir", "file:///tmp/dir/a"));
+    assertEquals("dir/a", DoraMetaManager.getRelativeName("", "dir/a"));
+    assertEquals("dir2/a", DoraMetaManager.getRelativeName("dir", "dir2/a"));
+  }
+
+  @Test
+  public void listFromUfsStartAfter() throws IOException {
+    UnderFileSystem system = mock(UnderFileSystem.class);
+    doAnswer(invocation -> {
+      String token = invocation.getArgument(1);
+      Consumer<UfsLoadResult> onComplete = invocation.getArgument(5);
+      if (token == null) {
+        // a UFS which does not list from the start-after name
+        onComplete.accept(new UfsLoadResult(Stream.of(file("/dir/a"), file("/dir/b")), 2,
+            "next", new AlluxioURI("/dir/b"), true, false, false));
+      } else {
+        onComplete.accept(new UfsLoadResult(Stream.of(file("/dir/c"), file("/dir/d")), 2,
+            null, new AlluxioURI("/dir/d"), false, false, false));
+      }
+      return null;
+    }).when(system).performListingAsync(anyString(), any(), any(), any(), anyBoolean(), any(),
+        any());
+    doReturn(system).when(mDoraUfsManager).getOrAdd(any(), any());
+
+    List<String> names = new ArrayList<>();
+    mManager.listFromUfsStartAfter("/dir", true, "a", status -> names.add(status.getName()));
+    assertEquals(Arrays.asList("b", "c", "d"), names);
+    verify(system).performListingAsync(eq("/dir"), eq(null), eq("a"), eq(DescendantType.ALL),
+        eq(false), any(), any());
+
+    names.clear();
+    mManager.listFromUfsStartAfter("/dir", false, null,
+        status -> names.add(status.getName()) && names.size() < 2);
+    assertEquals(Arrays.asList("a", "b"), names);
+    // the listing stops without fetching the next chunk
+    verify(system, times(2)).performListingAsync(anyString(), eq(null), any(), any(),
+        anyBoolean(), any(), any());
+    verify(system, times(1)).performListingAsync(anyString(), eq("next"), any(), any(),
+        anyBoolean(), any(), any());
+  }
+
+  @Test
+  public void listFromUfsPagedResumesPartialResult() throws IOException {
+    UnderFileSystem system = mock(UnderFileSystem.class);
+    // a UFS serving the listing in three pages, each fetched with the token of the previous one
+    doAnswer(invocation -> {
+      String token = invocation.getArgument(1);
+      Consumer<UfsLoadResult> onComplete = invocation.getArgument(5);
+      if (token == null) {
+        onComplete.accept(new UfsLoadResult(Stream.of(file("/dir/a"), file("/dir/b")), 2,
+            "t1", new AlluxioURI("/dir/b"), true, false, false));
+      } else if (token.equals("t1")) {
+        onComplete.accept(new UfsLoadResult(Stream.of(file("/dir/c"), file("/dir/d")), 2,
+            "t2", new AlluxioURI("/dir/d"), true, false, false));
+      } else if (token.equals("t2")) {
+        onComplete.accept(new UfsLoadResult(Stream.of(file("/dir/e")), 1,
+            null, new AlluxioURI("/dir/e"), false, false, false));
+      } else {
+        invocation.<Consumer<Throwable>>getArgument(6)
+            .accept(new IOException("Unknown token " + token));
+      }
+      return null;
+    }).when(system).performListingAsync(anyString(), any(), any(), any(), anyBoolean(), any(),
+        any());
+    doReturn(system).when(mDoraUfsManager).getOrAdd(any(), any());
+
+    // the listing was interrupted after the first page
+    ListStatusResult partial = new ListStatusResult(System.nanoTime(),
+        Collections.singletonList(new UfsStatus[] {file("a"), file("b")}), "t1", false);
+    List<String> names = new ArrayList<>();
+    assertTrue(mManager.listFromUfsPaged("/dir", false, partial,
+        page -> Arrays.stream(page).forEach(status -> names.add(status.getName()))));
+    assertEquals(Arrays.asList("a", "b", "c", "d", "e"), names);
+    // the listing resumes from the token, without listing the first page again
+    verify(system, never()).performListingAsync(anyString(), eq(null), any(), any(),
+        anyBoolean(), any(), any());
+    verify(system).performListingAsync(eq("/dir"), eq("t1"), any(), any(), anyBoolean(), any(),
+        any());
+    verify(system).performListingAsync(eq("/dir"), eq("t2"), any(), any(), anyBoolean(), any(),
+        any());
+  }
+
+  private static UfsStatus file(String name) {
+    return new UfsFileStatus(name, "", 0, 0L, "", "", (short) 0644);
+  }
 }
@@ -0,0 +1,148 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.dora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import alluxio.clock.ManualClock;
+import alluxio.metrics.MetricKey;
+import alluxio.metrics.MetricsSystem;
+import alluxio.underfs.UfsFileStatus;
+import alluxio.underfs.UfsStatus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
+
+/**
+ * Tests for the {@link DoraPrefetchService} class.
+ */
+public final class DoraPrefetchServiceTest {
+  private static final String DIR = "s3://bucket/data";
+  private static final long FILE_BYTES = 100;
+  private static final long EXPIRATION_MS = 60_000;
+
+  private final ManualClock mClock = new ManualClock();
+  private final List<String> mLoaded = new ArrayList<>();
+
+  @Test
+  public void prefetchInOrderReadBefore() {
+    DoraPrefetchService service = service(1000, path -> null);
+    read(service, "shard-3", "shard-1", "shard-4", "shard-2");
+    assertTrue(mLoaded.isEmpty());
+    // the next epoch reads the shards in the same order
+    read(service, "shard-3");
+    assertEquals(paths("shard-1", "shard-4"), mLoaded);
+    read(service, "shard-1");
+    assertEquals(paths("shard-1", "shard-4", "shard-2"), mLoaded);
+  }
+
+  @Test
+  public void prefetchInListingOrder() {
+    DoraPrefetchService service = service(1000, path -> new UfsStatus[] {
+        file("f5"), file("f1"), file("f3"), file("f2"), file("f4")});
+    read(service, "f1");
+    assertTrue(mLoaded.isEmpty());
+    read(service, "f2");
+    assertEquals(paths("f3", "f4"), mLoaded);
+    read(service, "f3", "f4");
+    assertEquals(paths("f3", "f4", "f5"), mLoaded);
+    // the next pass follows the order the files were read in before
+    read(service, "f1");
+    assertEquals(paths("f3", "f4", "f5", "f2", "f3"), mLoaded);
+  }
+
+  @Test
+  public void usedAndWastedWithinBudget() {
+    long used = count(MetricKey.WORKER_PREFETCH_USED_FILES);
+    long wasted = count(MetricKey.WORKER_PREFETCH_WASTED_FILES);
+    long skipped = count(MetricKey.WORKER_PREFETCH_SKIPPED_FILES);
+    DoraPrefetchService service = service(150, path -> new UfsStatus[] {
+        file("f1"), file("f2"), file("f3"), file("f4"), file("f5")});
+    read(service, "f1", "f2");
+    // only one file fits in the budget
+    assertEquals(paths("f3"), mLoaded);
+    assertEquals(FILE_BYTES, service.getOutstandingBytes());
+    assertEquals(skipped + 1, count(MetricKey.WORKER_PREFETCH_SKIPPED_FILES));
+    read(service, "f3");
+    assertEquals(used + 1, count(MetricKey.WORKER_PREFETCH_USED_FILES));
+    assertEquals(paths("f3", "f4"), mLoaded);
+    mClock.addTimeMs(EXPIRATION_MS);
+    read(service, "f5");
+    assertEquals(wasted + 1, count(MetricKey.WORKER_PREFETCH_WASTED_FILES));
+    assertEquals(0, service.getOutstandingBytes());
+  }
+
+  @Test
+  public void skipCachedAndBusy() {
+    DoraPrefetchService service = new DoraPrefetchService(2, FILE_BYTES, 1000, EXPIRATION_MS,
+        (path, length) -> {
+          if (path.endsWith("f3")) {
+            // cached already
+            return 0;
+          }
+          throw new RejectedExecutionException();
+        },
+        path -> new UfsStatus[] {file("f1"), file("f2"), file("f3"), file("f4")},
+        path -> true, Runnable::run, mClock);
+    read(service, "f1", "f2");
+    assertEquals(0, service.getOutstandingBytes());
+  }
+
+  @Test
+  public void skipFilesReadFromOtherWorkers() {
+    DoraPrefetchService service = service(1000, path -> new UfsStatus[] {
+        file("f1"), file("f2"), file("f3"), file("f4"), file("f5")},
+        path -> !path.endsWith("f3"));
+    read(service, "f1", "f2");
+    assertEquals(paths("f4"), mLoaded);
+    assertEquals(FILE_BYTES, service.getOutstandingBytes());
+  }
+
+  private DoraPrefetchService service(long budget, DoraPrefetchService.Lister lister) {
+    return service(budget, lister, path -> true);
+  }
+
+  private DoraPrefetchService service(long budget, DoraPrefetchService.Lister lister,
+      Predicate<String> owned) {
+    return new DoraPrefetchService(2, FILE_BYTES, budget, EXPIRATION_MS,
+        (path, length) -> {
+          mLoaded.add(path);
+          return length;
+        }, lister, owned, Runnable::run, mClock);
+  }
+
+  private static void read(DoraPrefetchService service, String... names) {
+    for (String name : names) {
+      service.recordAccess(DIR + "/" + name);
+    }
+  }
+
+  private static List<String> paths(String... names) {
+    List<String> paths = new ArrayList<>();
+    Arrays.stream(names).forEach(name -> paths.add(DIR + "/" + name));
+    return paths;
+  }
+
+  private static long count(MetricKey key) {
+    return MetricsSystem.counter(key.getName()).getCount();
+  }
+
+  private static UfsStatus file(String name) {
+    return new UfsFileStatus(name, "", 0, 0L, "", "", (short) 0644);
+  }
+}
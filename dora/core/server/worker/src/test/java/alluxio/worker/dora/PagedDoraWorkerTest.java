@@ -29,6 +29,7 @@ import alluxio.conf.Configuration;
 import alluxio.conf.PropertyKey;
 import alluxio.exception.AccessControlException;
 import alluxio.file.ReadTargetBuffer;
+import alluxio.grpc.CachedBlock;
 import alluxio.grpc.CompleteFilePOptions;
 import alluxio.grpc.CreateDirectoryPOptions;
 import alluxio.grpc.CreateFilePOptions;
@@ -73,6 +74,7 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -176,6 +178,39 @@ public class PagedDoraWorkerTest {
     assertFalse(mWorker.getMetaManager().getFromMetaStore(ufsPath).isPresent());
   }
 
+  @Test
+  public void testLoadReportsCachedBlocksOnlyWhenAsked() throws Exception {
+    long length = mPageSize * 4;
+    String ufsPath = mTestFolder.newFile("test").getAbsolutePath();
+    BufferUtils.writeBufferToFile(ufsPath, BufferUtils.getIncreasingByteArray((int) length));
+    UfsStatus ufsStatus = mWorker.getUfsInstance(ufsPath).getStatus(ufsPath);
+    ufsStatus.setUfsFullPath(new AlluxioURI(ufsPath));
+    // a block not starting on a page boundary, spanning three pages
+    long offset = mPageSize / 2;
+    LoadDataSubTask block = LoadDataSubTask.newBuilder().setOffsetInFile(offset)
+        .setLength(mPageSize * 2).setUfsPath(ufsPath).setUfsStatus(ufsStatus.toProto()).build();
+    List<LoadSubTask> subTasks =
+        Collections.singletonList(LoadSubTask.newBuilder().setLoadDataSubtask(block).build());
+    UfsReadOptions options =
+        UfsReadOptions.newBuilder().setUser("test").setTag("1").setPositionShort(false).build();
+    LoadFileResponse response =
+        mWorker.load(subTasks, false, options, null, false).get(30, TimeUnit.SECONDS);
+    assertEquals(0, response.getFailuresCount());
+    assertEquals(0, response.getCachedBlocksCount());
+
+    response = mWorker.load(subTasks, true, options, null, true).get(30, TimeUnit.SECONDS);
+    assertEquals(1, response.getCachedBlocksCount());
+    CachedBlock cached = response.getCachedBlocks(0);
+    assertEquals(ufsPath, cached.getUfsPath());
+    assertEquals(offset, cached.getOffsetInFile());
+    assertEquals(mPageSize * 2, cached.getLength());
+    assertTrue(cached.getComplete());
+    assertEquals(mPageSize * 2, cached.getBytesCached());
+    BitSet pages = BitSet.valueOf(cached.getPageBitmap().asReadOnlyByteBuffer());
+    assertEquals(3, pages.cardinality());
+    assertEquals(3, pages.length());
+  }
+
   @Test
   public void testLoadMetaDataOnly() throws Exception {
     int numPages = 10;
@@ -858,6 +893,64 @@ public class PagedDoraWorkerTest {
     assertEquals(2, listResult.length);
   }
 
+  @Test
+  public void testPagedListing() throws Exception {
+    File rootFolder = mTestFolder.newFolder("root");
+    String rootPath = rootFolder.getAbsolutePath();
+    mTestFolder.newFolder("root/d1");
+    mTestFolder.newFolder("root/d1/d1");
+    File f = mTestFolder.newFile("root/f");
+    ListStatusPOptions nonRecursive = ListStatusPOptions.newBuilder().setRecursive(false).build();
+    ListStatusPOptions recursive = ListStatusPOptions.newBuilder().setRecursive(true).build();
+
+    List<UfsStatus> listed = new ArrayList<>();
+    assertTrue(mWorker.listStatus(rootPath, nonRecursive,
+        page -> listed.addAll(Arrays.asList(page))));
+    List<String> names = new ArrayList<>();
+    listed.forEach(status -> names.add(status.getName()));
+    Collections.sort(names);
+    assertEquals(Arrays.asList("d1", "f"), names);
+    assertTrue(mWorker.getMetaManager().listCached(rootPath, false).get().isComplete());
+    assertEquals(2, mWorker.getMetaManager().listCached(rootPath, false).get().size());
+
+    listed.clear();
+    assertTrue(mWorker.listStatus(rootPath, recursive,
+        page -> listed.addAll(Arrays.asList(page))));
+    names.clear();
+    listed.forEach(status -> names.add(status.getName()));
+    Collections.sort(names);
+    assertEquals(Arrays.asList("d1", "d1/d1", "f"), names);
+
+    // listing a file returns the file itself
+    listed.clear();
+    assertTrue(mWorker.listStatus(f.getAbsolutePath(), nonRecursive,
+        page -> listed.addAll(Arrays.asList(page))));
+    assertEquals(1, listed.size());
+    assertTrue(listed.get(0).isFile());
+    assertEquals("", listed.get(0).getName());
+
+    listed.clear();
+    assertFalse(mWorker.listStatus(rootPath + "/non-existent", nonRecursive,
+        page -> listed.addAll(Arrays.asList(page))));
+    assertTrue(listed.isEmpty());
+  }
+
+  @Test
+  public void testRecursivePagedListingPopulatesListingCache() throws Exception {
+    File rootFolder = mTestFolder.newFolder("root");
+    String rootPath = rootFolder.getAbsolutePath();
+    mTestFolder.newFolder("root/d1");
+    mTestFolder.newFolder("root/d1/d1");
+    mTestFolder.newFile("root/f");
+    assertTrue(mWorker.listStatus(rootPath,
+        ListStatusPOptions.newBuilder().setRecursive(true).build(), page -> { }));
+    // the listings of every directory covered are cached
+    assertEquals(3, mWorker.getMetaManager().listCached(rootPath, true).get().size());
+    assertEquals(2, mWorker.getMetaManager().listCached(rootPath, false).get().size());
+    assertEquals(1,
+        mWorker.getMetaManager().listCached(rootPath + "/d1", false).get().size());
+  }
+
   @Test
   public void testListCacheConsistency()
       throws IOException, AccessControlException, ExecutionException, InterruptedException,
@@ -880,7 +973,7 @@ public class PagedDoraWorkerTest {
     // Assert that page cache, metadata cache & list cache all cached data properly
     assertTrue(mWorker.getMetaManager().getFromMetaStore(f.getPath()).isPresent());
     assertSame(listResult,
-        mWorker.getMetaManager().listCached(rootPath, false).get().mUfsStatuses);
+        mWorker.getMetaManager().listCached(rootPath, false).get().getUfsStatuses());
     List<PageId> cachedPages =
         mCacheManager.getCachedPageIdsByFileId(
             new AlluxioURI(f.getPath()).hash(), fileContent.length());
@@ -896,6 +989,29 @@ public class PagedDoraWorkerTest {
     assertEquals(0, cachedPages.size());
   }
 
+  @Test
+  public void testListStatusFromServesCachedListingInKeyOrder() throws Exception {
+    File rootFolder = mTestFolder.newFolder("root");
+    String rootPath = rootFolder.getAbsolutePath();
+    mTestFolder.newFolder("root/a");
+    mTestFolder.newFile("root/a/x");
+    mTestFolder.newFile("root/a-b");
+    mWorker.listStatus(rootPath, ListStatusPOptions.newBuilder().setRecursive(false).build());
+    // a file created in the ufs after the listing was cached is not listed
+    mTestFolder.newFile("root/b");
+
+    List<String> names = new ArrayList<>();
+    mWorker.listStatusFrom(rootPath, false, null, status -> names.add(status.getName()));
+    // the key of the directory is a/, after a-b
+    assertEquals(Arrays.asList("a-b", "a"), names);
+    names.clear();
+    mWorker.listStatusFrom(rootPath, false, "a-b", status -> names.add(status.getName()));
+    assertEquals(Arrays.asList("a"), names);
+    names.clear();
+    mWorker.listStatusFrom(rootPath, false, "a/", status -> names.add(status.getName()));
+    assertTrue(names.isEmpty());
+  }
+
   @Test
   public void testPageMetadataMetrics() throws Exception {
     String fileContent = "foobar";
@@ -212,4 +212,25 @@ public class PagedFileReaderTest {
     }
     Assert.assertArrayEquals(mTestData, bArray);
   }
+
+  @Test
+  public void getNextDataBuffer() throws IOException {
+    long pageSize = mConf.getBytes(PropertyKey.WORKER_PAGE_STORE_PAGE_SIZE);
+    int offset = mFileLen == 0 ? 0 : mRandom.nextInt(mFileLen);
+    mPagedFileReader.setPosition(offset);
+    byte[] bArray = new byte[mFileLen - offset];
+    int readPosition = 0;
+    DataBuffer dataBuffer;
+    while ((dataBuffer = mPagedFileReader.getNextDataBuffer(mEmbeddedChannel, mFileLen))
+        .getLength() > 0) {
+      // every buffer ends at a page boundary at most
+      Assert.assertEquals((offset + readPosition) / pageSize,
+          (offset + readPosition + dataBuffer.getLength() - 1) / pageSize);
+      int byteToBeRead = dataBuffer.readableBytes();
+      dataBuffer.readBytes(bArray, readPosition, byteToBeRead);
+      readPosition += byteToBeRead;
+    }
+    Assert.assertEquals(mFileLen - offset, readPosition);
+    Assert.assertArrayEquals(Arrays.copyOfRange(mTestData, offset, mFileLen), bArray);
+  }
 }
@@ -11,11 +11,18 @@
 
 package alluxio.worker.dora;
 
+import alluxio.conf.Configuration;
+import alluxio.conf.PropertyKey;
 import alluxio.grpc.FileInfo;
+import alluxio.metrics.MetricKey;
+import alluxio.metrics.MetricsSystem;
 import alluxio.proto.meta.DoraMeta;
 
+import com.codahale.metrics.Counter;
 import junit.framework.TestCase;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 public class RocksDBDoraMetaStoreTest extends TestCase {
@@ -88,6 +95,56 @@ public class RocksDBDoraMetaStoreTest extends TestCase {
     System.out.println("End testRemoveNotExist");
   }
 
+  public void testPutBatch() {
+    Map<String, DoraMeta.FileStatus> metas = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      FileInfo fi = FileInfo.newBuilder()
+          .setFileId(i)
+          .setMode(0567)
+          .setLength(1000)
+          .build();
+      metas.put("/BATCH" + i, DoraMeta.FileStatus.newBuilder()
+          .setFileInfo(fi)
+          .setTs(System.nanoTime())
+          .build());
+    }
+    mTestMetastore.putDoraMetas(metas);
+    for (Map.Entry<String, DoraMeta.FileStatus> entry : metas.entrySet()) {
+      assertEquals(Optional.of(entry.getValue()), mTestMetastore.getDoraMeta(entry.getKey()));
+    }
+    mTestMetastore.putDoraMetas(new HashMap<>());
+  }
+
+  public void testCachedRead() throws Exception {
+    mTestMetastore.close();
+    Configuration.set(PropertyKey.DORA_WORKER_METASTORE_CACHE_SIZE, 100);
+    try {
+      mTestMetastore = new RocksDBDoraMetaStore("/tmp/", 3 /* seconds */);
+    } finally {
+      Configuration.unset(PropertyKey.DORA_WORKER_METASTORE_CACHE_SIZE);
+    }
+    String path = "/CACHED";
+    DoraMeta.FileStatus fs = DoraMeta.FileStatus.newBuilder()
+        .setFileInfo(FileInfo.newBuilder().setFileId(1).setLength(1000).build())
+        .setTs(System.nanoTime())
+        .build();
+    mTestMetastore.putDoraMeta(path, fs);
+    Counter hits = MetricsSystem.counter(MetricKey.WORKER_METASTORE_CACHE_HITS.getName());
+    long hitsBefore = hits.getCount();
+    // a write does not populate the cache, the first read does
+    assertEquals(Optional.of(fs), mTestMetastore.getDoraMeta(path));
+    assertEquals(hitsBefore, hits.getCount());
+    assertEquals(Optional.of(fs), mTestMetastore.getDoraMeta(path));
+    assertEquals(hitsBefore + 1, hits.getCount());
+
+    DoraMeta.FileStatus updated = fs.toBuilder().setTs(System.nanoTime()).build();
+    mTestMetastore.putDoraMeta(path, updated);
+    assertEquals(Optional.of(updated), mTestMetastore.getDoraMeta(path));
+    assertEquals(Optional.of(updated), mTestMetastore.getDoraMeta(path));
+    mTestMetastore.removeDoraMeta(path);
+    assertFalse(mTestMetastore.getDoraMeta(path).isPresent());
+  }
+
   /**
    * Performance Testing.
    */
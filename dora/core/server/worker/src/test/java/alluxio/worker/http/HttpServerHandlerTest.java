@@ -0,0 +1,331 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.http;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import alluxio.AlluxioURI;
+import alluxio.client.file.FileSystem;
+import alluxio.client.file.FileSystemContext;
+import alluxio.client.file.cache.CacheManager;
+import alluxio.client.file.cache.CacheManagerOptions;
+import alluxio.client.file.cache.DefaultPageMetaStore;
+import alluxio.client.file.cache.PageId;
+import alluxio.client.file.cache.PageMetaStore;
+import alluxio.client.file.cache.PageStore;
+import alluxio.client.file.cache.evictor.CacheEvictor;
+import alluxio.client.file.cache.evictor.CacheEvictorOptions;
+import alluxio.client.file.cache.evictor.FIFOCacheEvictor;
+import alluxio.client.file.cache.store.MemoryPageStore;
+import alluxio.client.file.cache.store.MemoryPageStoreDir;
+import alluxio.client.file.cache.store.PageStoreDir;
+import alluxio.client.file.cache.store.PageStoreOptions;
+import alluxio.client.file.cache.store.PageStoreType;
+import alluxio.conf.Configuration;
+import alluxio.conf.InstancedConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.proto.dataserver.Protocol;
+import alluxio.underfs.UnderFileSystem;
+import alluxio.underfs.UnderFileSystemConfiguration;
+import alluxio.util.CommonUtils;
+import alluxio.util.WaitForOptions;
+import alluxio.util.io.BufferUtils;
+import alluxio.wire.FileInfo;
+import alluxio.worker.dora.DoraWorker;
+import alluxio.worker.dora.PagedFileReader;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamChannelBootstrap;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the data API of {@link HttpServerHandler}, which is served over HTTP/1.1 and HTTP/2
+ * by the pipeline of {@link HttpServerInitializer}.
+ */
+public final class HttpServerHandlerTest {
+  private static final int PAGE_SIZE = 1024;
+  private static final int FILE_LENGTH = PAGE_SIZE * 3 + 100;
+
+  @Rule
+  public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+  private final InstancedConfiguration mConf = Configuration.copyGlobal();
+  private final byte[] mData = BufferUtils.getIncreasingByteArray(FILE_LENGTH);
+  private final EventLoopGroup mEventLoopGroup = new NioEventLoopGroup(2);
+  private CacheManager mCacheManager;
+  private PagedService mPagedService;
+  private String mPath;
+  private EmbeddedChannel mChannel;
+
+  @Before
+  public void before() throws Exception {
+    mConf.set(PropertyKey.USER_CLIENT_CACHE_STORE_TYPE, PageStoreType.MEM);
+    mConf.set(PropertyKey.USER_CLIENT_CACHE_PAGE_SIZE, PAGE_SIZE);
+    mConf.set(PropertyKey.WORKER_PAGE_STORE_PAGE_SIZE, PAGE_SIZE);
+    mConf.set(PropertyKey.WORKER_PAGE_STORE_ASYNC_WRITE_ENABLED, false);
+    PageStoreOptions pageStoreOptions = PageStoreOptions.create(mConf).get(0);
+    CacheEvictor evictor = new FIFOCacheEvictor(new CacheEvictorOptions());
+    PageStoreDir pageStoreDir = new MemoryPageStoreDir(pageStoreOptions,
+        (MemoryPageStore) PageStore.create(pageStoreOptions), evictor);
+    PageMetaStore pageMetaStore = new DefaultPageMetaStore(ImmutableList.of(pageStoreDir));
+    mCacheManager = CacheManager.Factory.create(
+        mConf, CacheManagerOptions.createForWorker(mConf), pageMetaStore);
+    CommonUtils.waitFor("restore completed",
+        () -> mCacheManager.state() == CacheManager.State.READ_WRITE,
+        WaitForOptions.defaults().setTimeoutMs(10000));
+
+    File file = mTemporaryFolder.newFile("testFile");
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(mData);
+    }
+    mPath = file.getAbsolutePath();
+    UnderFileSystem ufs = UnderFileSystem.Factory.create(
+        mTemporaryFolder.getRoot().getAbsolutePath(), UnderFileSystemConfiguration.defaults(mConf));
+
+    DoraWorker worker = mock(DoraWorker.class);
+    when(worker.getFileInfo(anyString(), any())).thenThrow(new FileNotFoundException("not found"));
+    when(worker.getFileInfo(eq(mPath), any())).thenReturn(
+        new FileInfo().setPath(mPath).setLength(FILE_LENGTH).setFolder(false));
+    when(worker.createFileReader(anyString(), anyLong(), anyBoolean(), any())).thenAnswer(
+        invocation -> {
+          Protocol.OpenUfsBlockOptions options = invocation.getArgument(3);
+          return PagedFileReader.create(mConf, mCacheManager, ufs, invocation.getArgument(0),
+              options.getUfsPath(), options.getBlockSize(), invocation.getArgument(1));
+        });
+    mPagedService = new PagedService(mCacheManager, worker);
+    mChannel = new EmbeddedChannel(new HttpServerHandler(
+        mPagedService, mock(FileSystemContext.class), mock(FileSystem.class)));
+  }
+
+  @After
+  public void after() throws Exception {
+    mChannel.finishAndReleaseAll();
+    mEventLoopGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+    mCacheManager.close();
+  }
+
+  @Test
+  public void getWholeFile() throws Exception {
+    mChannel.writeInbound(request(mPath, null, null));
+    HttpResponse response = mChannel.readOutbound();
+    assertEquals(HttpResponseStatus.OK, response.status());
+    assertEquals(FILE_LENGTH, response.headers().getInt(HttpHeaderNames.CONTENT_LENGTH).intValue());
+    assertArrayEquals(mData, readBody());
+    // the pages are filled from the UFS
+    String fileId = new AlluxioURI(mPath).hash();
+    for (int i = 0; i < 4; i++) {
+      assertTrue(mCacheManager.hasPageUnsafe(new PageId(fileId, i)));
+    }
+  }
+
+  @Test
+  public void pipelinedRanges() throws Exception {
+    mChannel.writeInbound(request(mPath, "offset=1000&length=2000", null),
+        request(mPath, null, "bytes=3000-"),
+        request(mPath, null, "bytes=-10"));
+
+    HttpResponse response = mChannel.readOutbound();
+    assertEquals(HttpResponseStatus.OK, response.status());
+    assertArrayEquals(Arrays.copyOfRange(mData, 1000, 3000), readBody());
+
+    response = mChannel.readOutbound();
+    assertEquals(HttpResponseStatus.PARTIAL_CONTENT, response.status());
+    assertEquals("bytes 3000-" + (FILE_LENGTH - 1) + "/" + FILE_LENGTH,
+        response.headers().get(HttpHeaderNames.CONTENT_RANGE));
+    assertArrayEquals(Arrays.copyOfRange(mData, 3000, FILE_LENGTH), readBody());
+
+    response = mChannel.readOutbound();
+    assertEquals(HttpResponseStatus.PARTIAL_CONTENT, response.status());
+    assertArrayEquals(Arrays.copyOfRange(mData, FILE_LENGTH - 10, FILE_LENGTH), readBody());
+    assertTrue(mChannel.isOpen());
+  }
+
+  @Test
+  public void errors() throws Exception {
+    mChannel.writeInbound(request("/not/exist", null, null),
+        request(mPath, null, "bytes=" + FILE_LENGTH + "-"),
+        request(mPath, "offset=-1", null));
+    assertStatus(HttpResponseStatus.NOT_FOUND);
+    FullHttpResponse response = mChannel.readOutbound();
+    assertEquals(HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.status());
+    assertEquals("bytes */" + FILE_LENGTH, response.headers().get(HttpHeaderNames.CONTENT_RANGE));
+    response.release();
+    assertStatus(HttpResponseStatus.BAD_REQUEST);
+    assertNull(mChannel.readOutbound());
+  }
+
+  @Test
+  public void http11() throws Exception {
+    BlockingQueue<FullHttpResponse> responses = new LinkedBlockingQueue<>();
+    Channel channel = new Bootstrap().group(mEventLoopGroup).channel(NioSocketChannel.class)
+        .handler(new ChannelInitializer<Channel>() {
+          @Override
+          protected void initChannel(Channel ch) {
+            ch.pipeline().addLast(new HttpClientCodec(), new HttpObjectAggregator(FILE_LENGTH),
+                new SimpleChannelInboundHandler<FullHttpResponse>() {
+                  @Override
+                  protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse msg) {
+                    responses.add(msg.retain());
+                  }
+                });
+          }
+        }).connect(startServer()).sync().channel();
+    channel.write(request(mPath, "offset=10&length=2000", null));
+    channel.writeAndFlush(request(mPath, "offset=" + (FILE_LENGTH - 5), null));
+    assertContent(Arrays.copyOfRange(mData, 10, 2010), responses.poll(1, TimeUnit.MINUTES));
+    assertContent(Arrays.copyOfRange(mData, FILE_LENGTH - 5, FILE_LENGTH),
+        responses.poll(1, TimeUnit.MINUTES));
+    channel.close().sync();
+  }
+
+  @Test
+  public void http2Streams() throws Exception {
+    Channel channel = new Bootstrap().group(mEventLoopGroup).channel(NioSocketChannel.class)
+        .handler(new ChannelInitializer<Channel>() {
+          @Override
+          protected void initChannel(Channel ch) {
+            ch.pipeline().addLast(Http2FrameCodecBuilder.forClient().build(),
+                new Http2MultiplexHandler(new ChannelInboundHandlerAdapter()));
+          }
+        }).connect(startServer()).sync().channel();
+    List<CompletableFuture<FullHttpResponse>> responses = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      CompletableFuture<FullHttpResponse> response = new CompletableFuture<>();
+      Http2StreamChannel stream = new Http2StreamChannelBootstrap(channel)
+          .handler(new ChannelInitializer<Http2StreamChannel>() {
+            @Override
+            protected void initChannel(Http2StreamChannel ch) {
+              ch.pipeline().addLast(new Http2StreamFrameToHttpObjectCodec(false),
+                  new HttpObjectAggregator(FILE_LENGTH),
+                  new SimpleChannelInboundHandler<FullHttpResponse>() {
+                    @Override
+                    protected void channelRead0(ChannelHandlerContext ctx,
+                        FullHttpResponse msg) {
+                      response.complete(msg.retain());
+                    }
+                  });
+            }
+          }).open().sync().getNow();
+      stream.writeAndFlush(request(mPath, "offset=" + i * 100 + "&length=" + PAGE_SIZE * 2, null));
+      responses.add(response);
+    }
+    for (int i = 0; i < responses.size(); i++) {
+      assertContent(Arrays.copyOfRange(mData, i * 100, i * 100 + PAGE_SIZE * 2),
+          responses.get(i).get(1, TimeUnit.MINUTES));
+    }
+    channel.close().sync();
+  }
+
+  private SocketAddress startServer() throws Exception {
+    return new ServerBootstrap().group(mEventLoopGroup).channel(NioServerSocketChannel.class)
+        .childHandler(new HttpServerInitializer(mPagedService,
+            mock(FileSystemContext.FileSystemContextFactory.class)))
+        .bind(new InetSocketAddress("localhost", 0)).sync().channel().localAddress();
+  }
+
+  private static void assertContent(byte[] expected, FullHttpResponse response) {
+    try {
+      assertEquals(HttpResponseStatus.OK, response.status());
+      assertArrayEquals(expected, ByteBufUtil.getBytes(response.content()));
+    } finally {
+      response.release();
+    }
+  }
+
+  private void assertStatus(HttpResponseStatus status) {
+    FullHttpResponse response = mChannel.readOutbound();
+    assertEquals(status, response.status());
+    response.release();
+  }
+
+  private byte[] readBody() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    while (true) {
+      Object msg = mChannel.readOutbound();
+      if (msg instanceof LastHttpContent) {
+        return out.toByteArray();
+      }
+      ByteBuf buf = msg instanceof ByteBufHolder ? ((ByteBufHolder) msg).content() : (ByteBuf) msg;
+      byte[] bytes = new byte[buf.readableBytes()];
+      buf.readBytes(bytes);
+      buf.release();
+      out.write(bytes, 0, bytes.length);
+    }
+  }
+
+  private static DefaultFullHttpRequest request(String path, String parameters, String range) {
+    String uri = "/v1/data?path=" + path + (parameters == null ? "" : "&" + parameters);
+    DefaultFullHttpRequest request =
+        new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+    if (range != null) {
+      request.headers().set(HttpHeaderNames.RANGE, range);
+    }
+    return request;
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.s3;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import alluxio.AlluxioURI;
+import alluxio.s3.ListBucketOptions;
+import alluxio.s3.ListBucketResult;
+import alluxio.underfs.UfsDirectoryStatus;
+import alluxio.underfs.UfsFileStatus;
+import alluxio.underfs.UfsStatus;
+import alluxio.worker.dora.DoraWorker;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+
+/**
+ * Tests for the listing of the objects of a bucket in {@link S3NettyBucketTask}.
+ */
+public final class S3NettyBucketTaskTest {
+  private static final String BUCKET = "bucket";
+  /**
+   * The keys of the bucket in the order an object store lists them, the key of a directory
+   * ending with the separator, which sorts after the siblings sharing its name as a prefix.
+   */
+  private static final TreeSet<String> KEYS = new TreeSet<>(ImmutableList.of(
+      "a-b", "a.c", "a/", "a/x", "a/y", "b", "c/", "c/d/", "c/d/e", "c/f", "c0"));
+
+  private final S3NettyHandler mHandler = mock(S3NettyHandler.class);
+
+  @Before
+  public void before() throws Exception {
+    DoraWorker worker = mock(DoraWorker.class);
+    when(mHandler.getBucket()).thenReturn(BUCKET);
+    when(mHandler.getDoraWorker()).thenReturn(worker);
+    when(mHandler.getUfsPath(any(AlluxioURI.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    doAnswer(invocation -> {
+      list(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2),
+          invocation.getArgument(3));
+      return null;
+    }).when(worker).listStatusFrom(anyString(), anyBoolean(), nullable(String.class), any());
+  }
+
+  @Test
+  public void isListed() {
+    Object[][] rows = {
+        // key, isFolder, prefix, delimiter, marker, startAfter, listed
+        {"a", false, "", null, "", "", true},
+        {"a", false, "b", null, "", "", false},
+        {"a", false, "", null, "a", "", false},
+        {"b", false, "", null, "", "b", false},
+        {"c", false, "", null, "a", "b", true},
+        // the key of a folder ends with the separator
+        {"a", true, "", null, "a", "", true},
+        {"a", true, "", null, "a-b", "", true},
+        {"a-b", false, "", null, "a/", "", false},
+        {"a/x", false, "", null, "a/", "", true},
+        {"a", true, "a/", "/", "", "", true},
+        // a common prefix equal to the marker was returned already
+        {"a", true, "", "/", "a/", "", false},
+        {"d/e", false, "d/", "/", "", "", true},
+        {"d/e/f", false, "d/", "/", "d/e/", "", false},
+        {"d/f", false, "d/", "/", "d/e/", "", true},
+    };
+    for (Object[] row : rows) {
+      assertEquals(StringUtils.join(row, ", "), row[6], S3NettyBucketTask.isListed(
+          (String) row[0], (boolean) row[1], (String) row[2], (String) row[3],
+          (String) row[4], (String) row[5]));
+    }
+  }
+
+  @Test
+  public void pagesMatchSingleListing() throws Exception {
+    Object[][] listings = {
+        // prefix, delimiter, listed keys
+        {"", "/", ImmutableList.of("a-b", "a.c", "a/", "b", "c/", "c0")},
+        {"", null, ImmutableList.copyOf(KEYS)},
+        {"a", "/", ImmutableList.of("a-b", "a.c", "a/")},
+        {"c/", "/", ImmutableList.of("c/d/", "c/f")},
+        {"c/", null, ImmutableList.of("c/d/", "c/d/e", "c/f")},
+    };
+    for (Object[] listing : listings) {
+      String prefix = (String) listing[0];
+      String delimiter = (String) listing[1];
+      for (boolean isV2 : new boolean[] {false, true}) {
+        for (int maxKeys = 1; maxKeys <= 4; maxKeys++) {
+          assertEquals(String.format("prefix %s, delimiter %s, v2 %s, max keys %s",
+              prefix, delimiter, isV2, maxKeys),
+              listing[2], listPages(prefix, delimiter, isV2, maxKeys));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void pageListsOneKeyPastMaxKeys() throws Exception {
+    List<String> names = new ArrayList<>();
+    S3NettyBucketTask.listChildren(mHandler, AlluxioURI.SEPARATOR + BUCKET,
+        ListBucketOptions.defaults().setDelimiter("/").setMaxKeys(2).setMarker("a-b"))
+        .forEach(status -> names.add(status.getName()));
+    assertEquals(ImmutableList.of("a.c", "a", "b"), names);
+  }
+
+  private List<String> listPages(String prefix, @Nullable String delimiter, boolean isV2,
+      int maxKeys) throws Exception {
+    List<String> keys = new ArrayList<>();
+    String marker = null;
+    for (int page = 0; page <= KEYS.size(); page++) {
+      ListBucketOptions options = ListBucketOptions.defaults().setPrefix(prefix)
+          .setDelimiter(delimiter).setMaxKeys(maxKeys);
+      if (isV2) {
+        options.setListType(2).setContinuationToken(marker);
+      } else {
+        options.setMarker(marker);
+      }
+      ListBucketResult result = new ListBucketResult(BUCKET, S3NettyBucketTask.listChildren(
+          mHandler, AlluxioURI.SEPARATOR + BUCKET, options), options);
+      result.getContents().forEach(content -> keys.add(content.getKey()));
+      if (result.getCommonPrefixes() != null) {
+        result.getCommonPrefixes().forEach(commonPrefix -> keys.add(commonPrefix.getPrefix()));
+      }
+      if (!result.isTruncated()) {
+        Collections.sort(keys);
+        return keys;
+      }
+      marker = isV2 ? result.getNextContinuationToken() : result.getNextMarker();
+    }
+    fail("The listing did not end");
+    return keys;
+  }
+
+  /**
+   * Lists a directory of the bucket in the order of the keys, as an object store does.
+   */
+  private static void list(String path, boolean isRecursive, @Nullable String startAfter,
+      Predicate<UfsStatus> consumer) {
+    String dirKey = StringUtils.strip(
+        StringUtils.removeStart(path, AlluxioURI.SEPARATOR + BUCKET), AlluxioURI.SEPARATOR);
+    if (!dirKey.isEmpty()) {
+      dirKey += AlluxioURI.SEPARATOR;
+    }
+    for (String key : KEYS.tailSet(dirKey, false)) {
+      if (!key.startsWith(dirKey)) {
+        return;
+      }
+      String relativeKey = key.substring(dirKey.length());
+      boolean isDirectory = relativeKey.endsWith(AlluxioURI.SEPARATOR);
+      String name = StringUtils.removeEnd(relativeKey, AlluxioURI.SEPARATOR);
+      if ((!isRecursive && name.contains(AlluxioURI.SEPARATOR))
+          || (startAfter != null && relativeKey.compareTo(startAfter) <= 0)) {
+        continue;
+      }
+      UfsStatus status = isDirectory
+          ? new UfsDirectoryStatus(name, "owner", "group", (short) 0755)
+          : new UfsFileStatus(name, "", 1, 0L, "owner", "group", (short) 0644, 1024);
+      if (!consumer.test(status)) {
+        return;
+      }
+    }
+  }
+}
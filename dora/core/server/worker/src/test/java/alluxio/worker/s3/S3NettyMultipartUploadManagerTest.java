@@ -0,0 +1,176 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.s3;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import alluxio.client.file.cache.CacheManager;
+import alluxio.client.file.cache.CacheManagerOptions;
+import alluxio.client.file.cache.DefaultPageMetaStore;
+import alluxio.client.file.cache.PageMetaStore;
+import alluxio.client.file.cache.PageStore;
+import alluxio.client.file.cache.evictor.CacheEvictor;
+import alluxio.client.file.cache.evictor.CacheEvictorOptions;
+import alluxio.client.file.cache.evictor.FIFOCacheEvictor;
+import alluxio.client.file.cache.store.MemoryPageStore;
+import alluxio.client.file.cache.store.MemoryPageStoreDir;
+import alluxio.client.file.cache.store.PageStoreDir;
+import alluxio.client.file.cache.store.PageStoreOptions;
+import alluxio.client.file.cache.store.PageStoreType;
+import alluxio.conf.Configuration;
+import alluxio.conf.InstancedConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.s3.S3ErrorCode;
+import alluxio.s3.S3Exception;
+import alluxio.util.CommonUtils;
+import alluxio.util.WaitForOptions;
+import alluxio.util.io.BufferUtils;
+import alluxio.worker.s3.S3NettyMultipartUploadManager.MultipartUpload;
+import alluxio.worker.s3.S3NettyMultipartUploadManager.Part;
+import alluxio.worker.s3.S3NettyMultipartUploadManager.PartWriter;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Tests for the {@link S3NettyMultipartUploadManager} class.
+ */
+public final class S3NettyMultipartUploadManagerTest {
+  private static final int PAGE_SIZE = 1024;
+
+  private final InstancedConfiguration mConf = Configuration.copyGlobal();
+  private CacheManager mCacheManager;
+  private S3NettyMultipartUploadManager mManager;
+
+  @Before
+  public void before() throws Exception {
+    mConf.set(PropertyKey.USER_CLIENT_CACHE_STORE_TYPE, PageStoreType.MEM);
+    mConf.set(PropertyKey.USER_CLIENT_CACHE_PAGE_SIZE, PAGE_SIZE);
+    mConf.set(PropertyKey.WORKER_PAGE_STORE_PAGE_SIZE, PAGE_SIZE);
+    mConf.set(PropertyKey.WORKER_PAGE_STORE_ASYNC_WRITE_ENABLED, false);
+    PageStoreOptions pageStoreOptions = PageStoreOptions.create(mConf).get(0);
+    CacheEvictor evictor = new FIFOCacheEvictor(new CacheEvictorOptions());
+    PageStoreDir pageStoreDir = new MemoryPageStoreDir(pageStoreOptions,
+        (MemoryPageStore) PageStore.create(pageStoreOptions), evictor);
+    PageMetaStore pageMetaStore = new DefaultPageMetaStore(ImmutableList.of(pageStoreDir));
+    mCacheManager = CacheManager.Factory.create(
+        mConf, CacheManagerOptions.createForWorker(mConf), pageMetaStore);
+    CommonUtils.waitFor("restore completed",
+        () -> mCacheManager.state() == CacheManager.State.READ_WRITE,
+        WaitForOptions.defaults().setTimeoutMs(10000));
+    mManager = new S3NettyMultipartUploadManager(mCacheManager, PAGE_SIZE, Long.MAX_VALUE);
+  }
+
+  @After
+  public void after() throws Exception {
+    mCacheManager.close();
+  }
+
+  @Test
+  public void writeAndTransferParts() throws Exception {
+    MultipartUpload upload = mManager.create("bucket", "object");
+    assertEquals(upload, mManager.get(upload.getUploadId(), "bucket", "object"));
+    byte[] first = BufferUtils.getIncreasingByteArray(PAGE_SIZE * 2 + 10);
+    byte[] second = BufferUtils.getIncreasingByteArray(7, PAGE_SIZE - 1);
+    Part part2 = writePart(upload, 2, second);
+    Part part1 = writePart(upload, 1, first);
+    assertEquals(first.length, part1.getLength());
+    assertEquals(DigestUtils.md5Hex(first), part1.getEntityTag());
+    assertEquals(2, upload.getParts().size());
+
+    Map<Integer, Part> parts = mManager.end(upload);
+    assertEquals(0, mManager.getNumUploads());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    mManager.transferTo(parts.get(1), out);
+    mManager.transferTo(parts.get(2), out);
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    expected.write(first);
+    expected.write(second);
+    assertArrayEquals(expected.toByteArray(), out.toByteArray());
+    assertEquals(part2, parts.get(2));
+
+    mManager.dropParts(upload, parts.values());
+    assertThrows(IOException.class, () -> mManager.transferTo(part1, new ByteArrayOutputStream()));
+  }
+
+  @Test
+  public void replacePart() throws Exception {
+    MultipartUpload upload = mManager.create("bucket", "object");
+    Part replaced = writePart(upload, 1, BufferUtils.getIncreasingByteArray(PAGE_SIZE));
+    byte[] data = BufferUtils.getIncreasingByteArray(3, PAGE_SIZE);
+    Part part = writePart(upload, 1, data);
+    assertEquals(part, upload.getParts().get(1));
+    assertThrows(IOException.class,
+        () -> mManager.transferTo(replaced, new ByteArrayOutputStream()));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    mManager.transferTo(part, out);
+    assertArrayEquals(data, out.toByteArray());
+  }
+
+  @Test
+  public void abortPart() throws Exception {
+    MultipartUpload upload = mManager.create("bucket", "object");
+    PartWriter writer = mManager.createPartWriter(upload, 1);
+    writer.write(BufferUtils.getIncreasingByteArray(PAGE_SIZE * 2));
+    writer.abort();
+    assertTrue(upload.getParts().isEmpty());
+  }
+
+  @Test
+  public void noSuchUpload() throws Exception {
+    MultipartUpload upload = mManager.create("bucket", "object");
+    assertNoSuchUpload(() -> mManager.get(null, "bucket", "object"));
+    assertNoSuchUpload(() -> mManager.get("unknown", "bucket", "object"));
+    assertNoSuchUpload(() -> mManager.get(upload.getUploadId(), "bucket", "other"));
+    mManager.dropParts(upload, mManager.end(upload).values());
+    assertNoSuchUpload(() -> mManager.get(upload.getUploadId(), "bucket", "object"));
+    assertNoSuchUpload(() -> mManager.end(upload));
+  }
+
+  @Test
+  public void commitAfterEnd() throws Exception {
+    MultipartUpload upload = mManager.create("bucket", "object");
+    PartWriter writer = mManager.createPartWriter(upload, 1);
+    byte[] data = BufferUtils.getIncreasingByteArray(PAGE_SIZE);
+    writer.write(data);
+    writer.finish();
+    assertTrue(mManager.end(upload).isEmpty());
+    Part part = writer.commit();
+    assertEquals(Hex.encodeHexString(DigestUtils.md5(data)), part.getEntityTag());
+    assertTrue(upload.getParts().isEmpty());
+    assertThrows(IOException.class, () -> mManager.transferTo(part, new ByteArrayOutputStream()));
+  }
+
+  private Part writePart(MultipartUpload upload, int partNumber, byte[] data) throws Exception {
+    PartWriter writer = mManager.createPartWriter(upload, partNumber);
+    writer.write(data);
+    writer.finish();
+    return writer.commit();
+  }
+
+  private static void assertNoSuchUpload(ThrowingRunnable runnable) {
+    S3Exception e = assertThrows(S3Exception.class, runnable);
+    assertEquals(S3ErrorCode.NO_SUCH_UPLOAD, e.getErrorCode());
+  }
+}
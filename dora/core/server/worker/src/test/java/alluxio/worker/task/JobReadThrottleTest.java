@@ -0,0 +1,98 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.task;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import alluxio.grpc.UfsReadOptions;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.RateLimiter;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Tests for the {@link JobReadThrottle} class.
+ */
+public final class JobReadThrottleTest {
+  private final JobReadThrottle mThrottle = new JobReadThrottle();
+
+  @Test
+  public void tasksOfJobShareLimiters() {
+    mThrottle.acquire(options("job1").setBandwidth(1000).setRequestRate(10).build(), 1, 1);
+    RateLimiter bandwidth = mThrottle.getBandwidthLimiter("job1");
+    RateLimiter requests = mThrottle.getRequestRateLimiter("job1");
+    assertNotNull(bandwidth);
+    assertNotNull(requests);
+    mThrottle.acquire(options("job1").setBandwidth(1000).setRequestRate(10).build(), 1, 1);
+    assertSame(bandwidth, mThrottle.getBandwidthLimiter("job1"));
+    assertSame(requests, mThrottle.getRequestRateLimiter("job1"));
+    // another job gets its own limiters
+    mThrottle.acquire(options("job2").setBandwidth(1000).build(), 1, 1);
+    assertNotSame(bandwidth, mThrottle.getBandwidthLimiter("job2"));
+    assertNull(mThrottle.getRequestRateLimiter("job2"));
+  }
+
+  @Test
+  public void latestLeaseUpdatesRates() {
+    mThrottle.acquire(options("job").setBandwidth(1000).setRequestRate(10).build(), 1, 1);
+    RateLimiter bandwidth = mThrottle.getBandwidthLimiter("job");
+    mThrottle.acquire(options("job").setBandwidth(2000).build(), 1, 1);
+    assertSame(bandwidth, mThrottle.getBandwidthLimiter("job"));
+    assertEquals(2000, bandwidth.getRate(), 0);
+    // the request rate is no longer limited by the latest lease
+    assertNull(mThrottle.getRequestRateLimiter("job"));
+  }
+
+  @Test
+  public void leaseWithoutLimitsDropsLimiters() throws Exception {
+    mThrottle.acquire(options("job").setBandwidth(1000).setRequestRate(10).build(), 1, 1);
+    UfsReadOptions unlimited = options("job").build();
+    InputStream in = new ByteArrayInputStream(new byte[10]);
+    assertSame(in, mThrottle.throttle(unlimited, in));
+    assertNull(mThrottle.getBandwidthLimiter("job"));
+    assertNull(mThrottle.getRequestRateLimiter("job"));
+  }
+
+  @Test
+  public void acquireBytesOverIntegerMaxValue() {
+    // a permit count cast to an int would be negative and rejected by the limiter
+    mThrottle.acquire(options("job").setBandwidth(1_000_000_000_000L).build(),
+        3L * Integer.MAX_VALUE, 1);
+  }
+
+  @Test
+  public void throttledStreamReadsAll() throws Exception {
+    byte[] data = new byte[100];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    try (InputStream in = mThrottle.throttle(options("job").setBandwidth(1_000_000).build(),
+        new ByteArrayInputStream(data))) {
+      assertEquals(0, in.read());
+      assertArrayEquals(Arrays.copyOfRange(data, 1, data.length),
+          ByteStreams.toByteArray(in));
+    }
+  }
+
+  private static UfsReadOptions.Builder options(String tag) {
+    return UfsReadOptions.newBuilder().setTag(tag).setPositionShort(false);
+  }
+}
@@ -0,0 +1,287 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import alluxio.PositionReader;
+import alluxio.grpc.FileByteRange;
+import alluxio.grpc.LoadRangePOptions;
+import alluxio.underfs.UnderFileSystem;
+import alluxio.worker.task.LoadRangePlanner.Range;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for the {@link LoadRangePlanner} class.
+ */
+public final class LoadRangePlannerTest {
+  private static final long PAGE_SIZE = 1024;
+  private static final String PATH = "s3://bucket/file";
+
+  private final LoadRangePlanner mPlanner = new LoadRangePlanner(PAGE_SIZE);
+
+  @Test
+  public void footerAndColumnsOfParquetFile() throws Exception {
+    byte[] file = parquetFile();
+    UnderFileSystem ufs = ufs(file);
+    long footerStart = 60_000;
+    LoadRangePOptions options = LoadRangePOptions.newBuilder()
+        .setFooter(true).addColumns("b").build();
+    assertEquals(Arrays.asList(new Range(9 * PAGE_SIZE, 21 * PAGE_SIZE),
+            new Range(footerStart / PAGE_SIZE * PAGE_SIZE,
+                file.length - footerStart / PAGE_SIZE * PAGE_SIZE)),
+        plan(options, ufs, file.length, 0, file.length));
+  }
+
+  @Test
+  public void columnsClippedToBlock() throws Exception {
+    byte[] file = parquetFile();
+    UnderFileSystem ufs = ufs(file);
+    LoadRangePOptions options = LoadRangePOptions.newBuilder().addColumns("a").build();
+    // the chunk of the column starts with its dictionary page
+    assertEquals(Arrays.asList(new Range(0, 10 * PAGE_SIZE)),
+        plan(options, ufs, file.length, 0, 32 * PAGE_SIZE));
+    assertEquals(Arrays.asList(new Range(8 * PAGE_SIZE, 2 * PAGE_SIZE)),
+        plan(options, ufs, file.length, 8 * PAGE_SIZE, 8 * PAGE_SIZE));
+    assertTrue(plan(options, ufs, file.length, 32 * PAGE_SIZE, 32 * PAGE_SIZE).isEmpty());
+    // the layout of the file is read once for all of its blocks
+    verify(ufs, times(1)).openPositionRead(anyString(), anyLong());
+  }
+
+  @Test
+  public void fileWithLargeFooterLoadedFully() throws Exception {
+    byte[] file = parquetFile();
+    LoadRangePlanner planner = new LoadRangePlanner(PAGE_SIZE, 100);
+    LoadRangePOptions options = LoadRangePOptions.newBuilder()
+        .setFooter(true).addColumns("b").build();
+    assertEquals(Arrays.asList(new Range(0, file.length)),
+        planner.plan(options, ufs(file), PATH, "etag", file.length, 0, file.length));
+    assertEquals(Arrays.asList(new Range(8 * PAGE_SIZE, 8 * PAGE_SIZE)),
+        planner.plan(options, ufs(file), PATH, "etag", file.length, 8 * PAGE_SIZE,
+            8 * PAGE_SIZE));
+  }
+
+  @Test
+  public void unexpectedFailureReadingLayout() throws Exception {
+    UnderFileSystem ufs = mock(UnderFileSystem.class);
+    when(ufs.openPositionRead(anyString(), anyLong()))
+        .thenThrow(new IllegalStateException("unexpected"));
+    LoadRangePOptions options = LoadRangePOptions.newBuilder().setFooter(true).build();
+    assertThrows(IOException.class, () -> plan(options, ufs, 4 * PAGE_SIZE, 0, 4 * PAGE_SIZE));
+  }
+
+  @Test
+  public void nestedColumnSelectedByExactPath() throws Exception {
+    byte[] file = parquetFile();
+    LoadRangePOptions options = LoadRangePOptions.newBuilder()
+        .addColumns("b.x").addColumns("c").build();
+    // adjacent chunks are merged into a single range, which ends with the file
+    assertEquals(Arrays.asList(new Range(9 * PAGE_SIZE, file.length - 9 * PAGE_SIZE)),
+        plan(options, ufs(file), file.length, 0, file.length));
+  }
+
+  @Test
+  public void byteRanges() throws Exception {
+    byte[] file = new byte[(int) (10 * PAGE_SIZE)];
+    UnderFileSystem ufs = ufs(file);
+    LoadRangePOptions options = LoadRangePOptions.newBuilder()
+        .addByteRanges(FileByteRange.newBuilder().setOffset(100).setLength(100))
+        .addByteRanges(FileByteRange.newBuilder().setOffset(1500).setLength(10))
+        .addByteRanges(FileByteRange.newBuilder().setOffset(-100).setLength(100))
+        .build();
+    assertEquals(Arrays.asList(new Range(0, 2 * PAGE_SIZE), new Range(9 * PAGE_SIZE, PAGE_SIZE)),
+        plan(options, ufs, file.length, 0, file.length));
+    assertEquals(Arrays.asList(new Range(9 * PAGE_SIZE, PAGE_SIZE)),
+        plan(options, ufs, file.length, 5 * PAGE_SIZE, 5 * PAGE_SIZE));
+    // no layout is read for byte ranges only
+    verify(ufs, times(0)).openPositionRead(anyString(), anyLong());
+  }
+
+  @Test
+  public void footerOfOrcFile() throws Exception {
+    int metadataLength = 300;
+    int footerLength = 2000;
+    ByteArrayOutputStream postscript = new ByteArrayOutputStream();
+    postscript.write(1 << 3);
+    writeUnsignedVarint(postscript, footerLength);
+    postscript.write(2 << 3);
+    postscript.write(0);
+    postscript.write(5 << 3);
+    writeUnsignedVarint(postscript, metadataLength);
+    writeUnsignedVarint(postscript, 8000 << 3 | 2);
+    postscript.write(3);
+    postscript.write("ORC".getBytes(StandardCharsets.US_ASCII));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write("ORC".getBytes(StandardCharsets.US_ASCII));
+    out.write(new byte[(int) (20 * PAGE_SIZE)]);
+    long tailStart = out.size();
+    out.write(new byte[metadataLength + footerLength]);
+    postscript.writeTo(out);
+    out.write(postscript.size());
+    byte[] file = out.toByteArray();
+    LoadRangePOptions options = LoadRangePOptions.newBuilder().setFooter(true).build();
+    long alignedStart = tailStart / PAGE_SIZE * PAGE_SIZE;
+    assertEquals(Arrays.asList(new Range(alignedStart, file.length - alignedStart)),
+        plan(options, ufs(file), file.length, 0, file.length));
+  }
+
+  @Test
+  public void footerOfOtherFile() throws Exception {
+    byte[] file = new byte[(int) (4 * PAGE_SIZE)];
+    LoadRangePOptions options = LoadRangePOptions.newBuilder()
+        .setFooter(true).addColumns("a").build();
+    assertTrue(plan(options, ufs(file), file.length, 0, file.length).isEmpty());
+  }
+
+  private List<Range> plan(LoadRangePOptions options, UnderFileSystem ufs, long fileLength,
+      long offset, long length) throws IOException {
+    return mPlanner.plan(options, ufs, PATH, "etag", fileLength, offset, length);
+  }
+
+  private static UnderFileSystem ufs(byte[] file) throws IOException {
+    UnderFileSystem ufs = mock(UnderFileSystem.class);
+    when(ufs.openPositionRead(anyString(), anyLong())).thenAnswer(invocation ->
+        (PositionReader) (position, buffer, length) -> {
+          int read = (int) Math.min(length, file.length - position);
+          if (read <= 0) {
+            return -1;
+          }
+          buffer.writeBytes(file, (int) position, read);
+          return read;
+        });
+    return ufs;
+  }
+
+  /**
+   * Creates a Parquet file with a row group of three columns, a with a dictionary page in
+   * [4, 10000), b.x in [10000, 30000) and c in [30000, 60000), and the footer from 60000 on.
+   */
+  private static byte[] parquetFile() throws IOException {
+    ByteArrayOutputStream footer = new ByteArrayOutputStream();
+    // version
+    fieldHeader(footer, 1, 5);
+    writeVarint(footer, 1);
+    // schema, skipped
+    fieldHeader(footer, 1, 9);
+    footer.write(1 << 4 | 12);
+    fieldHeader(footer, 4, 8);
+    writeString(footer, "schema");
+    footer.write(0);
+    // num_rows
+    fieldHeader(footer, 1, 6);
+    writeVarint(footer, 1000);
+    // row_groups
+    fieldHeader(footer, 1, 9);
+    footer.write(1 << 4 | 12);
+    // columns
+    fieldHeader(footer, 1, 9);
+    footer.write(3 << 4 | 12);
+    writeColumnChunk(footer, new String[] {"a"}, 4, 5000, 9996);
+    writeColumnChunk(footer, new String[] {"b", "x"}, 0, 10_000, 20_000);
+    writeColumnChunk(footer, new String[] {"c"}, 0, 30_000, 30_000);
+    // total_byte_size and num_rows of the row group
+    fieldHeader(footer, 1, 6);
+    writeVarint(footer, 59_996);
+    fieldHeader(footer, 1, 6);
+    writeVarint(footer, 1000);
+    footer.write(0);
+    footer.write(0);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(ParquetFooter.MAGIC);
+    out.write(new byte[60_000 - ParquetFooter.MAGIC.length]);
+    footer.writeTo(out);
+    int length = footer.size();
+    out.write(new byte[] {(byte) length, (byte) (length >>> 8), (byte) (length >>> 16),
+        (byte) (length >>> 24)});
+    out.write(ParquetFooter.MAGIC);
+    return out.toByteArray();
+  }
+
+  private static void writeColumnChunk(ByteArrayOutputStream out, String[] path,
+      long dictionaryPageOffset, long dataPageOffset, long compressedSize) throws IOException {
+    // file_offset
+    fieldHeader(out, 2, 6);
+    writeVarint(out, dataPageOffset);
+    // meta_data
+    fieldHeader(out, 1, 12);
+    // type and encodings
+    fieldHeader(out, 1, 5);
+    writeVarint(out, 1);
+    fieldHeader(out, 1, 9);
+    out.write(2 << 4 | 5);
+    writeVarint(out, 0);
+    writeVarint(out, 3);
+    // path_in_schema
+    fieldHeader(out, 1, 9);
+    out.write(path.length << 4 | 8);
+    for (String name : path) {
+      writeString(out, name);
+    }
+    // codec, num_values and total_uncompressed_size
+    fieldHeader(out, 1, 5);
+    writeVarint(out, 1);
+    fieldHeader(out, 1, 6);
+    writeVarint(out, 1000);
+    fieldHeader(out, 1, 6);
+    writeVarint(out, compressedSize * 2);
+    // total_compressed_size
+    fieldHeader(out, 1, 6);
+    writeVarint(out, compressedSize);
+    // data_page_offset
+    fieldHeader(out, 2, 6);
+    writeVarint(out, dataPageOffset);
+    if (dictionaryPageOffset > 0) {
+      fieldHeader(out, 2, 6);
+      writeVarint(out, dictionaryPageOffset);
+    }
+    out.write(0);
+    out.write(0);
+  }
+
+  private static void fieldHeader(ByteArrayOutputStream out, int delta, int type) {
+    out.write(delta << 4 | type);
+  }
+
+  private static void writeString(ByteArrayOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeUnsignedVarint(out, bytes.length);
+    out.write(bytes);
+  }
+
+  private static void writeVarint(ByteArrayOutputStream out, long value) {
+    writeUnsignedVarint(out, (value << 1) ^ (value >> 63));
+  }
+
+  private static void writeUnsignedVarint(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7fL) != 0) {
+      out.write((int) (value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+}
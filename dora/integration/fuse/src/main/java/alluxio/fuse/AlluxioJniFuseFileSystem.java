@@ -18,8 +18,6 @@ import alluxio.client.block.BlockMasterClient;
 import alluxio.client.file.FileSystem;
 import alluxio.client.file.FileSystemContext;
 import alluxio.client.file.URIStatus;
-import alluxio.collections.IndexDefinition;
-import alluxio.collections.IndexedSet;
 import alluxio.conf.AlluxioConfiguration;
 import alluxio.conf.PropertyKey;
 import alluxio.exception.AlluxioException;
@@ -36,9 +34,12 @@ import alluxio.fuse.auth.AuthPolicyFactory;
 import alluxio.fuse.file.CreateFileStatus;
 import alluxio.fuse.file.FileStatus;
 import alluxio.fuse.file.FuseFileEntry;
+import alluxio.fuse.file.FuseFileEntryTable;
 import alluxio.fuse.file.FuseFileStream;
+import alluxio.fuse.file.FuseSmallFileLoader;
 import alluxio.fuse.file.FuseStreamFactory;
 import alluxio.fuse.file.SimpleFuseStreamFactory;
+import alluxio.fuse.meta.FuseKernelCacheManager;
 import alluxio.fuse.options.FuseOptions;
 import alluxio.grpc.CreateDirectoryPOptions;
 import alluxio.grpc.ErrorType;
@@ -56,6 +57,7 @@ import alluxio.security.authorization.Mode;
 import alluxio.util.CommonUtils;
 import alluxio.util.LogUtils;
 import alluxio.util.WaitForOptions;
+import alluxio.util.io.PathUtils;
 import alluxio.wire.BlockMasterInfo;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -70,13 +72,14 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
@@ -97,18 +100,15 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
   private final Supplier<BlockMasterInfo> mFsStatCache;
   // Keeps a cache of the most recently translated paths from String to Alluxio URI
   protected final LoadingCache<String, AlluxioURI> mPathResolverCache;
-  private final AtomicLong mNextOpenFileId = new AtomicLong(0);
   private final FuseShell mFuseShell;
-  public static final IndexDefinition<FuseFileEntry<FuseFileStream>, Long>
-      ID_INDEX = IndexDefinition.ofUnique(FuseFileEntry::getId);
-  // Add a PATH_INDEX to know getattr() been called when writing this file
-  public static final IndexDefinition<FuseFileEntry<FuseFileStream>, String>
-      PATH_INDEX = IndexDefinition.ofUnique(FuseFileEntry::getPath);
-
-  protected final IndexedSet<FuseFileEntry<FuseFileStream>> mFileEntries
-      = new IndexedSet<>(ID_INDEX, PATH_INDEX);
+  // Indexed by path as well to know getattr() been called when writing this file
+  protected final FuseFileEntryTable<FuseFileStream> mFileEntries = new FuseFileEntryTable<>();
   private final AuthPolicy mAuthPolicy;
   private FuseStreamFactory mFuseStreamFactory;
+  @Nullable
+  private final FuseSmallFileLoader mSmallFileLoader;
+  @Nullable
+  private final FuseKernelCacheManager mKernelCacheManager;
 
   private final boolean mUfsEnabled;
   private final FuseOptions mFuseOptions;
@@ -140,7 +140,10 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
         : this::acquireBlockMasterInfo;
     mPathResolverCache = AlluxioFuseUtils.getPathResolverCache(mConf, fuseOptions);
     mAuthPolicy = AuthPolicyFactory.create(mFileSystem, mConf, this);
-    mFuseStreamFactory = new SimpleFuseStreamFactory(mFileSystem, mAuthPolicy);
+    mSmallFileLoader = FuseSmallFileLoader.create(mFileSystem, mConf);
+    mFuseStreamFactory = new SimpleFuseStreamFactory(mFileSystem, mAuthPolicy, mSmallFileLoader);
+    mKernelCacheManager = FuseKernelCacheManager.create(mConf, this::invalidatePath,
+        this::canInvalidatePath);
     mUfsEnabled = fuseOptions.getFileSystemOptions().getUfsFileSystemOptions().isPresent();
     if (mConf.getBoolean(PropertyKey.FUSE_DEBUG_ENABLED)) {
       try {
@@ -197,9 +200,16 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
     }
     try {
       FuseFileStream stream = mFuseStreamFactory.create(uri, fi.flags.get(), mode);
-      long fd = mNextOpenFileId.getAndIncrement();
-      mFileEntries.add(new FuseFileEntry<>(fd, path, stream, fi.flags.get()));
-      fi.fh.set(fd);
+      FuseFileEntry<FuseFileStream> entry = mFileEntries.add(path, stream, fi.flags.get());
+      fi.fh.set(entry.getId());
+      if (mKernelCacheManager != null) {
+        if (AlluxioFuseOpenUtils.getOpenAction(fi.flags.get())
+            == AlluxioFuseOpenUtils.OpenAction.READ_ONLY) {
+          fi.setKeepCache(mKernelCacheManager.canKeepCache(path));
+        } else {
+          forgetKernelCache(path);
+        }
+      }
     } catch (NotFoundRuntimeException e) {
       LOG.error("Failed to read {}: path does not exist or is invalid", path, e);
       return -ErrorCodes.ENOENT();
@@ -244,8 +254,7 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
       status.ifPresent(uriStatus -> AlluxioFuseUtils.fillStat(mAuthPolicy, stat, uriStatus));
 
       boolean hasWriteStream = false;
-      Set<FuseFileEntry<FuseFileStream>> fuseStreams
-          = mFileEntries.getByField(PATH_INDEX, path);
+      Set<FuseFileEntry<FuseFileStream>> fuseStreams = mFileEntries.getByPath(path);
       if (!fuseStreams.isEmpty()) {
         for (FuseFileEntry<FuseFileStream> stream : fuseStreams) {
           FileStatus fileStatus = stream.getFileStream().getFileStatus();
@@ -276,6 +285,9 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
         LOG.debug("Failed to getattr {}: path does not exist or is invalid", path);
         return -ErrorCodes.ENOENT();
       }
+      if (mKernelCacheManager != null && !hasWriteStream && status.get().isCompleted()) {
+        mKernelCacheManager.observe(path, status.get());
+      }
     } catch (Throwable t) {
       LOG.error("Failed to getattr {}", path, t);
       return -ErrorCodes.EIO();
@@ -283,6 +295,15 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
     return 0;
   }
 
+  @Override
+  public int opendir(String path, FuseFileInfo fi) {
+    if (mKernelCacheManager != null) {
+      fi.setCacheReaddir(true);
+      fi.setKeepCache(mKernelCacheManager.canKeepCache(path));
+    }
+    return 0;
+  }
+
   @Override
   public int readdir(String path, long buff, long filter, long offset,
       FuseFileInfo fi) {
@@ -302,9 +323,19 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
       FuseFillDir.apply(filter, buff, ".", null, 0);
       FuseFillDir.apply(filter, buff, "..", null, 0);
 
+      // the attributes of each entry are filled from the listing, so that readdirplus does
+      // not make the kernel call getattr for every entry
+      FileStat stat = FileStat.allocate();
+      List<String> names = mSmallFileLoader == null ? null : new ArrayList<>();
       mFileSystem.iterateStatus(uri, file -> {
-        FuseFillDir.apply(filter, buff, file.getName(), null, 0);
+        FuseFillDir.apply(filter, buff, file.getName(), fillEntryStat(path, file, stat), 0);
+        if (names != null) {
+          names.add(file.getName());
+        }
       });
+      if (names != null) {
+        mSmallFileLoader.onListing(uri, names);
+      }
     } catch (IOException | AlluxioException e) {
       LOG.error("Failed to readdir {}", path, e);
       return -ErrorCodes.EIO();
@@ -313,6 +344,25 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
     return 0;
   }
 
+  /**
+   * Fills the attributes of a listed entry, unless they need the extra handling of getattr,
+   * i.e. the file is being written by this or another client.
+   *
+   * @return the filled stat, or null if the kernel should call getattr for the entry
+   */
+  @Nullable
+  private FileStat fillEntryStat(String dirPath, URIStatus status, FileStat stat) {
+    String path = PathUtils.concatPath(dirPath, status.getName());
+    if (!status.isCompleted() || !mFileEntries.getByPath(path).isEmpty()) {
+      return null;
+    }
+    if (mKernelCacheManager != null) {
+      mKernelCacheManager.observe(path, status);
+    }
+    AlluxioFuseUtils.fillStat(mAuthPolicy, stat, status);
+    return stat;
+  }
+
   @Override
   public int read(String path, ByteBuffer buf, long size, long offset, FuseFileInfo fi) {
     final long fd = fi.fh.get();
@@ -323,7 +373,7 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
 
   private int readInternal(
       String path, ByteBuffer buf, long size, long offset, long fd) {
-    FuseFileEntry<FuseFileStream> entry = mFileEntries.getFirstByField(ID_INDEX, fd);
+    FuseFileEntry<FuseFileStream> entry = mFileEntries.get(fd);
     if (entry == null) {
       LOG.error("Failed to read {}: Cannot find fd {}", path, fd);
       return -ErrorCodes.EBADFD();
@@ -347,7 +397,7 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
 
   protected int writeInternal(
       String path, ByteBuffer buf, long size, long offset, long fd) {
-    FuseFileEntry<FuseFileStream> entry = mFileEntries.getFirstByField(ID_INDEX, fd);
+    FuseFileEntry<FuseFileStream> entry = mFileEntries.get(fd);
     if (entry == null) {
       LOG.error("Failed to write {}: Cannot find fd {}", path, fd);
       return -ErrorCodes.EBADFD();
@@ -372,10 +422,10 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
   }
 
   protected int flushInternal(String path, long fd) {
-    FuseFileEntry<FuseFileStream> entry = mFileEntries.getFirstByField(ID_INDEX, fd);
+    FuseFileEntry<FuseFileStream> entry = mFileEntries.get(fd);
     if (entry == null) {
       LOG.error("Failed to flush {}: Cannot find fd {}", path, fd);
-      entry = mFileEntries.getFirstByField(PATH_INDEX, path);
+      entry = mFileEntries.getFirstByPath(path);
       if (entry == null) {
         LOG.error("Failed to flush {}: Cannot find path", path);
         // Do not error out for flush since flush is a noop for now
@@ -394,7 +444,7 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
   }
 
   protected int releaseInternal(String path, long fd) {
-    FuseFileEntry<FuseFileStream> entry = mFileEntries.getFirstByField(ID_INDEX, fd);
+    FuseFileEntry<FuseFileStream> entry = mFileEntries.get(fd);
     if (entry == null) {
       LOG.error("Failed to release {}: Cannot find fd {}", path, fd);
       return -ErrorCodes.EBADFD();
@@ -403,6 +453,10 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
       entry.getFileStream().close();
     } finally {
       mFileEntries.remove(entry);
+      if (AlluxioFuseOpenUtils.getOpenAction(entry.getOpenOrCreateFlags())
+          != AlluxioFuseOpenUtils.OpenAction.READ_ONLY) {
+        forgetKernelCache(path);
+      }
     }
     return 0;
   }
@@ -426,6 +480,7 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
               .setRecursive(true)
               .build());
       mAuthPolicy.setUserGroupIfNeeded(uri);
+      forgetKernelCache(path);
     } catch (IOException | AlluxioException e) {
       LOG.error("Failed to mkdir {}", path, e);
       return -ErrorCodes.EIO();
@@ -459,6 +514,8 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
     }
     try {
       mFileSystem.delete(uri);
+      invalidateSmallFile(uri);
+      forgetKernelCache(path);
     } catch (DirectoryNotEmptyException de) {
       LOG.error("Failed to remove {}: directory not empty", path, de);
       return -ErrorCodes.EEXIST() | ErrorCodes.ENOTEMPTY();
@@ -524,6 +581,10 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
             sourcePath, destPath);
       }
       mFileSystem.rename(sourceUri, destUri);
+      invalidateSmallFile(sourceUri);
+      invalidateSmallFile(destUri);
+      forgetKernelCache(sourcePath);
+      forgetKernelCache(destPath);
     } catch (IOException | AlluxioException e) {
       LOG.error("Failed to rename {} to {}", sourcePath, destPath, e);
       return -ErrorCodes.EIO();
@@ -588,7 +649,7 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
       return res;
     }
     try {
-      FuseFileEntry<FuseFileStream> entry = mFileEntries.getFirstByField(PATH_INDEX, path);
+      FuseFileEntry<FuseFileStream> entry = mFileEntries.getFirstByPath(path);
       if (entry != null) {
         entry.getFileStream().truncate(size);
         return 0;
@@ -609,6 +670,8 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
         }
         if (size == 0) {
           AlluxioFuseUtils.deletePath(mFileSystem, uri);
+          invalidateSmallFile(uri);
+          forgetKernelCache(path);
         }
         LOG.error("Failed to truncate file {}({} bytes) to {} bytes: not supported.",
             path, fileLen, size);
@@ -741,9 +804,33 @@ public class AlluxioJniFuseFileSystem extends AbstractFuseFileSystem {
         }
       }
     }
+    if (mSmallFileLoader != null) {
+      mSmallFileLoader.close();
+    }
+    if (mKernelCacheManager != null) {
+      mKernelCacheManager.close();
+    }
     super.umount(force);
   }
 
+  private void invalidateSmallFile(AlluxioURI uri) {
+    if (mSmallFileLoader != null) {
+      mSmallFileLoader.invalidate(uri);
+    }
+  }
+
+  /**
+   * Drops the recorded fingerprints of a path changed through this mount and of its parent,
+   * whose modification time changes too.
+   */
+  private void forgetKernelCache(String path) {
+    if (mKernelCacheManager != null) {
+      mKernelCacheManager.forget(path);
+      int index = path.lastIndexOf(AlluxioURI.SEPARATOR);
+      mKernelCacheManager.forget(index <= 0 ? AlluxioURI.SEPARATOR : path.substring(0, index));
+    }
+  }
+
   @VisibleForTesting
   LoadingCache<String, AlluxioURI> getPathResolverCache() {
     return mPathResolverCache;
@@ -0,0 +1,174 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.fuse.file;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The table of open Fuse files, indexed by file handle and by path.
+ *
+ * The entries are kept in an array of slots, so looking up the entry of a file handle on every
+ * read or write is a single array read without locking. Only open and release, which assign and
+ * free slots, synchronize with each other. A file handle encodes the slot index in its low 32
+ * bits and a sequence number in its high bits, so a stale handle of a reused slot is never
+ * mistaken for the new entry in the slot. Freed slots are reused before the array grows.
+ *
+ * @param <T> the type of the file streams
+ */
+@ThreadSafe
+public final class FuseFileEntryTable<T extends FuseFileStream> {
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final long SLOT_MASK = 0xFFFFFFFFL;
+
+  private volatile AtomicReferenceArray<FuseFileEntry<T>> mSlots;
+  /** The number of slots ever handed out, i.e. the next slot to use if none is free. */
+  private int mNumUsedSlots = 0;
+  private final ArrayDeque<Integer> mFreeSlots = new ArrayDeque<>();
+  private int mNextSequence = 0;
+  private final AtomicInteger mSize = new AtomicInteger();
+  private final ConcurrentHashMap<String, Set<FuseFileEntry<T>>> mPathIndex =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Constructs a new {@link FuseFileEntryTable}.
+   */
+  public FuseFileEntryTable() {
+    this(INITIAL_CAPACITY);
+  }
+
+  @VisibleForTesting
+  FuseFileEntryTable(int initialCapacity) {
+    mSlots = new AtomicReferenceArray<>(initialCapacity);
+  }
+
+  /**
+   * Adds an open file and assigns a file handle to it.
+   *
+   * @param path the path of the file
+   * @param stream the file stream
+   * @param openOrCreateFlags the open or create flags
+   * @return the entry of the open file
+   */
+  public FuseFileEntry<T> add(String path, T stream, int openOrCreateFlags) {
+    FuseFileEntry<T> entry;
+    synchronized (this) {
+      int slot = allocateSlot();
+      // mask the sign bit so that the handle is never negative
+      long sequence = mNextSequence++ & 0x7FFFFFFFL;
+      entry = new FuseFileEntry<>((sequence << 32) | slot, path, stream, openOrCreateFlags);
+      mSlots.set(slot, entry);
+    }
+    mPathIndex.computeIfAbsent(path, p -> ConcurrentHashMap.newKeySet()).add(entry);
+    mSize.incrementAndGet();
+    return entry;
+  }
+
+  /**
+   * @param fd the file handle
+   * @return the entry of the file handle, or null if the file handle is not open
+   */
+  @Nullable
+  public FuseFileEntry<T> get(long fd) {
+    long slot = fd & SLOT_MASK;
+    AtomicReferenceArray<FuseFileEntry<T>> slots = mSlots;
+    if (fd < 0 || slot >= slots.length()) {
+      return null;
+    }
+    FuseFileEntry<T> entry = slots.get((int) slot);
+    return entry != null && entry.getId() == fd ? entry : null;
+  }
+
+  /**
+   * @param path the path
+   * @return the entries of all open files of the path
+   */
+  public Set<FuseFileEntry<T>> getByPath(String path) {
+    Set<FuseFileEntry<T>> entries = mPathIndex.get(path);
+    return entries == null ? Collections.emptySet() : Collections.unmodifiableSet(entries);
+  }
+
+  /**
+   * @param path the path
+   * @return the entry of an open file of the path, or null if the path is not open
+   */
+  @Nullable
+  public FuseFileEntry<T> getFirstByPath(String path) {
+    for (FuseFileEntry<T> entry : getByPath(path)) {
+      return entry;
+    }
+    return null;
+  }
+
+  /**
+   * Removes an open file, and frees its file handle.
+   *
+   * @param entry the entry to remove
+   * @return true if the entry was removed, false if it was not in the table
+   */
+  public boolean remove(FuseFileEntry<T> entry) {
+    int slot = (int) (entry.getId() & SLOT_MASK);
+    synchronized (this) {
+      if (slot >= mSlots.length() || !mSlots.compareAndSet(slot, entry, null)) {
+        return false;
+      }
+      mFreeSlots.push(slot);
+    }
+    mPathIndex.computeIfPresent(entry.getPath(), (path, entries) -> {
+      entries.remove(entry);
+      return entries.isEmpty() ? null : entries;
+    });
+    mSize.decrementAndGet();
+    return true;
+  }
+
+  /**
+   * @return the number of open files
+   */
+  public int size() {
+    return mSize.get();
+  }
+
+  /**
+   * @return whether there is no open file
+   */
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Must be called while holding the lock of this table.
+   */
+  private int allocateSlot() {
+    Integer free = mFreeSlots.poll();
+    if (free != null) {
+      return free;
+    }
+    if (mNumUsedSlots == mSlots.length()) {
+      AtomicReferenceArray<FuseFileEntry<T>> grown =
+          new AtomicReferenceArray<>(mSlots.length() * 2);
+      for (int i = 0; i < mSlots.length(); i++) {
+        grown.set(i, mSlots.get(i));
+      }
+      mSlots = grown;
+    }
+    return mNumUsedSlots++;
+  }
+}
@@ -62,16 +62,30 @@ public class FusePositionReader implements FuseFileStream {
             "Failed to create read-only stream for %s: file does not exist", uri));
       }
 
-      PositionReader reader = fileSystem.openPositionRead(status.get(),
-          OpenFilePOptions.getDefaultInstance());
-      return new FusePositionReader(reader, lockResource,
-          new FileStatus(status.get().getLength()), uri);
+      return create(fileSystem, lockResource, status.get(), uri);
     } catch (Throwable t) {
       lockResource.close();
       throw t;
     }
   }
 
+  /**
+   * Creates a position reader of a file whose status is already known.
+   *
+   * @param fileSystem the file system
+   * @param lockResource the lock resource of the file, owned by the reader once created
+   * @param status the status of the file
+   * @param uri the alluxio uri
+   * @return Fuse position reader
+   */
+  static FusePositionReader create(FileSystem fileSystem, CloseableResource<Lock> lockResource,
+      URIStatus status, AlluxioURI uri) {
+    PositionReader reader = fileSystem.openPositionRead(status,
+        OpenFilePOptions.getDefaultInstance());
+    return new FusePositionReader(reader, lockResource,
+        new FileStatus(status.getLength()), uri);
+  }
+
   private final PositionReader mPositionReader;
   private final FileStatus mFileStatus;
   private final AlluxioURI mURI;
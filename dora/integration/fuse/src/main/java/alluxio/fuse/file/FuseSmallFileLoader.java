@@ -0,0 +1,348 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.fuse.file;
+
+import alluxio.AlluxioURI;
+import alluxio.PositionReader;
+import alluxio.client.file.FileSystem;
+import alluxio.client.file.URIStatus;
+import alluxio.concurrent.LockMode;
+import alluxio.conf.AlluxioConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.exception.runtime.AlluxioRuntimeException;
+import alluxio.exception.runtime.NotFoundRuntimeException;
+import alluxio.fuse.AlluxioFuseUtils;
+import alluxio.fuse.lock.FuseReadWriteLockManager;
+import alluxio.grpc.OpenFilePOptions;
+import alluxio.network.protocol.databuffer.NioDirectBufferPool;
+import alluxio.resource.CloseableResource;
+import alluxio.util.executor.ExecutorServiceFactories;
+import alluxio.util.io.BufferUtils;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Opens the files no larger than a threshold by fetching their whole content at once into a
+ * pooled buffer, so that reading a small file takes one status RPC and one data request instead
+ * of a position reader serving many small FUSE reads.
+ *
+ * When a small file is opened, the files which follow it in the last listing of its directory
+ * are prefetched in the background, as training jobs often read the files of a directory in
+ * listing order. Opening a prefetched file takes no data request, only the status check every
+ * open makes, which the metadata cache serves when enabled. The content is served only if that
+ * status matches the status the file was prefetched with, so changes made by other clients are
+ * picked up as soon as the status shows them. Prefetched files are also dropped when they are
+ * written, removed or renamed through this FUSE, and expire after a minute if not opened.
+ *
+ * The prefetched files are weighed by the capacity of their buffers, which all have the size of
+ * the threshold, so the prefetch cache size bounds the direct memory they hold. The buffers of
+ * the prefetched files dropped without being opened are freed rather than pooled, as the pool
+ * never frees its buffers.
+ */
+@ThreadSafe
+public final class FuseSmallFileLoader {
+  private static final Logger LOG = LoggerFactory.getLogger(FuseSmallFileLoader.class);
+  private static final long PREFETCH_EXPIRY_MS = 60_000;
+  /** The maximum number of listed names kept to find the files to prefetch. */
+  private static final int MAX_LISTED_NAMES = 1_000_000;
+
+  private final FileSystem mFileSystem;
+  private final int mThreshold;
+  private final int mPrefetchCount;
+  /** The last listing of each directory. */
+  private final Cache<String, Listing> mListings;
+  /** The prefetched files not opened yet, owning their buffers. */
+  private final Cache<String, Prefetched> mPrefetched;
+  /** The files being prefetched, a prefetch is dropped if its token is removed meanwhile. */
+  private final ConcurrentHashMap<String, Object> mPrefetching = new ConcurrentHashMap<>();
+  @Nullable
+  private final ExecutorService mPrefetchExecutor;
+
+  /**
+   * @param fileSystem the file system
+   * @param conf the configuration
+   * @return the small file loader, or null if the small file mode is disabled
+   */
+  @Nullable
+  public static FuseSmallFileLoader create(FileSystem fileSystem, AlluxioConfiguration conf) {
+    long threshold = conf.getBytes(PropertyKey.FUSE_SMALL_FILE_THRESHOLD);
+    if (threshold <= 0 || !conf.getBoolean(PropertyKey.FUSE_POSITION_READ_ENABLED)) {
+      return null;
+    }
+    Preconditions.checkArgument(threshold <= Integer.MAX_VALUE,
+        "%s must not be larger than 2GB", PropertyKey.Name.FUSE_SMALL_FILE_THRESHOLD);
+    return new FuseSmallFileLoader(fileSystem, (int) threshold,
+        conf.getInt(PropertyKey.FUSE_SMALL_FILE_PREFETCH_COUNT),
+        conf.getBytes(PropertyKey.FUSE_SMALL_FILE_PREFETCH_CACHE_SIZE));
+  }
+
+  @VisibleForTesting
+  FuseSmallFileLoader(FileSystem fileSystem, int threshold, int prefetchCount,
+      long prefetchCacheSize) {
+    mFileSystem = Preconditions.checkNotNull(fileSystem);
+    mThreshold = threshold;
+    mPrefetchCount = prefetchCount;
+    mListings = CacheBuilder.newBuilder()
+        .maximumWeight(MAX_LISTED_NAMES)
+        .<String, Listing>weigher((dir, listing) -> listing.mNames.length)
+        .build();
+    mPrefetched = CacheBuilder.newBuilder()
+        // a single segment, so that the weight is bounded by the whole cache size
+        .concurrencyLevel(1)
+        .maximumWeight(prefetchCacheSize)
+        .<String, Prefetched>weigher((path, prefetched) -> prefetched.mContent.capacity())
+        .expireAfterWrite(PREFETCH_EXPIRY_MS, TimeUnit.MILLISECONDS)
+        .<String, Prefetched>removalListener(notification -> {
+          // explicitly removed content is handed over to a reader or freed by the remover
+          if (notification.getCause() != RemovalCause.EXPLICIT) {
+            BufferUtils.cleanDirectBuffer(notification.getValue().mContent);
+          }
+        })
+        .build();
+    mPrefetchExecutor = prefetchCount > 0
+        ? ExecutorServiceFactories.fixedThreadPool("fuse-small-file-prefetch", prefetchCount)
+            .create()
+        : null;
+  }
+
+  /**
+   * Opens a file for read. Small files are fetched as a whole, other files are opened with a
+   * {@link FusePositionReader}.
+   *
+   * @param lockManager the lock manager
+   * @param uri the alluxio uri
+   * @return the fuse file stream
+   */
+  public FuseFileStream open(FuseReadWriteLockManager lockManager, AlluxioURI uri) {
+    CloseableResource<Lock> lockResource = lockManager.tryLock(uri.toString(), LockMode.READ);
+    try {
+      // Make sure file is not being written by other clients outside current FUSE
+      Optional<URIStatus> status = AlluxioFuseUtils.getPathStatus(mFileSystem, uri);
+      Prefetched prefetched = mPrefetched.asMap().remove(uri.toString());
+      if (prefetched != null) {
+        if (status.isPresent() && isUnchanged(prefetched.mStatus, status.get())) {
+          prefetchNext(uri);
+          return new FuseSmallFileReader(this, prefetched.mContent, lockResource, uri);
+        }
+        // the file changed since it was prefetched
+        BufferUtils.cleanDirectBuffer(prefetched.mContent);
+      }
+      if (!status.isPresent()) {
+        throw new NotFoundRuntimeException(String.format(
+            "Failed to create read-only stream for %s: file does not exist", uri));
+      }
+      if (!isSmallFile(status.get())) {
+        return FusePositionReader.create(mFileSystem, lockResource, status.get(), uri);
+      }
+      ByteBuffer content = fetch(status.get());
+      prefetchNext(uri);
+      return new FuseSmallFileReader(this, content, lockResource, uri);
+    } catch (Throwable t) {
+      lockResource.close();
+      throw t;
+    }
+  }
+
+  /**
+   * Records the order of the entries of a directory, to prefetch the files following an
+   * opened file.
+   *
+   * @param dir the directory
+   * @param names the names of the entries in listing order
+   */
+  public void onListing(AlluxioURI dir, List<String> names) {
+    if (mPrefetchCount <= 0) {
+      return;
+    }
+    mListings.put(dir.toString(), new Listing(names.toArray(new String[0])));
+  }
+
+  /**
+   * Drops the prefetched content of a file, when the file is changed through this FUSE.
+   *
+   * @param uri the alluxio uri
+   */
+  public void invalidate(AlluxioURI uri) {
+    mPrefetching.remove(uri.toString());
+    dropPrefetched(uri.toString());
+  }
+
+  /**
+   * @param uri the alluxio uri
+   * @return whether the file is prefetched and not opened yet
+   */
+  @VisibleForTesting
+  boolean isPrefetched(AlluxioURI uri) {
+    return mPrefetched.getIfPresent(uri.toString()) != null;
+  }
+
+  /**
+   * @return whether any file is being prefetched
+   */
+  @VisibleForTesting
+  boolean isPrefetching() {
+    return !mPrefetching.isEmpty();
+  }
+
+  /**
+   * Returns a buffer holding the content of a small file to the pool.
+   *
+   * @param buffer the buffer
+   */
+  void releaseBuffer(ByteBuffer buffer) {
+    NioDirectBufferPool.release(buffer);
+  }
+
+  /**
+   * Closes the loader and stops the prefetch.
+   */
+  public void close() {
+    if (mPrefetchExecutor != null) {
+      mPrefetchExecutor.shutdownNow();
+    }
+    mPrefetched.asMap().keySet().forEach(this::dropPrefetched);
+  }
+
+  private void dropPrefetched(String key) {
+    Prefetched prefetched = mPrefetched.asMap().remove(key);
+    if (prefetched != null) {
+      BufferUtils.cleanDirectBuffer(prefetched.mContent);
+    }
+  }
+
+  private boolean isSmallFile(URIStatus status) {
+    return !status.isFolder() && status.isCompleted() && status.getLength() <= mThreshold;
+  }
+
+  private static boolean isUnchanged(URIStatus prefetched, URIStatus status) {
+    return prefetched.getLength() == status.getLength()
+        && prefetched.getLastModificationTimeMs() == status.getLastModificationTimeMs()
+        && Objects.equals(prefetched.getFileInfo().getContentHash(),
+            status.getFileInfo().getContentHash());
+  }
+
+  private ByteBuffer fetch(URIStatus status) {
+    // all buffers have the size of the threshold, so that any of them can be reused for any file
+    ByteBuffer content = NioDirectBufferPool.acquire(mThreshold);
+    content.limit((int) status.getLength());
+    try (PositionReader reader = mFileSystem.openPositionRead(status,
+        OpenFilePOptions.getDefaultInstance())) {
+      while (content.hasRemaining()) {
+        if (reader.read(content.position(), content, content.remaining()) <= 0) {
+          throw new IOException(String.format("Unexpected end of file %s at %s of %s bytes",
+              status.getPath(), content.position(), status.getLength()));
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      releaseBuffer(content);
+      throw AlluxioRuntimeException.from(e);
+    }
+    content.flip();
+    return content;
+  }
+
+  private void prefetchNext(AlluxioURI uri) {
+    if (mPrefetchExecutor == null) {
+      return;
+    }
+    AlluxioURI dir = uri.getParent();
+    if (dir == null) {
+      return;
+    }
+    Listing listing = mListings.getIfPresent(dir.toString());
+    Integer position = listing == null ? null : listing.mPositions.get(uri.getName());
+    if (position == null) {
+      return;
+    }
+    String[] names = listing.mNames;
+    for (int i = position + 1; i <= position + mPrefetchCount && i < names.length; i++) {
+      AlluxioURI next = dir.join(names[i]);
+      String key = next.toString();
+      Object token = new Object();
+      if (mPrefetched.getIfPresent(key) != null || mPrefetching.putIfAbsent(key, token) != null) {
+        continue;
+      }
+      mPrefetchExecutor.submit(() -> prefetch(next, token));
+    }
+  }
+
+  private void prefetch(AlluxioURI uri, Object token) {
+    String key = uri.toString();
+    try {
+      Optional<URIStatus> status = AlluxioFuseUtils.getPathStatus(mFileSystem, uri);
+      if (!status.isPresent() || !isSmallFile(status.get())
+          || !mPrefetching.containsKey(key)) {
+        return;
+      }
+      ByteBuffer content = fetch(status.get());
+      // the file was invalidated while it was being fetched
+      if (!mPrefetching.remove(key, token)) {
+        BufferUtils.cleanDirectBuffer(content);
+        return;
+      }
+      mPrefetched.put(key, new Prefetched(content, status.get()));
+    } catch (Throwable t) {
+      LOG.debug("Failed to prefetch {}", uri, t);
+    } finally {
+      mPrefetching.remove(key, token);
+    }
+  }
+
+  /**
+   * The content of a prefetched file, with the status it was fetched for.
+   */
+  private static final class Prefetched {
+    private final ByteBuffer mContent;
+    private final URIStatus mStatus;
+
+    Prefetched(ByteBuffer content, URIStatus status) {
+      mContent = content;
+      mStatus = status;
+    }
+  }
+
+  /**
+   * The names of the entries of a directory in listing order.
+   */
+  private static final class Listing {
+    private final String[] mNames;
+    private final Map<String, Integer> mPositions;
+
+    Listing(String[] names) {
+      mNames = names;
+      mPositions = new HashMap<>(names.length * 2);
+      for (int i = 0; i < names.length; i++) {
+        mPositions.put(names[i], i);
+      }
+    }
+  }
+}
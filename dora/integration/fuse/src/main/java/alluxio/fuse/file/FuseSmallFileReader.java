@@ -0,0 +1,125 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.fuse.file;
+
+import alluxio.AlluxioURI;
+import alluxio.exception.runtime.FailedPreconditionRuntimeException;
+import alluxio.exception.runtime.UnimplementedRuntimeException;
+import alluxio.resource.CloseableResource;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.Lock;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * FUSE reader of a small file whose whole content is fetched on open, see
+ * {@link FuseSmallFileLoader}. Reads are served from the in-memory content, which is returned
+ * to the buffer pool of the loader on close.
+ */
+@ThreadSafe
+public class FuseSmallFileReader implements FuseFileStream {
+  private final FuseSmallFileLoader mLoader;
+  private final ByteBuffer mContent;
+  private final FileStatus mFileStatus;
+  private final AlluxioURI mURI;
+  private final CloseableResource<Lock> mLockResource;
+  private volatile boolean mClosed = false;
+
+  /**
+   * @param loader the loader which owns the buffer pool of the content
+   * @param content the whole content of the file, from position 0 to its limit
+   * @param lockResource the lock resource of the file
+   * @param uri the alluxio uri
+   */
+  FuseSmallFileReader(FuseSmallFileLoader loader, ByteBuffer content,
+      CloseableResource<Lock> lockResource, AlluxioURI uri) {
+    mLoader = Preconditions.checkNotNull(loader);
+    mContent = Preconditions.checkNotNull(content);
+    mLockResource = Preconditions.checkNotNull(lockResource);
+    mURI = Preconditions.checkNotNull(uri);
+    mFileStatus = new FileStatus(content.limit());
+  }
+
+  @Override
+  public int read(ByteBuffer buf, long size, long offset) {
+    if (mClosed) {
+      throw new FailedPreconditionRuntimeException("Small file reader is closed");
+    }
+    if (offset >= mContent.limit()) {
+      return 0;
+    }
+    int length = (int) Math.min(size, mContent.limit() - offset);
+    // each read uses its own view, so concurrent reads do not share the position
+    ByteBuffer src = mContent.duplicate();
+    src.position((int) offset);
+    src.limit((int) offset + length);
+    buf.put(src);
+    return length;
+  }
+
+  @Override
+  public void write(ByteBuffer buf, long size, long offset) {
+    throw new FailedPreconditionRuntimeException(String
+        .format("Cannot write to reading file %s", mURI));
+  }
+
+  @Override
+  public FileStatus getFileStatus() {
+    return mFileStatus;
+  }
+
+  @Override
+  public void flush() {}
+
+  @Override
+  public void truncate(long size) {
+    throw new UnimplementedRuntimeException(String
+        .format("Cannot truncate reading file  %s", mURI));
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      closeStream();
+    } finally {
+      releaseLock();
+    }
+  }
+
+  @Override
+  public boolean isClosed() {
+    return mClosed;
+  }
+
+  @Override
+  public boolean isReadOnly() {
+    return true;
+  }
+
+  @Override
+  public synchronized void releaseLock() {
+    if (!mLockResource.isClosed()) {
+      mLockResource.close();
+    }
+  }
+
+  @Override
+  public synchronized void closeStream() {
+    if (mClosed) {
+      return;
+    }
+    mClosed = true;
+    mLoader.releaseBuffer(mContent);
+  }
+}
@@ -22,6 +22,7 @@ import alluxio.fuse.lock.FuseReadWriteLockManager;
 
 import jnr.constants.platform.OpenFlags;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
@@ -35,6 +36,8 @@ public class SimpleFuseStreamFactory implements FuseStreamFactory {
   // TODO(lu) allow different threads reading from same file to share the same position reader
   private final boolean mPositionReadEnabled
       = Configuration.getBoolean(PropertyKey.FUSE_POSITION_READ_ENABLED);
+  @Nullable
+  private final FuseSmallFileLoader mSmallFileLoader;
 
   /**
    * Creates an instance of {@link FuseStreamFactory} for
@@ -44,8 +47,22 @@ public class SimpleFuseStreamFactory implements FuseStreamFactory {
    * @param authPolicy the authentication policy
    */
   public SimpleFuseStreamFactory(FileSystem fileSystem, AuthPolicy authPolicy) {
+    this(fileSystem, authPolicy, null);
+  }
+
+  /**
+   * Creates an instance of {@link FuseStreamFactory} for
+   * creating fuse streams.
+   *
+   * @param fileSystem the file system
+   * @param authPolicy the authentication policy
+   * @param smallFileLoader the loader of small files, or null if the small file mode is disabled
+   */
+  public SimpleFuseStreamFactory(FileSystem fileSystem, AuthPolicy authPolicy,
+      @Nullable FuseSmallFileLoader smallFileLoader) {
     mFileSystem = fileSystem;
     mAuthPolicy = authPolicy;
+    mSmallFileLoader = smallFileLoader;
   }
 
   /**
@@ -62,13 +79,18 @@ public class SimpleFuseStreamFactory implements FuseStreamFactory {
       AlluxioURI uri, int flags, long mode) {
     switch (OpenFlags.valueOf(flags & O_ACCMODE.intValue())) {
       case O_RDONLY:
+        if (mSmallFileLoader != null) {
+          return mSmallFileLoader.open(mLockManager, uri);
+        }
         if (mPositionReadEnabled) {
           return FusePositionReader.create(mFileSystem, mLockManager, uri);
         }
         return FuseFileInStream.create(mFileSystem, mLockManager, uri);
       case O_WRONLY:
+        invalidateSmallFile(uri);
         return FuseFileOutStream.create(mFileSystem, mAuthPolicy, mLockManager, uri, flags, mode);
       default:
+        invalidateSmallFile(uri);
         return FuseFileInOrOutStream.create(mFileSystem, mAuthPolicy, mLockManager,
             uri, flags, mode);
         /*
@@ -81,4 +103,10 @@ public class SimpleFuseStreamFactory implements FuseStreamFactory {
         */
     }
   }
+
+  private void invalidateSmallFile(AlluxioURI uri) {
+    if (mSmallFileLoader != null) {
+      mSmallFileLoader.invalidate(uri);
+    }
+  }
 }
@@ -11,9 +11,6 @@
 
 package alluxio.fuse.lock;
 
-import static com.google.common.hash.Hashing.md5;
-import static java.nio.charset.StandardCharsets.UTF_8;
-
 import alluxio.Constants;
 import alluxio.concurrent.ClientRWLock;
 import alluxio.concurrent.LockMode;
@@ -23,30 +20,31 @@ import alluxio.exception.runtime.CancelledRuntimeException;
 import alluxio.exception.runtime.DeadlineExceededRuntimeException;
 import alluxio.resource.CloseableResource;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.annotations.VisibleForTesting;
 
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
+import javax.annotation.concurrent.ThreadSafe;
 
 /**
  * The lock manager to guard Fuse read/write operations.
+ *
+ * Only writers create the lock of a path, which counts the writers holding or waiting for it.
+ * A reader checks that count on open: with no writer it opens the file without any locking, so
+ * concurrent readers never contend on the lock manager, and otherwise it takes the read lock of
+ * the path and waits for the writers. Hence writers exclude each other and the readers coming
+ * after them, but not the readers which opened the file before a writer came.
  */
+@ThreadSafe
 public class FuseReadWriteLockManager {
   private static final long TRY_LOCK_TIMEOUT = 20 * Constants.SECOND_MS;
   // Maximum readers allowed for each file
   private static final int MAX_READER_CONCURRENCY = Configuration.global()
       .getInt(PropertyKey.FUSE_MAX_READER_CONCURRENCY);
 
-  private final LoadingCache<String, ClientRWLock> mLockCache
-      = CacheBuilder.newBuilder().weakValues()
-      .build(new CacheLoader<String, ClientRWLock>() {
-        @Override
-        public ClientRWLock load(String key) {
-          return new ClientRWLock(MAX_READER_CONCURRENCY);
-        }
-      });
+  /** The locks of the paths with writers, removed when their last holder releases them. */
+  private final ConcurrentHashMap<String, PathLock> mLocks = new ConcurrentHashMap<>();
 
   /**
    * Constructs a new {@link FuseReadWriteLockManager}.
@@ -58,36 +56,94 @@ public class FuseReadWriteLockManager {
    *
    * @param path the path to lock
    * @param mode the lock mode
-   * @return the lock resource to unlock the locked lock
+   * @return the lock resource to unlock the locked lock, the lock is null if the path
+   *         is read without locking
    */
   public CloseableResource<Lock> tryLock(String path, LockMode mode) {
-    ClientRWLock pathLock = mLockCache.getUnchecked(getHashedKey(path));
-    Lock lock = mode == LockMode.READ ? pathLock.readLock() : pathLock.writeLock();
+    boolean isWrite = mode == LockMode.WRITE;
+    PathLock pathLock;
+    if (isWrite) {
+      pathLock = mLocks.compute(path, (key, existing) -> (existing == null
+          ? new PathLock() : existing).retain(true));
+    } else {
+      // the fast path reads the map without locking any of it
+      PathLock existing = mLocks.get(path);
+      pathLock = existing == null || existing.mWriters == 0 ? null
+          : mLocks.computeIfPresent(path, (key, current) -> current.retain(false));
+    }
+    if (pathLock == null) {
+      return new CloseableResource<Lock>(null) {
+        @Override
+        public void closeResource() {}
+      };
+    }
+    Lock lock = mode == LockMode.READ ? pathLock.mLock.readLock() : pathLock.mLock.writeLock();
     try {
       if (!lock.tryLock(TRY_LOCK_TIMEOUT, TimeUnit.MILLISECONDS)) {
+        release(path, isWrite);
         throw new DeadlineExceededRuntimeException(String.format(
             "Failed to acquire lock for path %s after %s ms "
                 + "(LockMode: %s, lock reference count = %s)",
-            path, TRY_LOCK_TIMEOUT, mode, pathLock.getReferenceCount()));
+            path, TRY_LOCK_TIMEOUT, mode, pathLock.mLock.getReferenceCount()));
       }
       return new CloseableResource<Lock>(lock) {
         @Override
         public void closeResource() {
-          lock.unlock();
+          try {
+            lock.unlock();
+          } finally {
+            release(path, isWrite);
+          }
         }
       };
     } catch (InterruptedException e) {
+      release(path, isWrite);
       Thread.currentThread().interrupt();
       throw new CancelledRuntimeException(String.format(
           "Failed to acquire lock for path %s after %s ms: interrupted "
               + "(LockMode: %s, lock reference count = %s)",
-          path, TRY_LOCK_TIMEOUT, mode, pathLock.getReferenceCount()));
+          path, TRY_LOCK_TIMEOUT, mode, pathLock.mLock.getReferenceCount()));
     }
   }
 
-  private String getHashedKey(String key) {
-    // File path is a unique identifier for a file, however it can be a long string
-    // hence using md5 hash of the file path as the lock identifier
-    return md5().hashString(key, UTF_8).toString();
+  /**
+   * @return the number of paths with a lock
+   */
+  @VisibleForTesting
+  int getNumLockedPaths() {
+    return mLocks.size();
+  }
+
+  private void release(String path, boolean isWrite) {
+    mLocks.computeIfPresent(path, (key, existing) -> existing.release(isWrite) ? null : existing);
+  }
+
+  /**
+   * The lock of a path with the number of its holders and waiters, and of the writers among
+   * them. The counts are only modified inside the atomic computations of the lock map.
+   */
+  private static final class PathLock {
+    private final ClientRWLock mLock = new ClientRWLock(MAX_READER_CONCURRENCY);
+    private int mRefCount = 0;
+    /** Read by the readers opening the path outside of the computations of the map. */
+    private volatile int mWriters = 0;
+
+    PathLock retain(boolean isWrite) {
+      mRefCount++;
+      if (isWrite) {
+        mWriters++;
+      }
+      return this;
+    }
+
+    /**
+     * @return whether the lock has no more holders or waiters
+     */
+    boolean release(boolean isWrite) {
+      if (isWrite) {
+        mWriters--;
+      }
+      return --mRefCount == 0;
+    }
   }
 }
@@ -0,0 +1,174 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.fuse.meta;
+
+import alluxio.client.file.URIStatus;
+import alluxio.conf.AlluxioConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.jnifuse.ErrorCodes;
+import alluxio.util.executor.ExecutorServiceFactories;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToIntFunction;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Decides when the kernel may keep its caches of a Fuse path, and invalidates them when the
+ * path changes.
+ *
+ * The fingerprint of each path, i.e. its UFS fingerprint, or its length and modification time if
+ * there is none, is recorded whenever its status is seen by getattr or readdir. Opening a path
+ * keeps the kernel page cache, or the cached directory entries, only if the path was seen before
+ * and no change is pending. When a different fingerprint is seen, the kernel caches of the path
+ * are invalidated in the background, as libfuse may wait for the running operation on the path
+ * while invalidating it. Changes made through this Fuse mount are already applied to the kernel
+ * caches by the kernel itself, so they only drop the recorded fingerprint.
+ *
+ * Whether the kernel caches can be invalidated is probed once when the manager is created, and
+ * the manager is not created at all if they cannot, so that the kernel is never told to keep
+ * caches it could not be told to drop.
+ */
+@ThreadSafe
+public final class FuseKernelCacheManager {
+  private static final Logger LOG = LoggerFactory.getLogger(FuseKernelCacheManager.class);
+
+  /** The fingerprints of the paths, keyed by the Fuse path. */
+  private final Cache<String, String> mFingerprints;
+  /** The paths whose kernel caches are to be invalidated. */
+  private final Set<String> mPendingInvalidations = ConcurrentHashMap.newKeySet();
+  private final ToIntFunction<String> mInvalidator;
+  private final ExecutorService mInvalidationExecutor;
+  private volatile boolean mInvalidationSupported = true;
+
+  /**
+   * @param conf the configuration
+   * @param invalidator invalidates the kernel caches of a path, returning a negative error code
+   *                    on failure
+   * @param invalidationProbe tells whether the kernel caches of a path can be invalidated
+   * @return the kernel cache manager, or null if the kernel cache is disabled
+   */
+  @Nullable
+  public static FuseKernelCacheManager create(AlluxioConfiguration conf,
+      ToIntFunction<String> invalidator, BooleanSupplier invalidationProbe) {
+    if (!conf.getBoolean(PropertyKey.FUSE_KERNEL_CACHE_ENABLED)) {
+      return null;
+    }
+    if (conf.getInt(PropertyKey.FUSE_JNIFUSE_LIBFUSE_VERSION) < 3) {
+      LOG.warn("{} is ignored, invalidating the kernel cache requires libfuse3",
+          PropertyKey.Name.FUSE_KERNEL_CACHE_ENABLED);
+      return null;
+    }
+    if (!invalidationProbe.getAsBoolean()) {
+      LOG.warn("{} is ignored, the loaded libjnifuse cannot invalidate the kernel cache",
+          PropertyKey.Name.FUSE_KERNEL_CACHE_ENABLED);
+      return null;
+    }
+    return new FuseKernelCacheManager(conf.getInt(PropertyKey.FUSE_KERNEL_CACHE_MAX_PATHS),
+        invalidator, ExecutorServiceFactories
+            .fixedThreadPool("fuse-kernel-cache-invalidation", 1).create());
+  }
+
+  @VisibleForTesting
+  FuseKernelCacheManager(long maxPaths, ToIntFunction<String> invalidator,
+      ExecutorService invalidationExecutor) {
+    mFingerprints = CacheBuilder.newBuilder().maximumSize(maxPaths).build();
+    mInvalidator = Preconditions.checkNotNull(invalidator);
+    mInvalidationExecutor = Preconditions.checkNotNull(invalidationExecutor);
+  }
+
+  /**
+   * Records the status of a path seen from Alluxio, and invalidates the kernel caches of the
+   * path if it changed since it was last seen.
+   *
+   * @param path the Fuse path
+   * @param status the status of the path
+   */
+  public void observe(String path, URIStatus status) {
+    String fingerprint = fingerprint(status);
+    String previous = mFingerprints.asMap().put(path, fingerprint);
+    if (previous != null && !previous.equals(fingerprint)) {
+      LOG.debug("Fingerprint of {} changed from {} to {}", path, previous, fingerprint);
+      invalidate(path);
+    }
+  }
+
+  /**
+   * @param path the Fuse path being opened
+   * @return whether the kernel may keep its cache of the path on open
+   */
+  public boolean canKeepCache(String path) {
+    return mInvalidationSupported && mFingerprints.getIfPresent(path) != null
+        && !mPendingInvalidations.contains(path);
+  }
+
+  /**
+   * Drops the recorded fingerprint of a path changed through this Fuse mount.
+   *
+   * @param path the Fuse path
+   */
+  public void forget(String path) {
+    mFingerprints.invalidate(path);
+  }
+
+  /**
+   * Stops the background invalidation.
+   */
+  public void close() {
+    mInvalidationExecutor.shutdownNow();
+  }
+
+  private void invalidate(String path) {
+    if (!mInvalidationSupported || !mPendingInvalidations.add(path)) {
+      return;
+    }
+    mInvalidationExecutor.submit(() -> {
+      int res;
+      try {
+        res = mInvalidator.applyAsInt(path);
+      } finally {
+        mPendingInvalidations.remove(path);
+      }
+      if (res == -ErrorCodes.ENOSYS()) {
+        LOG.warn("Invalidating the kernel cache is not supported by the libfuse version, "
+            + "changes made outside of this Fuse mount are visible after the cache timeouts");
+        mInvalidationSupported = false;
+      } else if (res != 0) {
+        // -ENOENT means the kernel does not cache the path at all
+        LOG.debug("Failed to invalidate the kernel cache of {}: {}", path, res);
+      }
+    });
+  }
+
+  /**
+   * @param status the status of a path
+   * @return the fingerprint of the path, which changes when its content changes
+   */
+  @VisibleForTesting
+  static String fingerprint(URIStatus status) {
+    String ufsFingerprint = status.getUfsFingerprint();
+    if (ufsFingerprint != null && !ufsFingerprint.isEmpty()) {
+      return ufsFingerprint;
+    }
+    return status.getLength() + ":" + status.getLastModificationTimeMs();
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.fuse.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the {@link FuseFileEntryTable} class.
+ */
+public final class FuseFileEntryTableTest {
+  private final FuseFileStream mStream = Mockito.mock(FuseFileStream.class);
+
+  @Test
+  public void addGetRemove() {
+    FuseFileEntryTable<FuseFileStream> table = new FuseFileEntryTable<>();
+    FuseFileEntry<FuseFileStream> entry = table.add("/a", mStream, 0);
+    assertSame(entry, table.get(entry.getId()));
+    assertSame(entry, table.getFirstByPath("/a"));
+    assertEquals(1, table.size());
+    assertTrue(table.remove(entry));
+    assertFalse(table.remove(entry));
+    assertNull(table.get(entry.getId()));
+    assertNull(table.getFirstByPath("/a"));
+    assertTrue(table.isEmpty());
+  }
+
+  @Test
+  public void staleHandleOfReusedSlot() {
+    FuseFileEntryTable<FuseFileStream> table = new FuseFileEntryTable<>();
+    FuseFileEntry<FuseFileStream> first = table.add("/a", mStream, 0);
+    table.remove(first);
+    FuseFileEntry<FuseFileStream> second = table.add("/b", mStream, 0);
+    assertNotEquals(first.getId(), second.getId());
+    assertNull(table.get(first.getId()));
+    assertSame(second, table.get(second.getId()));
+    assertNull(table.get(-1));
+  }
+
+  @Test
+  public void growsBeyondInitialCapacity() {
+    FuseFileEntryTable<FuseFileStream> table = new FuseFileEntryTable<>(2);
+    List<FuseFileEntry<FuseFileStream>> entries = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      entries.add(table.add("/f" + i, mStream, 0));
+    }
+    for (FuseFileEntry<FuseFileStream> entry : entries) {
+      assertSame(entry, table.get(entry.getId()));
+    }
+    assertEquals(10, table.size());
+  }
+
+  @Test
+  public void multipleEntriesOfPath() {
+    FuseFileEntryTable<FuseFileStream> table = new FuseFileEntryTable<>();
+    FuseFileEntry<FuseFileStream> first = table.add("/a", mStream, 0);
+    FuseFileEntry<FuseFileStream> second = table.add("/a", mStream, 0);
+    assertEquals(2, table.getByPath("/a").size());
+    table.remove(first);
+    assertSame(second, table.getFirstByPath("/a"));
+    table.remove(second);
+    assertTrue(table.getByPath("/a").isEmpty());
+  }
+}
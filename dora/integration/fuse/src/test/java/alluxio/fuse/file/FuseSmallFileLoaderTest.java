@@ -0,0 +1,185 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.fuse.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import alluxio.AlluxioURI;
+import alluxio.PositionReader;
+import alluxio.client.file.FileSystem;
+import alluxio.client.file.URIStatus;
+import alluxio.file.ReadTargetBuffer;
+import alluxio.fuse.lock.FuseReadWriteLockManager;
+import alluxio.grpc.OpenFilePOptions;
+import alluxio.util.CommonUtils;
+import alluxio.util.WaitForOptions;
+import alluxio.wire.FileInfo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Tests for the {@link FuseSmallFileLoader} class.
+ */
+public final class FuseSmallFileLoaderTest {
+  private static final int THRESHOLD = 1024;
+
+  private final FileSystem mFileSystem = mock(FileSystem.class);
+  private final FuseReadWriteLockManager mLockManager = new FuseReadWriteLockManager();
+  private FuseSmallFileLoader mLoader;
+
+  @Before
+  public void before() {
+    mLoader = new FuseSmallFileLoader(mFileSystem, THRESHOLD, 2, 1024 * 1024);
+  }
+
+  @After
+  public void after() {
+    mLoader.close();
+  }
+
+  @Test
+  public void smallFileIsReadFromMemory() throws Exception {
+    byte[] data = addFile("/dir/a", 100);
+    FuseFileStream stream = mLoader.open(mLockManager, new AlluxioURI("/dir/a"));
+    assertTrue(stream instanceof FuseSmallFileReader);
+    assertEquals(100, stream.getFileStatus().getFileLength());
+    ByteBuffer buf = ByteBuffer.allocate(64);
+    assertEquals(60, stream.read(buf, 64, 40));
+    assertArrayEquals(Arrays.copyOfRange(data, 40, 100), Arrays.copyOf(buf.array(), 60));
+    assertEquals(0, stream.read(ByteBuffer.allocate(64), 64, 100));
+    stream.close();
+  }
+
+  @Test
+  public void largeFileIsReadByPosition() throws Exception {
+    addFile("/dir/a", THRESHOLD + 1);
+    FuseFileStream stream = mLoader.open(mLockManager, new AlluxioURI("/dir/a"));
+    assertTrue(stream instanceof FusePositionReader);
+    stream.close();
+  }
+
+  @Test
+  public void prefetchesNextFilesInListingOrder() throws Exception {
+    addFile("/dir/a", 10);
+    byte[] data = addFile("/dir/b", 20);
+    addFile("/dir/c", 30);
+    addFile("/dir/d", 40);
+    mLoader.onListing(new AlluxioURI("/dir"), Arrays.asList("a", "b", "c", "d"));
+    mLoader.open(mLockManager, new AlluxioURI("/dir/a")).close();
+    waitForPrefetched("/dir/b");
+    waitForPrefetched("/dir/c");
+    // the prefetched file is opened without fetching its content again
+    FuseFileStream stream = mLoader.open(mLockManager, new AlluxioURI("/dir/b"));
+    ByteBuffer buf = ByteBuffer.allocate(20);
+    assertEquals(20, stream.read(buf, 20, 0));
+    assertArrayEquals(data, buf.array());
+    stream.close();
+    verify(mFileSystem, times(1)).openPositionRead(eq(status("/dir/b", 20)),
+        any(OpenFilePOptions.class));
+    // files beyond the prefetch count are not fetched until a nearer file is opened
+    verify(mFileSystem, timeout(10000)).getStatus(new AlluxioURI("/dir/d"));
+  }
+
+  @Test
+  public void invalidatedFileIsFetchedAgain() throws Exception {
+    addFile("/dir/a", 10);
+    addFile("/dir/b", 20);
+    mLoader.onListing(new AlluxioURI("/dir"), Arrays.asList("a", "b"));
+    mLoader.open(mLockManager, new AlluxioURI("/dir/a")).close();
+    waitForPrefetched("/dir/b");
+    mLoader.invalidate(new AlluxioURI("/dir/b"));
+    mLoader.open(mLockManager, new AlluxioURI("/dir/b")).close();
+    verify(mFileSystem, times(2)).getStatus(new AlluxioURI("/dir/b"));
+  }
+
+  @Test
+  public void changedFileIsFetchedAgain() throws Exception {
+    addFile("/dir/a", 10);
+    addFile("/dir/b", 20);
+    mLoader.onListing(new AlluxioURI("/dir"), Arrays.asList("a", "b"));
+    mLoader.open(mLockManager, new AlluxioURI("/dir/a")).close();
+    waitForPrefetched("/dir/b");
+    // another client rewrote the file after it was prefetched
+    byte[] data = addFile("/dir/b", 30);
+    FuseFileStream stream = mLoader.open(mLockManager, new AlluxioURI("/dir/b"));
+    assertEquals(30, stream.getFileStatus().getFileLength());
+    ByteBuffer buf = ByteBuffer.allocate(30);
+    assertEquals(30, stream.read(buf, 30, 0));
+    assertArrayEquals(data, buf.array());
+    stream.close();
+    assertFalse(mLoader.isPrefetched(new AlluxioURI("/dir/b")));
+  }
+
+  @Test
+  public void prefetchCacheIsBoundedByBufferCapacity() throws Exception {
+    mLoader.close();
+    // room for a single buffer of the threshold size, however small the files
+    mLoader = new FuseSmallFileLoader(mFileSystem, THRESHOLD, 2, THRESHOLD);
+    addFile("/dir/a", 10);
+    addFile("/dir/b", 10);
+    addFile("/dir/c", 10);
+    mLoader.onListing(new AlluxioURI("/dir"), Arrays.asList("a", "b", "c"));
+    mLoader.open(mLockManager, new AlluxioURI("/dir/a")).close();
+    verify(mFileSystem, timeout(10000)).getStatus(new AlluxioURI("/dir/b"));
+    verify(mFileSystem, timeout(10000)).getStatus(new AlluxioURI("/dir/c"));
+    CommonUtils.waitFor("prefetch", () -> !mLoader.isPrefetching(),
+        WaitForOptions.defaults().setTimeoutMs(10000));
+    // the second prefetched file evicts the first
+    assertTrue(mLoader.isPrefetched(new AlluxioURI("/dir/b"))
+        != mLoader.isPrefetched(new AlluxioURI("/dir/c")));
+  }
+
+  private void waitForPrefetched(String path) throws Exception {
+    CommonUtils.waitFor("prefetch of " + path,
+        () -> mLoader.isPrefetched(new AlluxioURI(path)),
+        WaitForOptions.defaults().setTimeoutMs(10000));
+  }
+
+  private byte[] addFile(String path, int length) throws Exception {
+    byte[] data = new byte[length];
+    for (int i = 0; i < length; i++) {
+      data[i] = (byte) i;
+    }
+    URIStatus status = status(path, length);
+    when(mFileSystem.getStatus(new AlluxioURI(path))).thenReturn(status);
+    when(mFileSystem.openPositionRead(eq(status), any(OpenFilePOptions.class)))
+        .thenAnswer(invocation -> new PositionReader() {
+          @Override
+          public int readInternal(long position, ReadTargetBuffer buffer, int len) {
+            int n = (int) Math.min(len, data.length - position);
+            buffer.writeBytes(data, (int) position, n);
+            return n;
+          }
+        });
+    return data;
+  }
+
+  private static URIStatus status(String path, long length) {
+    return new URIStatus(new FileInfo().setPath(path).setName(new AlluxioURI(path).getName())
+        .setLength(length).setCompleted(true).setFolder(false));
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.fuse.lock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import alluxio.concurrent.LockMode;
+import alluxio.resource.CloseableResource;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Tests for the {@link FuseReadWriteLockManager} class.
+ */
+public final class FuseReadWriteLockManagerTest {
+  private final FuseReadWriteLockManager mManager = new FuseReadWriteLockManager();
+
+  @Test
+  public void readWithoutWriterTakesNoLock() {
+    try (CloseableResource<Lock> first = mManager.tryLock("/a", LockMode.READ);
+         CloseableResource<Lock> second = mManager.tryLock("/a", LockMode.READ)) {
+      assertNull(first.get());
+      assertNull(second.get());
+      assertEquals(0, mManager.getNumLockedPaths());
+    }
+  }
+
+  @Test
+  public void writerLockIsRemovedOnRelease() {
+    try (CloseableResource<Lock> write = mManager.tryLock("/a", LockMode.WRITE)) {
+      assertNotNull(write.get());
+      assertEquals(1, mManager.getNumLockedPaths());
+    }
+    assertEquals(0, mManager.getNumLockedPaths());
+  }
+
+  @Test
+  public void readWaitsForWriter() throws Exception {
+    CountDownLatch read = new CountDownLatch(1);
+    Thread reader;
+    try (CloseableResource<Lock> write = mManager.tryLock("/a", LockMode.WRITE)) {
+      reader = new Thread(() -> {
+        try (CloseableResource<Lock> lock = mManager.tryLock("/a", LockMode.READ)) {
+          read.countDown();
+        }
+      });
+      reader.start();
+      assertFalse(read.await(200, TimeUnit.MILLISECONDS));
+      // other paths are not blocked by the writer
+      try (CloseableResource<Lock> other = mManager.tryLock("/b", LockMode.READ)) {
+        assertNull(other.get());
+      }
+    }
+    assertTrue(read.await(10, TimeUnit.SECONDS));
+    reader.join();
+    assertEquals(0, mManager.getNumLockedPaths());
+  }
+
+  @Test
+  public void writersExcludeEachOther() throws Exception {
+    CountDownLatch written = new CountDownLatch(1);
+    Thread writer;
+    try (CloseableResource<Lock> write = mManager.tryLock("/a", LockMode.WRITE)) {
+      writer = new Thread(() -> {
+        try (CloseableResource<Lock> lock = mManager.tryLock("/a", LockMode.WRITE)) {
+          written.countDown();
+        }
+      });
+      writer.start();
+      assertFalse(written.await(200, TimeUnit.MILLISECONDS));
+    }
+    assertTrue(written.await(10, TimeUnit.SECONDS));
+    writer.join();
+    // readers are back on the fast path once the writers are gone
+    try (CloseableResource<Lock> read = mManager.tryLock("/a", LockMode.READ)) {
+      assertNull(read.get());
+    }
+    assertEquals(0, mManager.getNumLockedPaths());
+  }
+}
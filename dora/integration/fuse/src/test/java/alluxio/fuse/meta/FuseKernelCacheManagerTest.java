@@ -0,0 +1,107 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.fuse.meta;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import alluxio.client.file.URIStatus;
+import alluxio.conf.Configuration;
+import alluxio.conf.InstancedConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.jnifuse.ErrorCodes;
+import alluxio.wire.FileInfo;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for the {@link FuseKernelCacheManager} class.
+ */
+public final class FuseKernelCacheManagerTest {
+  private final List<String> mInvalidated = new ArrayList<>();
+  private int mInvalidationResult = 0;
+  private final FuseKernelCacheManager mManager = new FuseKernelCacheManager(100,
+      path -> {
+        mInvalidated.add(path);
+        return mInvalidationResult;
+      }, MoreExecutors.newDirectExecutorService());
+
+  @Test
+  public void keepCacheOnlyForSeenPaths() {
+    assertFalse(mManager.canKeepCache("/a"));
+    mManager.observe("/a", status(10, 1000, ""));
+    assertTrue(mManager.canKeepCache("/a"));
+    mManager.observe("/a", status(10, 1000, ""));
+    assertTrue(mManager.canKeepCache("/a"));
+    assertTrue(mInvalidated.isEmpty());
+  }
+
+  @Test
+  public void invalidateOnChange() {
+    mManager.observe("/a", status(10, 1000, ""));
+    mManager.observe("/a", status(20, 2000, ""));
+    assertEquals(Collections.singletonList("/a"), mInvalidated);
+    assertTrue(mManager.canKeepCache("/a"));
+  }
+
+  @Test
+  public void forgetOwnChange() {
+    mManager.observe("/a", status(10, 1000, ""));
+    mManager.forget("/a");
+    assertFalse(mManager.canKeepCache("/a"));
+    mManager.observe("/a", status(20, 2000, ""));
+    assertTrue(mInvalidated.isEmpty());
+  }
+
+  @Test
+  public void stopKeepingCacheIfInvalidationNotSupported() {
+    mInvalidationResult = -ErrorCodes.ENOSYS();
+    mManager.observe("/a", status(10, 1000, ""));
+    mManager.observe("/a", status(20, 2000, ""));
+    assertFalse(mManager.canKeepCache("/a"));
+    mManager.observe("/a", status(30, 3000, ""));
+    assertEquals(Collections.singletonList("/a"), mInvalidated);
+  }
+
+  @Test
+  public void disabledIfInvalidationNotSupported() {
+    InstancedConfiguration conf = Configuration.copyGlobal();
+    conf.set(PropertyKey.FUSE_KERNEL_CACHE_ENABLED, true);
+    conf.set(PropertyKey.FUSE_JNIFUSE_LIBFUSE_VERSION, 3);
+    assertNull(FuseKernelCacheManager.create(conf, path -> 0, () -> false));
+    FuseKernelCacheManager manager = FuseKernelCacheManager.create(conf, path -> 0, () -> true);
+    assertNotNull(manager);
+    manager.close();
+  }
+
+  @Test
+  public void fingerprint() {
+    assertEquals("fp", FuseKernelCacheManager.fingerprint(status(10, 1000, "fp")));
+    assertNotEquals(FuseKernelCacheManager.fingerprint(status(10, 1000, "")),
+        FuseKernelCacheManager.fingerprint(status(10, 2000, "")));
+  }
+
+  private static URIStatus status(long length, long lastModificationTimeMs,
+      String ufsFingerprint) {
+    return new URIStatus(new FileInfo().setLength(length)
+        .setLastModificationTimeMs(lastModificationTimeMs).setUfsFingerprint(ufsFingerprint));
+  }
+}
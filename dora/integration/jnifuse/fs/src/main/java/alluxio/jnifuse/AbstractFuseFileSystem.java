@@ -223,6 +223,15 @@ public abstract class AbstractFuseFileSystem implements FuseFileSystem {
     }
   }
 
+  public int opendirCallback(String path, ByteBuffer fi) {
+    try {
+      return opendir(path, FuseFileInfo.of(fi));
+    } catch (Exception e) {
+      LOG.error("Failed to opendir {}: ", path, e);
+      return -ErrorCodes.EIO();
+    }
+  }
+
   public int readdirCallback(String path, long bufaddr, long filter, long offset,
                              ByteBuffer fi) {
     try {
@@ -380,6 +389,35 @@ public abstract class AbstractFuseFileSystem implements FuseFileSystem {
     return 0;
   }
 
+  /**
+   * Invalidates the kernel caches of the attributes, entry and data of a path, so that the next
+   * access goes to this file system again. Must not be called from within a Fuse operation on the
+   * same path, as libfuse may wait for that operation while invalidating.
+   *
+   * @param path the path relative to the mount point
+   * @return 0 on success, or a negative error code
+   */
+  public int invalidatePath(String path) {
+    try {
+      return mLibFuse.fuse_invalidate_path(path);
+    } catch (UnsatisfiedLinkError e) {
+      // the loaded libjnifuse is built without it
+      return -ErrorCodes.ENOSYS();
+    }
+  }
+
+  /**
+   * @return whether the kernel caches of a path can be invalidated by {@link #invalidatePath}
+   */
+  public boolean canInvalidatePath() {
+    try {
+      return mLibFuse.fuse_can_invalidate_path();
+    } catch (UnsatisfiedLinkError e) {
+      // the loaded libjnifuse is built without it
+      return false;
+    }
+  }
+
   @Override
   public FuseContext getContext() {
     ByteBuffer buffer = mLibFuse.fuse_get_context();
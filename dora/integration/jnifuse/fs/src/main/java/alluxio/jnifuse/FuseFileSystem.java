@@ -90,7 +90,8 @@ public interface FuseFileSystem {
   }
 
   default int opendir(String path, FuseFileInfo fi) {
-    throw new UnsupportedOperationException("opendir");
+    // opening a directory needs no state by default, readdir works on the path
+    return 0;
   }
 
   default int readdir(String path, long bufaddr, long filter, long offset, FuseFileInfo fi) {
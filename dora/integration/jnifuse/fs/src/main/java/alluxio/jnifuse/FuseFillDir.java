@@ -15,9 +15,24 @@ import alluxio.jnifuse.struct.FileStat;
 
 import java.nio.ByteBuffer;
 
+/**
+ * Adds directory entries to the buffer of a readdir call.
+ */
 public class FuseFillDir {
   public static native int fill(long address, long bufaddr, String name, ByteBuffer stbuf, long off);
 
+  /**
+   * Adds a directory entry. With libfuse 3, the attributes in a non-null stat are passed to the
+   * kernel as part of a readdirplus reply, so the kernel does not need a getattr per entry.
+   * The stat is copied, so the same stat can be reused for the next entry.
+   *
+   * @param fillerAddr the address of the filler function
+   * @param bufaddr the address of the readdir buffer
+   * @param name the entry name
+   * @param stbuf the entry attributes, or null if unknown
+   * @param off the offset of the next entry, or 0
+   * @return 1 if the buffer is full, 0 otherwise
+   */
   public static int apply(long fillerAddr, long bufaddr, String name, FileStat stbuf, long off) {
     if (stbuf != null) {
       return fill(fillerAddr, bufaddr, name, stbuf.getBuffer(), off);
@@ -33,6 +33,30 @@ public class LibFuse {
 
   public native ByteBuffer fuse_get_context();
 
+  /**
+   * Invalidates the kernel caches of the attributes, directory entry and data of a path.
+   * Only supported with libfuse3, otherwise returns -ENOSYS.
+   *
+   * @param path the path to invalidate
+   * @return 0 on success, or a negative error code, -ENOENT if the kernel does not know the path
+   */
+  public native int fuse_invalidate_path(String path);
+
+  /**
+   * @return whether the loaded libjnifuse can invalidate the kernel caches of a path
+   */
+  public native boolean fuse_can_invalidate_path();
+
+  /**
+   * Finds the position of a bit field flag in struct fuse_file_info, as laid out by the
+   * compiler of the loaded libjnifuse.
+   *
+   * @param flag the flag, 0 for keep_cache and 1 for cache_readdir
+   * @return the position of the bit from the start of the struct, in little-endian bit order,
+   *         or -1 if the loaded libfuse has no such flag
+   */
+  public native int fuse_file_info_bit(int flag);
+
   public static void loadLibrary(LibfuseVersion version) {
     if (libraryLoaded.get() == LibraryState.LOADED) {
       return;
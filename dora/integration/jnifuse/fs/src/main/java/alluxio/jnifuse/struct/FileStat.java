@@ -12,6 +12,7 @@
 package alluxio.jnifuse.struct;
 
 import jnr.ffi.Runtime;
+import jnr.ffi.Struct;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -37,4 +38,16 @@ public class FileStat extends ru.serce.jnrfuse.struct.FileStat {
     stat.useMemory(jnr.ffi.Pointer.wrap(runtime, buffer));
     return stat;
   }
+
+  /**
+   * Allocates a stat backed by a new direct buffer of the size of the native stat struct,
+   * e.g. to pass entry attributes to {@link alluxio.jnifuse.FuseFillDir}.
+   *
+   * @return the allocated stat
+   */
+  public static FileStat allocate() {
+    Runtime runtime = Runtime.getSystemRuntime();
+    int size = Struct.size(new ru.serce.jnrfuse.struct.FileStat(runtime) { });
+    return of(ByteBuffer.allocateDirect(size));
+  }
 }
@@ -38,8 +38,21 @@ public class Fuse2FuseFileInfo extends FuseFileInfo {
 
     this.flags = new Signed32();
     new UnsignedLong(); // fh_old
-    new Padding(NativeType.UCHAR, 4); // unused flags and paddings
+    new Padding(NativeType.UCHAR, 4); // writepage
+    // direct_io, keep_cache, flush, nonseekable, flock_release
+    this.bits = new Unsigned32();
     this.fh = new u_int64_t();
     new u_int64_t(); // lock_owner
   }
+
+  @Override
+  protected int getKeepCacheBit() {
+    return getNativeFlagBit(KEEP_CACHE);
+  }
+
+  @Override
+  protected int getCacheReaddirBit() {
+    // libfuse2 has no cache_readdir
+    return -1;
+  }
 }
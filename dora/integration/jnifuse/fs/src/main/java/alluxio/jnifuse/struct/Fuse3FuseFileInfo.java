@@ -37,9 +37,21 @@ public class Fuse3FuseFileInfo extends FuseFileInfo {
     super(runtime, buffer);
 
     this.flags = new Signed32();
-    new Padding(NativeType.UCHAR, 8); // unused flags and paddings
+    // writepage, direct_io, keep_cache, flush, nonseekable, flock_release, cache_readdir
+    this.bits = new Unsigned32();
+    new Padding(NativeType.UCHAR, 4); // padding
     this.fh = new u_int64_t();
     new u_int64_t(); // lock_owner
     new u_int32_t(); // poll_events
   }
+
+  @Override
+  protected int getKeepCacheBit() {
+    return getNativeFlagBit(KEEP_CACHE);
+  }
+
+  @Override
+  protected int getCacheReaddirBit() {
+    return getNativeFlagBit(CACHE_READDIR);
+  }
 }
@@ -11,6 +11,7 @@
 
 package alluxio.jnifuse.struct;
 
+import alluxio.jnifuse.LibFuse;
 import alluxio.jnifuse.utils.NativeLibraryLoader;
 
 import jnr.ffi.Runtime;
@@ -18,12 +19,23 @@ import jnr.ffi.Struct;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public abstract class FuseFileInfo extends Struct {
+  /** The flag of keep_cache in {@link LibFuse#fuse_file_info_bit}. */
+  protected static final int KEEP_CACHE = 0;
+  /** The flag of cache_readdir in {@link LibFuse#fuse_file_info_bit}. */
+  protected static final int CACHE_READDIR = 1;
+  /** The positions of the flags in the word of the bit fields of the loaded libfuse. */
+  private static final Map<Integer, Integer> FLAG_BITS = new ConcurrentHashMap<>();
 
-public class FuseFileInfo extends Struct {
   public ByteBuffer buffer;
 
   public u_int64_t fh;
   public Signed32 flags;
+  /** The word holding the bit fields of the struct, e.g. direct_io and keep_cache. */
+  public Unsigned32 bits;
 
   public FuseFileInfo(Runtime runtime, ByteBuffer buffer) {
     super(runtime);
@@ -31,6 +43,68 @@ public class FuseFileInfo extends Struct {
     this.buffer.order(ByteOrder.LITTLE_ENDIAN);
   }
 
+  /**
+   * Sets keep_cache, so that the kernel keeps the page cache of the file when it is opened.
+   * Ignored if the position of keep_cache is unknown.
+   *
+   * @param keepCache whether to keep the page cache
+   */
+  public void setKeepCache(boolean keepCache) {
+    setBit(getKeepCacheBit(), keepCache);
+  }
+
+  /**
+   * Sets cache_readdir (FOPEN_CACHE_DIR), so that the kernel caches the entries of the opened
+   * directory.
+   *
+   * @param cacheReaddir whether to cache the directory entries
+   */
+  public void setCacheReaddir(boolean cacheReaddir) {
+    setBit(getCacheReaddirBit(), cacheReaddir);
+  }
+
+  /**
+   * @return the position of keep_cache in the bit fields, or -1 if unknown
+   */
+  protected abstract int getKeepCacheBit();
+
+  /**
+   * @return the position of cache_readdir in the bit fields, or -1 if not supported
+   */
+  protected abstract int getCacheReaddirBit();
+
+  /**
+   * Gets the position of a flag in the bit fields from libjnifuse, as the layout of the bit
+   * fields is up to the compiler of libfuse.
+   *
+   * @param flag the flag
+   * @return the position of the flag in the bit fields, or -1 if unknown
+   */
+  protected int getNativeFlagBit(int flag) {
+    return FLAG_BITS.computeIfAbsent(flag, key -> {
+      int bit;
+      try {
+        bit = new LibFuse().fuse_file_info_bit(key);
+      } catch (UnsatisfiedLinkError e) {
+        // the loaded libjnifuse is built without it, the flag is never set
+        return -1;
+      }
+      long position = bit - bits.offset() * Byte.SIZE;
+      return bit >= 0 && position >= 0 && position < Integer.SIZE ? (int) position : -1;
+    });
+  }
+
+  /**
+   * Sets a flag in the bit fields, ignored if the position of the flag is unknown.
+   */
+  private void setBit(int bit, boolean value) {
+    if (bit < 0) {
+      return;
+    }
+    long word = bits.get();
+    bits.set(value ? word | (1L << bit) : word & ~(1L << bit));
+  }
+
   public static FuseFileInfo of(ByteBuffer buffer) {
     Runtime runtime = Runtime.getSystemRuntime();
     // select the actual FuseFileInfo by loaded version
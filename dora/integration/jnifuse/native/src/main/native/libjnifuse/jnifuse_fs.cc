@@ -38,6 +38,7 @@ JniFuseFileSystem::JniFuseFileSystem(JNIEnv *env, jobject obj) {
   this->listxattrOper = new ListxattrOperation(this);
   this->mkdirOper = new MkdirOperation(this);
   this->openOper = new OpenOperation(this);
+  this->opendirOper = new OpendirOperation(this);
   this->readOper = new ReadOperation(this);
   this->readdirOper = new ReaddirOperation(this);
   this->releaseOper = new ReleaseOperation(this);
@@ -64,6 +65,7 @@ JniFuseFileSystem::~JniFuseFileSystem() {
   delete this->listxattrOper;
   delete this->mkdirOper;
   delete this->openOper;
+  delete this->opendirOper;
   delete this->readOper;
   delete this->readdirOper;
   delete this->releaseOper;
@@ -27,6 +27,7 @@ class GetxattrOperation;
 class ListxattrOperation;
 class MkdirOperation;
 class OpenOperation;
+class OpendirOperation;
 class Operation;
 class ReadOperation;
 class ReaddirOperation;
@@ -67,6 +68,7 @@ class JniFuseFileSystem {
   ListxattrOperation *listxattrOper;
   MkdirOperation *mkdirOper;
   OpenOperation *openOper;
+  OpendirOperation *opendirOper;
   ReadOperation *readOper;
   ReaddirOperation *readdirOper;
   ReleaseOperation *releaseOper;
@@ -54,6 +54,7 @@ JNIEXPORT jint JNICALL Java_alluxio_jnifuse_LibFuse_fuse_1main_1real(
   jnifuse_oper.listxattr = listxattr_wrapper;
   jnifuse_oper.mkdir = mkdir_wrapper;
   jnifuse_oper.open = open_wrapper;
+  jnifuse_oper.opendir = opendir_wrapper;
   jnifuse_oper.read = read_wrapper;
   jnifuse_oper.readdir = readdir_wrapper;
   jnifuse_oper.release = release_wrapper;
@@ -97,11 +98,16 @@ jint JNICALL Java_alluxio_jnifuse_FuseFillDir_fill(JNIEnv *env, jclass cls,
   LOGD("enter fill");
   fuse_fill_dir_t filler = (fuse_fill_dir_t)(void *)address;
   const char *fn = env->GetStringUTFChars(name, 0);
+  // the stat is filled by the Java side from the listing, so that readdirplus
+  // can hand the attributes to the kernel without a getattr per entry
+  struct stat *st = stbuf == NULL
+      ? NULL : (struct stat *)env->GetDirectBufferAddress(stbuf);
 
 #if FUSE_USE_VERSION >= 30
-  int ret = filler((void *)bufaddr, fn, NULL, 0, fuse_fill_dir_flags::FUSE_FILL_DIR_PLUS);
+  int ret = filler((void *)bufaddr, fn, st, 0,
+      st == NULL ? (fuse_fill_dir_flags)0 : fuse_fill_dir_flags::FUSE_FILL_DIR_PLUS);
 #else
-  int ret = filler((void *)bufaddr, fn, NULL, 0);
+  int ret = filler((void *)bufaddr, fn, st, 0);
 #endif
   env->ReleaseStringUTFChars(name, fn);
 
@@ -116,6 +122,61 @@ jobject JNICALL Java_alluxio_jnifuse_LibFuse_fuse_1get_1context(JNIEnv *env, job
   return fibuf;
 }
 
+jint JNICALL Java_alluxio_jnifuse_LibFuse_fuse_1invalidate_1path(JNIEnv *env, jobject obj,
+                                                             jstring path) {
+#if FUSE_USE_VERSION >= 30
+  if (fuse_instance == NULL) {
+    return -ENODEV;
+  }
+  const char *p = env->GetStringUTFChars(path, 0);
+  LOGD("invalidate %s", p);
+  int ret = fuse_invalidate_path(fuse_instance, p);
+  env->ReleaseStringUTFChars(path, p);
+  return ret;
+#else
+  // libfuse2 has no way to invalidate the kernel cache of a path from the high-level API
+  return -ENOSYS;
+#endif
+}
+
+jboolean JNICALL Java_alluxio_jnifuse_LibFuse_fuse_1can_1invalidate_1path(JNIEnv *env,
+                                                                     jobject obj) {
+#if FUSE_USE_VERSION >= 30
+  return JNI_TRUE;
+#else
+  return JNI_FALSE;
+#endif
+}
+
+jint JNICALL Java_alluxio_jnifuse_LibFuse_fuse_1file_1info_1bit(JNIEnv *env, jobject obj,
+                                                            jint flag) {
+  // the layout of the bit fields is up to the compiler, so the flag is set in a zeroed struct
+  // and the position of the only bit set is returned
+  struct fuse_file_info fi;
+  memset(&fi, 0, sizeof(struct fuse_file_info));
+  switch (flag) {
+    case 0:
+      fi.keep_cache = 1;
+      break;
+#if FUSE_VERSION >= FUSE_MAKE_VERSION(3, 5)
+    case 1:
+      fi.cache_readdir = 1;
+      break;
+#endif
+    default:
+      return -1;
+  }
+  const unsigned char *bytes = (const unsigned char *)&fi;
+  for (size_t i = 0; i < sizeof(struct fuse_file_info); i++) {
+    for (int bit = 0; bit < 8; bit++) {
+      if (bytes[i] & (1 << bit)) {
+        return (jint)(i * 8 + bit);
+      }
+    }
+  }
+  return -1;
+}
+
 #ifdef __cplusplus
 }
 #endif
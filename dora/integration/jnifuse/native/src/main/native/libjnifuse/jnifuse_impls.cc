@@ -21,9 +21,12 @@ static int RENAME_NO_FLAGS = 0;
 #if FUSE_USE_VERSION >= 30
 
 struct fuse_conn_info_opts *conn_info_opts;
+struct fuse *fuse_instance = NULL;
 
 void *init_wrapper(struct fuse_conn_info *conn, struct fuse_config *cfg) {
   fuse_apply_conn_info_opts(conn_info_opts, conn);
+  // kept so that Java can invalidate kernel caches of changed paths
+  fuse_instance = fuse_get_context()->fuse;
 
   #ifndef __APPLE__
   if((unsigned int)conn->capable & FUSE_CAP_ATOMIC_O_TRUNC){
@@ -91,6 +94,12 @@ int open_wrapper(const char *path, struct fuse_file_info *fi) {
   return ret;
 }
 
+int opendir_wrapper(const char *path, struct fuse_file_info *fi) {
+  LOGD("opendir %s", path);
+
+  return jnifuse::JniFuseFileSystem::getInstance()->opendirOper->call(path, fi);
+}
+
 int read_wrapper(const char *path, char *buf, size_t size, off_t offset,
                  struct fuse_file_info *fi) {
   LOGD("read: %s", path);
@@ -236,6 +245,10 @@ int open_wrapper(const char *path, struct fuse_file_info *fi) {
   return ret;
 }
 
+int opendir_wrapper(const char *path, struct fuse_file_info *fi) {
+  return jnifuse::JniFuseFileSystem::getInstance()->opendirOper->call(path, fi);
+}
+
 int read_wrapper(const char *path, char *buf, size_t size, off_t offset,
                  struct fuse_file_info *fi) {
 
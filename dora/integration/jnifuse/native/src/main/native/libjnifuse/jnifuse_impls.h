@@ -17,6 +17,7 @@
 #if FUSE_USE_VERSION >= 30
 
 extern struct fuse_conn_info_opts *conn_info_opts;
+extern struct fuse *fuse_instance;
 void *init_wrapper(struct fuse_conn_info *conn, struct fuse_config *cfg);
 void destroy_wrapper(void *private_data);
 int chmod_wrapper(const char *path, mode_t mode, struct fuse_file_info *fi);
@@ -37,6 +38,7 @@ int statfs_wrapper(const char *path, struct statvfs *stbuf);
 int listxattr_wrapper(const char *path, char *list, size_t size);
 int mkdir_wrapper(const char *path, mode_t mode);
 int open_wrapper(const char *path, struct fuse_file_info *fi);
+int opendir_wrapper(const char *path, struct fuse_file_info *fi);
 int read_wrapper(const char *path, char *buf, size_t size, off_t offset,
                  struct fuse_file_info *fi);
 int readdir_wrapper(const char *path, void *buf, fuse_fill_dir_t filler,
@@ -74,6 +76,7 @@ int statfs_wrapper(const char *path, struct statvfs *stbuf);
 int listxattr_wrapper(const char *path, char *list, size_t size);
 int mkdir_wrapper(const char *path, mode_t mode);
 int open_wrapper(const char *path, struct fuse_file_info *fi);
+int opendir_wrapper(const char *path, struct fuse_file_info *fi);
 int read_wrapper(const char *path, char *buf, size_t size, off_t offset,
                  struct fuse_file_info *fi);
 int readdir_wrapper(const char *path, void *buf, fuse_fill_dir_t filler,
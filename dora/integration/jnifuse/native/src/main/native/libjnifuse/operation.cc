@@ -190,6 +190,29 @@ int FlushOperation::call(const char *path, struct fuse_file_info *fi) {
   return ret;
 }
 
+OpendirOperation::OpendirOperation(JniFuseFileSystem *fs) {
+  this->fs = fs;
+  JNIEnv *env = AttachCurrentThreadIfNeeded();
+  this->obj = this->fs->getFSObj();
+  this->clazz = env->GetObjectClass(this->fs->getFSObj());
+  this->signature = "(Ljava/lang/String;Ljava/nio/ByteBuffer;)I";
+  this->methodID = env->GetMethodID(this->clazz, "opendirCallback", signature);
+}
+
+int OpendirOperation::call(const char *path, struct fuse_file_info *fi) {
+  JNIEnv *env = AttachCurrentThreadIfNeeded();
+  jstring jspath = env->NewStringUTF(path);
+  jobject fibuf =
+      env->NewDirectByteBuffer((void *)fi, sizeof(struct fuse_file_info));
+
+  int ret = env->CallIntMethod(this->obj, this->methodID, jspath, fibuf);
+
+  env->DeleteLocalRef(jspath);
+  env->DeleteLocalRef(fibuf);
+
+  return ret;
+}
+
 ReleaseOperation::ReleaseOperation(JniFuseFileSystem *fs) {
   this->fs = fs;
   JNIEnv *env = AttachCurrentThreadIfNeeded();
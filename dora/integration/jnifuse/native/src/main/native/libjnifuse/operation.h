@@ -72,6 +72,12 @@ class FlushOperation : public Operation {
   int call(const char *path, struct fuse_file_info *fi);
 };
 
+class OpendirOperation : public Operation {
+ public:
+  OpendirOperation(JniFuseFileSystem *fs);
+  int call(const char *path, struct fuse_file_info *fi);
+};
+
 class ReleaseOperation : public Operation {
  public:
   ReleaseOperation(JniFuseFileSystem *fs);
@@ -12,12 +12,14 @@
 package alluxio.scheduler.job;
 
 import alluxio.exception.runtime.AlluxioRuntimeException;
+import alluxio.grpc.JobPriority;
 import alluxio.grpc.JobProgressReportFormat;
 import alluxio.job.JobDescription;
 import alluxio.proto.journal.Journal;
 import alluxio.wire.WorkerInfo;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
 
@@ -36,6 +38,32 @@ public interface Job<T extends Task<?>> {
    */
   JobDescription getDescription();
 
+  /**
+   * @return the user who submitted the job, if known
+   */
+  Optional<String> getUser();
+
+  /**
+   * @return the priority class of the job, jobs of a higher class get the workers first
+   */
+  JobPriority getPriority();
+
+  /**
+   * @return the weight of the job, jobs of the same priority class share the workers in
+   *         proportion to their weights
+   */
+  int getWeight();
+
+  /**
+   * @return the read bandwidth limit of the job in bytes per second, across all the workers
+   */
+  OptionalLong getBandwidth();
+
+  /**
+   * @return the limit on the rate of UFS read requests of the job, across all the workers
+   */
+  OptionalLong getRequestRate();
+
   /**
    * @return job end time if finished, otherwise empty
    */
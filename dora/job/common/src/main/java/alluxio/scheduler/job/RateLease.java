@@ -0,0 +1,81 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.scheduler.job;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Objects;
+import java.util.OptionalLong;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The share of the rate limits of a job leased to a worker. The worker throttles the UFS reads
+ * of the tasks of the job against the lease, so that the workers together stay within the limits
+ * of the job.
+ */
+@Immutable
+public final class RateLease {
+  /** A lease without any limit. */
+  public static final RateLease UNLIMITED = new RateLease(OptionalLong.empty(),
+      OptionalLong.empty());
+
+  private final OptionalLong mBandwidth;
+  private final OptionalLong mRequestRate;
+
+  /**
+   * @param bandwidth the bytes per second the worker may read, empty if unlimited
+   * @param requestRate the read requests per second the worker may issue, empty if unlimited
+   */
+  public RateLease(OptionalLong bandwidth, OptionalLong requestRate) {
+    mBandwidth = bandwidth;
+    mRequestRate = requestRate;
+  }
+
+  /**
+   * @return the bytes per second the worker may read, empty if unlimited
+   */
+  public OptionalLong getBandwidth() {
+    return mBandwidth;
+  }
+
+  /**
+   * @return the read requests per second the worker may issue, empty if unlimited
+   */
+  public OptionalLong getRequestRate() {
+    return mRequestRate;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    RateLease that = (RateLease) o;
+    return mBandwidth.equals(that.mBandwidth) && mRequestRate.equals(that.mRequestRate);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(mBandwidth, mRequestRate);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("bandwidth", mBandwidth)
+        .add("requestRate", mRequestRate)
+        .toString();
+  }
+}
@@ -20,6 +20,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 /**
  * A task that can be executed on a worker. Belongs to a {@link Job}.
@@ -50,6 +51,21 @@ public abstract class Task<V> implements Comparable<Task> {
       mTotalTimeToComplete = mStopwatch.elapsed(TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * @return the time in ms the task waited in the queue, or -1 if it has not been recorded
+     */
+    public long getTimeInQ() {
+      return mTimeInQ;
+    }
+
+    /**
+     * @return the time in ms the task took to complete since it was created, or -1 if it has
+     *         not been recorded
+     */
+    public long getTotalTimeToComplete() {
+      return mTotalTimeToComplete;
+    }
+
     /**
      * @return task state
      */
@@ -83,6 +99,7 @@ public abstract class Task<V> implements Comparable<Task> {
   private int mPriority = 1;
   private int mTaskId;
   private WorkerInfo mMyWorker;
+  private RateLease mRateLease;
   protected Job mMyJob;
 
   /**
@@ -101,6 +118,23 @@ public abstract class Task<V> implements Comparable<Task> {
     mMyWorker = workerInfo;
   }
 
+  /**
+   * @return the share of the rate limits of the job leased to the worker running the task, or
+   *         null if none has been leased
+   */
+  @Nullable
+  public RateLease getRateLease() {
+    return mRateLease;
+  }
+
+  /**
+   * Set the share of the rate limits of the job leased to the worker running the task.
+   * @param rateLease the lease
+   */
+  public void setRateLease(RateLease rateLease) {
+    mRateLease = rateLease;
+  }
+
   /**
    * Get task id.
    * @return taskId
@@ -149,6 +183,13 @@ public abstract class Task<V> implements Comparable<Task> {
     return mTaskStat;
   }
 
+  /**
+   * @return the number of bytes the task reads or writes, or 0 if unknown
+   */
+  public long getSize() {
+    return 0;
+  }
+
   /**
    * @return priority
    */
@@ -0,0 +1,107 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.dora.meta;
+
+import static alluxio.dora.meta.DoraMetaBenchBase.ROCKS;
+import static alluxio.dora.meta.DoraMetaBenchBase.UFS_PATH_PREFIX;
+import static alluxio.dora.meta.DoraMetaBenchBase.makeFileStatus;
+
+import alluxio.proto.meta.DoraMeta;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures the throughput, in objects per second, of ingesting file metadata into
+ * the dora worker metastore, as a metadata-only load job does.
+ * The following parameters can be varied:
+ * mBatchSize - the number of file meta written per metastore call; 1 writes each file meta
+ *   with a separate put, larger sizes write them with a single write batch
+ * mType - the type of metastore to use
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DoraMetaIngestBench {
+  private static final int OBJECTS_PER_INVOCATION = 10000;
+
+  @State(Scope.Benchmark)
+  public static class Db {
+    @Param({"1", "100", "1000"})
+    public int mBatchSize;
+
+    @Param({ROCKS})
+    public String mType;
+
+    DoraMetaBenchBase mBase;
+    DoraMeta.FileStatus mFileStatus;
+    long mNextFileId;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      mBase = new DoraMetaBenchBase(mType);
+      mFileStatus = makeFileStatus();
+    }
+
+    @TearDown(Level.Trial)
+    public void after() throws Exception {
+      mBase.after();
+      mBase = null;
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OBJECTS_PER_INVOCATION)
+  public void ingest(Db db) {
+    if (db.mBatchSize == 1) {
+      for (int i = 0; i < OBJECTS_PER_INVOCATION; i++) {
+        db.mBase.getDoraMetaStore().putDoraMeta(
+            UFS_PATH_PREFIX + db.mNextFileId++, db.mFileStatus);
+      }
+      return;
+    }
+    Map<String, DoraMeta.FileStatus> batch = new LinkedHashMap<>();
+    for (int i = 0; i < OBJECTS_PER_INVOCATION; i++) {
+      batch.put(UFS_PATH_PREFIX + db.mNextFileId++, db.mFileStatus);
+      if (batch.size() == db.mBatchSize) {
+        db.mBase.getDoraMetaStore().putDoraMetas(batch);
+        batch.clear();
+      }
+    }
+    db.mBase.getDoraMetaStore().putDoraMetas(batch);
+  }
+
+  public static void main(String []args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(DoraMetaIngestBench.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .warmupIterations(3)
+        .forks(1).threads(1).build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,314 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.http;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import alluxio.client.file.FileSystemContext;
+import alluxio.client.file.cache.CacheManager;
+import alluxio.client.file.cache.CacheManagerOptions;
+import alluxio.client.file.cache.PageMetaStore;
+import alluxio.conf.Configuration;
+import alluxio.conf.InstancedConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.underfs.UnderFileSystem;
+import alluxio.underfs.UnderFileSystemConfiguration;
+import alluxio.util.CommonUtils;
+import alluxio.util.WaitForOptions;
+import alluxio.util.io.BufferUtils;
+import alluxio.util.io.FileUtils;
+import alluxio.wire.FileInfo;
+import alluxio.worker.dora.DoraWorker;
+import alluxio.worker.dora.PagedFileReader;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.codec.http2.DefaultHttp2WindowUpdateFrame;
+import io.netty.handler.codec.http2.Http2CodecUtil;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamChannelBootstrap;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import io.netty.util.concurrent.Future;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the data API of the worker {@link HttpServer}, comparing the throughput of
+ * random range reads over HTTP/1.1 and HTTP/2. Every operation issues {@code mConcurrency}
+ * concurrent reads of {@code mReadSize} bytes and waits for all of them. HTTP/1.1 uses one
+ * connection per concurrent read, while HTTP/2 multiplexes the reads as streams over
+ * {@code mHttp2Connections} connections. The file is cached by the worker before the test, so
+ * the throughput is limited by the server rather than the UFS. Note that the cached pages are
+ * sent with zero copy over HTTP/1.1, but copied into the frames of HTTP/2.
+ */
+@Fork(value = 1, jvmArgsPrepend = "-server")
+@Warmup(iterations = 2, time = 3, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 6, time = 3, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.Throughput)
+public class HttpServerBench {
+  private static final int FILE_SIZE = 64 * 1024 * 1024;
+  /** The flow control windows of the HTTP/2 client, larger than the defaults of 64KB. */
+  private static final int HTTP2_STREAM_WINDOW = 1024 * 1024;
+  private static final int HTTP2_CONNECTION_WINDOW = 64 * 1024 * 1024;
+
+  /**
+   * The protocols to read data with.
+   */
+  public enum Protocol {
+    HTTP_1_1,
+    HTTP_2,
+  }
+
+  @State(Scope.Benchmark)
+  public static class BenchState {
+    @Param({"HTTP_1_1", "HTTP_2"})
+    public Protocol mProtocol;
+
+    @Param({"64"})
+    public int mConcurrency;
+
+    @Param({"4"})
+    public int mHttp2Connections;
+
+    @Param({"65536", "1048576"})
+    public int mReadSize;
+
+    private final InstancedConfiguration mConf = Configuration.copyGlobal();
+    private final Random mRandom = new Random();
+    private final List<Channel> mConnections = new ArrayList<>();
+    private File mTempDir;
+    private CacheManager mCacheManager;
+    private EventLoopGroup mServerGroup;
+    private EventLoopGroup mClientGroup;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      mTempDir = Files.createTempDirectory("HttpServerBench").toFile();
+      mConf.set(PropertyKey.WORKER_PAGE_STORE_DIRS,
+          ImmutableList.of(new File(mTempDir, "cache").getAbsolutePath()));
+      mConf.set(PropertyKey.WORKER_PAGE_STORE_SIZES, ImmutableList.of(FILE_SIZE * 2));
+      mConf.set(PropertyKey.WORKER_PAGE_STORE_ASYNC_WRITE_ENABLED, false);
+      CacheManagerOptions cacheManagerOptions = CacheManagerOptions.createForWorker(mConf);
+      mCacheManager = CacheManager.Factory.create(
+          mConf, cacheManagerOptions, PageMetaStore.create(cacheManagerOptions));
+      CommonUtils.waitFor("cache manager ready",
+          () -> mCacheManager.state() == CacheManager.State.READ_WRITE,
+          WaitForOptions.defaults().setTimeoutMs(10000));
+
+      File file = new File(mTempDir, "data");
+      try (FileOutputStream out = new FileOutputStream(file)) {
+        out.write(BufferUtils.getIncreasingByteArray(FILE_SIZE));
+      }
+      UnderFileSystem ufs = UnderFileSystem.Factory.create(
+          mTempDir.getAbsolutePath(), UnderFileSystemConfiguration.defaults(mConf));
+      DoraWorker worker = mock(DoraWorker.class);
+      when(worker.getFileInfo(anyString(), any())).thenReturn(
+          new FileInfo().setPath(file.getAbsolutePath()).setLength(FILE_SIZE));
+      when(worker.createFileReader(anyString(), anyLong(), anyBoolean(), any())).thenAnswer(
+          invocation -> {
+            alluxio.proto.dataserver.Protocol.OpenUfsBlockOptions options =
+                invocation.getArgument(3);
+            return PagedFileReader.create(mConf, mCacheManager, ufs, invocation.getArgument(0),
+                options.getUfsPath(), options.getBlockSize(), invocation.getArgument(1));
+          });
+
+      mServerGroup = new NioEventLoopGroup();
+      mClientGroup = new NioEventLoopGroup();
+      SocketAddress address = new ServerBootstrap().group(mServerGroup)
+          .channel(NioServerSocketChannel.class)
+          .childHandler(new HttpServerInitializer(new PagedService(mCacheManager, worker),
+              mock(FileSystemContext.FileSystemContextFactory.class)))
+          .bind(new InetSocketAddress("localhost", 0)).sync().channel().localAddress();
+      int connections = mProtocol == Protocol.HTTP_1_1 ? mConcurrency : mHttp2Connections;
+      for (int i = 0; i < connections; i++) {
+        mConnections.add(new Bootstrap().group(mClientGroup).channel(NioSocketChannel.class)
+            .handler(mProtocol == Protocol.HTTP_1_1
+                ? new ChannelInitializer<Channel>() {
+                  @Override
+                  protected void initChannel(Channel ch) {
+                    ch.pipeline().addLast(new HttpClientCodec(), new ResponseHandler());
+                  }
+                }
+                : new ChannelInitializer<Channel>() {
+                  @Override
+                  protected void initChannel(Channel ch) {
+                    ch.pipeline().addLast(Http2FrameCodecBuilder.forClient()
+                            .initialSettings(Http2Settings.defaultSettings()
+                                .initialWindowSize(HTTP2_STREAM_WINDOW))
+                            .build(),
+                        new Http2MultiplexHandler(new ChannelInboundHandlerAdapter()));
+                  }
+                })
+            .connect(address).sync().channel());
+      }
+      if (mProtocol == Protocol.HTTP_2) {
+        for (Channel connection : mConnections) {
+          // the initial window of a connection can only be enlarged by a window update
+          connection.writeAndFlush(new DefaultHttp2WindowUpdateFrame(
+              HTTP2_CONNECTION_WINDOW - Http2CodecUtil.DEFAULT_WINDOW_SIZE)).sync();
+        }
+      }
+      // warms up the cache so that all the reads are served from the page store
+      read(0, file.getAbsolutePath(), 0, FILE_SIZE).get();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+      for (Channel connection : mConnections) {
+        connection.close().sync();
+      }
+      mClientGroup.shutdownGracefully().sync();
+      mServerGroup.shutdownGracefully().sync();
+      mCacheManager.close();
+      FileUtils.deletePathRecursively(mTempDir.getAbsolutePath());
+    }
+
+    private CompletableFuture<Long> read(int index, String path, long offset, long length)
+        throws Exception {
+      DefaultFullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1,
+          HttpMethod.GET, "/v1/data?path=" + path + "&offset=" + offset + "&length=" + length);
+      // there is at most one request on an HTTP/1.1 connection at any time
+      Channel connection = mConnections.get(index % mConnections.size());
+      if (mProtocol == Protocol.HTTP_1_1) {
+        CompletableFuture<Long> future = connection.pipeline().get(ResponseHandler.class)
+            .expect();
+        connection.writeAndFlush(request);
+        return future;
+      }
+      ResponseHandler handler = new ResponseHandler();
+      CompletableFuture<Long> future = handler.expect();
+      new Http2StreamChannelBootstrap(connection)
+          .handler(new ChannelInitializer<Http2StreamChannel>() {
+            @Override
+            protected void initChannel(Http2StreamChannel ch) {
+              ch.pipeline().addLast(new Http2StreamFrameToHttpObjectCodec(false), handler);
+            }
+          }).open().addListener((Future<Http2StreamChannel> stream) -> {
+            if (stream.isSuccess()) {
+              stream.getNow().writeAndFlush(request);
+            } else {
+              future.completeExceptionally(stream.cause());
+            }
+          });
+      return future;
+    }
+  }
+
+  /**
+   * Counts the bytes of a response and completes the future when the response ends.
+   */
+  private static final class ResponseHandler extends SimpleChannelInboundHandler<HttpObject> {
+    private CompletableFuture<Long> mFuture;
+    private long mBytes;
+
+    private CompletableFuture<Long> expect() {
+      mFuture = new CompletableFuture<>();
+      mBytes = 0;
+      return mFuture;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) {
+      if (msg instanceof HttpContent) {
+        mBytes += ((HttpContent) msg).content().readableBytes();
+      }
+      if (msg instanceof LastHttpContent) {
+        mFuture.complete(mBytes);
+      }
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+      mFuture.completeExceptionally(cause);
+      ctx.close();
+    }
+  }
+
+  @Benchmark
+  public long randomRead(BenchState state) throws Exception {
+    String path = new File(state.mTempDir, "data").getAbsolutePath();
+    List<CompletableFuture<Long>> futures = new ArrayList<>();
+    for (int i = 0; i < state.mConcurrency; i++) {
+      long offset = state.mRandom.nextInt(FILE_SIZE - state.mReadSize);
+      futures.add(state.read(i, path, offset, state.mReadSize));
+    }
+    long bytes = 0;
+    for (CompletableFuture<Long> future : futures) {
+      bytes += future.get();
+    }
+    return bytes;
+  }
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    Options argsCli = new CommandLineOptions(args);
+    Options opts = new OptionsBuilder()
+        .parent(argsCli)
+        .include(HttpServerBench.class.getName())
+        .result("results.json")
+        .resultFormat(ResultFormatType.JSON)
+        .build();
+    new Runner(opts).run();
+  }
+}
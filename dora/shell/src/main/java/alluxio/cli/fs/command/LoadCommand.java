@@ -17,8 +17,11 @@ import alluxio.cli.CommandUtils;
 import alluxio.client.file.FileSystemContext;
 import alluxio.exception.AlluxioException;
 import alluxio.exception.status.InvalidArgumentException;
+import alluxio.grpc.FileByteRange;
+import alluxio.grpc.JobPriority;
 import alluxio.grpc.JobProgressReportFormat;
 import alluxio.grpc.LoadJobPOptions;
+import alluxio.grpc.LoadRangePOptions;
 import alluxio.job.JobDescription;
 import alluxio.job.LoadJobRequest;
 import alluxio.util.FormatUtils;
@@ -30,6 +33,7 @@ import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.OptionalLong;
 import javax.annotation.concurrent.ThreadSafe;
@@ -84,7 +88,14 @@ public final class LoadCommand extends AbstractFileSystemCommand {
       .longOpt("bandwidth")
       .required(false)
       .hasArg(true)
-      .desc("Single worker read bandwidth limit.")
+      .desc("Read bandwidth limit of the job across all the workers.")
+      .build();
+
+  private static final Option REQUEST_RATE_OPTION = Option.builder()
+      .longOpt("request-rate")
+      .required(false)
+      .hasArg(true)
+      .desc("Limit on the UFS read requests per second of the job across all the workers.")
       .build();
 
   private static final Option PROGRESS_FORMAT = Option.builder()
@@ -116,6 +127,40 @@ public final class LoadCommand extends AbstractFileSystemCommand {
       .desc("If specified, skip files if they exist and are fully cached in alluxio.")
       .build();
 
+  private static final Option INCREMENTAL_OPTION = Option.builder()
+      .longOpt("incremental")
+      .required(false)
+      .hasArg(false)
+      .desc("If specified, only load the files which are new or changed since the last "
+          + "incremental load of the path, and drop the stale cache of the changed ones.")
+      .build();
+
+  private static final Option BYTE_RANGES_OPTION = Option.builder()
+      .longOpt("byte-ranges")
+      .required(false)
+      .hasArg(true)
+      .desc("If specified, only load these byte ranges of every file, given as comma separated "
+          + "OFFSET:LENGTH pairs. A negative offset counts from the end of the file.")
+      .build();
+
+  private static final Option FOOTER_OPTION = Option.builder()
+      .longOpt("footer")
+      .required(false)
+      .hasArg(false)
+      .desc("If specified, only load the footer of Parquet and ORC files, along with the other "
+          + "parts selected.")
+      .build();
+
+  private static final Option COLUMNS_OPTION = Option.builder()
+      .longOpt("columns")
+      .required(false)
+      .hasArg(true)
+      .desc("If specified, only load the chunks of these comma separated columns of Parquet "
+          + "files, along with the other parts selected.")
+      .build();
+
+  private static final String BYTE_RANGE_PATTERN = "-?[0-9]{1,18}:[1-9][0-9]{0,17}";
+
   private static final Option FILE_FILTER_REGX = Option.builder()
       .longOpt("file-filter-regx")
       .required(false)
@@ -123,6 +168,21 @@ public final class LoadCommand extends AbstractFileSystemCommand {
       .desc("If specified, skip files that doesn't match the regx pattern.")
       .build();
 
+  private static final Option PRIORITY_OPTION = Option.builder()
+      .longOpt("priority")
+      .required(false)
+      .hasArg(true)
+      .desc("Priority class of the job, one of HIGH, NORMAL and LOW. If not set, NORMAL is used.")
+      .build();
+
+  private static final Option WEIGHT_OPTION = Option.builder()
+      .longOpt("weight")
+      .required(false)
+      .hasArg(true)
+      .desc("Share of the workers the job gets relative to the other jobs of the same priority "
+          + "class. If not set, 1 is used.")
+      .build();
+
   /**
    * Constructs a new instance to load a file or directory in Alluxio space.
    *
@@ -141,6 +201,7 @@ public final class LoadCommand extends AbstractFileSystemCommand {
   public Options getOptions() {
     return new Options()
         .addOption(BANDWIDTH_OPTION)
+        .addOption(REQUEST_RATE_OPTION)
         .addOption(PARTIAL_LISTING_OPTION)
         .addOption(VERIFY_OPTION)
         .addOption(SUBMIT_OPTION)
@@ -150,7 +211,13 @@ public final class LoadCommand extends AbstractFileSystemCommand {
         .addOption(PROGRESS_VERBOSE)
         .addOption(LOAD_METADATA_ONLY)
         .addOption(SKIP_IF_EXISTS)
-        .addOption(FILE_FILTER_REGX);
+        .addOption(INCREMENTAL_OPTION)
+        .addOption(BYTE_RANGES_OPTION)
+        .addOption(FOOTER_OPTION)
+        .addOption(COLUMNS_OPTION)
+        .addOption(FILE_FILTER_REGX)
+        .addOption(PRIORITY_OPTION)
+        .addOption(WEIGHT_OPTION);
   }
 
   @Override
@@ -171,6 +238,23 @@ public final class LoadCommand extends AbstractFileSystemCommand {
       if (cl.hasOption(FILE_FILTER_REGX.getLongOpt())) {
         regxPatternStr = Optional.of(cl.getOptionValue(FILE_FILTER_REGX.getLongOpt()));
       }
+      LoadJobPOptions.Builder options = LoadJobPOptions.newBuilder();
+      if (cl.hasOption(PRIORITY_OPTION.getLongOpt())) {
+        options.setPriority(JobPriority.valueOf(cl.getOptionValue(PRIORITY_OPTION.getLongOpt())));
+      }
+      if (cl.hasOption(WEIGHT_OPTION.getLongOpt())) {
+        options.setWeight(Integer.parseInt(cl.getOptionValue(WEIGHT_OPTION.getLongOpt())));
+      }
+      if (cl.hasOption(REQUEST_RATE_OPTION.getLongOpt())) {
+        options.setRequestRate(
+            Long.parseLong(cl.getOptionValue(REQUEST_RATE_OPTION.getLongOpt())));
+      }
+      if (cl.hasOption(INCREMENTAL_OPTION.getLongOpt())) {
+        options.setIncremental(true);
+      }
+      if (isPartialLoad(cl)) {
+        options.setRanges(getRanges(cl));
+      }
       return submitLoad(
           path,
           bandwidth,
@@ -178,7 +262,8 @@ public final class LoadCommand extends AbstractFileSystemCommand {
           cl.hasOption(VERIFY_OPTION.getLongOpt()),
           cl.hasOption(LOAD_METADATA_ONLY.getLongOpt()),
           cl.hasOption(SKIP_IF_EXISTS.getLongOpt()),
-          regxPatternStr);
+          regxPatternStr,
+          options);
     }
 
     if (cl.hasOption(STOP_OPTION.getLongOpt())) {
@@ -199,8 +284,10 @@ public final class LoadCommand extends AbstractFileSystemCommand {
   public String getUsage() {
     return "For distributed load:\n"
         + "\tload <path> --submit "
-        + "[--bandwidth N] [--verify] [--partial-listing] [--metadata-only] [--skip-if-exists] "
-        + "[--file-filter-regx <regx_pattern_string>]\n"
+        + "[--bandwidth N] [--request-rate N] [--verify] [--partial-listing] [--metadata-only] "
+        + "[--skip-if-exists] [--incremental] [--file-filter-regx <regx_pattern_string>] "
+        + "[--byte-ranges OFFSET:LENGTH,...] [--footer] [--columns COLUMN,...] "
+        + "[--priority HIGH|NORMAL|LOW] [--weight N]\n"
         + "\tload <path> --stop\n"
         + "\tload <path> --progress [--format TEXT|JSON] [--verbose]\n";
   }
@@ -226,13 +313,66 @@ public final class LoadCommand extends AbstractFileSystemCommand {
     if (commands != 1) {
       throw new InvalidArgumentException("Must have one of submit / stop / progress");
     }
+    if (cl.hasOption(PRIORITY_OPTION.getLongOpt())) {
+      String priority = cl.getOptionValue(PRIORITY_OPTION.getLongOpt());
+      if (Arrays.stream(JobPriority.values()).noneMatch(p -> p.name().equals(priority))) {
+        throw new InvalidArgumentException("Unknown priority class: " + priority);
+      }
+    }
+    if (cl.hasOption(WEIGHT_OPTION.getLongOpt())) {
+      String weight = cl.getOptionValue(WEIGHT_OPTION.getLongOpt());
+      if (!weight.matches("[1-9][0-9]{0,8}")) {
+        throw new InvalidArgumentException("Weight must be a positive integer: " + weight);
+      }
+    }
+    if (cl.hasOption(REQUEST_RATE_OPTION.getLongOpt())) {
+      String requestRate = cl.getOptionValue(REQUEST_RATE_OPTION.getLongOpt());
+      if (!requestRate.matches("[1-9][0-9]{0,17}")) {
+        throw new InvalidArgumentException(
+            "Request rate must be a positive integer: " + requestRate);
+      }
+    }
+    if (cl.hasOption(BYTE_RANGES_OPTION.getLongOpt())) {
+      String byteRanges = cl.getOptionValue(BYTE_RANGES_OPTION.getLongOpt());
+      if (!byteRanges.matches(BYTE_RANGE_PATTERN + "(," + BYTE_RANGE_PATTERN + ")*")) {
+        throw new InvalidArgumentException(
+            "Byte ranges must be comma separated OFFSET:LENGTH pairs: " + byteRanges);
+      }
+    }
+    if (isPartialLoad(cl) && cl.hasOption(INCREMENTAL_OPTION.getLongOpt())) {
+      throw new InvalidArgumentException(
+          "An incremental load can not load only parts of the files");
+    }
+  }
+
+  private static boolean isPartialLoad(CommandLine cl) {
+    return cl.hasOption(BYTE_RANGES_OPTION.getLongOpt())
+        || cl.hasOption(FOOTER_OPTION.getLongOpt())
+        || cl.hasOption(COLUMNS_OPTION.getLongOpt());
+  }
+
+  private static LoadRangePOptions getRanges(CommandLine cl) {
+    LoadRangePOptions.Builder ranges = LoadRangePOptions.newBuilder()
+        .setFooter(cl.hasOption(FOOTER_OPTION.getLongOpt()));
+    if (cl.hasOption(BYTE_RANGES_OPTION.getLongOpt())) {
+      for (String range : cl.getOptionValue(BYTE_RANGES_OPTION.getLongOpt()).split(",")) {
+        String[] parts = range.split(":");
+        ranges.addByteRanges(FileByteRange.newBuilder()
+            .setOffset(Long.parseLong(parts[0])).setLength(Long.parseLong(parts[1])));
+      }
+    }
+    if (cl.hasOption(COLUMNS_OPTION.getLongOpt())) {
+      Arrays.stream(cl.getOptionValue(COLUMNS_OPTION.getLongOpt()).split(","))
+          .map(String::trim).filter(column -> !column.isEmpty())
+          .forEach(ranges::addColumns);
+    }
+    return ranges.build();
   }
 
   private int submitLoad(AlluxioURI path, OptionalLong bandwidth,
       boolean usePartialListing, boolean verify, boolean loadMetadataOnly, boolean skipIfExists,
-                         Optional<String> regxPatternStr) {
-    LoadJobPOptions.Builder options = alluxio.grpc.LoadJobPOptions
-        .newBuilder().setPartialListing(usePartialListing).setVerify(verify)
+                         Optional<String> regxPatternStr, LoadJobPOptions.Builder options) {
+    options.setPartialListing(usePartialListing).setVerify(verify)
         .setLoadMetadataOnly(loadMetadataOnly)
         .setSkipIfExists(skipIfExists);
     if (bandwidth.isPresent()) {
@@ -0,0 +1,60 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.stress.fuse;
+
+import alluxio.stress.Parameters;
+
+import com.beust.jcommander.Parameter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parameters used in the Fuse operations throughput test.
+ */
+public final class FuseOpsParameters extends Parameters {
+  @Parameter(names = {"--local-path"},
+      description = "the directory in the Fuse mount point to run the operations in",
+      required = true)
+  public String mLocalPath;
+
+  @Parameter(names = {"--operation"},
+      description = "the operation to measure. Options are [STAT, OPEN_READ_CLOSE]")
+  public FuseOpsOperation mOperation = FuseOpsOperation.OPEN_READ_CLOSE;
+
+  @Parameter(names = {"--threads"},
+      description = "the comma-separated list of concurrent reader counts to test. The "
+          + "throughput for each count is measured separately.")
+  public List<Integer> mThreads = Arrays.asList(1, 4, 16, 64, 256);
+
+  @Parameter(names = {"--num-files"},
+      description = "the number of files the readers operate on")
+  public int mNumFiles = 1000;
+
+  @Parameter(names = {"--file-size"},
+      description = "the size of the files, which are created if missing. (4k, 1m, etc.)")
+  public String mFileSize = "4k";
+
+  @Parameter(names = {"--duration"},
+      description = "the length of time to run each thread count. (1m, 60s, 10000ms, etc.)")
+  public String mDuration = "30s";
+
+  /**
+   * The operations of the Fuse operations throughput test.
+   */
+  public enum FuseOpsOperation {
+    /** Gets the attributes of a file. */
+    STAT,
+    /** Opens a file, reads it fully and closes it. */
+    OPEN_READ_CLOSE,
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.stress.fuse;
+
+import alluxio.collections.Pair;
+import alluxio.stress.BaseParameters;
+import alluxio.stress.Parameters;
+import alluxio.stress.Summary;
+import alluxio.stress.graph.Graph;
+import alluxio.stress.graph.LineGraph;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.google.common.base.Splitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * The summary for the Fuse operations throughput test.
+ */
+public class FuseOpsSummary implements Summary {
+  private List<FuseOpsTaskResult.Point> mPoints;
+  private List<String> mErrors;
+  private BaseParameters mBaseParameters;
+  private FuseOpsParameters mParameters;
+  /** The operations per second of all workers, keyed by the number of threads of each worker. */
+  private Map<Integer, Double> mOpsPerSecond;
+
+  /**
+   * Used for deserialization.
+   */
+  @JsonCreator
+  public FuseOpsSummary() {}
+
+  /**
+   * @param result the {@link FuseOpsTaskResult} to summarize
+   */
+  public FuseOpsSummary(FuseOpsTaskResult result) {
+    mPoints = new ArrayList<>(result.getPoints());
+    mErrors = new ArrayList<>(result.getErrors());
+    mBaseParameters = result.getBaseParameters();
+    mParameters = result.getParameters();
+    mOpsPerSecond = new TreeMap<>();
+    for (FuseOpsTaskResult.Point point : mPoints) {
+      mOpsPerSecond.merge(point.mThreads, point.getOpsPerSecond(), Double::sum);
+    }
+  }
+
+  /**
+   * @return the points recorded
+   */
+  public List<FuseOpsTaskResult.Point> getPoints() {
+    return mPoints;
+  }
+
+  /**
+   * @param points the data points
+   */
+  public void setPoints(List<FuseOpsTaskResult.Point> points) {
+    mPoints = points;
+  }
+
+  /**
+   * @return the errors recorded
+   */
+  public List<String> getErrors() {
+    return mErrors;
+  }
+
+  /**
+   * @param errors the errors
+   */
+  public void setErrors(List<String> errors) {
+    mErrors = errors;
+  }
+
+  /**
+   * @return the {@link BaseParameters}
+   */
+  public BaseParameters getBaseParameters() {
+    return mBaseParameters;
+  }
+
+  /**
+   * @param baseParameters the {@link BaseParameters}
+   */
+  public void setBaseParameters(BaseParameters baseParameters) {
+    mBaseParameters = baseParameters;
+  }
+
+  /**
+   * @return the task specific {@link FuseOpsParameters}
+   */
+  public FuseOpsParameters getParameters() {
+    return mParameters;
+  }
+
+  /**
+   * @param parameters the {@link FuseOpsParameters}
+   */
+  public void setParameters(FuseOpsParameters parameters) {
+    mParameters = parameters;
+  }
+
+  /**
+   * @return the operations per second, keyed by the number of threads
+   */
+  public Map<Integer, Double> getOpsPerSecond() {
+    return mOpsPerSecond;
+  }
+
+  /**
+   * @param opsPerSecond the operations per second, keyed by the number of threads
+   */
+  public void setOpsPerSecond(Map<Integer, Double> opsPerSecond) {
+    mOpsPerSecond = opsPerSecond;
+  }
+
+  @Override
+  public GraphGenerator graphGenerator() {
+    return new GraphGenerator();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("FuseOpsSummary: {OpsPerSecond=%s, Errors=%s}%n",
+        mOpsPerSecond, mErrors);
+  }
+
+  /**
+   * A graph generator for the throughput of each number of threads.
+   */
+  public static final class GraphGenerator extends alluxio.stress.GraphGenerator {
+    @Override
+    public List<Graph> generate(List<? extends Summary> results) {
+      List<Graph> graphs = new ArrayList<>();
+      List<FuseOpsSummary> summaries =
+          results.stream().map(x -> (FuseOpsSummary) x).collect(Collectors.toList());
+      if (summaries.isEmpty()) {
+        return graphs;
+      }
+
+      // first() is the list of common field names, second() is the list of unique field names
+      Pair<List<String>, List<String>> fieldNames = Parameters.partitionFieldNames(
+          summaries.stream().map(x -> x.mParameters).collect(Collectors.toList()));
+      List<String> subTitle = new ArrayList<>(Splitter.fixedLength(100).splitToList(
+          summaries.get(0).mParameters.getDescription(fieldNames.getFirst())));
+
+      LineGraph graph = new LineGraph("Fuse operations throughput", subTitle,
+          "# Threads", "Operations / second");
+      for (FuseOpsSummary summary : summaries) {
+        LineGraph.Data data = new LineGraph.Data();
+        summary.mOpsPerSecond.forEach(data::addData);
+        graph.addDataSeries(summary.mParameters.getDescription(fieldNames.getSecond()), data);
+      }
+      graphs.add(graph);
+      return graphs;
+    }
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.stress.fuse;
+
+import alluxio.stress.BaseParameters;
+import alluxio.stress.Summary;
+import alluxio.stress.TaskResult;
+import alluxio.util.JsonSerializable;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Task result for the Fuse operations throughput test.
+ */
+public class FuseOpsTaskResult implements TaskResult {
+  private List<Point> mPoints;
+  private List<String> mErrors;
+  private BaseParameters mBaseParameters;
+  private FuseOpsParameters mParameters;
+
+  /**
+   * An empty constructor.
+   */
+  public FuseOpsTaskResult() {
+    mPoints = new ArrayList<>();
+    mErrors = new ArrayList<>();
+  }
+
+  /**
+   * The constructor used for serialization.
+   *
+   * @param points the points
+   * @param errors the errors
+   */
+  @JsonCreator
+  public FuseOpsTaskResult(@JsonProperty("points") List<Point> points,
+      @JsonProperty("errors") List<String> errors) {
+    mPoints = points;
+    mErrors = errors;
+  }
+
+  /**
+   * @param p the point to add
+   */
+  public void addPoint(Point p) {
+    mPoints.add(p);
+  }
+
+  /**
+   * @return the points
+   */
+  public List<Point> getPoints() {
+    return mPoints;
+  }
+
+  /**
+   * @param points the points
+   */
+  public void setPoints(List<Point> points) {
+    mPoints = points;
+  }
+
+  /**
+   * @param errorMsg an error msg to add
+   */
+  public void addError(String errorMsg) {
+    mErrors.add(errorMsg);
+  }
+
+  @Override
+  public List<String> getErrors() {
+    return mErrors;
+  }
+
+  /**
+   * @param errors the errors
+   */
+  public void setErrors(List<String> errors) {
+    mErrors = errors;
+  }
+
+  @Override
+  public BaseParameters getBaseParameters() {
+    return mBaseParameters;
+  }
+
+  /**
+   * @param baseParameters the {@link BaseParameters} to use
+   */
+  public void setBaseParameters(BaseParameters baseParameters) {
+    mBaseParameters = baseParameters;
+  }
+
+  /**
+   * @return the {@link FuseOpsParameters}
+   */
+  public FuseOpsParameters getParameters() {
+    return mParameters;
+  }
+
+  /**
+   * @param parameters the {@link FuseOpsParameters} to use
+   */
+  public void setParameters(FuseOpsParameters parameters) {
+    mParameters = parameters;
+  }
+
+  /**
+   * Merge another result into itself.
+   *
+   * @param anotherResult another {@link FuseOpsTaskResult}
+   * @return self
+   */
+  public FuseOpsTaskResult merge(FuseOpsTaskResult anotherResult) {
+    mPoints.addAll(anotherResult.getPoints());
+    mErrors.addAll(anotherResult.getErrors());
+    mBaseParameters = anotherResult.getBaseParameters();
+    mParameters = anotherResult.getParameters();
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Points=%s, Errors=%s", mPoints, mErrors);
+  }
+
+  /**
+   * The operations completed by a number of concurrent threads in a period of time.
+   */
+  public static class Point implements JsonSerializable {
+    public int mThreads;
+    public long mNumOps;
+    public double mDurationSeconds;
+
+    /**
+     * @param threads the number of concurrent threads
+     * @param numOps the number of completed operations
+     * @param duration the time taken in seconds
+     */
+    @JsonCreator
+    public Point(@JsonProperty("threads") int threads,
+        @JsonProperty("numOps") long numOps,
+        @JsonProperty("durationSeconds") double duration) {
+      mThreads = threads;
+      mNumOps = numOps;
+      mDurationSeconds = duration;
+    }
+
+    /**
+     * @return the throughput in operations per second
+     */
+    public double getOpsPerSecond() {
+      return mDurationSeconds > 0 ? mNumOps / mDurationSeconds : 0;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("{threads=%s, ops=%s, duration=%ss}",
+          mThreads, mNumOps, mDurationSeconds);
+    }
+  }
+
+  @Override
+  public TaskResult.Aggregator aggregator() {
+    return new Aggregator();
+  }
+
+  private static final class Aggregator implements TaskResult.Aggregator<FuseOpsTaskResult> {
+    @Override
+    public Summary aggregate(Iterable<FuseOpsTaskResult> results) {
+      FuseOpsTaskResult aggregated = new FuseOpsTaskResult();
+      for (FuseOpsTaskResult result : results) {
+        aggregated.merge(result);
+      }
+      return new FuseOpsSummary(aggregated);
+    }
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.stress.cli.fuse;
+
+import alluxio.stress.cli.Benchmark;
+import alluxio.stress.fuse.FuseOpsParameters;
+import alluxio.stress.fuse.FuseOpsTaskResult;
+import alluxio.util.CommonUtils;
+import alluxio.util.ExceptionUtils;
+import alluxio.util.FormatUtils;
+import alluxio.util.executor.ExecutorServiceFactories;
+
+import com.beust.jcommander.ParametersDelegate;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A benchmark tool measuring the operations per second of a Fuse mount point with an
+ * increasing number of concurrent readers.
+ */
+public class FuseOpsBench extends Benchmark<FuseOpsTaskResult> {
+  private static final Logger LOG = LoggerFactory.getLogger(FuseOpsBench.class);
+  private static final String TEST_DIR_NAME = "FuseOpsTest";
+  private static final int BUFFER_SIZE = 128 * 1024;
+
+  @ParametersDelegate
+  private final FuseOpsParameters mParameters = new FuseOpsParameters();
+
+  private Path mDataDir;
+  private long mFileSize;
+  private long mDurationMs;
+
+  @Override
+  public String getBenchDescription() {
+    return String.join("\n", ImmutableList.of(
+        "A benchmarking tool for the operations per second of a Fuse mount point.",
+        "This test creates the test files in the given directory of the mount point if they "
+            + "are missing, then for each number of threads, runs the operation on random "
+            + "test files from all threads concurrently for the given duration.",
+        "",
+        "Example:",
+        "# This measures open, read and close of 1000 files of 4KB in /mnt/alluxio-fuse",
+        "# with 1, 16 and 256 concurrent readers, for 30 seconds each",
+        "$ bin/alluxio exec class alluxio.stress.cli.fuse.FuseOpsBench -- \\",
+        " --local-path /mnt/alluxio-fuse --operation OPEN_READ_CLOSE --threads 1,16,256 \\",
+        " --num-files 1000 --file-size 4k --duration 30s",
+        ""
+    ));
+  }
+
+  @Override
+  public void prepare() {
+    Preconditions.checkArgument(mParameters.mNumFiles > 0, "--num-files must be positive");
+    for (int threads : mParameters.mThreads) {
+      Preconditions.checkArgument(threads > 0, "--threads must be positive");
+    }
+    mDataDir = Paths.get(mParameters.mLocalPath, TEST_DIR_NAME);
+    mFileSize = FormatUtils.parseSpaceSize(mParameters.mFileSize);
+    mDurationMs = FormatUtils.parseTimeSize(mParameters.mDuration);
+  }
+
+  @Override
+  public FuseOpsTaskResult runLocal() throws Exception {
+    FuseOpsTaskResult result = new FuseOpsTaskResult();
+    result.setBaseParameters(mBaseParameters);
+    result.setParameters(mParameters);
+    try {
+      createFiles();
+    } catch (IOException e) {
+      LOG.error("Failed to create the test files in {}", mDataDir, e);
+      result.addError(ExceptionUtils.asPlainText(e));
+      return result;
+    }
+    for (int threads : mParameters.mThreads) {
+      runOperations(threads, result);
+    }
+    return result;
+  }
+
+  /**
+   * @param args command-line arguments
+   */
+  public static void main(String[] args) {
+    mainInternal(args, new FuseOpsBench());
+  }
+
+  private Path getFilePath(int idx) {
+    return mDataDir.resolve(String.format("fuse-ops-benchmark-%d", idx));
+  }
+
+  private void createFiles() throws IOException {
+    Files.createDirectories(mDataDir);
+    byte[] data = CommonUtils.randomBytes((int) Math.min(mFileSize, BUFFER_SIZE));
+    for (int i = 0; i < mParameters.mNumFiles; i++) {
+      Path path = getFilePath(i);
+      if (Files.exists(path) && Files.size(path) == mFileSize) {
+        continue;
+      }
+      try (OutputStream out = Files.newOutputStream(path)) {
+        for (long written = 0; written < mFileSize; written += data.length) {
+          out.write(data, 0, (int) Math.min(data.length, mFileSize - written));
+        }
+      }
+    }
+  }
+
+  private void runOperations(int threads, FuseOpsTaskResult result) throws Exception {
+    LOG.info("Running {} with {} threads for {} ms", mParameters.mOperation, threads,
+        mDurationMs);
+    ExecutorService pool = ExecutorServiceFactories
+        .fixedThreadPool("fuse-ops-bench-thread", threads).create();
+    LongAdder numOps = new LongAdder();
+    List<Future<?>> futures = new ArrayList<>();
+    long startMs = CommonUtils.getCurrentMs();
+    long endMs = startMs + mDurationMs;
+    try {
+      for (int i = 0; i < threads; i++) {
+        // spread the threads over the files, each thread then walks the files in order
+        int firstFile = (int) ((long) i * mParameters.mNumFiles / threads);
+        futures.add(pool.submit(() -> {
+          byte[] buf = new byte[BUFFER_SIZE];
+          int file = firstFile;
+          while (CommonUtils.getCurrentMs() < endMs) {
+            runOperation(getFilePath(file), buf);
+            numOps.increment();
+            file = (file + 1) % mParameters.mNumFiles;
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (Exception e) {
+          LOG.error("Failed to run {} with {} threads", mParameters.mOperation, threads, e);
+          result.addError(ExceptionUtils.asPlainText(e));
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+      pool.awaitTermination(30, TimeUnit.SECONDS);
+    }
+    double durationSeconds = (CommonUtils.getCurrentMs() - startMs) / 1000.0;
+    FuseOpsTaskResult.Point point =
+        new FuseOpsTaskResult.Point(threads, numOps.sum(), durationSeconds);
+    LOG.info("Finished {} with {} threads: {} ops/s", mParameters.mOperation, threads,
+        point.getOpsPerSecond());
+    result.addPoint(point);
+  }
+
+  private void runOperation(Path path, byte[] buf) throws IOException {
+    switch (mParameters.mOperation) {
+      case STAT:
+        Files.readAttributes(path, BasicFileAttributes.class);
+        break;
+      case OPEN_READ_CLOSE:
+        try (InputStream in = Files.newInputStream(path)) {
+          while (in.read(buf) != -1) {
+            // read the file fully
+          }
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unknown operation " + mParameters.mOperation);
+    }
+  }
+}
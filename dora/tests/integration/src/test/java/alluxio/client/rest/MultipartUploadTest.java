@@ -18,12 +18,12 @@ import alluxio.client.WriteType;
 import alluxio.client.file.FileSystem;
 import alluxio.client.file.URIStatus;
 import alluxio.conf.PropertyKey;
-import alluxio.proxy.s3.CompleteMultipartUploadRequest;
-import alluxio.proxy.s3.CompleteMultipartUploadRequest.Part;
-import alluxio.proxy.s3.CompleteMultipartUploadResult;
-import alluxio.proxy.s3.InitiateMultipartUploadResult;
 import alluxio.proxy.s3.ListPartsResult;
 import alluxio.proxy.s3.S3RestUtils;
+import alluxio.s3.CompleteMultipartUploadRequest.Part;
+import alluxio.s3.CompleteMultipartUploadRequest;
+import alluxio.s3.CompleteMultipartUploadResult;
+import alluxio.s3.InitiateMultipartUploadResult;
 import alluxio.s3.S3ErrorCode;
 import alluxio.testutils.LocalAlluxioClusterResource;
 import alluxio.util.CommonUtils;
@@ -12,7 +12,7 @@
 package alluxio.client.rest;
 
 import alluxio.Constants;
-import alluxio.proxy.s3.CompleteMultipartUploadRequest;
+import alluxio.s3.CompleteMultipartUploadRequest;
 import alluxio.s3.S3Constants;
 import alluxio.testutils.BaseIntegrationTest;
 
@@ -36,13 +36,13 @@ import alluxio.master.file.contexts.CreateDirectoryContext;
 import alluxio.master.file.contexts.CreateFileContext;
 import alluxio.master.file.contexts.GetStatusContext;
 import alluxio.master.file.contexts.ListStatusContext;
-import alluxio.proxy.s3.CompleteMultipartUploadRequest;
-import alluxio.proxy.s3.CompleteMultipartUploadResult;
-import alluxio.proxy.s3.InitiateMultipartUploadResult;
 import alluxio.proxy.s3.ListMultipartUploadsResult;
 import alluxio.proxy.s3.ListPartsResult;
 import alluxio.proxy.s3.S3RestServiceHandler;
 import alluxio.proxy.s3.S3RestUtils;
+import alluxio.s3.CompleteMultipartUploadRequest;
+import alluxio.s3.CompleteMultipartUploadResult;
+import alluxio.s3.InitiateMultipartUploadResult;
 import alluxio.s3.ListAllMyBucketsResult;
 import alluxio.s3.ListBucketOptions;
 import alluxio.s3.ListBucketResult;
@@ -69,6 +69,7 @@ import com.amazonaws.util.AwsHostNameUtils;
 import com.amazonaws.util.Base64;
 import com.amazonaws.util.RuntimeHttpUtils;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.commons.codec.digest.DigestUtils;
@@ -99,6 +100,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -108,7 +110,9 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.concurrent.CompletionException;
@@ -138,6 +142,13 @@ public class S3AUnderFileSystem extends ObjectUnderFileSystem {
 
   private static final String S3_SERVICE_NAME = "s3";
 
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+  /** The error codes S3 and S3 compatible stores report throttled requests with. */
+  private static final Set<String> THROTTLING_ERROR_CODES = ImmutableSet.of(
+      "SlowDown", "Throttling", "ThrottlingException", "RequestLimitExceeded",
+      "TooManyRequests", "TooManyRequestsException");
+
   /** AWS-SDK S3 client. */
   private AmazonS3 mClient;
 
@@ -549,14 +560,45 @@ public class S3AUnderFileSystem extends ObjectUnderFileSystem {
     mExecutor.shutdown();
   }
 
+  @Override
+  public boolean isThrottled(Throwable t) {
+    for (int depth = 0; t != null && depth < 8; t = t.getCause(), depth++) {
+      if (t instanceof AmazonServiceException) {
+        AmazonServiceException e = (AmazonServiceException) t;
+        return e.getStatusCode() == HttpURLConnection.HTTP_UNAVAILABLE
+            || e.getStatusCode() == HTTP_TOO_MANY_REQUESTS
+            || THROTTLING_ERROR_CODES.contains(e.getErrorCode());
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean copyFile(String src, String dst) throws IOException {
+    AlluxioURI srcUri = new AlluxioURI(src);
+    AlluxioURI dstUri = new AlluxioURI(dst);
+    if (!Objects.equals(srcUri.getScheme(), dstUri.getScheme())
+        || !mBucketName.equals(srcUri.getAuthority().toString())
+        || dstUri.getAuthority().toString().isEmpty()) {
+      return false;
+    }
+    // objects above the multipart copy threshold are copied in parts in parallel by S3
+    return copyObject(stripPrefixIfPresent(src), dstUri.getAuthority().toString(),
+        CommonUtils.stripPrefixIfPresent(dstUri.getPath(), PATH_SEPARATOR));
+  }
+
   @Override
   protected boolean copyObject(String src, String dst) {
-    LOG.debug("Copying {} to {}", src, dst);
+    return copyObject(src, mBucketName, dst);
+  }
+
+  private boolean copyObject(String src, String dstBucket, String dst) {
+    LOG.debug("Copying {} to {}/{}", src, dstBucket, dst);
     // Retry copy for a few times, in case some AWS internal errors happened during copy.
     int retries = 3;
     for (int i = 0; i < retries; i++) {
       try {
-        CopyObjectRequest request = new CopyObjectRequest(mBucketName, src, mBucketName, dst);
+        CopyObjectRequest request = new CopyObjectRequest(mBucketName, src, dstBucket, dst);
         if (mUfsConf.getBoolean(PropertyKey.UNDERFS_S3_SERVER_SIDE_ENCRYPTION_ENABLED)) {
           ObjectMetadata meta = new ObjectMetadata();
           meta.setSSEAlgorithm(ObjectMetadata.AES_256_SERVER_SIDE_ENCRYPTION);
@@ -565,6 +607,12 @@ public class S3AUnderFileSystem extends ObjectUnderFileSystem {
         mManager.copy(request).waitForCopyResult();
         return true;
       } catch (AmazonClientException | InterruptedException e) {
+        if (e instanceof AmazonServiceException
+            && ((AmazonServiceException) e).getStatusCode() == HttpURLConnection.HTTP_FORBIDDEN) {
+          // retrying does not help, and the caller may copy the file another way
+          LOG.debug("Access denied to copy file {} to {}/{}", src, dstBucket, dst, e);
+          return false;
+        }
         LOG.error("Failed to copy file {} to {}", src, dst, e);
         if (i != retries - 1) {
           LOG.error("Retrying copying file {} to {}", src, dst);
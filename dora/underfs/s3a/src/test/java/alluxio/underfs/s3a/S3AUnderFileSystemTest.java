@@ -28,9 +28,11 @@ import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
 import com.amazonaws.services.s3.AmazonS3Client;
 import com.amazonaws.services.s3.model.AccessControlList;
+import com.amazonaws.services.s3.model.CopyObjectRequest;
 import com.amazonaws.services.s3.model.ListObjectsV2Request;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.Owner;
+import com.amazonaws.services.s3.transfer.Copy;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import org.junit.Assert;
@@ -38,6 +40,7 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
@@ -244,6 +247,44 @@ public class S3AUnderFileSystemTest {
         mS3UnderFileSystem.getOperationMode(physicalUfsState));
   }
 
+  @Test
+  public void copyFileAcrossBuckets() throws Exception {
+    Copy copy = Mockito.mock(Copy.class);
+    Mockito.when(mManager.copy(ArgumentMatchers.any(CopyObjectRequest.class))).thenReturn(copy);
+
+    Assert.assertTrue(mS3UnderFileSystem.copyFile("s3a://" + BUCKET_NAME + "/dir/src",
+        "s3a://other-bucket/dir/dst"));
+    ArgumentCaptor<CopyObjectRequest> request = ArgumentCaptor.forClass(CopyObjectRequest.class);
+    Mockito.verify(mManager).copy(request.capture());
+    Assert.assertEquals(BUCKET_NAME, request.getValue().getSourceBucketName());
+    Assert.assertEquals("dir/src", request.getValue().getSourceKey());
+    Assert.assertEquals("other-bucket", request.getValue().getDestinationBucketName());
+    Assert.assertEquals("dir/dst", request.getValue().getDestinationKey());
+    Mockito.verify(copy).waitForCopyResult();
+  }
+
+  @Test
+  public void copyFileAccessDenied() throws Exception {
+    Copy copy = Mockito.mock(Copy.class);
+    AmazonServiceException denied = new AmazonServiceException("Access Denied");
+    denied.setStatusCode(403);
+    Mockito.when(copy.waitForCopyResult()).thenThrow(denied);
+    Mockito.when(mManager.copy(ArgumentMatchers.any(CopyObjectRequest.class))).thenReturn(copy);
+
+    Assert.assertFalse(mS3UnderFileSystem.copyFile("s3a://" + BUCKET_NAME + "/src",
+        "s3a://other-bucket/dst"));
+    // not retried
+    Mockito.verify(mManager).copy(ArgumentMatchers.any(CopyObjectRequest.class));
+  }
+
+  @Test
+  public void copyFileToOtherStore() throws IOException {
+    Assert.assertFalse(mS3UnderFileSystem.copyFile("s3a://" + BUCKET_NAME + "/src",
+        "gs://other-bucket/dst"));
+    Mockito.verify(mManager, Mockito.never())
+        .copy(ArgumentMatchers.any(CopyObjectRequest.class));
+  }
+
   @Test
   public void stripPrefixIfPresent() {
     Assert.assertEquals("", mS3UnderFileSystem.stripPrefixIfPresent("s3a://" + BUCKET_NAME));
@@ -258,6 +299,24 @@ public class S3AUnderFileSystemTest {
     Assert.assertEquals("", mS3UnderFileSystem.stripPrefixIfPresent("/"));
   }
 
+  @Test
+  public void isThrottled() {
+    AmazonServiceException slowDown = new AmazonServiceException("Please reduce your rate");
+    slowDown.setStatusCode(503);
+    slowDown.setErrorCode("SlowDown");
+    Assert.assertTrue(mS3UnderFileSystem.isThrottled(
+        new IOException("wrapped", AlluxioS3Exception.from(slowDown))));
+    AmazonServiceException throttling = new AmazonServiceException("Rate exceeded");
+    throttling.setStatusCode(400);
+    throttling.setErrorCode("Throttling");
+    Assert.assertTrue(mS3UnderFileSystem.isThrottled(throttling));
+    AmazonServiceException denied = new AmazonServiceException("slow down please");
+    denied.setStatusCode(403);
+    denied.setErrorCode("AccessDenied");
+    Assert.assertFalse(mS3UnderFileSystem.isThrottled(denied));
+    Assert.assertFalse(mS3UnderFileSystem.isThrottled(new IOException("SlowDown")));
+  }
+
   @Test
   public void getNullLastModifiedTime() throws IOException {
     Mockito.when(
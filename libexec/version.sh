@@ -0,0 +1 @@
+VERSION=314-SNAPSHOT